@@ -17,3 +17,10 @@ CREATE DATABASE crud_db;
 -- Para verificar se tudo está funcionando após a primeira execução:
 -- SELECT * FROM products;
 
+-- MIGRAÇÃO DE UM BANCO EXISTENTE (coluna id criada como SERIAL):
+-- O ID agora vem da sequence products_seq, com incremento 50 (otimizador
+-- pooled do Hibernate). Para não repetir IDs já usados, crie a sequence
+-- começando depois do maior ID atual e remova o default SERIAL da coluna:
+-- CREATE SEQUENCE IF NOT EXISTS products_seq INCREMENT BY 50;
+-- SELECT setval('products_seq', (SELECT COALESCE(MAX(id), 0) + 50 FROM products));
+-- ALTER TABLE products ALTER COLUMN id DROP DEFAULT;
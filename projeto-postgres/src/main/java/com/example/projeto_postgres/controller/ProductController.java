@@ -130,7 +130,7 @@ public class ProductController {
      * 
      * COM POSTGRESQL:
      * - O produto é salvo permanentemente no banco
-     * - O ID é gerado pelo PostgreSQL usando SERIAL
+     * - O ID é gerado pela sequence products_seq do PostgreSQL
      * - A transação é commitada automaticamente
      * 
      * ResponseEntity: Permite controlar o código HTTP e o corpo da resposta
@@ -55,18 +55,23 @@ public class Product {
      * Campo ID - Chave primária da tabela
      * 
      * O @Id marca este campo como chave primária.
-     * O @GeneratedValue com strategy IDENTITY significa que o banco de dados
-     * gerará automaticamente o valor usando SERIAL (PostgreSQL) ou AUTO_INCREMENT (MySQL).
+     * O @GeneratedValue com strategy SEQUENCE significa que o ID vem de uma
+     * sequence do PostgreSQL (products_seq), e não de uma coluna SERIAL.
      * 
      * No PostgreSQL:
-     * - A coluna será criada como SERIAL ou BIGSERIAL
-     * - O banco gera automaticamente valores sequenciais (1, 2, 3, ...)
+     * - É criada a sequence products_seq com incremento 50
+     * - O Hibernate usa o otimizador "pooled": cada chamada à sequence
+     *   reserva 50 IDs, que são distribuídos em memória
      * 
-     * GenerationType.IDENTITY: O banco de dados gera o ID automaticamente
-     * Funciona tanto no H2 quanto no PostgreSQL!
+     * Por que não IDENTITY?
+     * Com IDENTITY o Hibernate precisa executar cada INSERT na hora para
+     * descobrir o ID gerado, o que desativa o envio em lote (JDBC batch).
+     * Com a sequence o ID é conhecido antes do INSERT e vários INSERTs
+     * podem ser enviados juntos (ver hibernate.jdbc.batch_size).
      */
     @Id // Marca este campo como chave primária da tabela
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // Define que o ID será gerado automaticamente pelo banco
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq") // ID vem da sequence
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50) // Reserva 50 IDs por vez
     private Long id; // Tipo Long para suportar IDs grandes
 
     /**
@@ -103,7 +103,7 @@ public class ProductService {
      * 
      * COM POSTGRESQL:
      * - O produto é salvo permanentemente no banco
-     * - O ID é gerado pelo PostgreSQL usando SERIAL
+     * - O ID é gerado pela sequence products_seq do PostgreSQL
      * - A transação é commitada automaticamente
      * 
      * EXEMPLO DE LÓGICA DE NEGÓCIO QUE PODERIA SER ADICIONADA:
@@ -120,7 +120,7 @@ public class ProductService {
         // O método save() do JPA:
         // - Se o ID for null: cria um novo registro (INSERT INTO products ...)
         // - Se o ID existir: atualiza o registro existente (UPDATE products ...)
-        // - O PostgreSQL gera o ID automaticamente usando SERIAL
+        // - O ID vem da sequence products_seq (reservado em blocos de 50)
         Product savedProduct = productRepository.save(product);
         
         // Aqui você pode adicionar lógica após salvar
@@ -0,0 +1,184 @@
+package com.example.projeto_test.controller;
+
+import com.example.projeto_test.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache do JSON do cardápio completo, já serializado e comprimido.
+ *
+ * O JSON da lista de produtos é gerado uma única vez por versão do
+ * cardápio, junto com as variantes gzip e deflate. As requisições seguintes
+ * da mesma versão apenas escolhem os bytes adequados ao Accept-Encoding do
+ * cliente, sem passar pelo Jackson nem comprimir de novo.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class CardapioSerializado {
+
+    /**
+     * Codificações de conteúdo oferecidas, com o sufixo usado no ETag
+     * (cada representação precisa de um ETag forte próprio).
+     */
+    enum Codificacao {
+        IDENTIDADE(null, ""),
+        GZIP("gzip", "-gzip"),
+        DEFLATE("deflate", "-deflate");
+
+        /** Valor do cabeçalho Content-Encoding (null = sem compressão) */
+        final String contentEncoding;
+
+        /** Sufixo acrescentado à versão no ETag */
+        final String sufixoEtag;
+
+        Codificacao(String contentEncoding, String sufixoEtag) {
+            this.contentEncoding = contentEncoding;
+            this.sufixoEtag = sufixoEtag;
+        }
+    }
+
+    /**
+     * Cardápio serializado de uma versão, em todas as codificações.
+     *
+     * @param versao    Versão do cardápio que gerou os bytes
+     * @param json      JSON sem compressão
+     * @param gzip      JSON comprimido com gzip
+     * @param deflate   JSON comprimido com deflate (formato zlib)
+     * @param produtos  Quantidade de produtos serializados
+     */
+    record Payload(long versao, byte[] json, byte[] gzip, byte[] deflate, int produtos) {
+
+        byte[] corpo(Codificacao codificacao) {
+            return switch (codificacao) {
+                case GZIP -> gzip;
+                case DEFLATE -> deflate;
+                case IDENTIDADE -> json;
+            };
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+
+    private volatile Payload atual;
+
+    CardapioSerializado(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Retorna o cardápio serializado da versão informada, gerando-o apenas
+     * se a versão mudou desde a última chamada.
+     *
+     * @param versao   Versão atual do cardápio
+     * @param produtos Fornece a lista de produtos (só chamado quando é preciso serializar)
+     * @return Payload pronto para envio
+     */
+    Payload obter(long versao, Supplier<List<Product>> produtos) {
+        Payload payload = atual;
+        if (payload != null && payload.versao() == versao) {
+            return payload;
+        }
+        synchronized (this) {
+            // Várias requisições podem chegar juntas logo após uma alteração:
+            // só a primeira serializa, as demais reaproveitam o resultado
+            payload = atual;
+            if (payload == null || payload.versao() != versao) {
+                payload = serializar(versao, produtos.get());
+                if (atual == null || atual.versao() < versao) {
+                    atual = payload;
+                }
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * Escolhe a codificação da resposta a partir do cabeçalho Accept-Encoding,
+     * preferindo gzip, depois deflate. Codificações com {@code q=0} são recusadas.
+     *
+     * @param acceptEncoding Valor do cabeçalho (pode ser null)
+     * @return Codificação a usar
+     */
+    static Codificacao negociar(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return Codificacao.IDENTIDADE;
+        }
+        boolean gzip = false;
+        boolean deflate = false;
+        for (String parte : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] tokens = parte.trim().split(";");
+            String nome = tokens[0].trim();
+            boolean aceito = true;
+            for (int i = 1; i < tokens.length; i++) {
+                String parametro = tokens[i].trim();
+                if (parametro.startsWith("q=")) {
+                    try {
+                        aceito = Double.parseDouble(parametro.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        aceito = false;
+                    }
+                }
+            }
+            if (nome.equals("gzip") || nome.equals("x-gzip")) {
+                gzip = aceito;
+            } else if (nome.equals("deflate")) {
+                deflate = aceito;
+            }
+        }
+        if (gzip) {
+            return Codificacao.GZIP;
+        }
+        return deflate ? Codificacao.DEFLATE : Codificacao.IDENTIDADE;
+    }
+
+    private Payload serializar(long versao, List<Product> produtos) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(produtos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Erro ao serializar o cardápio", e);
+        }
+        // Compressão máxima: o custo é pago uma vez por versão, não por requisição
+        return new Payload(versao, json, gzip(json), deflate(json), produtos.size());
+    }
+
+    private static byte[] gzip(byte[] dados) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(dados.length / 4 + 64);
+        try (GZIPOutputStream saida = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            saida.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] deflate(byte[] dados) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(dados.length / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream saida = new DeflaterOutputStream(buffer, deflater)) {
+            saida.write(dados);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // Deflater criado aqui: o stream não libera a memória nativa dele
+            deflater.end();
+        }
+        return buffer.toByteArray();
+    }
+}
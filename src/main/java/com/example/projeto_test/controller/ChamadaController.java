@@ -0,0 +1,110 @@
+package com.example.projeto_test.controller;
+
+import com.example.projeto_test.service.FilaCozinha;
+import com.example.projeto_test.service.PainelChamadas;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+
+/**
+ * Controller REST do painel de números de chamada.
+ *
+ * Usado pela TV do balcão e pelos celulares dos clientes. Tudo é lido do
+ * painel em memória ({@link PainelChamadas}), sem consultar o banco.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@RestController
+@RequestMapping("/api/chamadas")
+public class ChamadaController {
+
+    /**
+     * Estado de um número de chamada.
+     *
+     * @param numero Número de chamada de 4 dígitos
+     * @param estado Estado do pedido na cozinha
+     */
+    public record Chamada(String numero, FilaCozinha.Estado estado) {
+    }
+
+    private final PainelChamadas painelChamadas;
+
+    private final long esperaMaximaMs;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param painelChamadas Painel de números de chamada
+     * @param esperaSegundos Tempo máximo que o long-poll do painel fica esperando
+     */
+    public ChamadaController(PainelChamadas painelChamadas,
+            @Value("${app.chamadas.long-poll-segundos:25}") long esperaSegundos) {
+        this.painelChamadas = painelChamadas;
+        this.esperaMaximaMs = Duration.ofSeconds(esperaSegundos).toMillis();
+    }
+
+    /**
+     * Painel de números do dia: em preparo e prontos.
+     *
+     * Sem {@code versao}, responde na hora. Com {@code versao} (a do último
+     * painel recebido), a requisição fica parada até o painel mudar ou até o
+     * tempo máximo de espera, quando responde o mesmo painel; a tela então
+     * pede de novo com a versão que tiver. A espera não ocupa thread do
+     * servidor.
+     *
+     * @param versao Versão do painel que a tela já tem (opcional)
+     * @return Painel atual
+     */
+    @GetMapping("/painel")
+    public DeferredResult<ResponseEntity<PainelChamadas.Painel>> painel(@RequestParam(required = false) Long versao) {
+        DeferredResult<ResponseEntity<PainelChamadas.Painel>> resultado = new DeferredResult<>(esperaMaximaMs);
+        if (versao == null) {
+            resultado.setResult(resposta(painelChamadas.getPainel()));
+            return resultado;
+        }
+        Runnable desistir = painelChamadas.aguardar(versao, painel -> resultado.setResult(resposta(painel)));
+        resultado.onTimeout(() -> {
+            desistir.run();
+            resultado.setResult(resposta(painelChamadas.getPainel()));
+        });
+        resultado.onCompletion(desistir);
+        return resultado;
+    }
+
+    /**
+     * Estado do pedido de um número de chamada do dia.
+     *
+     * @param numero Número de chamada de 4 dígitos
+     * @return Número e estado, ou 404 se o número não está no painel
+     *         (não existe, já foi entregue ou é de outro dia)
+     */
+    @GetMapping("/{numero}")
+    public ResponseEntity<Chamada> chamada(@PathVariable String numero) {
+        return painelChamadas.estado(numero)
+                .map(estado -> ResponseEntity.ok()
+                        .header("Access-Control-Allow-Origin", "*")
+                        .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                        .header("Access-Control-Allow-Headers", "*")
+                        .header("Cache-Control", "no-cache")
+                        .body(new Chamada(numero, estado)))
+                .orElseGet(() -> ResponseEntity.notFound()
+                        .header("Access-Control-Allow-Origin", "*")
+                        .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                        .header("Access-Control-Allow-Headers", "*")
+                        .build());
+    }
+
+    private static ResponseEntity<PainelChamadas.Painel> resposta(PainelChamadas.Painel painel) {
+        return ResponseEntity.ok()
+                .header("Access-Control-Allow-Origin", "*")
+                .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                .header("Access-Control-Allow-Headers", "*")
+                .header("Cache-Control", "no-cache")
+                .body(painel);
+    }
+}
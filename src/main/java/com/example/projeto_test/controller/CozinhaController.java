@@ -0,0 +1,118 @@
+package com.example.projeto_test.controller;
+
+import com.example.projeto_test.service.FilaCozinha;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.function.LongFunction;
+
+/**
+ * Controller REST da fila de pedidos da cozinha.
+ *
+ * Os tablets da cozinha pegam o próximo pedido da fila (preferenciais
+ * primeiro, depois o mais antigo), marcam como pronto e como entregue.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@RestController
+@RequestMapping("/api/cozinha")
+public class CozinhaController {
+
+    private final FilaCozinha filaCozinha;
+
+    /**
+     * Construtor com injeção de dependência.
+     *
+     * @param filaCozinha Fila de pedidos da cozinha
+     */
+    public CozinhaController(FilaCozinha filaCozinha) {
+        this.filaCozinha = filaCozinha;
+    }
+
+    /**
+     * Lista os pedidos ainda não entregues.
+     *
+     * @return Pedidos aguardando (na ordem de atendimento), em preparo e prontos
+     */
+    @GetMapping
+    public ResponseEntity<List<FilaCozinha.Pedido>> listar() {
+        return ResponseEntity.ok()
+                .header("Access-Control-Allow-Origin", "*")
+                .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                .header("Access-Control-Allow-Headers", "*")
+                .header("Cache-Control", "no-cache")
+                .body(filaCozinha.listar());
+    }
+
+    /**
+     * Pega o próximo pedido da fila para preparo.
+     *
+     * Vários tablets podem chamar ao mesmo tempo: cada pedido vai para um
+     * único tablet.
+     *
+     * @param estacao Identificação do tablet (opcional)
+     * @return Pedido pego (em preparo), ou 204 se não há pedidos aguardando
+     */
+    @PostMapping("/proximo")
+    public ResponseEntity<FilaCozinha.Pedido> pegarProximo(@RequestParam(required = false) String estacao) {
+        return filaCozinha.pegarProximo(estacao)
+                .map(pedido -> ResponseEntity.ok()
+                        .header("Access-Control-Allow-Origin", "*")
+                        .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                        .header("Access-Control-Allow-Headers", "*")
+                        .body(pedido))
+                .orElseGet(() -> ResponseEntity.noContent()
+                        .header("Access-Control-Allow-Origin", "*")
+                        .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                        .header("Access-Control-Allow-Headers", "*")
+                        .build());
+    }
+
+    /**
+     * Marca um pedido em preparo como pronto.
+     *
+     * @param id ID do recibo
+     * @return Pedido atualizado, 404 se não está na fila ou 409 se não está em preparo
+     */
+    @PostMapping("/{id}/pronto")
+    public ResponseEntity<FilaCozinha.Pedido> marcarPronto(@PathVariable long id) {
+        return mudar(id, filaCozinha::marcarPronto);
+    }
+
+    /**
+     * Marca um pedido pronto como entregue (o pedido sai da fila).
+     *
+     * @param id ID do recibo
+     * @return Pedido entregue, 404 se não está na fila ou 409 se não está pronto
+     */
+    @PostMapping("/{id}/entregue")
+    public ResponseEntity<FilaCozinha.Pedido> entregar(@PathVariable long id) {
+        return mudar(id, filaCozinha::entregar);
+    }
+
+    private static ResponseEntity<FilaCozinha.Pedido> mudar(long id, LongFunction<FilaCozinha.Pedido> transicao) {
+        try {
+            return ResponseEntity.ok()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .body(transicao.apply(id));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,11 +30,22 @@ public class FilterController {
     }
 
     @GetMapping
-    public ResponseEntity<List<Filter>> getAllFilters() {
+    public ResponseEntity<List<Filter>> getAllFilters(WebRequest request) {
+        // Read the version before the data, so a concurrent change can only make the ETag stale
+        String etag = "\"" + filterService.getVersao() + "\"";
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .eTag(etag)
+                    .build();
+        }
         return ResponseEntity.ok()
                 .header("Access-Control-Allow-Origin", "*")
                 .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
                 .header("Access-Control-Allow-Headers", "*")
+                .eTag(etag)
                 .body(filterService.getAllFilters());
     }
 
@@ -1,5 +1,6 @@
 package com.example.projeto_test.controller;
 
+import com.example.projeto_test.log.LogWeb;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -25,7 +26,11 @@ public class ImageController {
     private static final String UPLOAD_DIR = "src/main/resources/static/uploads/";
     private static final String UPLOAD_URL = "/uploads/";
 
-    public ImageController() {
+    // Log assíncrono (não segura a requisição esperando o console)
+    private final LogWeb log;
+
+    public ImageController(LogWeb log) {
+        this.log = log;
         // Criar diretório de uploads se não existir
         try {
             Path uploadPath = Paths.get(UPLOAD_DIR);
@@ -33,7 +38,7 @@ public class ImageController {
                 Files.createDirectories(uploadPath);
             }
         } catch (IOException e) {
-            System.err.println("Erro ao criar diretório de uploads: " + e.getMessage());
+            log.error("imagens-upload", "Erro ao criar diretório de uploads: {}", e.getMessage());
         }
     }
 
@@ -83,7 +88,7 @@ public class ImageController {
                     .body(response);
 
         } catch (IOException e) {
-            System.err.println("Erro ao salvar imagem: " + e.getMessage());
+            log.error("imagens-upload", "Erro ao salvar imagem", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Erro ao salvar imagem: " + e.getMessage());
         }
@@ -1,85 +1,260 @@
 package com.example.projeto_test.controller;
 
+import com.example.projeto_test.log.LogWeb;
+import com.example.projeto_test.pagamento.GatewayIndisponivelException;
+import com.example.projeto_test.pagamento.PaymentGateway;
+import com.example.projeto_test.service.TransacoesPix;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/pagamento")
 public class PagamentoController {
 
-    // Armazena o status das transações em memória (Simula o Banco)
-    private final Map<String, String> transacoes = new ConcurrentHashMap<>();
+    // Transações em memória (Simula o Banco): expiram sozinhas e têm limite de quantidade
+    private final TransacoesPix transacoes;
 
-    // Imagem de QR Code genérico (Placeholder válido - Padrão visível 150x150)
-    private final String MOCK_QR_CODE_BASE64 = "iVBORw0KGgoAAAANSUhEUgAAAJQAAACUCAQAAAB8N04MAAAAyklEQVR42u3TQQrAMAwDwX7J/39LTw70IAwEmx72Ea1Gg6v5d8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H7H/iP1H7D9i/xH7j9h/xP4j9h+x/4j9R+w/Yv8R+4/Yf8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H7H/iP1H7D9i/xH7j9h/xP4j9h+x/4j9R+w/Yv8R+4/Yf8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H7H/iP1H7D9i/xH7j9h/xP4j9h+x/4j9R+w/Yv8R+4/Yf8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H/kBh3Rz5Qd4n48AAAAASUVORK5CYII=";
+    // Gateway que gera as cobranças Pix (simulado ou Mercado Pago), com timeout,
+    // limite de chamadas simultâneas e disjuntor
+    private final PaymentGateway gateway;
 
-    @PostMapping("/pix")
-    public ResponseEntity<Map<String, Object>> criarPagamentoPix(@RequestBody Map<String, Object> payload) {
-        System.out.println("[PagamentoController] Recebendo pedido de Pix: " + payload);
-        try {
-            Object valorObj = payload.get("valor");
-            Double valor = null;
-
-            if (valorObj instanceof Number) {
-                valor = ((Number) valorObj).doubleValue();
-            } else if (valorObj instanceof String) {
-                try {
-                    valor = Double.parseDouble((String) valorObj);
-                } catch (NumberFormatException e) {
-                    // ignore
-                }
-            }
+    // Log assíncrono (não segura a requisição esperando o console)
+    private final LogWeb log;
 
-            if (valor == null || valor <= 0) {
-                System.err.println("[PagamentoController] Valor invalido: " + valorObj);
-                return ResponseEntity.badRequest().body(Map.of("error", "Valor inválido"));
-            }
+    // Respostas do /pix por chave de idempotência: o totem pode reenviar o pedido
+    // sem gerar uma segunda transação (10 mil chaves, 10 minutos)
+    private final RespostasIdempotentes pagamentosPix = new RespostasIdempotentes(10_000, Duration.ofMinutes(10));
+
+    // Tempo máximo de espera do long-poll (?wait=) e de uma conexão do stream de status
+    private final long esperaMaximaMs;
+    private final long streamTimeoutMs;
 
-            // Gerar ID Simulado
-            String transactionId = UUID.randomUUID().toString();
-            System.out.println("[PagamentoController] Gerado ID: " + transactionId);
+    // Envios do stream de status avisados pela transação: rodam em threads virtuais, e não na
+    // thread que confirmou ou expirou o Pix (um cliente lento não segura a confirmação)
+    private final ExecutorService envios = Executors.newVirtualThreadPerTaskExecutor();
 
-            // Salvar status PENDING
-            transacoes.put(transactionId, "pending");
+    public PagamentoController(TransacoesPix transacoes, PaymentGateway gateway, LogWeb log,
+            @Value("${app.pagamento.pix.espera-maxima-segundos:30}") long esperaMaximaSegundos,
+            @Value("${app.pagamento.pix.stream-minutos:20}") long streamMinutos) {
+        this.transacoes = transacoes;
+        this.gateway = gateway;
+        this.log = log;
+        this.esperaMaximaMs = Duration.ofSeconds(esperaMaximaSegundos).toMillis();
+        this.streamTimeoutMs = Duration.ofMinutes(streamMinutos).toMillis();
+    }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", transactionId);
-            response.put("status", "pending");
+    @PostMapping("/pix")
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> criarPagamentoPix(
+            @RequestBody Map<String, Object> payload,
+            @RequestHeader(value = RespostasIdempotentes.HEADER, required = false) String idempotencyKey) {
+        return pagamentosPix.executarAssincrono(idempotencyKey, payload, () -> gerarPix(payload, idempotencyKey))
+                .thenApply(this::recusarSeEncerrada);
+    }
+
+    // A mesma chave devolve a mesma cobrança (cache de idempotência, gateway e X-Idempotency-Key
+    // do Mercado Pago). Se ela já foi paga ou expirou, não serve como Pix novo: 409, e o totem
+    // gera outra chave para o novo pagamento.
+    private ResponseEntity<Map<String, Object>> recusarSeEncerrada(ResponseEntity<Map<String, Object>> resposta) {
+        if (!resposta.getStatusCode().is2xxSuccessful() || resposta.getBody() == null
+                || !(resposta.getBody().get("id") instanceof String id)) {
+            return resposta;
+        }
+        return transacoes.buscar(id)
+                .filter(transacao -> !transacao.isPendente())
+                .map(transacao -> ResponseEntity.status(HttpStatus.CONFLICT).body(Map.<String, Object>of(
+                        "id", transacao.id(),
+                        "status", transacao.status(),
+                        "error", "Este Pix já foi encerrado; gere um novo pagamento com outra Idempotency-Key")))
+                .orElse(resposta);
+    }
 
-            // Retornar QR Code Simulado
-            response.put("qr_code", "00020126580014BR.GOV.BCB.PIX0136" + transactionId
-                    + "5204000053039865802BR5913Sistema Leao6008Brasilia62070503***6304");
-            response.put("qr_code_base64", MOCK_QR_CODE_BASE64);
+    // A cobrança é gerada pelo gateway sem segurar a thread da requisição: a resposta
+    // sai quando o futuro do gateway completar (ou falhar por timeout/disjuntor aberto)
+    private CompletableFuture<ResponseEntity<Map<String, Object>>> gerarPix(Map<String, Object> payload,
+            String idempotencyKey) {
+        log.info("pix-criar", "[PagamentoController] Recebendo pedido de Pix: {}", payload);
+        Object valorObj = payload.get("valor");
+        Double valor = null;
 
-            return ResponseEntity.ok(response);
+        if (valorObj instanceof Number) {
+            valor = ((Number) valorObj).doubleValue();
+        } else if (valorObj instanceof String) {
+            try {
+                valor = Double.parseDouble((String) valorObj);
+            } catch (NumberFormatException e) {
+                // ignore
+            }
+        }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        if (valor == null || valor <= 0) {
+            log.warn("pix-criar", "[PagamentoController] Valor invalido: {}", valorObj);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("error", "Valor inválido")));
         }
+
+        BigDecimal valorCobrado = BigDecimal.valueOf(valor);
+        // Sem chave de idempotência cada pedido é uma cobrança nova
+        String referencia = idempotencyKey == null || idempotencyKey.isBlank()
+                ? UUID.randomUUID().toString() : idempotencyKey;
+        return gateway.criarPix(referencia, valorCobrado, "Pedido Sistema Leão")
+                .thenApply(cobranca -> {
+                    // Salvar status PENDING com o ID do gateway (a mesma referência reenviada
+                    // depois do cache de idempotência devolve a cobrança que já existe)
+                    TransacoesPix.Transacao transacao = transacoes.buscar(cobranca.id())
+                            .orElseGet(() -> transacoes.criar(cobranca.id(), valorCobrado));
+                    log.info("pix-criar", "[PagamentoController] Gerado ID: {}", transacao.id());
+
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("id", transacao.id());
+                    response.put("status", transacao.status());
+                    response.put("qr_code", cobranca.qrCode());
+                    response.put("qr_code_base64", cobranca.qrCodeBase64());
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(erro -> {
+                    Throwable causa = erro instanceof CompletionException && erro.getCause() != null
+                            ? erro.getCause() : erro;
+                    if (causa instanceof IllegalArgumentException) {
+                        log.warn("pix-criar", "[PagamentoController] Pix recusado: {}", causa.getMessage());
+                        return ResponseEntity.badRequest().body(Map.of("error", causa.getMessage()));
+                    }
+                    log.error("pix-criar", "[PagamentoController] Erro ao criar pagamento Pix", causa);
+                    // 503: o totem pode tentar de novo com a mesma chave (erros não ficam guardados)
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                            .body(Map.of("error", causa instanceof GatewayIndisponivelException
+                                    ? causa.getMessage() : "Falha ao gerar Pix no gateway de pagamento"));
+                });
     }
 
+    // Status da transação. Com ?wait=30s (long-poll) uma transação pendente só responde quando
+    // for paga, expirar ou o tempo acabar (aí responde "pending" e o totem pergunta de novo).
+    // A espera não ocupa thread do servidor: a requisição fica em modo assíncrono.
     @GetMapping("/{id}/status")
-    public ResponseEntity<Map<String, String>> verificarStatus(@PathVariable String id) {
-        String status = transacoes.getOrDefault(id, "unknown");
-        // System.out.println("[PagamentoController] Check status " + id + ": " +
-        // status); // Descomentar se quiser muito flood no log
-        return ResponseEntity.ok(Map.of("status", status));
+    public DeferredResult<ResponseEntity<Map<String, String>>> verificarStatus(@PathVariable String id,
+            @RequestParam(value = "wait", required = false) String wait) {
+        long esperaMs;
+        try {
+            // "30s", "500ms", "1m" ou só o número em segundos
+            esperaMs = wait == null || wait.isBlank() ? 0
+                    : Math.min(DurationStyle.detectAndParse(wait.trim(), ChronoUnit.SECONDS).toMillis(), esperaMaximaMs);
+        } catch (IllegalArgumentException e) {
+            esperaMs = -1;
+        }
+
+        DeferredResult<ResponseEntity<Map<String, String>>> resultado =
+                new DeferredResult<>(esperaMs > 0 ? esperaMs : null);
+        if (esperaMs < 0) {
+            resultado.setResult(ResponseEntity.badRequest().body(Map.of("error", "Parâmetro wait inválido")));
+            return resultado;
+        }
+        String status = status(transacoes.buscar(id));
+        log.trace("pix-status", "[PagamentoController] Check status {}: {}", id, status);
+        // TRACE: muito frequente (polling do cliente); ligar com app.log-web.niveis.pix-status
+        if (esperaMs == 0 || !TransacoesPix.PENDENTE.equals(status)) {
+            resultado.setResult(ResponseEntity.ok(Map.of("status", status)));
+            return resultado;
+        }
+
+        Runnable desistir = transacoes.aguardar(id,
+                transacao -> resultado.setResult(ResponseEntity.ok(Map.of("status", status(transacao)))));
+        resultado.onTimeout(() -> {
+            desistir.run();
+            resultado.setResult(ResponseEntity.ok(Map.of("status", status(transacoes.buscar(id)))));
+        });
+        resultado.onCompletion(desistir);
+        return resultado;
+    }
+
+    // Status da transação por Server-Sent Events: envia o status atual (evento "status") e, se
+    // ainda estiver pendente, o status final assim que a transação for paga ou expirar, e fecha.
+    // Se a conexão cair antes, o EventSource do navegador reconecta e recebe o status de novo.
+    @GetMapping(value = "/{id}/status/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> acompanharStatus(@PathVariable String id) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        String status = status(transacoes.buscar(id));
+        log.trace("pix-status", "[PagamentoController] Stream status {}: {}", id, status);
+        enviar(emitter, status);
+        if (TransacoesPix.PENDENTE.equals(status)) {
+            Runnable desistir = transacoes.aguardar(id, transacao -> enviarDepois(emitter, status(transacao)));
+            emitter.onCompletion(desistir);
+            emitter.onTimeout(() -> {
+                desistir.run();
+                emitter.complete();
+            });
+            emitter.onError(erro -> desistir.run());
+        }
+
+        return ResponseEntity.ok()
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
     }
 
     @PostMapping("/{id}/confirmar")
     public ResponseEntity<Map<String, String>> confirmarPagamento(@PathVariable String id) {
-        System.out.println("[PagamentoController] Confirmando pagamento: " + id);
-        if (transacoes.containsKey(id)) {
-            transacoes.put(id, "approved");
-            return ResponseEntity.ok(Map.of("status", "approved", "message", "Pagamento confirmado com sucesso!"));
-        } else {
-            return ResponseEntity.notFound().build();
+        log.info("pix-confirmar", "[PagamentoController] Confirmando pagamento: {}", id);
+        return transacoes.confirmar(id)
+                .map(transacao -> TransacoesPix.APROVADA.equals(transacao.status())
+                        ? ResponseEntity.ok(Map.of("status", transacao.status(), "message", "Pagamento confirmado com sucesso!"))
+                        : ResponseEntity.status(HttpStatus.CONFLICT)
+                                .body(Map.of("status", transacao.status(), "message", "Prazo de pagamento expirado")))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Contadores das transações em memória (expiradas, despejadas por falta de espaço...)
+    @GetMapping("/metricas")
+    public ResponseEntity<TransacoesPix.Metricas> metricas() {
+        return ResponseEntity.ok(transacoes.getMetricas());
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        envios.shutdownNow();
+    }
+
+    private static String status(Optional<TransacoesPix.Transacao> transacao) {
+        return transacao.map(TransacoesPix.Transacao::status).orElse("unknown");
+    }
+
+    // Entrega o evento numa thread virtual; encerrando a aplicação, só fecha o stream
+    private void enviarDepois(SseEmitter emitter, String status) {
+        try {
+            envios.execute(() -> enviar(emitter, status));
+        } catch (RejectedExecutionException e) {
+            emitter.complete();
+        }
+    }
+
+    // Envia um evento "status"; um status final encerra o stream
+    private static void enviar(SseEmitter emitter, String status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(Map.of("status", status), MediaType.APPLICATION_JSON));
+            if (!TransacoesPix.PENDENTE.equals(status)) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente já desconectou
+            emitter.completeWithError(e);
         }
     }
 }
@@ -2,12 +2,24 @@ package com.example.projeto_test.controller;
 // ↑ Declara que este arquivo pertence ao pacote de controllers
 //   Controllers são responsáveis por receber requisições HTTP e devolver respostas
 
+import com.example.projeto_test.log.LogWeb;
+// ↑ Importa o log assíncrono dos controllers (não bloqueia a requisição)
 import com.example.projeto_test.model.Product;
 // ↑ Importa a entidade Product (representa um produto do cardápio)
+import com.example.projeto_test.service.Pagina;
+// ↑ Importa o resultado da paginação por cursor
 import com.example.projeto_test.service.ProductService;
 // ↑ Importa o serviço que contém a lógica de negócio dos produtos
+import com.example.projeto_test.controller.CardapioSerializado.Codificacao;
+// ↑ Importa as codificações (gzip, deflate) do cardápio pré-serializado
+import com.fasterxml.jackson.databind.ObjectMapper;
+// ↑ Importa o conversor JSON do Jackson (usado para pré-serializar o cardápio)
+import org.springframework.http.HttpHeaders;
+// ↑ Importa constantes com nomes de cabeçalhos HTTP (Accept-Encoding, Vary, etc.)
 import org.springframework.http.HttpStatus;
 // ↑ Importa enum com códigos de status HTTP (200, 201, 404, etc.)
+import org.springframework.http.MediaType;
+// ↑ Importa tipos de conteúdo (application/json, etc.)
 import org.springframework.http.ResponseEntity;
 // ↑ Importa classe para criar respostas HTTP estruturadas
 import org.springframework.lang.NonNull;
@@ -16,6 +28,8 @@ import org.springframework.web.bind.annotation.*;
 // ↑ Importa todas as anotações para mapeamento de endpoints REST
 import org.springframework.web.bind.annotation.RequestMethod;
 // ↑ Importa especificamente para métodos HTTP (GET, POST, etc.)
+import org.springframework.web.context.request.WebRequest;
+// ↑ Acesso à requisição atual, usado para GET condicional (If-None-Match)
 
 import java.util.*;
 // ↑ Importa classes utilitárias como List, Map, HashMap, etc.
@@ -29,6 +43,7 @@ import java.util.List;
  * - Criar novos produtos
  * - Listar produtos existentes
  * - Buscar produto por ID
+ * - Buscar produtos pelo nome (type-ahead)
  * - Atualizar produtos
  * - Deletar produtos
  * - Gerenciar notificações de atendimento preferencial
@@ -44,11 +59,22 @@ public class ProductController {
     // ↑ Campo que armazena a referência para o serviço de produtos
     //   final = não pode ser alterado após inicialização
 
-    public ProductController(ProductService productService) {
+    private final CardapioSerializado cardapioSerializado;
+    // ↑ JSON do cardápio completo já serializado e comprimido (gzip/deflate)
+    //   Gerado uma vez por versão do cardápio, não a cada requisição
+
+    private final LogWeb log;
+    // ↑ Log assíncrono: a requisição só enfileira o evento, quem escreve é uma thread de fundo
+
+    public ProductController(ProductService productService, ObjectMapper objectMapper, LogWeb log) {
         // ↑ Construtor da classe (injeção de dependência)
-        //   Spring Boot automaticamente passa uma instância do ProductService
+        //   Spring Boot automaticamente passa uma instância do ProductService,
+        //   o ObjectMapper configurado da aplicação (mesmo usado nas respostas JSON)
+        //   e o log dos controllers
         this.productService = productService;
         // ↑ Atribui o serviço injetado ao campo da classe
+        this.cardapioSerializado = new CardapioSerializado(objectMapper);
+        this.log = log;
     }
 
     @PostMapping // ← Anotação que mapeia requisições HTTP POST para este método
@@ -58,9 +84,9 @@ public class ProductController {
         //   @RequestBody = converte JSON da requisição para objeto Product
         //   ResponseEntity<Product> = tipo de retorno que permite controle total da resposta HTTP
 
-        System.out.println("POST /products chamado com: " + product.getName());
-        // ↑ Log no console para debug - mostra qual produto está sendo criado
-        //   Útil para acompanhar o fluxo da aplicação
+        log.info("produtos-criar", "POST /products chamado com: {}", product.getName());
+        // ↑ Log para acompanhar o fluxo da aplicação - mostra qual produto está sendo criado
+        //   Formatado e escrito depois, pela thread de fundo do LogWeb
 
         Product savedProduct = productService.createProduct(product);
         // ↑ Chama o serviço para salvar o produto no banco de dados
@@ -84,27 +110,83 @@ public class ProductController {
     @RequestMapping(method = RequestMethod.GET)
     // ↑ Mapeia requisições GET para este método
     //   @RequestMapping é mais flexível que @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
+    public ResponseEntity<?> getAllProducts(WebRequest request,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) List<Long> filters,
+            @RequestParam(defaultValue = "all") String match) {
         // ↑ Método que retorna todos os produtos do cardápio
+        //   WebRequest = permite comparar o ETag com o If-None-Match do cliente
+        //   after/limit = paginação por cursor (opcional)
+        //   filters/match = filtra por tags, ex: ?filters=1,3&match=any (opcional)
+
+        if (!"all".equals(match) && !"any".equals(match)) {
+            // ↑ Só existem dois modos: todos os filtros (all) ou qualquer um (any)
+            return ResponseEntity.badRequest()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        }
+
+        boolean cardapioCompleto = (filters == null || filters.isEmpty()) && after == null && limit == null;
+        // ↑ Sem filtros nem paginação: resposta vem do JSON pré-serializado
+
+        Codificacao codificacao = cardapioCompleto
+                ? CardapioSerializado.negociar(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                : Codificacao.IDENTIDADE;
+        // ↑ gzip/deflate conforme o Accept-Encoding do cliente (só no cardápio completo)
+
+        long versao = productService.getVersaoCatalogo();
+        String etag = etagCatalogo(versao, codificacao);
+        // ↑ Versão lida ANTES dos dados: se o cardápio mudar no meio,
+        //   o cliente só recebe um ETag antigo e baixa de novo na próxima consulta
+        //   Cada codificação tem seu próprio ETag (representações diferentes)
+
+        if (request.checkNotModified(etag)) {
+            // ↑ O cliente já tem esta versão: responde 304 sem consultar
+            //   o serviço e sem serializar nada
+            return naoModificado(etag);
+        }
+
+        if (filters != null && !filters.isEmpty()) {
+            // ↑ Filtro por tags respondido pelo índice em memória do serviço
+            List<Product> filtrados = productService.getProductsByFilters(filters, "all".equals(match));
+            return ResponseEntity.ok()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .eTag(etag)
+                    .body(filtrados);
+        }
 
-        System.out.println("GET /products chamado");
-        // ↑ Log para indicar que a requisição foi recebida
+        if (after != null || limit != null) {
+            // ↑ Cliente pediu uma página: mais recentes primeiro, cursor no cabeçalho
+            Pagina<Product> pagina = productService.getProductsPagina(after, limit);
+            ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .header("Access-Control-Expose-Headers", Pagina.HEADER_PROXIMO_CURSOR)
+                    .eTag(etag);
+            if (pagina.proximoCursor() != null) {
+                resposta.header(Pagina.HEADER_PROXIMO_CURSOR, String.valueOf(pagina.proximoCursor()));
+            }
+            return resposta.body(pagina.itens());
+        }
 
         List<Product> products = productService.getAllProducts();
         // ↑ Busca todos os produtos através do serviço
-        //   O serviço faz a consulta no banco de dados
+        //   Leitura do snapshot em memória (sem consulta ao banco)
 
-        System.out.println("Produtos encontrados: " + products.size());
-        // ↑ Log mostrando quantos produtos foram encontrados
+        log.debug("produtos-listar", "GET /products chamado - produtos encontrados: {}", products.size());
+        // ↑ Uma linha por requisição (não uma por produto), em DEBUG e sujeita a amostragem
 
-        for (Product p : products) {
-            // ↑ Loop for-each para iterar sobre cada produto
-            //   Imprime detalhes de cada produto no log
-            System.out.println("Produto: " + p.getId() + " - " + p.getName() + " - " + p.getPriceInCents());
-            // ↑ Log detalhado de cada produto (ID, nome, preço em centavos)
-        }
+        CardapioSerializado.Payload payload = cardapioSerializado.obter(versao, () -> products);
+        // ↑ Bytes prontos desta versão; o Jackson só roda quando o cardápio muda
 
-        return ResponseEntity.ok()
+        byte[] corpo = payload.corpo(codificacao);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
                 // ↑ .ok() define status HTTP 200 (OK) - sucesso
                 .header("Access-Control-Allow-Origin", "*")
                 // ↑ Permite acesso de qualquer domínio (importante para frontend)
@@ -112,11 +194,19 @@ public class ProductController {
                 // ↑ Lista métodos HTTP permitidos
                 .header("Access-Control-Allow-Headers", "*")
                 // ↑ Permite qualquer cabeçalho
-                .header("Content-Type", "application/json")
+                .contentType(MediaType.APPLICATION_JSON)
                 // ↑ Especifica que a resposta é JSON
-                .body(products);
-                // ↑ Define o corpo da resposta como a lista de produtos
-                //   Spring Boot converte automaticamente para JSON
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                // ↑ Avisa caches intermediários que o corpo depende do Accept-Encoding
+                .contentLength(corpo.length)
+                .eTag(etag);
+                // ↑ Validador forte: identifica exatamente esta versão do cardápio
+        if (codificacao.contentEncoding != null) {
+            resposta.header(HttpHeaders.CONTENT_ENCODING, codificacao.contentEncoding);
+            // ↑ Corpo comprimido: o navegador descomprime automaticamente
+        }
+        return resposta.body(corpo);
+        // ↑ Corpo = bytes do JSON (já serializado), enviados sem conversão
     }
 
     @RequestMapping(method = RequestMethod.OPTIONS)
@@ -128,6 +218,30 @@ public class ProductController {
                 .build();
     }
 
+    /**
+     * Busca de produtos pelo nome para o type-ahead do totem.
+     * Ignora acentos ("sanduiche" encontra "Sanduíche") e tolera erros de digitação.
+     * Respondida pelo índice em memória, sem consultar o banco.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<Product>> searchProducts(WebRequest request,
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(required = false) Integer limit) {
+        String etag = etagCatalogo(productService.getVersaoCatalogo(), Codificacao.IDENTIDADE);
+        // ↑ O resultado só muda quando o cardápio muda (a URL já identifica a consulta)
+        if (request.checkNotModified(etag)) {
+            return naoModificado(etag);
+        }
+
+        List<Product> encontrados = productService.searchProducts(q, limit);
+        return ResponseEntity.ok()
+                .header("Access-Control-Allow-Origin", "*")
+                .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                .header("Access-Control-Allow-Headers", "*")
+                .eTag(etag)
+                .body(encontrados);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Product> getProductById(@PathVariable @NonNull Long id) {
         Product product = productService.getProductById(id);
@@ -196,7 +310,12 @@ public class ProductController {
      * Endpoint de teste CORS - simula exatamente o que o cliente.html faz
      */
     @GetMapping("/cors-test")
-    public ResponseEntity<String> corsTest() {
+    public ResponseEntity<String> corsTest(WebRequest request) {
+        String etag = etagCatalogo(productService.getVersaoCatalogo(), Codificacao.IDENTIDADE);
+        if (request.checkNotModified(etag)) {
+            return naoModificado(etag);
+        }
+
         List<Product> products = productService.getAllProducts();
 
         // Simula exatamente a resposta que o cliente.html espera
@@ -218,9 +337,30 @@ public class ProductController {
                 .header("Access-Control-Allow-Origin", "*")
                 .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
                 .header("Access-Control-Allow-Headers", "*")
+                .eTag(etag)
                 .body(json.toString());
     }
 
+    /**
+     * Monta o ETag forte a partir da versão do cardápio mantida pelo serviço
+     * e da codificação do corpo (cada representação tem seu próprio ETag).
+     */
+    private static String etagCatalogo(long versao, Codificacao codificacao) {
+        return "\"" + versao + codificacao.sufixoEtag + "\"";
+    }
+
+    /**
+     * Resposta 304 (Not Modified) sem corpo, repetindo o ETag da versão atual.
+     */
+    private static <T> ResponseEntity<T> naoModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .header("Access-Control-Allow-Origin", "*")
+                .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                .header("Access-Control-Allow-Headers", "*")
+                .eTag(etag)
+                .build();
+    }
+
     /**
      * Lista estática de notificações para atendimento preferencial.
      * Esta lista armazena todas as notificações ativas no sistema.
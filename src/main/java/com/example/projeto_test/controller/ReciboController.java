@@ -1,12 +1,22 @@
 package com.example.projeto_test.controller;
 
 import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.service.Alteracoes;
+import com.example.projeto_test.service.EstatisticasVendas;
+import com.example.projeto_test.service.EventosRecibo;
+import com.example.projeto_test.service.LimpezaRecibos;
+import com.example.projeto_test.service.Pagina;
 import com.example.projeto_test.service.ReciboService;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -25,13 +35,23 @@ public class ReciboController {
 
     private final ReciboService reciboService;
 
+    private final EventosRecibo eventosRecibo;
+
+    /** Respostas do /pagar por chave de idempotência (10 mil chaves, 10 minutos) */
+    private final RespostasIdempotentes pagamentos = new RespostasIdempotentes(10_000, Duration.ofMinutes(10));
+
+    /** Conexões do stream ficam abertas por até 30 minutos; o navegador reconecta sozinho */
+    private static final long STREAM_TIMEOUT_MS = Duration.ofMinutes(30).toMillis();
+
     /**
      * Construtor com injeção de dependência.
      *
      * @param reciboService Serviço de lógica de negócio para recibos
+     * @param eventosRecibo Eventos de recibos para o stream em tempo real
      */
-    public ReciboController(ReciboService reciboService) {
+    public ReciboController(ReciboService reciboService, EventosRecibo eventosRecibo) {
         this.reciboService = reciboService;
+        this.eventosRecibo = eventosRecibo;
     }
 
     /**
@@ -60,13 +80,23 @@ public class ReciboController {
      * Endpoint para gerar um novo recibo.
      *
      * Recebe os itens do carrinho, observações e forma de pagamento,
-     * criando um recibo com número de chamada aleatório.
+     * criando um recibo com número de chamada sequencial do dia.
+     *
+     * Se o cliente enviar o cabeçalho {@code Idempotency-Key}, repetições
+     * do mesmo pedido devolvem o recibo original em vez de criar outro; a
+     * mesma chave com outro corpo recebe 422 (Unprocessable Entity).
      *
-     * @param req Dados do pagamento e itens comprados
+     * @param req            Dados do pagamento e itens comprados
+     * @param idempotencyKey Chave de idempotência do pedido (opcional)
      * @return Recibo criado com status 201 (Created)
      */
     @PostMapping("/pagar")
-    public ResponseEntity<Recibo> pagar(@RequestBody PagamentoRequest req) {
+    public ResponseEntity<Recibo> pagar(@RequestBody PagamentoRequest req,
+            @RequestHeader(value = RespostasIdempotentes.HEADER, required = false) String idempotencyKey) {
+        return pagamentos.executar(idempotencyKey, req, () -> criarRecibo(req));
+    }
+
+    private ResponseEntity<Recibo> criarRecibo(PagamentoRequest req) {
         try {
             Recibo recibo = reciboService.createRecibo(req.itens(), req.observacoes(), req.formaPagamento());
             return ResponseEntity.status(HttpStatus.CREATED)
@@ -115,18 +145,173 @@ public class ReciboController {
     }
 
     /**
-     * Lista todos os recibos cadastrados.
+     * Lista os recibos cadastrados.
+     *
+     * Sem parâmetros, retorna o histórico completo. Com {@code after} e/ou
+     * {@code limit}, retorna uma página do histórico do mais recente para o
+     * mais antigo; o cursor da próxima página vai no cabeçalho
+     * {@value Pagina#HEADER_PROXIMO_CURSOR}.
      *
-     * @return Lista completa de recibos com status 200 (OK)
+     * @param after Cursor recebido na página anterior (opcional)
+     * @param limit Tamanho da página (opcional)
+     * @return Lista de recibos com status 200 (OK)
      */
     @GetMapping
-    public ResponseEntity<List<Recibo>> listar() {
-        List<Recibo> recibos = reciboService.getAllRecibos();
+    public ResponseEntity<List<Recibo>> listar(@RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        if (after == null && limit == null) {
+            List<Recibo> recibos = reciboService.getAllRecibos();
+            return ResponseEntity.ok()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .body(recibos);
+        }
+
+        Pagina<Recibo> pagina = reciboService.getRecibosPagina(after, limit);
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+                .header("Access-Control-Allow-Origin", "*")
+                .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                .header("Access-Control-Allow-Headers", "*")
+                .header("Access-Control-Expose-Headers", Pagina.HEADER_PROXIMO_CURSOR);
+        if (pagina.proximoCursor() != null) {
+            resposta.header(Pagina.HEADER_PROXIMO_CURSOR, String.valueOf(pagina.proximoCursor()));
+        }
+        return resposta.body(pagina.itens());
+    }
+
+    /**
+     * Sincronização incremental: o que mudou desde a última consulta.
+     *
+     * Retorna os recibos criados ou editados e os IDs dos removidos após a
+     * versão {@code since}, junto com a versão a ser usada na próxima
+     * chamada. Se {@code maisAlteracoes} vier true, basta chamar de novo
+     * com a versão recebida. Na primeira sincronização use {@code since=0}.
+     * Se {@code ressincronizar} vier true, as remoções posteriores a
+     * {@code since} já saíram do histórico: descarte os recibos locais e
+     * sincronize de novo com {@code since=0}. Também atende em
+     * {@code GET /api/recibos?since=<versão>}.
+     *
+     * @param since Última versão já recebida
+     * @param limit Quantidade máxima de alterações (opcional)
+     * @return Alterações com status 200 (OK), ou 400 se a versão for negativa
+     */
+    @GetMapping("/alteracoes")
+    public ResponseEntity<Alteracoes> alteracoes(@RequestParam(defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit) {
+        if (since < 0) {
+            return ResponseEntity.badRequest()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        }
         return ResponseEntity.ok()
                 .header("Access-Control-Allow-Origin", "*")
                 .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
                 .header("Access-Control-Allow-Headers", "*")
-                .body(recibos);
+                .body(reciboService.getAlteracoes(since, limit));
+    }
+
+    /**
+     * O mesmo que {@code GET /api/recibos/alteracoes}, pela listagem:
+     * {@code GET /api/recibos?since=<versão>}. Sem {@code since}, a listagem
+     * continua sendo atendida por {@link #listar}.
+     *
+     * @param since Última versão já recebida
+     * @param limit Quantidade máxima de alterações (opcional)
+     * @return Alterações com status 200 (OK), ou 400 se a versão for negativa
+     */
+    @GetMapping(params = "since")
+    public ResponseEntity<Alteracoes> alteracoesPelaListagem(@RequestParam long since,
+            @RequestParam(required = false) Integer limit) {
+        return alteracoes(since, limit);
+    }
+
+    /**
+     * Resumo de vendas de um dia para o painel do funcionário.
+     *
+     * Receita e quantidade de pedidos do dia, por hora, por forma de
+     * pagamento, por tipo de atendimento e por item. Os totais são mantidos
+     * em memória a cada venda, então atualizar o painel não consulta a
+     * tabela de recibos.
+     *
+     * @param dia Dia no formato AAAA-MM-DD (opcional, padrão hoje)
+     * @return Resumo do dia, ou 400 se a data for inválida
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<EstatisticasVendas.Resumo> estatisticas(@RequestParam(required = false) String dia) {
+        try {
+            LocalDate consultado = dia == null || dia.isBlank() ? LocalDate.now() : LocalDate.parse(dia);
+            return ResponseEntity.ok()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .header("Cache-Control", "no-cache")
+                    .body(reciboService.getEstatisticas(consultado));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        }
+    }
+
+    /**
+     * Stream (Server-Sent Events) de recibos criados, alterados e removidos.
+     *
+     * Substitui o recarregamento periódico da lista na tela do funcionário.
+     * Cada evento tem o nome {@code criado}, {@code atualizado} ou
+     * {@code removido} e o recibo em JSON. Ao reconectar, o navegador envia
+     * o cabeçalho {@code Last-Event-ID} e recebe só os eventos que perdeu
+     * (ou {@code recarregar}, se perdeu eventos demais).
+     *
+     * A conexão não prende uma thread do servidor: a requisição fica em modo
+     * assíncrono e os eventos são enviados por threads virtuais.
+     *
+     * @param lastEventId ID do último evento recebido (cabeçalho, opcional)
+     * @param ultimoId    O mesmo ID via parâmetro, para a primeira conexão (opcional)
+     * @return Stream de eventos
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "lastEventId", required = false) String ultimoId) {
+        Long desde;
+        try {
+            String informado = lastEventId != null ? lastEventId : ultimoId;
+            desde = informado == null || informado.isBlank() ? null : Long.valueOf(informado.trim());
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        }
+
+        SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+        EventosRecibo.Assinante assinante = eventosRecibo.inscrever(desde, evento -> {
+            if (evento.tipo() == null) {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } else {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(evento.id()))
+                        .name(evento.tipo())
+                        .data(evento.dados(), MediaType.APPLICATION_JSON));
+            }
+        }, emitter::complete);
+        emitter.onCompletion(() -> eventosRecibo.cancelar(assinante));
+        emitter.onTimeout(() -> eventosRecibo.cancelar(assinante));
+        emitter.onError(erro -> eventosRecibo.cancelar(assinante));
+
+        return ResponseEntity.ok()
+                .header("Access-Control-Allow-Origin", "*")
+                .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                .header("Access-Control-Allow-Headers", "*")
+                .header("Cache-Control", "no-cache")
+                .header("X-Accel-Buffering", "no")
+                .body(emitter);
     }
 
     /**
@@ -230,20 +415,73 @@ public class ReciboController {
     }
 
     /**
-     * Remove todos os recibos do sistema.
+     * Remove recibos em lote: todos, ou só os que atendem aos filtros.
+     *
+     * A limpeza roda em segundo plano, sem carregar os recibos, e a resposta
+     * volta na hora com o ID da tarefa (202 Accepted e cabeçalho Location).
+     * O andamento pode ser acompanhado em {@code GET /api/recibos/limpezas/{id}}.
      *
-     * Endpoint utilitário para desenvolvimento/testes.
+     * Sem nenhum filtro, o arquivo histórico também é apagado. Com filtros,
+     * só os recibos ainda nas tabelas são removidos: os já arquivados (mais
+     * antigos que {@code app.recibos.arquivo.idade-maxima-dias}) ficam fora.
      *
-     * @return Mensagem de confirmação
+     * @param de              Dia de criação inicial, AAAA-MM-DD (opcional, inclusivo)
+     * @param ate             Dia de criação final, AAAA-MM-DD (opcional, inclusivo)
+     * @param formaPagamento  Só recibos com esta forma de pagamento (opcional)
+     * @param tipoAtendimento Só recibos com este tipo de atendimento (opcional)
+     * @return Situação inicial da tarefa, ou 400 se os filtros forem inválidos
      */
     @DeleteMapping("/limpar")
-    public ResponseEntity<String> limpar() {
-        reciboService.deleteAllRecibos();
-        return ResponseEntity.ok()
-                .header("Access-Control-Allow-Origin", "*")
-                .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
-                .header("Access-Control-Allow-Headers", "*")
-                .body("Recibos deletados com sucesso.");
+    public ResponseEntity<LimpezaRecibos.Tarefa> limpar(@RequestParam(required = false) String de,
+            @RequestParam(required = false) String ate,
+            @RequestParam(required = false) String formaPagamento,
+            @RequestParam(required = false) String tipoAtendimento) {
+        try {
+            LimpezaRecibos.Filtro filtro = new LimpezaRecibos.Filtro(dia(de), dia(ate),
+                    formaPagamento, tipoAtendimento);
+            LimpezaRecibos.Tarefa tarefa = reciboService.iniciarLimpeza(filtro);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .header("Location", "/api/recibos/limpezas/" + tarefa.id())
+                    .body(tarefa);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        }
+    }
+
+    /**
+     * Andamento de uma limpeza iniciada em {@code DELETE /api/recibos/limpar}.
+     *
+     * @param id ID da tarefa
+     * @return Situação da tarefa (estado, recibos apagados e faixas
+     *         processadas), ou 404 se não existir
+     */
+    @GetMapping("/limpezas/{id}")
+    public ResponseEntity<LimpezaRecibos.Tarefa> limpeza(@PathVariable String id) {
+        try {
+            return ResponseEntity.ok()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .header("Cache-Control", "no-cache")
+                    .body(reciboService.getLimpeza(id));
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound()
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, PUT, DELETE, OPTIONS")
+                    .header("Access-Control-Allow-Headers", "*")
+                    .build();
+        }
+    }
+
+    private static LocalDate dia(String valor) {
+        return valor == null || valor.isBlank() ? null : LocalDate.parse(valor);
     }
 
     /**
@@ -0,0 +1,230 @@
+package com.example.projeto_test.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.springframework.http.ResponseEntity;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Cache de respostas por chave de idempotência (cabeçalho {@value #HEADER}).
+ *
+ * A primeira requisição com uma chave executa a operação; as repetições da
+ * mesma chave (ex: o totem reenviando o pedido após uma falha de Wi-Fi)
+ * recebem a resposta original sem executar nada de novo. Se duas cópias
+ * chegarem ao mesmo tempo, só uma executa e a outra espera o resultado dela.
+ *
+ * Junto com a resposta fica o SHA-256 do corpo da requisição (em JSON, com
+ * as chaves dos mapas ordenadas): a mesma chave reusada com outro corpo é
+ * um erro do cliente e recebe 422, em vez da resposta de outro pedido.
+ *
+ * Só respostas 2xx ficam guardadas: depois de um erro a mesma chave pode
+ * ser tentada de novo. O cache é limitado em quantidade e cada resposta
+ * expira após o TTL; como o TTL é o mesmo para todas, a ordem de inserção
+ * é também a ordem de expiração e a limpeza só olha o começo do mapa.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class RespostasIdempotentes {
+
+    /** Cabeçalho com a chave enviada pelo cliente */
+    static final String HEADER = "Idempotency-Key";
+
+    /** Cabeçalho marcando uma resposta repetida do cache */
+    static final String HEADER_REPETIDA = "Idempotent-Replayed";
+
+    private record Entrada(CompletableFuture<ResponseEntity<?>> resposta, byte[] corpo, long expiraEm) {
+    }
+
+    private static final ObjectMapper JSON = JsonMapper.builder()
+            .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+            .build();
+
+    private final Map<String, Entrada> entradas = new LinkedHashMap<>();
+
+    private final int capacidade;
+
+    private final long ttlMillis;
+
+    private final LongSupplier relogio;
+
+    RespostasIdempotentes(int capacidade, Duration ttl) {
+        this(capacidade, ttl, System::currentTimeMillis);
+    }
+
+    RespostasIdempotentes(int capacidade, Duration ttl, LongSupplier relogio) {
+        this.capacidade = capacidade;
+        this.ttlMillis = ttl.toMillis();
+        this.relogio = relogio;
+    }
+
+    /**
+     * Executa a operação uma única vez por chave.
+     *
+     * @param chave Chave de idempotência (null ou vazia executa sempre)
+     * @param corpo Corpo da requisição, comparado com o da primeira execução
+     * @param acao  Operação que gera a resposta
+     * @return Resposta da operação, a resposta original se a chave já foi
+     *         usada, ou 422 se a chave já foi usada com outro corpo
+     */
+    @SuppressWarnings("unchecked")
+    <T> ResponseEntity<T> executar(String chave, Object corpo, Supplier<ResponseEntity<T>> acao) {
+        if (chave == null || chave.isBlank()) {
+            return acao.get();
+        }
+
+        CompletableFuture<ResponseEntity<?>> minha = new CompletableFuture<>();
+        Entrada nova = new Entrada(minha, impressao(corpo), relogio.getAsLong() + ttlMillis);
+        Entrada existente = reservar(chave, nova);
+
+        if (existente != null && !MessageDigest.isEqual(existente.corpo(), nova.corpo())) {
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        if (existente != null) {
+            // Chave repetida: espera (se preciso) a execução original terminar
+            return repetida((ResponseEntity<T>) aguardar(existente.resposta()));
+        }
+
+        try {
+            ResponseEntity<T> resposta = acao.get();
+            minha.complete(resposta);
+            if (!resposta.getStatusCode().is2xxSuccessful()) {
+                esquecer(chave, nova);
+            }
+            return resposta;
+        } catch (RuntimeException | Error e) {
+            esquecer(chave, nova);
+            minha.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Versão assíncrona de {@link #executar}: a operação devolve um futuro
+     * e nenhuma thread fica parada esperando por ela. Uma repetição da chave
+     * recebe um futuro que completa com a resposta original.
+     *
+     * @param chave Chave de idempotência (null ou vazia executa sempre)
+     * @param corpo Corpo da requisição, comparado com o da primeira execução
+     * @param acao  Operação que inicia a geração da resposta
+     * @return Futuro da resposta da operação, da resposta original se a
+     *         chave já foi usada, ou de um 422 se foi usada com outro corpo
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompletableFuture<ResponseEntity<T>> executarAssincrono(String chave, Object corpo,
+            Supplier<CompletableFuture<ResponseEntity<T>>> acao) {
+        if (chave == null || chave.isBlank()) {
+            return acao.get();
+        }
+
+        CompletableFuture<ResponseEntity<?>> minha = new CompletableFuture<>();
+        Entrada nova = new Entrada(minha, impressao(corpo), relogio.getAsLong() + ttlMillis);
+        Entrada existente = reservar(chave, nova);
+
+        if (existente != null && !MessageDigest.isEqual(existente.corpo(), nova.corpo())) {
+            return CompletableFuture.completedFuture(ResponseEntity.unprocessableEntity().build());
+        }
+        if (existente != null) {
+            return existente.resposta().thenApply(original -> repetida((ResponseEntity<T>) original));
+        }
+
+        CompletableFuture<ResponseEntity<T>> resposta;
+        try {
+            resposta = acao.get();
+        } catch (RuntimeException | Error e) {
+            esquecer(chave, nova);
+            minha.completeExceptionally(e);
+            throw e;
+        }
+        return resposta.whenComplete((gerada, erro) -> {
+            if (erro != null) {
+                esquecer(chave, nova);
+                minha.completeExceptionally(erro);
+                return;
+            }
+            if (!gerada.getStatusCode().is2xxSuccessful()) {
+                esquecer(chave, nova);
+            }
+            minha.complete(gerada);
+        });
+    }
+
+    /** @return Quantidade de chaves guardadas */
+    int tamanho() {
+        synchronized (entradas) {
+            return entradas.size();
+        }
+    }
+
+    /** Guarda a entrada nova para a chave; devolve a existente se a chave já foi usada */
+    private Entrada reservar(String chave, Entrada nova) {
+        synchronized (entradas) {
+            removerExpiradas();
+            Entrada existente = entradas.get(chave);
+            if (existente == null) {
+                entradas.put(chave, nova);
+                if (entradas.size() > capacidade) {
+                    Iterator<Entrada> maisAntiga = entradas.values().iterator();
+                    maisAntiga.next();
+                    maisAntiga.remove();
+                }
+            }
+            return existente;
+        }
+    }
+
+    private void esquecer(String chave, Entrada entrada) {
+        synchronized (entradas) {
+            entradas.remove(chave, entrada);
+        }
+    }
+
+    /** Remove as entradas vencidas do começo do mapa (chamado com o lock) */
+    private void removerExpiradas() {
+        long agora = relogio.getAsLong();
+        Iterator<Entrada> iterator = entradas.values().iterator();
+        while (iterator.hasNext() && iterator.next().expiraEm() <= agora) {
+            iterator.remove();
+        }
+    }
+
+    /** SHA-256 do corpo serializado em JSON */
+    private static byte[] impressao(Object corpo) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(JSON.writeValueAsBytes(corpo));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Não foi possível resumir o corpo da requisição", e);
+        }
+    }
+
+    private static ResponseEntity<?> aguardar(CompletableFuture<ResponseEntity<?>> resposta) {
+        try {
+            return resposta.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+    }
+
+    private static <T> ResponseEntity<T> repetida(ResponseEntity<T> original) {
+        return ResponseEntity.status(original.getStatusCode())
+                .headers(original.getHeaders())
+                .header(HEADER_REPETIDA, "true")
+                .body(original.getBody());
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.projeto_test.log;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Log assíncrono dos controllers.
+ *
+ * As threads das requisições apenas colocam o evento (formato + argumentos)
+ * em uma fila circular limitada e seguem em frente; uma única thread de
+ * fundo formata e escreve no SLF4J. Assim nenhuma requisição espera pelo
+ * console. Se a fila estiver cheia o evento é descartado e contado, nunca
+ * bloqueando a requisição; a thread de fundo avisa quantos foram perdidos.
+ *
+ * Cada evento pertence a um endpoint (ex: {@code produtos-listar}), que pode
+ * ter nível mínimo e taxa de amostragem próprios (ver {@link LogWebProperties}).
+ * WARN e ERROR nunca são amostrados. Os eventos são escritos no logger
+ * {@code web.<endpoint>}.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public class LogWeb {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LogWeb.class);
+
+    /** Máximo de eventos retirados da fila de uma vez pela thread de fundo */
+    private static final int LOTE = 256;
+
+    private record Evento(String endpoint, Level nivel, String formato, Object[] argumentos) {
+    }
+
+    private final LogWebProperties propriedades;
+
+    private final BlockingQueue<Evento> fila;
+
+    private final AtomicLong descartados = new AtomicLong();
+
+    private final Map<String, Logger> loggers = new ConcurrentHashMap<>();
+
+    private volatile boolean ativo;
+
+    private Thread consumidor;
+
+    public LogWeb(LogWebProperties propriedades) {
+        this.propriedades = propriedades;
+        this.fila = new ArrayBlockingQueue<>(propriedades.capacidade());
+    }
+
+    public void trace(String endpoint, String formato, Object... argumentos) {
+        registrar(endpoint, Level.TRACE, formato, argumentos);
+    }
+
+    public void debug(String endpoint, String formato, Object... argumentos) {
+        registrar(endpoint, Level.DEBUG, formato, argumentos);
+    }
+
+    public void info(String endpoint, String formato, Object... argumentos) {
+        registrar(endpoint, Level.INFO, formato, argumentos);
+    }
+
+    public void warn(String endpoint, String formato, Object... argumentos) {
+        registrar(endpoint, Level.WARN, formato, argumentos);
+    }
+
+    /**
+     * Registra um erro. Como no SLF4J, se o último argumento for uma
+     * exceção o stack trace é incluído no log.
+     */
+    public void error(String endpoint, String formato, Object... argumentos) {
+        registrar(endpoint, Level.ERROR, formato, argumentos);
+    }
+
+    /**
+     * Indica se um evento deste endpoint e nível seria registrado, sem
+     * considerar a amostragem. Útil para evitar montar argumentos caros.
+     */
+    public boolean habilitado(String endpoint, Level nivel) {
+        if (!propriedades.habilitado()) {
+            return false;
+        }
+        Level minimo = propriedades.niveis().getOrDefault(endpoint, propriedades.nivel());
+        return nivel.toInt() >= minimo.toInt();
+    }
+
+    /**
+     * @return Total de eventos descartados por fila cheia desde o início
+     */
+    public long getDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * @return Eventos aguardando a thread de fundo
+     */
+    public int getPendentes() {
+        return fila.size();
+    }
+
+    /**
+     * Inicia a thread de fundo que escreve os eventos.
+     */
+    public synchronized void iniciar() {
+        if (consumidor != null) {
+            return;
+        }
+        ativo = true;
+        consumidor = new Thread(this::consumir, "log-web");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    /**
+     * Para a thread de fundo depois de escrever o que ainda está na fila.
+     */
+    public synchronized void encerrar() throws InterruptedException {
+        if (consumidor == null) {
+            return;
+        }
+        ativo = false;
+        consumidor.join(TimeUnit.SECONDS.toMillis(5));
+        consumidor = null;
+    }
+
+    private void registrar(String endpoint, Level nivel, String formato, Object[] argumentos) {
+        if (!habilitado(endpoint, nivel) || !amostrado(endpoint, nivel)) {
+            return;
+        }
+        if (!fila.offer(new Evento(endpoint, nivel, formato, argumentos))) {
+            descartados.incrementAndGet();
+        }
+    }
+
+    private boolean amostrado(String endpoint, Level nivel) {
+        if (nivel.toInt() >= Level.WARN.toInt()) {
+            return true;
+        }
+        Double taxa = propriedades.amostragem().get(endpoint);
+        return taxa == null || taxa >= 1.0 || ThreadLocalRandom.current().nextDouble() < taxa;
+    }
+
+    private void consumir() {
+        List<Evento> lote = new ArrayList<>(LOTE);
+        long informados = 0;
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Evento primeiro = fila.poll(200, TimeUnit.MILLISECONDS);
+                if (primeiro != null) {
+                    lote.add(primeiro);
+                    fila.drainTo(lote, LOTE - 1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            for (Evento evento : lote) {
+                escrever(evento);
+            }
+            lote.clear();
+
+            long total = descartados.get();
+            if (total > informados) {
+                LOG.warn("{} eventos de log descartados (fila cheia)", total - informados);
+                informados = total;
+            }
+        }
+    }
+
+    private void escrever(Evento evento) {
+        Logger logger = loggers.computeIfAbsent(evento.endpoint(), e -> LoggerFactory.getLogger("web." + e));
+        switch (evento.nivel()) {
+            case ERROR -> logger.error(evento.formato(), evento.argumentos());
+            case WARN -> logger.warn(evento.formato(), evento.argumentos());
+            case INFO -> logger.info(evento.formato(), evento.argumentos());
+            case DEBUG -> logger.debug(evento.formato(), evento.argumentos());
+            case TRACE -> logger.trace(evento.formato(), evento.argumentos());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.projeto_test.log;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra o {@link LogWeb} com as propriedades {@code app.log-web.*}.
+ * A thread de fundo acompanha o ciclo de vida do contexto Spring.
+ */
+@Configuration
+@EnableConfigurationProperties(LogWebProperties.class)
+public class LogWebConfig {
+
+    @Bean(initMethod = "iniciar", destroyMethod = "encerrar")
+    public LogWeb logWeb(LogWebProperties propriedades) {
+        return new LogWeb(propriedades);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.projeto_test.log;
+
+import org.slf4j.event.Level;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.Map;
+
+/**
+ * Configuração do log dos controllers ({@link LogWeb}), lida das
+ * propriedades {@code app.log-web.*} do application.properties.
+ *
+ * @param habilitado Liga/desliga todo o log dos controllers
+ * @param capacidade Tamanho da fila circular; eventos além disso são descartados
+ * @param nivel      Nível mínimo padrão de todos os endpoints
+ * @param niveis     Nível mínimo por endpoint (sobrepõe {@code nivel})
+ * @param amostragem Fração (0 a 1) dos eventos abaixo de WARN registrados por endpoint
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@ConfigurationProperties(prefix = "app.log-web")
+public record LogWebProperties(
+        @DefaultValue("true") boolean habilitado,
+        @DefaultValue("8192") int capacidade,
+        @DefaultValue("INFO") Level nivel,
+        Map<String, Level> niveis,
+        Map<String, Double> amostragem) {
+
+    public LogWebProperties {
+        if (capacidade <= 0) {
+            throw new IllegalArgumentException("app.log-web.capacidade deve ser positiva");
+        }
+        niveis = niveis == null ? Map.of() : Map.copyOf(niveis);
+        amostragem = amostragem == null ? Map.of() : Map.copyOf(amostragem);
+    }
+}
@@ -11,8 +11,10 @@ import java.util.Set;
 @Table(name = "filters")
 public class Filter {
 
+    // Pooled sequence (50 ids per round trip) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "filters_seq")
+    @SequenceGenerator(name = "filters_seq", sequenceName = "filters_seq", allocationSize = 50)
     @JsonProperty("id")
     private Long id;
 
@@ -24,9 +24,15 @@ import java.util.Set;
 @Table(name = "products")
 public class Product {
 
-    /** Identificador único do produto no banco de dados */
+    /**
+     * Identificador único do produto no banco de dados.
+     * Gerado pela sequence {@code products_seq} com otimizador pooled: o
+     * Hibernate reserva 50 IDs por chamada à sequence, o que permite
+     * agrupar os INSERTs em lotes JDBC (IDENTITY obrigaria um INSERT por vez).
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     @JsonProperty("id")
     private Long id;
 
@@ -49,7 +55,11 @@ public class Product {
     @JsonProperty("priceInCents")
     private Integer priceInCents;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    /**
+     * Filtros (tags) do produto. Carregados sob demanda: as consultas do
+     * ProductRepository que precisam deles os buscam via entity graph.
+     */
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "product_filters", joinColumns = @JoinColumn(name = "product_id"), inverseJoinColumns = @JoinColumn(name = "filter_id"))
     @JsonProperty("filters")
     private Set<Filter> filters = new HashSet<>();
@@ -4,24 +4,40 @@ package com.example.projeto_test.model;
 import jakarta.persistence.*;
 // ↑ Importa todas as anotações JPA para mapeamento objeto-relacional
 //   @Entity, @Table, @Id, @Column, etc.
+import org.hibernate.annotations.BatchSize;
+// ↑ Carrega coleções de vários recibos em uma única consulta
+import org.hibernate.annotations.SortNatural;
+// ↑ Mantém os itens carregados do banco ordenados pela chave da linha
+import java.time.LocalDate;
+// ↑ Importa classe para trabalhar com datas (dia de operação do número de chamada)
 import java.time.LocalDateTime;
 // ↑ Importa classe para trabalhar com datas e horas
 import java.util.ArrayList;
 // ↑ Importa ArrayList para listas dinâmicas
+import java.util.HashSet;
+// ↑ Importa HashSet para o conjunto de linhas removidas numa edição
 import java.util.List;
 // ↑ Importa interface List
-import java.util.Random;
-// ↑ Importa Random para gerar números aleatórios
+import java.util.Map;
+// ↑ Importa interface Map (percorrer linha e item juntos)
+import java.util.Objects;
+// ↑ Importa utilitários para equals/hashCode
+import java.util.Set;
+// ↑ Importa interface Set
+import java.util.SortedMap;
+// ↑ Importa interface SortedMap (itens indexados pela chave da linha, em ordem)
+import java.util.TreeMap;
+// ↑ Importa TreeMap, a implementação ordenada de SortedMap
 
 /**
  * Entidade que representa um recibo/notinha de venda do restaurante.
  *
  * Esta entidade armazena todas as informações de uma venda realizada,
  * incluindo os itens comprados, total, forma de pagamento e um número
- * de chamada aleatório (similar às notinhas de supermercado).
+ * de chamada sequencial do dia (similar às notinhas de supermercado).
  *
  * Funcionalidades:
- * - Geração automática de números de chamada (0000-9999)
+ * - Número de chamada único por dia (0001-9999), distribuído pelo AlocadorNumeroChamada
  * - Cálculo automático de totais
  * - Suporte a atendimento preferencial
  * - Relacionamento com itens de compra
@@ -33,26 +49,41 @@ import java.util.Random;
 @Entity // ← Anotação que marca esta classe como uma entidade JPA
 //   - Será mapeada para uma tabela no banco de dados
 //   - Campos serão automaticamente persistidos
-@Table(name = "recibos") // ← Define o nome da tabela no banco
+@Table(name = "recibos", uniqueConstraints = @UniqueConstraint(
+        name = "uk_recibos_dia_numero", columnNames = {"data_chamada", "numero_chamada"}),
+        indexes = {
+                @Index(name = "idx_recibos_versao_alteracao", columnList = "versao_alteracao"),
+                @Index(name = "idx_recibos_data_criacao", columnList = "data_criacao")})
+// ↑ Define o nome da tabela no banco
 //   - A tabela será criada como "recibos"
+//   - O número de chamada é único dentro do dia (pode repetir em outro dia)
+//   - O índice da versão de alteração atende a sincronização incremental
+//   - O índice da data de criação atende o arquivamento dos recibos antigos
 public class Recibo {
 
     /** Identificador único do recibo no banco de dados */
     @Id // ← Marca este campo como chave primária
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    // ↑ Estratégia de geração automática de ID
-    //   IDENTITY = banco gera automaticamente (AUTO_INCREMENT)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recibos_seq")
+    @SequenceGenerator(name = "recibos_seq", sequenceName = "recibos_seq", allocationSize = 50)
+    // ↑ Estratégia de geração de ID por sequence com otimizador pooled
+    //   O Hibernate reserva 50 IDs por consulta à sequence, então não
+    //   precisa executar cada INSERT na hora para descobrir o ID gerado
+    //   (como acontecia com IDENTITY) e pode enviar os INSERTs em lote
     private Long id;
     // ↑ Campo que armazena o ID único do recibo
 
     /**
-     * Número de chamada aleatório de 4 dígitos.
+     * Número de chamada de 4 dígitos, sequencial dentro do dia.
      * Funciona como uma "notinha" do supermercado, permitindo
      * ao cliente consultar seu pedido posteriormente.
      */
-    @Column(unique = true)
+    @Column(name = "numero_chamada")
     private String numeroChamada;
 
+    /** Dia de operação ao qual o número de chamada pertence */
+    @Column(name = "data_chamada", updatable = false)
+    private LocalDate dataChamada;
+
     /** Data e hora exata da criação/geração do recibo */
     @Column(updatable = false)
     private LocalDateTime dataCriacao;
@@ -69,13 +100,32 @@ public class Recibo {
     /** Valor total da venda em centavos (para evitar problemas de arredondamento) */
     private Integer total;
 
+    /**
+     * Versão da última alteração do recibo (nova a cada criação ou edição).
+     * Usada por {@code GET /api/recibos/alteracoes?since=} para entregar só
+     * o que mudou desde a última sincronização.
+     */
+    @Column(name = "versao_alteracao")
+    private Long versaoAlteracao;
+
     /**
      * Lista de itens comprados neste recibo.
      * Cada item contém nome, quantidade e preço.
+     * Ao listar uma página de recibos, os itens de até 100 recibos são
+     * carregados em uma única consulta (em vez de uma por recibo).
+     *
+     * Cada linha do pedido tem uma chave estável (coluna {@code linha}),
+     * que não muda quando outras linhas entram ou saem: alterar, incluir ou
+     * remover um item vira um UPDATE, INSERT ou DELETE só daquela linha (ver
+     * {@link #atualizarItens(List)}), em vez de regravar as linhas seguintes.
+     * Os itens ficam na ordem das linhas.
      */
     @ElementCollection
+    @BatchSize(size = 100)
+    @SortNatural
+    @MapKeyColumn(name = "linha")
     @CollectionTable(name = "recibo_itens", joinColumns = @JoinColumn(name = "recibo_id"))
-    private List<ItemCompra> itens = new ArrayList<>();
+    private SortedMap<Integer, ItemCompra> itens = new TreeMap<>();
 
     /**
      * Classe interna que representa um item específico dentro de um recibo.
@@ -95,6 +145,14 @@ public class Recibo {
         /** Preço unitário em centavos */
         private Integer preco;
 
+        /**
+         * Chave da linha no recibo (não entra no equals). Gravada pela chave
+         * da coleção; aqui só é lida do banco, e o recibo a preenche quando
+         * monta ou altera os itens.
+         */
+        @Column(name = "linha", insertable = false, updatable = false)
+        private Integer linha;
+
         /** Construtor padrão necessário para JPA */
         public ItemCompra() {}
 
@@ -120,6 +178,21 @@ public class Recibo {
             return quantidade * preco;
         }
 
+        /** Dois itens são iguais quando nome, quantidade e preço são iguais */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof ItemCompra outro)) return false;
+            return Objects.equals(nome, outro.nome)
+                    && Objects.equals(quantidade, outro.quantidade)
+                    && Objects.equals(preco, outro.preco);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(nome, quantidade, preco);
+        }
+
         // Getters e Setters
         public String getNome() { return nome; }
         public void setNome(String nome) { this.nome = nome; }
@@ -127,17 +200,66 @@ public class Recibo {
         public void setQuantidade(Integer quantidade) { this.quantidade = quantidade; }
         public Integer getPreco() { return preco; }
         public void setPreco(Integer preco) { this.preco = preco; }
+        public Integer getLinha() { return linha; }
+        public void setLinha(Integer linha) { this.linha = linha; }
     }
 
     /** Construtor padrão necessário para JPA */
     public Recibo() {}
 
+    /**
+     * Substitui os itens do recibo aplicando apenas as diferenças.
+     *
+     * As linhas são casadas pela chave ({@link ItemCompra#getLinha()}):
+     * linhas iguais não são tocadas, linhas alteradas são substituídas
+     * (UPDATE), itens sem chave conhecida entram no fim (INSERT) e linhas que
+     * não vieram são removidas (DELETE), em qualquer posição. O custo é
+     * proporcional às linhas alteradas, e o total é ajustado pela diferença
+     * de cada uma, sem somar o pedido inteiro de novo. Itens sem chave
+     * recebem as chaves seguintes às informadas (ver {@link #setItens(List)}):
+     * um cliente que não manda a chave é casado pela posição.
+     *
+     * @param novosItens Itens do pedido após a edição
+     */
+    public void atualizarItens(List<ItemCompra> novosItens) {
+        int novoTotal = this.total != null
+                ? this.total
+                : this.itens.values().stream().mapToInt(ItemCompra::getSubtotal).sum();
+
+        Set<Integer> removidas = new HashSet<>(this.itens.keySet());
+        int proxima = this.itens.isEmpty() ? 1 : this.itens.lastKey() + 1;
+        List<ItemCompra> incluidos = new ArrayList<>();
+        for (Map.Entry<Integer, ItemCompra> entrada : numerar(novosItens).entrySet()) {
+            ItemCompra novo = entrada.getValue();
+            ItemCompra atual = this.itens.get(entrada.getKey());
+            if (atual == null) {
+                incluidos.add(novo);
+                continue;
+            }
+            removidas.remove(entrada.getKey());
+            if (!atual.equals(novo)) {
+                novoTotal += novo.getSubtotal() - atual.getSubtotal();
+                this.itens.put(entrada.getKey(), novo);
+            }
+        }
+        for (Integer linha : removidas) {
+            novoTotal -= this.itens.remove(linha).getSubtotal();
+        }
+        for (ItemCompra novo : incluidos) {
+            novoTotal += novo.getSubtotal();
+            novo.setLinha(proxima);
+            this.itens.put(proxima++, novo);
+        }
+
+        this.total = novoTotal;
+    }
+
     /**
      * Gera/finaliza um recibo com todos os dados necessários.
      *
      * Este método é chamado quando uma venda é finalizada, preenchendo
-     * automaticamente a data/hora atual, gerando o número de chamada
-     * aleatório e calculando o total da venda.
+     * automaticamente a data/hora atual e calculando o total da venda.
+     * O número de chamada é atribuído pelo serviço (AlocadorNumeroChamada).
      *
      * @param itens Lista de itens comprados
      * @param observacoes Observações especiais do cliente
@@ -147,9 +269,8 @@ public class Recibo {
     public void gerarRecibo(List<ItemCompra> itens, String observacoes, String formaPagamento, String tipoAtendimento) {
         // ↑ Método que preenche automaticamente todos os campos do recibo
 
-        this.itens = itens != null ? itens : new ArrayList<>();
-        // ↑ Atribui a lista de itens, criando lista vazia se for null
-        //   Operador ternário: condição ? valor_se_verdadeiro : valor_se_falso
+        setItens(itens);
+        // ↑ Copia os itens numerando as linhas (a lista do chamador pode ser imutável ou null)
 
         this.observacoes = observacoes;
         // ↑ Define as observações especiais do cliente
@@ -164,14 +285,8 @@ public class Recibo {
         // ↑ Registra o momento exato da criação do recibo
         //   LocalDateTime.now() = data e hora atuais
 
-        // Gera número de chamada aleatório de 4 dígitos (0000-9999)
-        this.numeroChamada = String.format("%04d", new Random().nextInt(10000));
-        // ↑ Gera número aleatório e formata como 4 dígitos com zeros à esquerda
-        //   nextInt(10000) = número de 0 a 9999
-        //   String.format("%04d", numero) = garante 4 dígitos (ex: 0001, 0123, 9999)
-
         // Calcula o total somando todos os subtotais dos itens
-        this.total = this.itens.stream()
+        this.total = this.itens.values().stream()
                 // ↑ Converte a lista em um Stream para operações funcionais
                 .mapToInt(ItemCompra::getSubtotal)
                 // ↑ Mapeia cada ItemCompra para seu subtotal (quantidade × preço)
@@ -194,6 +309,12 @@ public class Recibo {
     /** @param numeroChamada Número de chamada de 4 dígitos */
     public void setNumeroChamada(String numeroChamada) { this.numeroChamada = numeroChamada; }
 
+    /** @return Dia de operação do número de chamada */
+    public LocalDate getDataChamada() { return dataChamada; }
+
+    /** @param dataChamada Dia de operação do número de chamada */
+    public void setDataChamada(LocalDate dataChamada) { this.dataChamada = dataChamada; }
+
     /** @return Data e hora da criação do recibo */
     public LocalDateTime getDataCriacao() { return dataCriacao; }
 
@@ -224,9 +345,44 @@ public class Recibo {
     /** @param total Valor total em centavos */
     public void setTotal(Integer total) { this.total = total; }
 
-    /** @return Lista de itens comprados */
-    public List<ItemCompra> getItens() { return itens; }
+    /** @return Versão da última alteração */
+    public Long getVersaoAlteracao() { return versaoAlteracao; }
+
+    /** @param versaoAlteracao Versão da última alteração */
+    public void setVersaoAlteracao(Long versaoAlteracao) { this.versaoAlteracao = versaoAlteracao; }
+
+    /** @return Itens comprados na ordem das linhas, cada um com a sua chave de linha */
+    public List<ItemCompra> getItens() {
+        return new ArrayList<>(itens.values());
+    }
+
+    /**
+     * @param itens Itens comprados; cada item fica na sua chave de linha, e
+     *              os itens sem chave (ou com chave repetida) recebem as
+     *              chaves seguintes, na ordem da lista
+     */
+    public void setItens(List<ItemCompra> itens) {
+        this.itens = numerar(itens);
+    }
 
-    /** @param itens Lista de itens comprados */
-    public void setItens(List<ItemCompra> itens) { this.itens = itens; }
+    private static SortedMap<Integer, ItemCompra> numerar(List<ItemCompra> itens) {
+        SortedMap<Integer, ItemCompra> linhas = new TreeMap<>();
+        if (itens == null) {
+            return linhas;
+        }
+        List<ItemCompra> semLinha = new ArrayList<>();
+        for (ItemCompra item : itens) {
+            if (item.getLinha() != null && item.getLinha() > 0 && !linhas.containsKey(item.getLinha())) {
+                linhas.put(item.getLinha(), item);
+            } else {
+                semLinha.add(item);
+            }
+        }
+        int proxima = linhas.isEmpty() ? 1 : linhas.lastKey() + 1;
+        for (ItemCompra item : semLinha) {
+            item.setLinha(proxima);
+            linhas.put(proxima++, item);
+        }
+        return linhas;
+    }
 }
\ No newline at end of file
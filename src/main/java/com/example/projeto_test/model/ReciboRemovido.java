@@ -0,0 +1,62 @@
+package com.example.projeto_test.model;
+// ↑ Declara que este arquivo pertence ao pacote de modelos (entidades)
+
+import jakarta.persistence.*;
+// ↑ Importa todas as anotações JPA para mapeamento objeto-relacional
+import java.time.LocalDateTime;
+// ↑ Importa classe para trabalhar com datas e horas
+
+/**
+ * Marca de remoção ("tombstone") de um recibo.
+ *
+ * Quando um recibo é removido, fica registrado aqui o seu ID com uma nova
+ * versão de alteração. Assim, quem sincroniza por
+ * {@code GET /api/recibos/alteracoes?since=} fica sabendo da remoção, e não
+ * só das criações e edições.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Entity
+@Table(name = "recibos_removidos",
+        indexes = @Index(name = "idx_recibos_removidos_versao", columnList = "versao_alteracao"))
+// ↑ O índice da versão permite buscar só as remoções após uma versão
+public class ReciboRemovido {
+
+    /** ID do recibo removido */
+    @Id
+    @Column(name = "recibo_id")
+    private Long reciboId;
+
+    /** Versão de alteração em que o recibo foi removido */
+    @Column(name = "versao_alteracao", nullable = false)
+    private Long versaoAlteracao;
+
+    /** Data e hora da remoção */
+    @Column(name = "removido_em", nullable = false)
+    private LocalDateTime removidoEm;
+
+    /** Construtor padrão necessário para JPA */
+    public ReciboRemovido() {}
+
+    /**
+     * @param reciboId        ID do recibo removido
+     * @param versaoAlteracao Versão da remoção
+     * @param removidoEm      Data e hora da remoção
+     */
+    public ReciboRemovido(Long reciboId, Long versaoAlteracao, LocalDateTime removidoEm) {
+        this.reciboId = reciboId;
+        this.versaoAlteracao = versaoAlteracao;
+        this.removidoEm = removidoEm;
+    }
+
+    /** @return ID do recibo removido */
+    public Long getReciboId() { return reciboId; }
+
+    /** @return Versão da remoção */
+    public Long getVersaoAlteracao() { return versaoAlteracao; }
+
+    /** @return Data e hora da remoção */
+    public LocalDateTime getRemovidoEm() { return removidoEm; }
+}
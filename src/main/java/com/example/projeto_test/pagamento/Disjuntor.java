@@ -0,0 +1,151 @@
+package com.example.projeto_test.pagamento;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Disjuntor (circuit breaker) das chamadas ao provedor de pagamento.
+ *
+ * Fechado: as chamadas passam e o resultado das últimas {@code janela}
+ * chamadas fica guardado num anel. Com pelo menos {@code minimoChamadas}
+ * na janela e a fração de falhas atingindo {@code taxaFalha}, abre.
+ * Aberto: recusa tudo na hora, sem esperar o timeout do provedor.
+ * Depois de {@code abertoMs}, fica meio aberto: deixa passar uma única
+ * chamada de teste; se ela der certo fecha (com a janela zerada), se
+ * falhar abre de novo.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class Disjuntor {
+
+    enum Estado { FECHADO, ABERTO, MEIO_ABERTO }
+
+    /** Resposta a um pedido de passagem: recusada, chamada normal ou a chamada de teste */
+    enum Passagem { RECUSADA, NORMAL, TESTE }
+
+    private final boolean[] falhas;
+
+    private final int minimoChamadas;
+
+    private final double taxaFalha;
+
+    private final long abertoMs;
+
+    private final LongSupplier relogio;
+
+    /** Posição da próxima chamada no anel e quantas posições já foram usadas */
+    private int posicao;
+    private int chamadas;
+    private int falhasNaJanela;
+
+    private Estado estado = Estado.FECHADO;
+    private long abertoAte;
+    private boolean testando;
+
+    private long aberturas;
+    private long recusadas;
+
+    Disjuntor(int janela, int minimoChamadas, double taxaFalha, long abertoMs, LongSupplier relogio) {
+        this.falhas = new boolean[janela];
+        this.minimoChamadas = minimoChamadas;
+        this.taxaFalha = taxaFalha;
+        this.abertoMs = abertoMs;
+        this.relogio = relogio;
+    }
+
+    /**
+     * Pede passagem para uma chamada. Quem não recebe {@link Passagem#RECUSADA}
+     * deve depois chamar {@link #registrar} com o resultado (ou
+     * {@link #liberar} se a chamada acabou nem sendo feita).
+     *
+     * @return Se a chamada pode ser feita, e se é a chamada de teste
+     */
+    synchronized Passagem permitir() {
+        if (estado == Estado.ABERTO && relogio.getAsLong() >= abertoAte) {
+            estado = Estado.MEIO_ABERTO;
+        }
+        if (estado == Estado.FECHADO) {
+            return Passagem.NORMAL;
+        }
+        if (estado == Estado.MEIO_ABERTO && !testando) {
+            testando = true;
+            return Passagem.TESTE;
+        }
+        recusadas++;
+        return Passagem.RECUSADA;
+    }
+
+    /**
+     * Registra o resultado de uma chamada permitida.
+     *
+     * @param passagem Passagem recebida em {@link #permitir}
+     * @param falhou   Se o provedor falhou (erro ou tempo esgotado)
+     * @return Se o disjuntor abriu por causa desta chamada
+     */
+    synchronized boolean registrar(Passagem passagem, boolean falhou) {
+        if (passagem == Passagem.TESTE) {
+            testando = false;
+            if (falhou) {
+                abrir();
+                return true;
+            }
+            fechar();
+            return false;
+        }
+        if (estado != Estado.FECHADO) {
+            // Resposta atrasada de uma chamada feita antes da abertura
+            return false;
+        }
+
+        if (chamadas == falhas.length) {
+            falhasNaJanela -= falhas[posicao] ? 1 : 0;
+        } else {
+            chamadas++;
+        }
+        falhas[posicao] = falhou;
+        falhasNaJanela += falhou ? 1 : 0;
+        posicao = (posicao + 1) % falhas.length;
+
+        if (chamadas >= minimoChamadas && falhasNaJanela >= taxaFalha * chamadas) {
+            abrir();
+            return true;
+        }
+        return false;
+    }
+
+    /** Devolve a passagem de uma chamada permitida que não chegou ao provedor */
+    synchronized void liberar(Passagem passagem) {
+        if (passagem == Passagem.TESTE) {
+            testando = false;
+        }
+    }
+
+    synchronized Estado getEstado() {
+        if (estado == Estado.ABERTO && relogio.getAsLong() >= abertoAte) {
+            return Estado.MEIO_ABERTO;
+        }
+        return estado;
+    }
+
+    synchronized long getAberturas() {
+        return aberturas;
+    }
+
+    synchronized long getRecusadas() {
+        return recusadas;
+    }
+
+    private void abrir() {
+        estado = Estado.ABERTO;
+        abertoAte = relogio.getAsLong() + abertoMs;
+        aberturas++;
+    }
+
+    private void fechar() {
+        estado = Estado.FECHADO;
+        posicao = 0;
+        chamadas = 0;
+        falhasNaJanela = 0;
+    }
+}
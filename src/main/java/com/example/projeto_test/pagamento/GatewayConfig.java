@@ -0,0 +1,31 @@
+package com.example.projeto_test.pagamento;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registra o {@link PaymentGateway} com as propriedades
+ * {@code app.pagamento.gateway.*}: o provedor escolhido envolvido pelo
+ * {@link GatewayResiliente} (timeout, limite de chamadas e disjuntor).
+ */
+@Configuration
+@EnableConfigurationProperties(GatewayProperties.class)
+public class GatewayConfig {
+
+    @Bean(destroyMethod = "encerrar")
+    public PaymentGateway paymentGateway(GatewayProperties propriedades) {
+        PaymentGateway provedor = switch (propriedades.provedor()) {
+            case "local" -> new GatewayLocal(propriedades.localLatenciaMs(), propriedades.localVariacaoMs(),
+                    propriedades.localTaxaErro());
+            case "mercadopago" -> new MercadoPagoGateway(propriedades.mercadopagoAccessToken(),
+                    propriedades.mercadopagoEmailPagador(), propriedades.timeoutMs());
+            default -> throw new IllegalArgumentException(
+                    "app.pagamento.gateway.provedor desconhecido: " + propriedades.provedor());
+        };
+        Disjuntor disjuntor = new Disjuntor(propriedades.disjuntorJanela(), propriedades.disjuntorMinimoChamadas(),
+                propriedades.disjuntorTaxaFalha(), propriedades.disjuntorAbertoSegundos() * 1000,
+                System::currentTimeMillis);
+        return new GatewayResiliente(provedor, propriedades.maximoSimultaneas(), propriedades.timeoutMs(), disjuntor);
+    }
+}
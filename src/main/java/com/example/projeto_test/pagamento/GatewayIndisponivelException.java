@@ -0,0 +1,21 @@
+package com.example.projeto_test.pagamento;
+
+/**
+ * Chamada ao gateway de pagamento recusada ou abandonada sem resposta do
+ * provedor: disjuntor aberto, limite de chamadas simultâneas atingido ou
+ * tempo esgotado.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public class GatewayIndisponivelException extends RuntimeException {
+
+    public GatewayIndisponivelException(String message) {
+        super(message);
+    }
+
+    public GatewayIndisponivelException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
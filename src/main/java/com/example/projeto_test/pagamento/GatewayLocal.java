@@ -0,0 +1,106 @@
+package com.example.projeto_test.pagamento;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway simulado, sem rede: gera cobranças Pix fictícias depois de uma
+ * latência configurável e falha uma fração configurável delas. Serve para
+ * desenvolvimento, testes e para ensaiar o comportamento do totem com o
+ * provedor lento ou instável.
+ *
+ * As respostas são completadas por uma thread agendadora própria; ninguém
+ * fica bloqueado esperando a latência simulada.
+ *
+ * Como o Mercado Pago com o {@code X-Idempotency-Key}, a mesma referência
+ * devolve a mesma cobrança (inclusive enquanto ela ainda está sendo gerada).
+ * Uma cobrança que falhou é esquecida, para o reenvio poder tentar de novo.
+ * Guarda as últimas {@value #MAXIMO_REFERENCIAS} referências.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public final class GatewayLocal implements PaymentGateway {
+
+    // Imagem de QR Code genérico (Placeholder válido - Padrão visível 150x150)
+    private static final String MOCK_QR_CODE_BASE64 = "iVBORw0KGgoAAAANSUhEUgAAAJQAAACUCAQAAAB8N04MAAAAyklEQVR42u3TQQrAMAwDwX7J/39LTw70IAwEmx72Ea1Gg6v5d8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H7H/iP1H7D9i/xH7j9h/xP4j9h+x/4j9R+w/Yv8R+4/Yf8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H7H/iP1H7D9i/xH7j9h/xP4j9h+x/4j9R+w/Yv8R+4/Yf8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H7H/iP1H7D9i/xH7j9h/xP4j9h+x/4j9R+w/Yv8R+4/Yf8T+I/Yfsf+I/UfsP2L/EfuP2H/E/iP2H/kBh3Rz5Qd4n48AAAAASUVORK5CYII=";
+
+    static final int MAXIMO_REFERENCIAS = 10_000;
+
+    private final long latenciaMs;
+
+    private final long variacaoMs;
+
+    private final double taxaErro;
+
+    private final ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "pagamento-local");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Cobranças por referência, da mais antiga para a mais nova; acesso sincronizado no próprio mapa */
+    private final Map<String, CompletableFuture<CobrancaPix>> cobrancas = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<CobrancaPix>> maisAntiga) {
+            return size() > MAXIMO_REFERENCIAS;
+        }
+    };
+
+    /**
+     * @param latenciaMs Latência de cada cobrança
+     * @param variacaoMs Variação aleatória (0 até este valor) somada à latência
+     * @param taxaErro   Fração (0 a 1) das cobranças que falham
+     */
+    public GatewayLocal(long latenciaMs, long variacaoMs, double taxaErro) {
+        this.latenciaMs = latenciaMs;
+        this.variacaoMs = variacaoMs;
+        this.taxaErro = taxaErro;
+    }
+
+    @Override
+    public CompletableFuture<CobrancaPix> criarPix(String referencia, BigDecimal valor, String descricao) {
+        if (valor == null || valor.signum() <= 0) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Valor inválido"));
+        }
+        CompletableFuture<CobrancaPix> resultado = new CompletableFuture<>();
+        synchronized (cobrancas) {
+            CompletableFuture<CobrancaPix> existente = cobrancas.putIfAbsent(referencia, resultado);
+            if (existente != null) {
+                // copy(): quem recebe não consegue completar a cobrança guardada
+                return existente.copy();
+            }
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long atraso = latenciaMs + (variacaoMs > 0 ? random.nextLong(variacaoMs + 1) : 0);
+        boolean falha = random.nextDouble() < taxaErro;
+
+        agendador.schedule(() -> {
+            if (falha) {
+                synchronized (cobrancas) {
+                    cobrancas.remove(referencia, resultado);
+                }
+                resultado.completeExceptionally(new IllegalStateException("Falha simulada do gateway local"));
+                return;
+            }
+            String id = UUID.randomUUID().toString();
+            resultado.complete(new CobrancaPix(id, "00020126580014BR.GOV.BCB.PIX0136" + id
+                    + "5204000053039865802BR5913Sistema Leao6008Brasilia62070503***6304", MOCK_QR_CODE_BASE64));
+        }, atraso, TimeUnit.MILLISECONDS);
+        return resultado.copy();
+    }
+
+    @Override
+    public void encerrar() {
+        agendador.shutdownNow();
+    }
+}
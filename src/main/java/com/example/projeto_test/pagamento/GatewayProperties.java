@@ -0,0 +1,60 @@
+package com.example.projeto_test.pagamento;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração do gateway de pagamento, lida das propriedades
+ * {@code app.pagamento.gateway.*} do application.properties.
+ *
+ * @param provedor                 "local" (simulado, sem rede) ou "mercadopago"
+ * @param timeoutMs                Tempo máximo de cada chamada ao provedor
+ * @param maximoSimultaneas        Chamadas ao provedor em andamento ao mesmo tempo; acima disso recusa
+ * @param disjuntorJanela          Quantidade das últimas chamadas avaliadas pelo disjuntor
+ * @param disjuntorMinimoChamadas  Chamadas na janela antes do disjuntor poder abrir
+ * @param disjuntorTaxaFalha       Fração (0 a 1) de falhas na janela que abre o disjuntor
+ * @param disjuntorAbertoSegundos  Tempo aberto antes de deixar passar uma chamada de teste
+ * @param localLatenciaMs          Gateway local: latência simulada de cada cobrança
+ * @param localVariacaoMs          Gateway local: variação aleatória somada à latência
+ * @param localTaxaErro            Gateway local: fração (0 a 1) das cobranças que falham
+ * @param mercadopagoAccessToken   Mercado Pago: access token da conta
+ * @param mercadopagoEmailPagador  Mercado Pago: e-mail enviado como pagador (o totem não pede e-mail)
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@ConfigurationProperties(prefix = "app.pagamento.gateway")
+public record GatewayProperties(
+        @DefaultValue("local") String provedor,
+        @DefaultValue("5000") long timeoutMs,
+        @DefaultValue("16") int maximoSimultaneas,
+        @DefaultValue("20") int disjuntorJanela,
+        @DefaultValue("10") int disjuntorMinimoChamadas,
+        @DefaultValue("0.5") double disjuntorTaxaFalha,
+        @DefaultValue("30") long disjuntorAbertoSegundos,
+        @DefaultValue("300") long localLatenciaMs,
+        @DefaultValue("200") long localVariacaoMs,
+        @DefaultValue("0") double localTaxaErro,
+        String mercadopagoAccessToken,
+        @DefaultValue("totem@sistemaleao.com.br") String mercadopagoEmailPagador) {
+
+    public GatewayProperties {
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException("app.pagamento.gateway.timeout-ms deve ser positivo");
+        }
+        if (maximoSimultaneas <= 0) {
+            throw new IllegalArgumentException("app.pagamento.gateway.maximo-simultaneas deve ser positivo");
+        }
+        if (disjuntorJanela <= 0 || disjuntorMinimoChamadas <= 0 || disjuntorMinimoChamadas > disjuntorJanela) {
+            throw new IllegalArgumentException(
+                    "app.pagamento.gateway.disjuntor-minimo-chamadas deve estar entre 1 e disjuntor-janela");
+        }
+        if (disjuntorTaxaFalha <= 0 || disjuntorTaxaFalha > 1) {
+            throw new IllegalArgumentException("app.pagamento.gateway.disjuntor-taxa-falha deve estar entre 0 e 1");
+        }
+        if (localTaxaErro < 0 || localTaxaErro > 1) {
+            throw new IllegalArgumentException("app.pagamento.gateway.local-taxa-erro deve estar entre 0 e 1");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.projeto_test.pagamento;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Proteções em volta do provedor de pagamento, aplicadas a cada chamada:
+ *
+ * <ul>
+ *   <li>Disjuntor ({@link Disjuntor}): com o provedor falhando, recusa na
+ *       hora em vez de deixar cada totem esperar o timeout.</li>
+ *   <li>Limite de chamadas simultâneas (bulkhead): no máximo
+ *       {@code maximoSimultaneas} em andamento; acima disso recusa na hora.
+ *       A vaga só volta quando o provedor responde, mesmo que o timeout já
+ *       tenha respondido ao totem, então um provedor travado não acumula
+ *       chamadas sem limite.</li>
+ *   <li>Timeout: sem resposta em {@code timeoutMs}, o futuro falha com
+ *       {@link GatewayIndisponivelException} e conta como falha.</li>
+ * </ul>
+ *
+ * Nada aqui bloqueia: as recusas voltam como futuros já falhos e o timeout
+ * é agendado, não esperado.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public final class GatewayResiliente implements PaymentGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(GatewayResiliente.class);
+
+    private final PaymentGateway provedor;
+
+    private final int maximoSimultaneas;
+
+    private final Semaphore vagas;
+
+    private final long timeoutMs;
+
+    private final Disjuntor disjuntor;
+
+    GatewayResiliente(PaymentGateway provedor, int maximoSimultaneas, long timeoutMs, Disjuntor disjuntor) {
+        this.provedor = provedor;
+        this.maximoSimultaneas = maximoSimultaneas;
+        this.vagas = new Semaphore(maximoSimultaneas);
+        this.timeoutMs = timeoutMs;
+        this.disjuntor = disjuntor;
+    }
+
+    @Override
+    public CompletableFuture<CobrancaPix> criarPix(String referencia, BigDecimal valor, String descricao) {
+        Disjuntor.Passagem passagem = disjuntor.permitir();
+        if (passagem == Disjuntor.Passagem.RECUSADA) {
+            return CompletableFuture.failedFuture(
+                    new GatewayIndisponivelException("Provedor de pagamento indisponível, tente novamente em instantes"));
+        }
+        if (!vagas.tryAcquire()) {
+            disjuntor.liberar(passagem);
+            return CompletableFuture.failedFuture(
+                    new GatewayIndisponivelException("Muitas cobranças em andamento, tente novamente em instantes"));
+        }
+
+        CompletableFuture<CobrancaPix> chamada;
+        try {
+            chamada = provedor.criarPix(referencia, valor, descricao);
+        } catch (RuntimeException e) {
+            chamada = CompletableFuture.failedFuture(e);
+        }
+        chamada.whenComplete((cobranca, erro) -> vagas.release());
+
+        // copy(): o timeout falha só a cópia; a chamada original segue segurando a vaga
+        return chamada.copy().orTimeout(timeoutMs, TimeUnit.MILLISECONDS).handle((cobranca, erro) -> {
+            Throwable causa = erro instanceof CompletionException && erro.getCause() != null ? erro.getCause() : erro;
+            // Pedido recusado pelo provedor não indica provedor degradado
+            boolean falhou = causa != null && !(causa instanceof IllegalArgumentException);
+            if (disjuntor.registrar(passagem, falhou)) {
+                log.warn("Disjuntor do gateway de pagamento aberto após falha: {}", String.valueOf(causa));
+            }
+            if (causa == null) {
+                return cobranca;
+            }
+            if (causa instanceof TimeoutException) {
+                throw new GatewayIndisponivelException("Provedor de pagamento não respondeu em " + timeoutMs + " ms", causa);
+            }
+            if (causa instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new GatewayIndisponivelException("Falha no provedor de pagamento", causa);
+        });
+    }
+
+    @Override
+    public void encerrar() {
+        provedor.encerrar();
+    }
+
+    /** @return Estado do disjuntor */
+    Disjuntor.Estado getEstado() {
+        return disjuntor.getEstado();
+    }
+
+    /** @return Chamadas ao provedor em andamento */
+    int getEmAndamento() {
+        return maximoSimultaneas - vagas.availablePermits();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.projeto_test.pagamento;
+
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.payment.PaymentCreateRequest;
+import com.mercadopago.client.payment.PaymentPayerRequest;
+import com.mercadopago.core.MPRequestOptions;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.resources.payment.Payment;
+import com.mercadopago.resources.payment.PaymentTransactionData;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Gateway do Mercado Pago: cria um pagamento com {@code payment_method_id}
+ * "pix" e devolve o QR Code gerado.
+ *
+ * O SDK faz HTTP bloqueante, então cada chamada roda numa thread virtual
+ * própria e o resultado volta pelo futuro; a thread da requisição nunca
+ * espera o Mercado Pago. A referência do pedido vai como
+ * {@code X-Idempotency-Key}, então um reenvio do mesmo pedido devolve o
+ * mesmo pagamento em vez de criar outro.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public final class MercadoPagoGateway implements PaymentGateway {
+
+    private final PaymentClient cliente;
+
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("pagamento-mercadopago-", 0).factory());
+
+    private final String accessToken;
+
+    private final String emailPagador;
+
+    private final int timeoutMs;
+
+    /**
+     * @param accessToken  Access token da conta Mercado Pago
+     * @param emailPagador E-mail enviado como pagador
+     * @param timeoutMs    Timeout de conexão e de leitura do SDK; a thread da
+     *                     chamada é liberada mesmo depois do timeout do
+     *                     {@link GatewayResiliente} já ter respondido
+     */
+    public MercadoPagoGateway(String accessToken, String emailPagador, long timeoutMs) {
+        this(new PaymentClient(), accessToken, emailPagador, timeoutMs);
+    }
+
+    /** Com o cliente do SDK informado (nos testes, um cliente falso) */
+    MercadoPagoGateway(PaymentClient cliente, String accessToken, String emailPagador, long timeoutMs) {
+        if (accessToken == null || accessToken.isBlank()) {
+            throw new IllegalArgumentException("app.pagamento.gateway.mercadopago-access-token não configurado");
+        }
+        this.cliente = cliente;
+        this.accessToken = accessToken;
+        this.emailPagador = emailPagador;
+        this.timeoutMs = (int) Math.min(timeoutMs, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public CompletableFuture<CobrancaPix> criarPix(String referencia, BigDecimal valor, String descricao) {
+        PaymentCreateRequest pedido = PaymentCreateRequest.builder()
+                .transactionAmount(valor)
+                .description(descricao)
+                .paymentMethodId("pix")
+                .externalReference(referencia)
+                .payer(PaymentPayerRequest.builder().email(emailPagador).build())
+                .build();
+        MPRequestOptions opcoes = MPRequestOptions.builder()
+                .accessToken(accessToken)
+                .connectionTimeout(timeoutMs)
+                .connectionRequestTimeout(timeoutMs)
+                .socketTimeout(timeoutMs)
+                .customHeaders(Map.of("X-Idempotency-Key", referencia))
+                .build();
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return cobranca(cliente.create(pedido, opcoes));
+            } catch (MPApiException e) {
+                // 4xx: o Mercado Pago recusou o pedido; 5xx: provedor com problema
+                int status = e.getStatusCode();
+                String mensagem = "Mercado Pago respondeu " + status + ": " + e.getApiResponse().getContent();
+                throw status >= 400 && status < 500 && status != 429
+                        ? new IllegalArgumentException(mensagem, e)
+                        : new IllegalStateException(mensagem, e);
+            } catch (MPException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private static CobrancaPix cobranca(Payment pagamento) {
+        if (pagamento.getPointOfInteraction() == null
+                || pagamento.getPointOfInteraction().getTransactionData() == null) {
+            throw new IllegalStateException("Mercado Pago não devolveu o QR Code do pagamento " + pagamento.getId());
+        }
+        PaymentTransactionData dados = pagamento.getPointOfInteraction().getTransactionData();
+        return new CobrancaPix(String.valueOf(pagamento.getId()), dados.getQrCode(), dados.getQrCodeBase64());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.projeto_test.pagamento;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Gateway de pagamento que gera as cobranças Pix.
+ *
+ * As chamadas nunca bloqueiam quem chama: o resultado chega pelo futuro,
+ * completado por uma thread do próprio gateway. Uma falha do provedor
+ * completa o futuro com exceção; {@link IllegalArgumentException} indica
+ * que o provedor recusou o pedido (ex: valor inválido), e qualquer outra
+ * exceção, que o provedor está indisponível.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public interface PaymentGateway {
+
+    /**
+     * Cobrança Pix gerada pelo provedor.
+     *
+     * @param id           ID da cobrança no provedor
+     * @param qrCode       Código "copia e cola"
+     * @param qrCodeBase64 Imagem PNG do QR Code em Base64
+     */
+    record CobrancaPix(String id, String qrCode, String qrCodeBase64) {
+    }
+
+    /**
+     * Gera uma cobrança Pix.
+     *
+     * @param referencia Chave que identifica o pedido; o mesmo pedido reenviado
+     *                   usa a mesma referência e não gera uma segunda cobrança
+     * @param valor      Valor cobrado
+     * @param descricao  Descrição exibida ao pagador
+     * @return Futuro da cobrança gerada
+     */
+    CompletableFuture<CobrancaPix> criarPix(String referencia, BigDecimal valor, String descricao);
+
+    /** Libera as threads do gateway (chamado no encerramento do contexto Spring) */
+    default void encerrar() {
+    }
+}
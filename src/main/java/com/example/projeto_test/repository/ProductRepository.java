@@ -1,7 +1,14 @@
 package com.example.projeto_test.repository;
 
 import com.example.projeto_test.model.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositório JPA para a entidade Product.
@@ -10,6 +17,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * de produtos no banco de dados. Herda operações CRUD básicas
  * do JpaRepository e pode ser estendida com consultas customizadas.
  *
+ * A associação {@code Product.filters} é LAZY: cada consulta que precisa
+ * dos filtros declara isso com um {@link EntityGraph}, buscando produtos e
+ * filtros em um único SELECT com JOIN.
+ *
  * @author Sistema de Gestão de Restaurante
  * @version 1.0
  * @since 2025-01-01
@@ -25,5 +36,53 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     // Exemplos (descomentados para uso):
     // List<Product> findByNameContainingIgnoreCase(String name);
     // List<Product> findByPriceInCentsLessThanEqual(Integer maxPrice);
-}
 
+    /**
+     * Busca todo o cardápio já com os filtros de cada produto.
+     *
+     * @return Todos os produtos, com {@code filters} inicializado
+     */
+    @EntityGraph(attributePaths = "filters")
+    @Query("select p from Product p")
+    List<Product> findAllWithFilters();
+
+    /**
+     * Busca um produto já com seus filtros.
+     *
+     * @param id ID do produto
+     * @return Produto com {@code filters} inicializado, se existir
+     */
+    @EntityGraph(attributePaths = "filters")
+    Optional<Product> findWithFiltersById(Long id);
+
+    /**
+     * Busca os produtos informados já com seus filtros.
+     *
+     * @param ids IDs dos produtos
+     * @return Produtos ordenados por ID decrescente, com {@code filters} inicializado
+     */
+    @EntityGraph(attributePaths = "filters")
+    List<Product> findWithFiltersByIdInOrderByIdDesc(Collection<Long> ids);
+
+    /**
+     * IDs da primeira página do cardápio (produtos mais recentes primeiro).
+     *
+     * Só os IDs são paginados no banco: aplicar LIMIT junto com o JOIN dos
+     * filtros faria o Hibernate paginar em memória.
+     *
+     * @param limit Quantidade máxima de produtos
+     * @return IDs em ordem decrescente
+     */
+    @Query("select p.id from Product p order by p.id desc")
+    List<Long> findIdsOrderByIdDesc(Limit limit);
+
+    /**
+     * IDs da página seguinte do cardápio (paginação por cursor).
+     *
+     * @param id    Último ID da página anterior (exclusivo)
+     * @param limit Quantidade máxima de produtos
+     * @return IDs menores que o cursor, em ordem decrescente
+     */
+    @Query("select p.id from Product p where p.id < :id order by p.id desc")
+    List<Long> findIdsByIdLessThanOrderByIdDesc(Long id, Limit limit);
+}
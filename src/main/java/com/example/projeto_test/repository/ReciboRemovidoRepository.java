@@ -0,0 +1,69 @@
+package com.example.projeto_test.repository;
+
+import com.example.projeto_test.model.ReciboRemovido;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repositório JPA das marcas de remoção de recibos.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public interface ReciboRemovidoRepository extends JpaRepository<ReciboRemovido, Long> {
+
+    /**
+     * Remoções em um intervalo de versões, na ordem das alterações.
+     *
+     * @param de    Primeira versão (inclusiva)
+     * @param ate   Última versão (inclusiva)
+     * @param limit Quantidade máxima de remoções
+     * @return Remoções ordenadas pela versão de alteração
+     */
+    List<ReciboRemovido> findByVersaoAlteracaoBetweenOrderByVersaoAlteracao(Long de, Long ate, Limit limit);
+
+    /**
+     * @return Maior versão de remoção gravada, ou null se não houver remoções
+     */
+    @Query("select max(r.versaoAlteracao) from ReciboRemovido r")
+    Long findMaiorVersaoAlteracao();
+
+    /**
+     * @param limite Data de remoção limite (exclusiva)
+     * @return Maior versão entre as remoções anteriores ao limite, ou null se não houver
+     */
+    @Query("select max(r.versaoAlteracao) from ReciboRemovido r where r.removidoEm < :limite")
+    Long findMaiorVersaoRemovidaAntesDe(LocalDateTime limite);
+
+    /**
+     * Apaga as marcas de remoção até uma versão (retenção).
+     *
+     * @param versao Última versão apagada (inclusiva)
+     * @return Quantidade de marcas apagadas
+     */
+    @Modifying
+    @Query("delete from ReciboRemovido r where r.versaoAlteracao <= :versao")
+    int deleteByVersaoAlteracaoAte(Long versao);
+
+    /**
+     * Registra a remoção dos recibos informados em um único INSERT ... SELECT,
+     * com a versão {@code base + (id - menorId)} para cada recibo.
+     *
+     * @param base       Primeira versão da faixa reservada
+     * @param menorId    Menor ID da faixa
+     * @param ids        IDs dos recibos removidos
+     * @param removidoEm Data e hora da remoção
+     * @return Quantidade de marcas gravadas
+     */
+    @Modifying
+    @Query("insert into ReciboRemovido (reciboId, versaoAlteracao, removidoEm) "
+            + "select r.id, :base + r.id - :menorId, :removidoEm from Recibo r where r.id in :ids")
+    int registrarRemocoes(Long base, Long menorId, Collection<Long> ids, LocalDateTime removidoEm);
+}
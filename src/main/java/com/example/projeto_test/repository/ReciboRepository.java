@@ -1,7 +1,17 @@
 package com.example.projeto_test.repository;
 
 import com.example.projeto_test.model.Recibo;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -18,13 +28,218 @@ import java.util.Optional;
 public interface ReciboRepository extends JpaRepository<Recibo, Long> {
 
     /**
-     * Busca um recibo pelo número de chamada.
+     * Filtro das consultas de limpeza em lote: cada critério nulo é ignorado.
+     * A data de criação vai de {@code :de} (inclusiva) até {@code :ate} (exclusiva).
+     */
+    String FILTRO_LIMPEZA = "(:de is null or r.dataCriacao >= :de)"
+            + " and (:ate is null or r.dataCriacao < :ate)"
+            + " and (:formaPagamento is null or r.formaPagamento = :formaPagamento)"
+            + " and (:tipoAtendimento is null or r.tipoAtendimento = :tipoAtendimento)";
+
+    /**
+     * Busca o recibo mais recente com o número de chamada informado.
      *
-     * Este método permite consultar um recibo específico
-     * usando o número de chamada (notinha) gerado aleatoriamente.
+     * O número só é único dentro do dia, então em dias diferentes
+     * podem existir recibos com o mesmo número; vale o mais recente.
      *
      * @param numeroChamada Número de chamada de 4 dígitos
      * @return Optional contendo o recibo se encontrado
      */
-    Optional<Recibo> findByNumeroChamada(String numeroChamada);
-}
\ No newline at end of file
+    Optional<Recibo> findFirstByNumeroChamadaOrderByIdDesc(String numeroChamada);
+
+    /**
+     * Maior número de chamada já gravado no dia informado.
+     *
+     * Usado para continuar a sequência do dia após um reinício. Como os
+     * números têm sempre 4 dígitos, o maior texto é também o maior número.
+     *
+     * @param dia Dia de operação
+     * @return Maior número do dia, ou null se ainda não houver recibos
+     */
+    @Query("select max(r.numeroChamada) from Recibo r where r.dataChamada = :dia")
+    String findMaiorNumeroChamadaDoDia(LocalDate dia);
+
+    /**
+     * Números de chamada em uso no dia informado.
+     *
+     * Usado após um reinício para reconstruir os números livres (lacunas
+     * deixadas por pedidos já removidos) abaixo do maior número do dia.
+     *
+     * @param dia Dia de operação
+     * @return Números de chamada dos recibos do dia
+     */
+    @Query("select r.numeroChamada from Recibo r where r.dataChamada = :dia")
+    List<String> findNumerosChamadaDoDia(LocalDate dia);
+
+    /**
+     * Recibos de um dia de operação com os itens, em uma única consulta.
+     *
+     * Usado após um reinício para recolocar os pedidos do dia na fila da
+     * cozinha.
+     *
+     * @param dia Dia de operação
+     * @return Recibos do dia ordenados por ID, com os itens carregados
+     */
+    @Query("select distinct r from Recibo r left join fetch r.itens where r.dataChamada = :dia order by r.id")
+    List<Recibo> findRecibosDoDiaComItens(LocalDate dia);
+
+    /**
+     * Primeira página do histórico: os recibos mais recentes.
+     *
+     * @param limit Quantidade máxima de recibos
+     * @return Recibos ordenados por ID decrescente
+     */
+    List<Recibo> findAllByOrderByIdDesc(Limit limit);
+
+    /**
+     * Página seguinte do histórico (paginação por cursor).
+     *
+     * Usa a chave primária como cursor, então a consulta percorre apenas
+     * o índice a partir do último ID já entregue.
+     *
+     * @param id    Último ID da página anterior (exclusivo)
+     * @param limit Quantidade máxima de recibos
+     * @return Recibos com ID menor que o cursor, ordenados por ID decrescente
+     */
+    List<Recibo> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    /**
+     * Recibos alterados (criados ou editados) em um intervalo de versões,
+     * na ordem das alterações. Usa o índice da versão de alteração.
+     *
+     * @param de    Primeira versão (inclusiva)
+     * @param ate   Última versão (inclusiva)
+     * @param limit Quantidade máxima de recibos
+     * @return Recibos ordenados pela versão de alteração
+     */
+    List<Recibo> findByVersaoAlteracaoBetweenOrderByVersaoAlteracao(Long de, Long ate, Limit limit);
+
+    /**
+     * Lê o próximo valor da sequence dos IDs de recibos (consome o valor).
+     *
+     * @return Valor lido da sequence {@code recibos_seq}
+     */
+    @Query(value = "select next value for recibos_seq", nativeQuery = true)
+    long findProximoValorSequence();
+
+    /**
+     * Faz a sequence dos IDs de recibos recomeçar do valor informado.
+     *
+     * @param valor Próximo valor devolvido pela sequence
+     */
+    @Modifying
+    @Query(value = "alter sequence recibos_seq restart with :valor", nativeQuery = true)
+    void reiniciarSequence(long valor);
+
+    /**
+     * @return Maior versão de alteração gravada, ou null se não houver recibos
+     */
+    @Query("select max(r.versaoAlteracao) from Recibo r")
+    Long findMaiorVersaoAlteracao();
+
+    /**
+     * Menor e maior ID dos recibos ainda sem versão de alteração
+     * (gravados antes de a versão existir).
+     *
+     * @return Lista com uma linha {@code [menorId, maiorId]} (nulos se não houver)
+     */
+    @Query("select min(r.id), max(r.id) from Recibo r where r.versaoAlteracao is null")
+    List<Object[]> findFaixaIdsSemVersao();
+
+    /**
+     * Dá uma versão de alteração a cada recibo que ainda não tem, em um
+     * único UPDATE: a versão é {@code base + (id - menorId)}, então cada
+     * recibo recebe uma versão diferente dentro da faixa reservada.
+     *
+     * @param base    Primeira versão da faixa reservada
+     * @param menorId Menor ID sem versão
+     * @return Quantidade de recibos atualizados
+     */
+    @Modifying
+    @Query("update Recibo r set r.versaoAlteracao = :base + r.id - :menorId where r.versaoAlteracao is null")
+    int atribuirVersoesPendentes(Long base, Long menorId);
+
+    /**
+     * Menor e maior ID entre os recibos que atendem ao filtro de limpeza.
+     *
+     * @return Lista com uma linha {@code [menorId, maiorId]} (nulos se não houver)
+     * @see #FILTRO_LIMPEZA
+     */
+    @Query("select min(r.id), max(r.id) from Recibo r where " + FILTRO_LIMPEZA)
+    List<Object[]> findFaixaIdsParaLimpeza(LocalDateTime de, LocalDateTime ate,
+            String formaPagamento, String tipoAtendimento);
+
+    /**
+     * IDs dos recibos de uma faixa de IDs que atendem ao filtro de limpeza
+     * (só os IDs, sem carregar os recibos).
+     *
+     * @param primeiroId Primeiro ID da faixa (inclusivo)
+     * @param ultimoId   Último ID da faixa (inclusivo)
+     * @return IDs encontrados
+     * @see #FILTRO_LIMPEZA
+     */
+    @Query("select r.id from Recibo r where r.id between :primeiroId and :ultimoId and " + FILTRO_LIMPEZA)
+    List<Long> findIdsParaLimpeza(Long primeiroId, Long ultimoId, LocalDateTime de, LocalDateTime ate,
+            String formaPagamento, String tipoAtendimento);
+
+    /**
+     * Pedidos e receita dos recibos informados, agrupados como nas
+     * estatísticas de vendas: dia, hora, forma de pagamento e tipo de
+     * atendimento.
+     *
+     * @param ids IDs dos recibos
+     * @return Linhas {@code [dia, hora, formaPagamento, tipoAtendimento, pedidos, receita]}
+     */
+    @Query("select cast(r.dataCriacao as LocalDate), extract(hour from r.dataCriacao),"
+            + " r.formaPagamento, r.tipoAtendimento, count(r), sum(r.total)"
+            + " from Recibo r where r.id in :ids and r.dataCriacao is not null"
+            + " group by cast(r.dataCriacao as LocalDate), extract(hour from r.dataCriacao),"
+            + " r.formaPagamento, r.tipoAtendimento")
+    List<Object[]> somarPorGrupo(Collection<Long> ids);
+
+    /**
+     * Unidades e receita por item dos recibos informados, agrupadas por dia
+     * e nome do item.
+     *
+     * @param ids IDs dos recibos
+     * @return Linhas {@code [dia, nome, unidades, receita]}
+     */
+    @Query("select cast(r.dataCriacao as LocalDate), i.nome, sum(i.quantidade), sum(i.quantidade * i.preco)"
+            + " from Recibo r join r.itens i"
+            + " where r.id in :ids and r.dataCriacao is not null and i.quantidade is not null and i.preco is not null"
+            + " group by cast(r.dataCriacao as LocalDate), i.nome")
+    List<Object[]> somarItens(Collection<Long> ids);
+
+    /**
+     * Recibos mais antigos que a data informada, para o arquivamento.
+     * Usa o índice da data de criação e trava as linhas lidas até o fim da
+     * transação (SELECT ... FOR UPDATE).
+     *
+     * @param limite Data de criação limite (exclusiva)
+     * @param limit  Quantidade máxima de recibos
+     * @return Recibos ordenados por ID
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Recibo> findByDataCriacaoBeforeOrderById(LocalDateTime limite, Limit limit);
+
+    /**
+     * Dia e número de chamada dos recibos informados, para devolver os
+     * números ao alocador depois de uma limpeza.
+     *
+     * @param ids IDs dos recibos
+     * @return Linhas [dataChamada, numeroChamada] dos recibos com número
+     */
+    @Query("select r.dataChamada, r.numeroChamada from Recibo r where r.id in :ids and r.numeroChamada is not null")
+    List<Object[]> findNumerosChamada(Collection<Long> ids);
+
+    /**
+     * Apaga os itens dos recibos informados em um único comando
+     * (sem carregar os recibos).
+     *
+     * @param ids IDs dos recibos
+     * @return Quantidade de itens apagados
+     */
+    @Modifying
+    @Query(value = "delete from recibo_itens where recibo_id in (:ids)", nativeQuery = true)
+    int deleteItensDosRecibos(Collection<Long> ids);
+}
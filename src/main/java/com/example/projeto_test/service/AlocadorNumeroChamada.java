@@ -0,0 +1,164 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.repository.ReciboRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Distribui os números de chamada (notinhas) dos recibos.
+ *
+ * Os números são sequenciais por dia de operação (0001, 0002, ...) e só
+ * precisam ser únicos dentro do mesmo dia. A alocação não usa locks nem
+ * tentativas: cada chamada faz um único incremento atômico no contador do
+ * dia. Números de pedidos concluídos voltam para uma fila de livres, usada
+ * apenas depois que a sequência do dia chega a 9999, para que um número
+ * recém-entregue não seja chamado de novo logo em seguida.
+ *
+ * Um número só volta para a fila de livres depois do commit da remoção do
+ * pedido: se a transação for desfeita, o número continua com o recibo.
+ *
+ * Ao iniciar (ou virar o dia) o contador continua a partir do maior número
+ * já gravado no banco para o dia, então um reinício da aplicação não
+ * repete números. Como a fila de livres fica só em memória, ela é
+ * reconstruída no reinício a partir das lacunas dos números do dia.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class AlocadorNumeroChamada {
+
+    /** Maior número de chamada (4 dígitos) */
+    static final int MAIOR_NUMERO = 9999;
+
+    /**
+     * Número de chamada alocado.
+     *
+     * @param dia    Dia de operação em que o número é único
+     * @param numero Número formatado com 4 dígitos
+     */
+    public record NumeroChamada(LocalDate dia, String numero) {
+    }
+
+    /** Contador e números livres de um dia de operação */
+    private static final class Dia {
+
+        private final LocalDate data;
+        private final AtomicInteger proximo;
+        private final Queue<Integer> livres = new ConcurrentLinkedQueue<>();
+
+        private Dia(LocalDate data, int proximo) {
+            this.data = data;
+            this.proximo = new AtomicInteger(proximo);
+        }
+    }
+
+    private final ReciboRepository reciboRepository;
+
+    private final Clock relogio;
+
+    private final AtomicReference<Dia> diaAtual = new AtomicReference<>();
+
+    @Autowired
+    public AlocadorNumeroChamada(ReciboRepository reciboRepository) {
+        this(reciboRepository, Clock.systemDefaultZone());
+    }
+
+    AlocadorNumeroChamada(ReciboRepository reciboRepository, Clock relogio) {
+        this.reciboRepository = reciboRepository;
+        this.relogio = relogio;
+    }
+
+    /**
+     * Aloca o próximo número de chamada do dia.
+     *
+     * @return Número alocado e o dia ao qual ele pertence
+     * @throws IllegalStateException Se todos os 9999 números do dia estiverem em uso
+     */
+    public NumeroChamada alocar() {
+        Dia dia = diaCorrente();
+        int numero = dia.proximo.getAndIncrement();
+        if (numero > MAIOR_NUMERO) {
+            // Sequência do dia esgotada: reaproveita números de pedidos concluídos
+            Integer livre = dia.livres.poll();
+            if (livre == null) {
+                throw new IllegalStateException("Todos os números de chamada do dia estão em uso");
+            }
+            numero = livre;
+        }
+        return new NumeroChamada(dia.data, String.format("%04d", numero));
+    }
+
+    /**
+     * Devolve o número de um pedido concluído para reaproveitamento.
+     * Dentro de uma transação, só depois do commit.
+     * Números de dias anteriores são ignorados (o dia seguinte recomeça do 0001).
+     *
+     * @param dia    Dia de operação do recibo
+     * @param numero Número de chamada do recibo
+     */
+    public void liberar(LocalDate dia, String numero) {
+        AposCommit.executar(() -> devolver(dia, numero));
+    }
+
+    private void devolver(LocalDate dia, String numero) {
+        Dia atual = diaAtual.get();
+        if (atual == null || dia == null || numero == null || !atual.data.equals(dia)) {
+            return;
+        }
+        int valor;
+        try {
+            valor = Integer.parseInt(numero);
+        } catch (NumberFormatException e) {
+            return;
+        }
+        if (valor >= 1 && valor <= MAIOR_NUMERO) {
+            atual.livres.offer(valor);
+        }
+    }
+
+    /**
+     * Retorna o estado do dia corrente. O caminho comum é só uma leitura
+     * atômica; a sincronização acontece apenas na virada do dia.
+     */
+    private Dia diaCorrente() {
+        LocalDate hoje = LocalDate.now(relogio);
+        Dia dia = diaAtual.get();
+        if (dia != null && dia.data.equals(hoje)) {
+            return dia;
+        }
+        return iniciarDia(hoje);
+    }
+
+    private synchronized Dia iniciarDia(LocalDate hoje) {
+        Dia dia = diaAtual.get();
+        if (dia == null || !dia.data.equals(hoje)) {
+            String maior = reciboRepository.findMaiorNumeroChamadaDoDia(hoje);
+            dia = new Dia(hoje, maior == null ? 1 : Integer.parseInt(maior) + 1);
+            if (maior != null) {
+                // Reinício no meio do dia: os números abaixo do maior que não estão
+                // em uso foram liberados antes do reinício
+                BitSet emUso = new BitSet(MAIOR_NUMERO + 1);
+                for (String numero : reciboRepository.findNumerosChamadaDoDia(hoje)) {
+                    emUso.set(Integer.parseInt(numero));
+                }
+                int livre = emUso.nextClearBit(1);
+                while (livre < dia.proximo.get()) {
+                    dia.livres.offer(livre);
+                    livre = emUso.nextClearBit(livre + 1);
+                }
+            }
+            diaAtual.set(dia);
+        }
+        return dia;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+
+import java.util.List;
+
+/**
+ * Resultado da sincronização incremental de recibos.
+ *
+ * @param alterados      Recibos criados ou editados após a versão pedida
+ * @param removidos      IDs dos recibos removidos após a versão pedida
+ * @param versao         Versão até a qual o cliente está sincronizado; é o
+ *                       {@code since} da próxima chamada
+ * @param maisAlteracoes Se há mais alterações além do limite (chamar de novo já)
+ * @param ressincronizar Se a versão pedida é anterior ao horizonte das remoções
+ *                       (marcas antigas já apagadas): o cliente descarta o que
+ *                       tem e sincroniza de novo com {@code since=0}
+ */
+public record Alteracoes(List<Recibo> alterados, List<Long> removidos, long versao, boolean maisAlteracoes,
+        boolean ressincronizar) {
+
+    /** Resposta para quem precisa recomeçar a sincronização do zero */
+    static Alteracoes ressincronizacao() {
+        return new Alteracoes(List.of(), List.of(), 0, false, true);
+    }
+}
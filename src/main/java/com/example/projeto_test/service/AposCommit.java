@@ -0,0 +1,60 @@
+package com.example.projeto_test.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ações que só podem acontecer depois que a transação atual terminar.
+ *
+ * Usado pelos serviços que mantêm estado em memória (cache do cardápio,
+ * fila da cozinha, estatísticas, números de chamada, eventos): a memória
+ * só muda quando o banco já confirmou a alteração. Sem transação ativa (o
+ * repository já confirmou a operação), a ação roda na hora.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class AposCommit {
+
+    private AposCommit() {
+    }
+
+    /**
+     * Executa a ação após o commit da transação ativa, ou imediatamente
+     * quando não há transação. Em caso de rollback a ação é descartada.
+     *
+     * @param acao Ação a executar
+     */
+    static void executar(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+
+    /**
+     * Executa a ação quando a transação ativa terminar, com commit ou
+     * rollback, ou imediatamente quando não há transação.
+     *
+     * @param acao Ação a executar
+     */
+    static void aoTerminar(Runnable acao) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    acao.run();
+                }
+            });
+        } else {
+            acao.run();
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRemovidoRepository;
+import com.example.projeto_test.repository.ReciboRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Arquivo histórico de recibos em disco.
+ *
+ * Periodicamente, os recibos criados há mais tempo que a idade máxima são
+ * movidos das tabelas {@code recibos}/{@code recibo_itens} para segmentos
+ * comprimidos e colunares em disco (ver {@link SegmentoRecibos}), que só
+ * recebem novos arquivos (nunca são alterados). Assim as tabelas e o heap
+ * guardam só os dias recentes, por mais meses que o sistema rode.
+ *
+ * Os segmentos são lidos por mapeamento em memória: o conteúdo fica no
+ * cache de páginas do sistema operacional, fora do heap, e do heap só
+ * ficam os dados de cada segmento (faixa de IDs e de datas) e os últimos
+ * segmentos descomprimidos. A busca por ID ({@code GET /api/recibos/{id}})
+ * e a reconstrução das estatísticas consultam o arquivo quando o recibo
+ * não está mais nas tabelas.
+ *
+ * Um lote é movido numa única transação: os recibos são lidos com trava de
+ * escrita, o segmento é gravado e sincronizado com o disco e os recibos são
+ * apagados das tabelas. Uma edição ou remoção concorrente espera o commit e
+ * então não encontra mais o recibo (falha em vez de se perder ou de o
+ * recibo voltar do arquivo). Se o commit falhar, o segmento é descartado;
+ * se o processo cair antes do commit, o último segmento é conferido na
+ * inicialização e os recibos que ficaram nas tabelas são apagados (são os
+ * mesmos dados, que estavam travados).
+ *
+ * Os segmentos sobrevivem ao banco: com o banco em memória padrão, a
+ * sequence dos IDs recomeça do 1 a cada reinício. Por isso, ao abrir o
+ * arquivo, a sequence é levada para depois do maior ID arquivado, e um ID
+ * novo nunca coincide com o de um recibo arquivado.
+ *
+ * As marcas de remoção ({@code recibos_removidos}) com mais que a idade
+ * máxima também são apagadas a cada arquivamento. A maior versão apagada é
+ * o horizonte das remoções, gravado no diretório do arquivo: uma
+ * sincronização incremental com {@code since} abaixo dele pode ter perdido
+ * remoções e recebe o aviso de ressincronizar (ver {@link Alteracoes}).
+ *
+ * Configuração ({@code application.properties}):
+ * <ul>
+ *   <li>{@code app.recibos.arquivo.habilitado} (padrão false)</li>
+ *   <li>{@code app.recibos.arquivo.diretorio} (padrão arquivo-recibos)</li>
+ *   <li>{@code app.recibos.arquivo.idade-maxima-dias} (padrão 30)</li>
+ *   <li>{@code app.recibos.arquivo.intervalo-minutos} (padrão 60)</li>
+ *   <li>{@code app.recibos.arquivo.recibos-por-segmento} (padrão 4096)</li>
+ * </ul>
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class ArquivoRecibos {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivoRecibos.class);
+
+    private static final String PREFIXO = "segmento-";
+
+    private static final String EXTENSAO = ".rec";
+
+    /** Arquivo com a maior versão de remoção já apagada de recibos_removidos */
+    private static final String HORIZONTE_REMOCOES = "horizonte-remocoes";
+
+    /** Segmentos descomprimidos mantidos no heap para buscas seguidas no mesmo segmento */
+    private static final int SEGMENTOS_EM_CACHE = 2;
+
+    /** IDs por comando ao apagar das tabelas */
+    private static final int IDS_POR_DELETE = 500;
+
+    /** allocationSize de recibos_seq (ver {@link Recibo}): cada valor da sequence fecha um bloco deste tamanho */
+    private static final int IDS_POR_BLOCO = 50;
+
+    private final ReciboRepository reciboRepository;
+
+    private final ReciboRemovidoRepository reciboRemovidoRepository;
+
+    private final TransactionTemplate transacao;
+
+    private final Clock clock;
+
+    private final boolean habilitado;
+
+    private final Path diretorio;
+
+    private final Duration idadeMaxima;
+
+    private final long intervaloMinutos;
+
+    private final int recibosPorSegmento;
+
+    /** Segmentos na ordem em que foram gravados */
+    private final List<SegmentoRecibos> segmentos = new CopyOnWriteArrayList<>();
+
+    private final Map<Path, List<Recibo>> descomprimidos = new LinkedHashMap<>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, List<Recibo>> maisAntigo) {
+            return size() > SEGMENTOS_EM_CACHE;
+        }
+    };
+
+    private ScheduledExecutorService agendador;
+
+    /** Número do próximo segmento (protegido por this) */
+    private long proximoSegmento = 1;
+
+    /** Versões de remoção até esta foram apagadas de recibos_removidos */
+    private volatile long horizonteRemocoes;
+
+    @Autowired
+    public ArquivoRecibos(ReciboRepository reciboRepository, ReciboRemovidoRepository reciboRemovidoRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.recibos.arquivo.habilitado:false}") boolean habilitado,
+            @Value("${app.recibos.arquivo.diretorio:arquivo-recibos}") String diretorio,
+            @Value("${app.recibos.arquivo.idade-maxima-dias:30}") long idadeMaximaDias,
+            @Value("${app.recibos.arquivo.intervalo-minutos:60}") long intervaloMinutos,
+            @Value("${app.recibos.arquivo.recibos-por-segmento:4096}") int recibosPorSegmento) {
+        this(reciboRepository, reciboRemovidoRepository, transactionManager, Clock.systemDefaultZone(), habilitado, Paths.get(diretorio),
+                Duration.ofDays(idadeMaximaDias), intervaloMinutos, recibosPorSegmento);
+    }
+
+    ArquivoRecibos(ReciboRepository reciboRepository, ReciboRemovidoRepository reciboRemovidoRepository,
+            PlatformTransactionManager transactionManager, Clock clock, boolean habilitado, Path diretorio, Duration idadeMaxima, long intervaloMinutos, int recibosPorSegmento) {
+        if (idadeMaxima.isNegative() || intervaloMinutos <= 0 || recibosPorSegmento <= 0) {
+            throw new IllegalArgumentException("Configuração do arquivo de recibos inválida");
+        }
+        this.reciboRepository = reciboRepository;
+        this.reciboRemovidoRepository = reciboRemovidoRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+        this.habilitado = habilitado;
+        this.diretorio = diretorio;
+        this.idadeMaxima = idadeMaxima;
+        this.intervaloMinutos = intervaloMinutos;
+        this.recibosPorSegmento = recibosPorSegmento;
+    }
+
+    /**
+     * Abre os segmentos existentes, conclui um movimento interrompido e
+     * agenda o arquivamento periódico.
+     */
+    @PostConstruct
+    public synchronized void iniciar() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            Files.createDirectories(diretorio);
+            try (Stream<Path> arquivos = Files.list(diretorio)) {
+                arquivos.filter(a -> a.getFileName().toString().endsWith(EXTENSAO + ".tmp"))
+                        .forEach(ArquivoRecibos::apagarSeExistir);
+            }
+            try (Stream<Path> arquivos = Files.list(diretorio)) {
+                arquivos.filter(a -> a.getFileName().toString().startsWith(PREFIXO)
+                                && a.getFileName().toString().endsWith(EXTENSAO))
+                        .sorted()
+                        .forEach(a -> segmentos.add(SegmentoRecibos.abrir(a)));
+            }
+            Path horizonte = diretorio.resolve(HORIZONTE_REMOCOES);
+            if (Files.exists(horizonte)) {
+                horizonteRemocoes = Long.parseLong(Files.readString(horizonte, StandardCharsets.UTF_8).trim());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o arquivo de recibos em " + diretorio, e);
+        }
+        if (!segmentos.isEmpty()) {
+            reservarIdsArquivados();
+            SegmentoRecibos ultimo = segmentos.get(segmentos.size() - 1);
+            proximoSegmento = numero(ultimo.getArquivo()) + 1;
+            // Só o último segmento pode ter sido gravado sem os recibos terem sido apagados
+            apagarDasTabelas(ultimo.ler().stream().map(Recibo::getId).toList());
+        }
+
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "recibos-arquivo");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(() -> {
+            try {
+                arquivar();
+            } catch (RuntimeException e) {
+                log.warn("Falha ao arquivar recibos antigos", e);
+            }
+        }, intervaloMinutos, intervaloMinutos, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+    }
+
+    /** @return {@code true} se o arquivamento está habilitado */
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Move para o arquivo os recibos criados antes da idade máxima e apaga
+     * as marcas de remoção mais antigas que ela.
+     *
+     * @return Quantidade de recibos arquivados
+     */
+    public synchronized int arquivar() {
+        if (!habilitado) {
+            return 0;
+        }
+        LocalDateTime limite = LocalDateTime.now(clock).minus(idadeMaxima);
+        int arquivados = 0;
+        int movidos;
+        do {
+            movidos = moverLote(limite);
+            arquivados += movidos;
+        } while (movidos == recibosPorSegmento);
+        apagarRemocoesAntigas(limite);
+        return arquivados;
+    }
+
+    /**
+     * Apaga todo o arquivo histórico (usado por "limpar tudo"), segmento por
+     * segmento. Cada recibo é entregue ao destino antes de o seu segmento
+     * ser apagado; se o processo cair no meio, só os segmentos restantes
+     * voltam na inicialização.
+     *
+     * @param removido Recebe cada recibo apagado
+     * @return Quantidade de recibos apagados
+     */
+    public synchronized long apagarTudo(Consumer<Recibo> removido) {
+        long apagados = 0;
+        for (SegmentoRecibos segmento : List.copyOf(segmentos)) {
+            List<Recibo> recibos = segmento.ler();
+            segmentos.remove(segmento);
+            synchronized (descomprimidos) {
+                descomprimidos.remove(segmento.getArquivo());
+            }
+            apagarSeExistir(segmento.getArquivo());
+            recibos.forEach(removido);
+            apagados += recibos.size();
+        }
+        return apagados;
+    }
+
+    /**
+     * @return Maior versão de remoção já apagada de {@code recibos_removidos}
+     *         (0 se nenhuma foi); um {@code since} abaixo dela pode ter
+     *         perdido remoções
+     */
+    public long getHorizonteRemocoes() {
+        return horizonteRemocoes;
+    }
+
+    /**
+     * Busca um recibo arquivado pelo ID.
+     *
+     * @param id ID do recibo
+     * @return Recibo arquivado (fora do contexto JPA), se existir
+     */
+    public Optional<Recibo> buscar(long id) {
+        for (int i = segmentos.size() - 1; i >= 0; i--) {
+            SegmentoRecibos segmento = segmentos.get(i);
+            if (!segmento.podeConter(id)) {
+                continue;
+            }
+            int posicao = segmento.posicao(id);
+            if (posicao >= 0) {
+                return Optional.of(descomprimido(segmento).get(posicao));
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Percorre os recibos arquivados criados no intervalo [de, ate).
+     * Segmentos fora do intervalo nem são lidos.
+     *
+     * @param de      Início (inclusivo), ou null para desde o começo
+     * @param ate     Fim (exclusivo), ou null para até o fim
+     * @param destino Recebe cada recibo
+     */
+    public void paraCada(LocalDateTime de, LocalDateTime ate, Consumer<Recibo> destino) {
+        for (SegmentoRecibos segmento : segmentos) {
+            if (!segmento.sobrepoe(de, ate)) {
+                continue;
+            }
+            // Lê sem passar pelo cache, para não tirar de lá os segmentos das buscas
+            for (Recibo recibo : segmento.ler()) {
+                LocalDateTime criacao = recibo.getDataCriacao();
+                if (criacao != null && (de == null || !criacao.isBefore(de)) && (ate == null || criacao.isBefore(ate))) {
+                    destino.accept(recibo);
+                }
+            }
+        }
+    }
+
+    /** @return Maior versão de alteração entre os recibos arquivados (0 se não houver) */
+    public long getMaiorVersao() {
+        return segmentos.stream().mapToLong(SegmentoRecibos::getMaiorVersao).max().orElse(0);
+    }
+
+    /** @return Maior ID arquivado, ou 0 se o arquivo está vazio */
+    public long getMaiorId() {
+        return segmentos.stream().mapToLong(SegmentoRecibos::getMaiorId).max().orElse(0);
+    }
+
+    /** @return Quantidade de recibos arquivados */
+    public long getQuantidade() {
+        return segmentos.stream().mapToLong(SegmentoRecibos::getQuantidade).sum();
+    }
+
+    private List<Recibo> descomprimido(SegmentoRecibos segmento) {
+        synchronized (descomprimidos) {
+            return descomprimidos.computeIfAbsent(segmento.getArquivo(), a -> segmento.ler());
+        }
+    }
+
+    /**
+     * Move um lote numa transação só: as linhas ficam travadas da leitura ao
+     * commit, então ninguém altera ou remove um recibo que já foi copiado.
+     */
+    private int moverLote(LocalDateTime limite) {
+        Path arquivo = diretorio.resolve(String.format("%s%012d%s", PREFIXO, proximoSegmento, EXTENSAO));
+        try {
+            Integer movidos = transacao.execute(status -> {
+                List<Recibo> lote = reciboRepository
+                        .findByDataCriacaoBeforeOrderById(limite, Limit.of(recibosPorSegmento));
+                if (lote.isEmpty()) {
+                    return 0;
+                }
+                lote.forEach(r -> r.getItens().size()); // carrega os itens ainda na transação
+                segmentos.add(SegmentoRecibos.gravar(arquivo, lote));
+                List<Long> ids = lote.stream().map(Recibo::getId).toList();
+                for (int i = 0; i < ids.size(); i += IDS_POR_DELETE) {
+                    List<Long> parte = ids.subList(i, Math.min(ids.size(), i + IDS_POR_DELETE));
+                    reciboRepository.deleteItensDosRecibos(parte);
+                    reciboRepository.deleteAllByIdInBatch(parte);
+                }
+                return lote.size();
+            });
+            if (movidos > 0) {
+                proximoSegmento++;
+            }
+            return movidos;
+        } catch (RuntimeException e) {
+            // Os recibos continuam nas tabelas: o segmento gravado não vale
+            segmentos.removeIf(s -> s.getArquivo().equals(arquivo));
+            synchronized (descomprimidos) {
+                descomprimidos.remove(arquivo);
+            }
+            apagarSeExistir(arquivo);
+            throw e;
+        }
+    }
+
+    /**
+     * Apaga as marcas de remoção anteriores ao limite. O novo horizonte é
+     * gravado antes de as marcas sumirem, para que nenhuma sincronização
+     * com {@code since} abaixo dele deixe de ser avisada.
+     */
+    private void apagarRemocoesAntigas(LocalDateTime limite) {
+        Long horizonte = reciboRemovidoRepository.findMaiorVersaoRemovidaAntesDe(limite);
+        if (horizonte == null || horizonte <= horizonteRemocoes) {
+            return;
+        }
+        Path arquivo = diretorio.resolve(HORIZONTE_REMOCOES);
+        Path temporario = diretorio.resolve(HORIZONTE_REMOCOES + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            canal.write(StandardCharsets.UTF_8.encode(Long.toString(horizonte)));
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar " + arquivo, e);
+        }
+        try {
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar " + arquivo, e);
+        }
+        horizonteRemocoes = horizonte;
+        transacao.executeWithoutResult(status -> reciboRemovidoRepository.deleteByVersaoAlteracaoAte(horizonte));
+    }
+
+    /**
+     * Garante que a sequence dos IDs só entregue IDs acima do maior ID
+     * arquivado. O Hibernate (otimizador pooled) usa o valor lido como o fim
+     * de um bloco de {@value #IDS_POR_BLOCO} IDs, então o valor precisa estar
+     * um bloco inteiro acima do maior ID.
+     */
+    private void reservarIdsArquivados() {
+        long maiorId = getMaiorId();
+        transacao.executeWithoutResult(status -> {
+            long proximo = reciboRepository.findProximoValorSequence();
+            if (proximo - IDS_POR_BLOCO < maiorId) {
+                reciboRepository.reiniciarSequence(maiorId + IDS_POR_BLOCO);
+                log.info("Sequence de recibos reiniciada em {} (maior ID arquivado: {})", maiorId + IDS_POR_BLOCO,
+                        maiorId);
+            }
+        });
+    }
+
+    private void apagarDasTabelas(List<Long> ids) {
+        for (int i = 0; i < ids.size(); i += IDS_POR_DELETE) {
+            List<Long> parte = ids.subList(i, Math.min(ids.size(), i + IDS_POR_DELETE));
+            transacao.executeWithoutResult(status -> {
+                reciboRepository.deleteItensDosRecibos(parte);
+                reciboRepository.deleteAllByIdInBatch(parte);
+            });
+        }
+    }
+
+    private static long numero(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+    }
+
+    private static void apagarSeExistir(Path arquivo) {
+        try {
+            Files.deleteIfExists(arquivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
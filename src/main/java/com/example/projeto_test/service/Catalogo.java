@@ -0,0 +1,67 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot imutável do cardápio mantido em memória pelo {@link ProductService}.
+ *
+ * Agrupa a lista de produtos, o índice de filtros e o índice de busca
+ * para que todos sejam publicados juntos, em uma única troca de referência.
+ *
+ * @param produtos Lista imutável de produtos
+ * @param indice   Índice de filtros sobre os mesmos produtos
+ * @param busca    Índice de busca textual sobre os nomes dos mesmos produtos
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+record Catalogo(List<Product> produtos, IndiceFiltros indice, IndiceBusca busca) {
+
+    /**
+     * Cria o snapshot a partir dos produtos carregados do banco.
+     *
+     * @param produtos Produtos do cardápio
+     * @return Novo snapshot
+     */
+    static Catalogo de(List<Product> produtos) {
+        List<Product> copia = List.copyOf(produtos);
+        return new Catalogo(copia, IndiceFiltros.construir(copia), IndiceBusca.construir(copia));
+    }
+
+    /**
+     * Retorna um novo snapshot com o produto salvo (incluído ou substituído).
+     *
+     * @param produto Produto salvo no banco
+     * @return Novo snapshot
+     */
+    Catalogo comProduto(Product produto) {
+        List<Product> lista = new ArrayList<>(produtos);
+        boolean substituido = false;
+        for (int i = 0; i < lista.size() && !substituido; i++) {
+            if (lista.get(i).getId().equals(produto.getId())) {
+                lista.set(i, produto);
+                substituido = true;
+            }
+        }
+        if (!substituido) {
+            lista.add(produto);
+        }
+        return new Catalogo(List.copyOf(lista), indice.comProduto(produto), busca.comProduto(produto));
+    }
+
+    /**
+     * Retorna um novo snapshot sem o produto informado.
+     *
+     * @param id ID do produto removido
+     * @return Novo snapshot
+     */
+    Catalogo semProduto(Long id) {
+        List<Product> lista = new ArrayList<>(produtos);
+        lista.removeIf(p -> id.equals(p.getId()));
+        return new Catalogo(List.copyOf(lista), indice.semProduto(id), busca.semProduto(id));
+    }
+}
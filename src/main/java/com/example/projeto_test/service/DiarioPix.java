@@ -0,0 +1,453 @@
+package com.example.projeto_test.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Diário (write-ahead log) das transações Pix em disco.
+ *
+ * Cada mudança de uma transação (criada, aprovada, expirada, removida) vira
+ * um registro anexado ao fim do arquivo de diário da geração atual. O
+ * registro vai para o sistema operacional na hora (sobrevive à queda do
+ * processo); o fsync é feito em lote por uma thread de fundo a cada janela
+ * de durabilidade, então só uma queda de energia perde no máximo a última
+ * janela. Com janela zero, cada registro é sincronizado antes de retornar.
+ *
+ * Formato de cada registro: tamanho (int), CRC32C dos dados (int) e os
+ * dados. Na leitura, um registro truncado ou com CRC errado (gravação
+ * interrompida pela queda) encerra a leitura daquele arquivo, que é
+ * cortado ali.
+ *
+ * Compactação: depois de muitos registros, o diário troca de geração e uma
+ * foto (snapshot) com as transações vivas é gravada em {@value #SNAPSHOT};
+ * os diários das gerações anteriores à foto são apagados. Na abertura, a
+ * foto é lida e os diários a partir da geração dela são reaplicados.
+ *
+ * Não é thread-safe para escrita: {@link TransacoesPix} grava com o próprio
+ * lock, na mesma ordem em que muda o estado.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class DiarioPix implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DiarioPix.class);
+
+    static final String SNAPSHOT = "snapshot.dat";
+
+    private static final String PREFIXO = "diario-";
+
+    private static final String EXTENSAO = ".log";
+
+    private static final int MAGICO_SNAPSHOT = 0x50495853; // "PIXS"
+
+    /** Tipos de registro */
+    enum Tipo {
+        CRIADA, APROVADA, EXPIRADA, REMOVIDA,
+        /** Transação completa (só na foto) */
+        TRANSACAO
+    }
+
+    private final Path diretorio;
+
+    private final long janelaMs;
+
+    private final int registrosParaCompactar;
+
+    private final FileChannel trava;
+
+    private final FileLock travaDiretorio;
+
+    /** Transações lidas na abertura, na ordem de criação */
+    private final Map<String, TransacoesPix.Transacao> recuperadas = new LinkedHashMap<>();
+
+    /** Diários de gerações anteriores que ainda precisam de fsync antes de fechar */
+    private final Queue<FileChannel> aFechar = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledExecutorService sincronizador;
+
+    private volatile FileChannel canal;
+
+    private volatile boolean pendente;
+
+    private long geracao;
+
+    private int registrosNaGeracao;
+
+    private DiarioPix(Path diretorio, Duration janela, int registrosParaCompactar) throws IOException {
+        this.diretorio = diretorio;
+        this.janelaMs = janela.toMillis();
+        this.registrosParaCompactar = registrosParaCompactar;
+        Files.createDirectories(diretorio);
+        trava = FileChannel.open(diretorio.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock travado;
+        try {
+            travado = trava.tryLock();
+        } catch (OverlappingFileLockException e) {
+            travado = null; // aberto por outra instância neste mesmo processo
+        }
+        travaDiretorio = travado;
+        if (travaDiretorio == null) {
+            trava.close();
+            throw new IllegalStateException("O diário Pix em " + diretorio + " já está aberto");
+        }
+        if (janelaMs > 0) {
+            sincronizador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "pix-diario-fsync");
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            sincronizador = null;
+        }
+    }
+
+    /**
+     * Abre o diário: lê a foto e reaplica os diários, e começa uma geração nova.
+     *
+     * @param diretorio              Diretório do diário
+     * @param janela                 Janela de durabilidade (intervalo entre fsyncs; zero sincroniza cada registro)
+     * @param registrosParaCompactar Registros na geração atual que disparam a compactação
+     * @return Diário aberto, com as transações recuperadas em {@link #getRecuperadas()}
+     */
+    static DiarioPix abrir(Path diretorio, Duration janela, int registrosParaCompactar) {
+        if (janela.isNegative() || registrosParaCompactar <= 0) {
+            throw new IllegalArgumentException("Configuração do diário Pix inválida");
+        }
+        try {
+            DiarioPix diario = new DiarioPix(diretorio, janela, registrosParaCompactar);
+            diario.recuperar();
+            diario.canal = diario.abrirGeracao(diario.geracao + 1);
+            if (diario.sincronizador != null) {
+                diario.sincronizador.scheduleWithFixedDelay(diario::sincronizar,
+                        diario.janelaMs, diario.janelaMs, TimeUnit.MILLISECONDS);
+            }
+            return diario;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o diário Pix em " + diretorio, e);
+        }
+    }
+
+    /** @return Transações lidas na abertura, na ordem de criação */
+    Collection<TransacoesPix.Transacao> getRecuperadas() {
+        return recuperadas.values();
+    }
+
+    /**
+     * Anexa um registro ao diário.
+     *
+     * @param tipo      Tipo do registro
+     * @param transacao Transação já com o estado novo
+     * @param instante  Momento da mudança
+     */
+    void registrar(Tipo tipo, TransacoesPix.Transacao transacao, Instant instante) {
+        try {
+            ByteBuffer registro = codificar(tipo, transacao, instante);
+            FileChannel atual = canal;
+            while (registro.hasRemaining()) {
+                atual.write(registro);
+            }
+            registrosNaGeracao++;
+            if (janelaMs == 0) {
+                atual.force(false);
+            } else {
+                pendente = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar no diário Pix", e);
+        }
+    }
+
+    /** @return {@code true} se a geração atual já tem registros suficientes para compactar */
+    boolean precisaCompactar() {
+        return registrosNaGeracao >= registrosParaCompactar;
+    }
+
+    /**
+     * Passa a gravar numa geração nova. Chamado com o estado parado (lock de
+     * quem grava), junto com a cópia das transações que vai para a foto.
+     *
+     * @return Geração nova (a foto gravada com {@link #gravarSnapshot} deve usá-la)
+     */
+    long rotacionar() {
+        try {
+            FileChannel anterior = canal;
+            canal = abrirGeracao(geracao + 1);
+            registrosNaGeracao = 0;
+            if (sincronizador != null) {
+                aFechar.add(anterior);
+            } else {
+                anterior.close();
+            }
+            return geracao;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao trocar a geração do diário Pix", e);
+        }
+    }
+
+    /**
+     * Grava a foto das transações vivas e apaga os diários que ela substitui.
+     * Pode rodar sem o lock de quem grava: só lê a cópia recebida.
+     *
+     * @param geracaoFoto Geração devolvida por {@link #rotacionar()}
+     * @param transacoes  Transações vivas no momento da rotação
+     */
+    void gravarSnapshot(long geracaoFoto, Collection<TransacoesPix.Transacao> transacoes) {
+        Path temporario = diretorio.resolve(SNAPSHOT + ".tmp");
+        try {
+            try (FileChannel saida = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer cabecalho = ByteBuffer.allocate(12).putInt(MAGICO_SNAPSHOT).putLong(geracaoFoto).flip();
+                saida.write(cabecalho);
+                for (TransacoesPix.Transacao transacao : transacoes) {
+                    ByteBuffer registro = codificar(Tipo.TRANSACAO, transacao, transacao.criadaEm());
+                    while (registro.hasRemaining()) {
+                        saida.write(registro);
+                    }
+                }
+                saida.force(true);
+            }
+            Files.move(temporario, diretorio.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            for (Path arquivo : diarios()) {
+                if (geracao(arquivo) < geracaoFoto) {
+                    Files.deleteIfExists(arquivo);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao compactar o diário Pix", e);
+        }
+    }
+
+    /** fsync do que foi gravado desde a última janela (thread "pix-diario-fsync") */
+    void sincronizar() {
+        try {
+            FileChannel anterior;
+            while ((anterior = aFechar.poll()) != null) {
+                anterior.force(false);
+                anterior.close();
+            }
+            if (pendente) {
+                pendente = false;
+                canal.force(false);
+            }
+        } catch (IOException e) {
+            log.error("Falha no fsync do diário Pix", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (sincronizador != null) {
+            sincronizador.shutdownNow();
+        }
+        try {
+            pendente = true;
+            sincronizar();
+            canal.close();
+            travaDiretorio.release();
+            trava.close();
+        } catch (IOException e) {
+            log.warn("Falha ao fechar o diário Pix", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Leitura
+    // ------------------------------------------------------------------------
+
+    private void recuperar() throws IOException {
+        long geracaoFoto = 0;
+        Path snapshot = diretorio.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            geracaoFoto = lerSnapshot(snapshot);
+        }
+        geracao = geracaoFoto;
+        for (Path arquivo : diarios()) {
+            long geracaoArquivo = geracao(arquivo);
+            if (geracaoArquivo < geracaoFoto) {
+                Files.deleteIfExists(arquivo); // sobrou de uma compactação interrompida
+                continue;
+            }
+            lerDiario(arquivo);
+            geracao = Math.max(geracao, geracaoArquivo);
+        }
+    }
+
+    private long lerSnapshot(Path snapshot) throws IOException {
+        try (FileChannel entrada = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(12);
+            lerTudo(entrada, cabecalho);
+            if (cabecalho.flip().getInt() != MAGICO_SNAPSHOT) {
+                throw new IOException("Arquivo " + snapshot + " não é uma foto do diário Pix");
+            }
+            long geracaoFoto = cabecalho.getLong();
+            long fim = lerRegistros(entrada, 12);
+            if (fim != entrada.size()) {
+                // A foto é gravada inteira antes de entrar no lugar: dano aqui não é uma gravação interrompida
+                throw new IOException("Foto do diário Pix corrompida em " + snapshot + " (posição " + fim + ")");
+            }
+            return geracaoFoto;
+        }
+    }
+
+    private void lerDiario(Path arquivo) throws IOException {
+        try (FileChannel entrada = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long fim = lerRegistros(entrada, 0);
+            if (fim < entrada.size()) {
+                log.warn("Diário Pix {} cortado na posição {} de {} (registro incompleto ou corrompido)",
+                        arquivo.getFileName(), fim, entrada.size());
+                entrada.truncate(fim);
+                entrada.force(true);
+            }
+        }
+    }
+
+    /** Aplica os registros válidos a partir da posição; devolve onde o último válido termina */
+    private long lerRegistros(FileChannel entrada, long inicio) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(8);
+        long posicao = inicio;
+        entrada.position(inicio);
+        while (true) {
+            cabecalho.clear();
+            if (!lerTudo(entrada, cabecalho)) {
+                return posicao;
+            }
+            int tamanho = cabecalho.flip().getInt();
+            int crc = cabecalho.getInt();
+            if (tamanho <= 0 || tamanho > entrada.size() - posicao - 8) {
+                return posicao;
+            }
+            ByteBuffer dados = ByteBuffer.allocate(tamanho);
+            if (!lerTudo(entrada, dados) || crc(dados.array()) != crc) {
+                return posicao;
+            }
+            aplicar(dados.array());
+            posicao += 8 + tamanho;
+        }
+    }
+
+    private void aplicar(byte[] dados) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(dados))) {
+            Tipo tipo = Tipo.values()[entrada.readByte()];
+            String id = entrada.readUTF();
+            Instant instante = Instant.ofEpochMilli(entrada.readLong());
+            switch (tipo) {
+                case CRIADA -> recuperadas.putIfAbsent(id, new TransacoesPix.Transacao(id,
+                        new BigDecimal(entrada.readUTF()), TransacoesPix.PENDENTE, instante, null));
+                case APROVADA, EXPIRADA -> {
+                    TransacoesPix.Transacao transacao = recuperadas.get(id);
+                    if (transacao != null && transacao.isPendente()) {
+                        recuperadas.put(id, new TransacoesPix.Transacao(id, transacao.valor(),
+                                tipo == Tipo.APROVADA ? TransacoesPix.APROVADA : TransacoesPix.EXPIRADA,
+                                transacao.criadaEm(), instante));
+                    }
+                }
+                case REMOVIDA -> recuperadas.remove(id);
+                case TRANSACAO -> {
+                    BigDecimal valor = new BigDecimal(entrada.readUTF());
+                    String status = entrada.readUTF();
+                    long liquidadaEm = entrada.readLong();
+                    recuperadas.put(id, new TransacoesPix.Transacao(id, valor, status, instante,
+                            liquidadaEm < 0 ? null : Instant.ofEpochMilli(liquidadaEm)));
+                }
+            }
+        } catch (EOFException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Registro do diário Pix inválido", e);
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Arquivos e formato
+    // ------------------------------------------------------------------------
+
+    private FileChannel abrirGeracao(long nova) throws IOException {
+        FileChannel novo = FileChannel.open(diretorio.resolve(String.format("%s%016d%s", PREFIXO, nova, EXTENSAO)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        geracao = nova;
+        return novo;
+    }
+
+    private List<Path> diarios() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return new ArrayList<>(arquivos
+                    .filter(a -> a.getFileName().toString().startsWith(PREFIXO)
+                            && a.getFileName().toString().endsWith(EXTENSAO))
+                    .sorted()
+                    .toList());
+        }
+    }
+
+    private static long geracao(Path arquivo) {
+        String nome = arquivo.getFileName().toString();
+        return Long.parseLong(nome.substring(PREFIXO.length(), nome.length() - EXTENSAO.length()));
+    }
+
+    private static ByteBuffer codificar(Tipo tipo, TransacoesPix.Transacao transacao, Instant instante)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream saida = new DataOutputStream(bytes)) {
+            saida.writeByte(tipo.ordinal());
+            saida.writeUTF(transacao.id());
+            saida.writeLong(instante.toEpochMilli());
+            if (tipo == Tipo.CRIADA) {
+                saida.writeUTF(transacao.valor().toPlainString());
+            } else if (tipo == Tipo.TRANSACAO) {
+                saida.writeUTF(transacao.valor().toPlainString());
+                saida.writeUTF(transacao.status());
+                saida.writeLong(transacao.liquidadaEm() == null ? -1 : transacao.liquidadaEm().toEpochMilli());
+            }
+        }
+        byte[] dados = bytes.toByteArray();
+        return ByteBuffer.allocate(8 + dados.length).putInt(dados.length).putInt(crc(dados)).put(dados).flip();
+    }
+
+    private static int crc(byte[] dados) {
+        CRC32C crc = new CRC32C();
+        crc.update(dados);
+        return (int) crc.getValue();
+    }
+
+    /** Lê até encher o buffer; {@code false} se o arquivo acabou antes */
+    private static boolean lerTudo(FileChannel entrada, ByteBuffer destino) throws IOException {
+        while (destino.hasRemaining()) {
+            if (entrada.read(destino) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Totais de vendas mantidos em memória para o painel do funcionário.
+ *
+ * Cada recibo criado, alterado ou removido soma (ou subtrai) a sua parte
+ * nos contadores do dia em que foi criado: pedidos e receita do dia, por
+ * hora, por forma de pagamento, por tipo de atendimento e, por item,
+ * unidades e receita. Os contadores são {@link LongAdder}, então vários
+ * totens registrando vendas ao mesmo tempo não disputam o mesmo lock.
+ *
+ * Os totais são reconstruídos a partir da tabela de recibos uma única vez,
+ * na inicialização (antes de o servidor aceitar requisições). Depois disso
+ * a consulta do painel só lê os contadores do dia pedido: o custo não
+ * depende de quantos recibos existem e a tabela nunca é varrida.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class EstatisticasVendas {
+
+    /** Recibos lidos por consulta ao reconstruir os totais */
+    private static final int PAGINA_RECONSTRUCAO = 500;
+
+    /** Pedidos e receita de um grupo */
+    public record Totais(long pedidos, long receita) {
+    }
+
+    /** Unidades vendidas e receita de um item */
+    public record TotaisItem(long unidades, long receita) {
+    }
+
+    /**
+     * Resumo de vendas de um dia.
+     *
+     * @param dia                Dia consultado
+     * @param pedidos            Quantidade de recibos do dia
+     * @param receita            Soma dos totais dos recibos do dia
+     * @param porHora            Totais por hora (0 a 23), só horas com vendas
+     * @param porFormaPagamento  Totais por forma de pagamento
+     * @param porTipoAtendimento Totais por tipo de atendimento
+     * @param porItem            Unidades e receita por nome de item
+     */
+    public record Resumo(LocalDate dia, long pedidos, long receita,
+            Map<Integer, Totais> porHora,
+            Map<String, Totais> porFormaPagamento,
+            Map<String, Totais> porTipoAtendimento,
+            Map<String, TotaisItem> porItem) {
+    }
+
+    /**
+     * O que um recibo soma nas estatísticas.
+     *
+     * Guardado antes de uma alteração para que a parte antiga do recibo
+     * possa ser subtraída depois que a nova for gravada.
+     */
+    public record Contribuicao(LocalDateTime dataCriacao, String formaPagamento, String tipoAtendimento,
+            long total, List<Recibo.ItemCompra> itens) {
+
+        public static Contribuicao de(Recibo recibo) {
+            return new Contribuicao(recibo.getDataCriacao(), recibo.getFormaPagamento(),
+                    recibo.getTipoAtendimento(), recibo.getTotal() != null ? recibo.getTotal() : 0,
+                    List.copyOf(recibo.getItens()));
+        }
+    }
+
+    /**
+     * Pedidos e receita de recibos apagados em lote, já somados pelo banco
+     * no mesmo agrupamento dos contadores.
+     */
+    public record GrupoRemovido(LocalDate dia, int hora, String formaPagamento, String tipoAtendimento,
+            long pedidos, long receita) {
+    }
+
+    /** Unidades e receita de um item em recibos apagados em lote */
+    public record ItemRemovido(LocalDate dia, String nome, long unidades, long receita) {
+    }
+
+    /** Contadores de pedidos e receita */
+    private static final class Contador {
+        private final LongAdder pedidos = new LongAdder();
+        private final LongAdder receita = new LongAdder();
+
+        void somar(int sinal, long valor) {
+            pedidos.add(sinal);
+            receita.add(sinal * valor);
+        }
+
+        void subtrair(long quantidade, long valor) {
+            pedidos.add(-quantidade);
+            receita.add(-valor);
+        }
+
+        Totais totais() {
+            return new Totais(pedidos.sum(), receita.sum());
+        }
+    }
+
+    /** Contadores de unidades e receita de um item */
+    private static final class ContadorItem {
+        private final LongAdder unidades = new LongAdder();
+        private final LongAdder receita = new LongAdder();
+
+        TotaisItem totais() {
+            return new TotaisItem(unidades.sum(), receita.sum());
+        }
+    }
+
+    /** Todos os contadores de um dia */
+    private static final class Dia {
+        private final Contador total = new Contador();
+        private final Contador[] porHora = new Contador[24];
+        private final ConcurrentMap<String, Contador> porFormaPagamento = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, Contador> porTipoAtendimento = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, ContadorItem> porItem = new ConcurrentHashMap<>();
+
+        Dia() {
+            for (int hora = 0; hora < porHora.length; hora++) {
+                porHora[hora] = new Contador();
+            }
+        }
+    }
+
+    private final ConcurrentMap<LocalDate, Dia> dias = new ConcurrentHashMap<>();
+
+    private final ReciboRepository reciboRepository;
+
+    private final TransactionTemplate transacao;
+
+    private final ArquivoRecibos arquivoRecibos;
+
+    public EstatisticasVendas(ReciboRepository reciboRepository, PlatformTransactionManager transactionManager,
+            ArquivoRecibos arquivoRecibos) {
+        this.reciboRepository = reciboRepository;
+        this.arquivoRecibos = arquivoRecibos;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setReadOnly(true);
+    }
+
+    /**
+     * Recalcula os totais a partir da tabela de recibos.
+     *
+     * Percorre a tabela em páginas pela chave primária (como a listagem
+     * paginada), sem carregar todos os recibos de uma vez, e depois os
+     * recibos que já foram para o arquivo histórico.
+     */
+    @PostConstruct
+    public void reconstruir() {
+        dias.clear();
+        arquivoRecibos.paraCada(null, null, this::registrar);
+        Long cursor = null;
+        do {
+            Long depoisDe = cursor;
+            Pagina<Contribuicao> pagina = transacao.execute(status -> {
+                // Um registro a mais só para saber se existe próxima página
+                Limit limite = Limit.of(PAGINA_RECONSTRUCAO + 1);
+                List<Recibo> recibos = depoisDe == null
+                        ? reciboRepository.findAllByOrderByIdDesc(limite)
+                        : reciboRepository.findByIdLessThanOrderByIdDesc(depoisDe, limite);
+                Pagina<Recibo> lidos = Pagina.deConsulta(recibos, PAGINA_RECONSTRUCAO, Recibo::getId);
+                return new Pagina<>(lidos.itens().stream().map(Contribuicao::de).toList(), lidos.proximoCursor());
+            });
+            pagina.itens().forEach(c -> aplicar(c, 1));
+            cursor = pagina.proximoCursor();
+        } while (cursor != null);
+    }
+
+    /** Soma um recibo recém-gravado */
+    public void registrar(Recibo recibo) {
+        aplicar(Contribuicao.de(recibo), 1);
+    }
+
+    /**
+     * Troca a parte antiga de um recibo alterado pela nova. Dentro de uma
+     * transação, só depois do commit: um rollback não pode mexer nos totais.
+     */
+    public void substituir(Contribuicao antes, Recibo depois) {
+        // Lê o recibo já, enquanto os itens ainda podem ser carregados
+        Contribuicao nova = Contribuicao.de(depois);
+        AposCommit.executar(() -> {
+            aplicar(antes, -1);
+            aplicar(nova, 1);
+        });
+    }
+
+    /**
+     * Subtrai um recibo removido. Dentro de uma transação, só depois do
+     * commit.
+     */
+    public void remover(Contribuicao removido) {
+        AposCommit.executar(() -> aplicar(removido, -1));
+    }
+
+    /**
+     * Subtrai recibos apagados em lote, a partir dos totais agrupados pelo
+     * banco (sem carregar os recibos).
+     */
+    public void removerEmLote(List<GrupoRemovido> grupos, List<ItemRemovido> itens) {
+        for (GrupoRemovido grupo : grupos) {
+            Dia dia = dias.computeIfAbsent(grupo.dia(), d -> new Dia());
+            dia.total.subtrair(grupo.pedidos(), grupo.receita());
+            dia.porHora[grupo.hora()].subtrair(grupo.pedidos(), grupo.receita());
+            dia.porFormaPagamento.computeIfAbsent(chave(grupo.formaPagamento()), k -> new Contador())
+                    .subtrair(grupo.pedidos(), grupo.receita());
+            dia.porTipoAtendimento.computeIfAbsent(chave(grupo.tipoAtendimento()), k -> new Contador())
+                    .subtrair(grupo.pedidos(), grupo.receita());
+        }
+        for (ItemRemovido item : itens) {
+            ContadorItem contador = dias.computeIfAbsent(item.dia(), d -> new Dia())
+                    .porItem.computeIfAbsent(chave(item.nome()), k -> new ContadorItem());
+            contador.unidades.add(-item.unidades());
+            contador.receita.add(-item.receita());
+        }
+    }
+
+    /**
+     * Resumo de vendas do dia.
+     *
+     * @param dia Dia consultado
+     * @return Totais do dia (zerados se não houve vendas)
+     */
+    public Resumo resumo(LocalDate dia) {
+        Dia contadores = dias.get(dia);
+        if (contadores == null) {
+            return new Resumo(dia, 0, 0, Map.of(), Map.of(), Map.of(), Map.of());
+        }
+
+        Map<Integer, Totais> porHora = new TreeMap<>();
+        for (int hora = 0; hora < contadores.porHora.length; hora++) {
+            Totais totais = contadores.porHora[hora].totais();
+            if (totais.pedidos() != 0) {
+                porHora.put(hora, totais);
+            }
+        }
+        Map<String, Totais> porFormaPagamento = new TreeMap<>();
+        contadores.porFormaPagamento.forEach((forma, c) -> adicionarSeHouver(porFormaPagamento, forma, c));
+        Map<String, Totais> porTipoAtendimento = new TreeMap<>();
+        contadores.porTipoAtendimento.forEach((tipo, c) -> adicionarSeHouver(porTipoAtendimento, tipo, c));
+        Map<String, TotaisItem> porItem = new TreeMap<>();
+        contadores.porItem.forEach((nome, c) -> {
+            TotaisItem totais = c.totais();
+            if (totais.unidades() != 0) {
+                porItem.put(nome, totais);
+            }
+        });
+
+        Totais total = contadores.total.totais();
+        return new Resumo(dia, total.pedidos(), total.receita(),
+                porHora, porFormaPagamento, porTipoAtendimento, porItem);
+    }
+
+    private static void adicionarSeHouver(Map<String, Totais> destino, String chave, Contador contador) {
+        Totais totais = contador.totais();
+        if (totais.pedidos() != 0) {
+            destino.put(chave, totais);
+        }
+    }
+
+    /** Soma ({@code sinal} = 1) ou subtrai ({@code sinal} = -1) a parte de um recibo */
+    private void aplicar(Contribuicao c, int sinal) {
+        if (c.dataCriacao() == null) {
+            return;
+        }
+        Dia dia = dias.computeIfAbsent(c.dataCriacao().toLocalDate(), d -> new Dia());
+        dia.total.somar(sinal, c.total());
+        dia.porHora[c.dataCriacao().getHour()].somar(sinal, c.total());
+        dia.porFormaPagamento.computeIfAbsent(chave(c.formaPagamento()), k -> new Contador())
+                .somar(sinal, c.total());
+        dia.porTipoAtendimento.computeIfAbsent(chave(c.tipoAtendimento()), k -> new Contador())
+                .somar(sinal, c.total());
+        for (Recibo.ItemCompra item : c.itens()) {
+            if (item.getQuantidade() == null || item.getPreco() == null) {
+                continue;
+            }
+            ContadorItem contador = dia.porItem.computeIfAbsent(chave(item.getNome()), k -> new ContadorItem());
+            contador.unidades.add((long) sinal * item.getQuantidade());
+            contador.receita.add((long) sinal * item.getSubtotal());
+        }
+    }
+
+    private static String chave(String valor) {
+        return valor == null || valor.isBlank() ? "NAO_INFORMADO" : valor.trim();
+    }
+}
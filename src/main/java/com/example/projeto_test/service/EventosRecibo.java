@@ -0,0 +1,288 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Eventos de recibos criados, alterados e removidos, para as telas que
+ * acompanham os pedidos em tempo real (ver {@code GET /api/recibos/stream}).
+ *
+ * Cada evento recebe um ID crescente e fica em um histórico circular dos
+ * últimos eventos. Uma tela que reconecta informa o último ID recebido e
+ * recebe só o que perdeu; se o que ela perdeu já saiu do histórico, recebe
+ * um evento {@value #RECARREGAR} para buscar a lista de novo.
+ *
+ * Publicar nunca espera por um assinante: o evento é serializado uma vez,
+ * colocado na fila de cada assinante e entregue por uma thread virtual.
+ * Um assinante lento só atrasa a si mesmo; se acumular mais eventos do que
+ * o limite, a conexão dele é encerrada e a tela reconecta a partir do
+ * último ID recebido.
+ *
+ * Configuração ({@code application.properties}):
+ * <ul>
+ *   <li>{@code app.recibos.stream.historico} (padrão 1000)</li>
+ *   <li>{@code app.recibos.stream.pendentes-por-assinante} (padrão 500)</li>
+ *   <li>{@code app.recibos.stream.heartbeat-segundos} (padrão 20)</li>
+ * </ul>
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Component
+public class EventosRecibo {
+
+    /** Recibo criado */
+    public static final String CRIADO = "criado";
+
+    /** Recibo alterado */
+    public static final String ATUALIZADO = "atualizado";
+
+    /** Recibo removido (concluído) */
+    public static final String REMOVIDO = "removido";
+
+    /** A tela perdeu eventos demais e deve recarregar a lista */
+    public static final String RECARREGAR = "recarregar";
+
+    /**
+     * Evento já serializado.
+     *
+     * @param id    ID crescente (0 para eventos sem posição no histórico)
+     * @param tipo  Tipo do evento, ou null para um heartbeat
+     * @param dados Recibo em JSON
+     */
+    public record Evento(long id, String tipo, String dados) {
+    }
+
+    /** Destino dos eventos de um assinante (ex: a conexão SSE) */
+    @FunctionalInterface
+    public interface Destino {
+        void enviar(Evento evento) throws Exception;
+    }
+
+    private static final Evento HEARTBEAT = new Evento(0, null, null);
+
+    private final ObjectMapper objectMapper;
+
+    private final int historico;
+
+    private final int pendentesPorAssinante;
+
+    /** Últimos eventos publicados (protegido por this) */
+    private final Deque<Evento> ultimos = new ArrayDeque<>();
+
+    /**
+     * ID do último evento publicado (protegido por this). Começa no horário
+     * de início em milissegundos para que IDs guardados pela tela antes de um
+     * reinício não se confundam com os novos: eles caem fora do histórico e
+     * a tela recarrega a lista.
+     */
+    private long ultimoId = System.currentTimeMillis();
+
+    private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+
+    private final ExecutorService entregas = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "recibos-stream-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public EventosRecibo(ObjectMapper objectMapper,
+            @Value("${app.recibos.stream.historico:1000}") int historico,
+            @Value("${app.recibos.stream.pendentes-por-assinante:500}") int pendentesPorAssinante,
+            @Value("${app.recibos.stream.heartbeat-segundos:20}") long heartbeatSegundos) {
+        if (historico <= 0 || pendentesPorAssinante <= 0 || heartbeatSegundos <= 0) {
+            throw new IllegalArgumentException("Configuração do stream de recibos inválida");
+        }
+        this.objectMapper = objectMapper;
+        this.historico = historico;
+        this.pendentesPorAssinante = pendentesPorAssinante;
+        heartbeat.scheduleAtFixedRate(() -> assinantes.forEach(a -> a.entregar(HEARTBEAT)),
+                heartbeatSegundos, heartbeatSegundos, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Publica um evento de recibo.
+     *
+     * Dentro de uma transação, o evento só é publicado depois do commit (e
+     * descartado em caso de rollback); fora dela, é publicado na hora.
+     *
+     * @param tipo   {@link #CRIADO}, {@link #ATUALIZADO} ou {@link #REMOVIDO}
+     * @param recibo Recibo gravado
+     */
+    public void publicar(String tipo, Recibo recibo) {
+        // Serializa já, enquanto os itens do recibo ainda podem ser carregados
+        String dados = serializar(recibo);
+        AposCommit.executar(() -> distribuir(tipo, dados));
+    }
+
+    /**
+     * Pede a todas as telas que recarreguem a lista (depois de uma mudança
+     * em muitos recibos de uma vez, como uma limpeza em lote).
+     */
+    public void publicarRecarregar() {
+        distribuir(RECARREGAR, "{}");
+    }
+
+    /**
+     * Inscreve um assinante.
+     *
+     * Os eventos perdidos desde {@code ultimoIdRecebido} são entregues
+     * antes dos novos, sem lacunas nem repetições.
+     *
+     * @param ultimoIdRecebido ID do último evento que a tela recebeu (null para só os novos)
+     * @param destino          Para onde enviar os eventos
+     * @param aoEncerrar       Chamado quando o assinante é desligado por excesso de eventos
+     *                         ou por erro de envio
+     * @return Assinante, para {@link #cancelar(Assinante)}
+     */
+    public Assinante inscrever(Long ultimoIdRecebido, Destino destino, Runnable aoEncerrar) {
+        Assinante assinante = new Assinante(destino, aoEncerrar);
+        List<Evento> perdidos = new ArrayList<>();
+        synchronized (this) {
+            if (ultimoIdRecebido != null && ultimoIdRecebido != ultimoId) {
+                Evento maisAntigo = ultimos.peekFirst();
+                if (ultimoIdRecebido > ultimoId || maisAntigo == null || maisAntigo.id() > ultimoIdRecebido + 1) {
+                    perdidos.add(new Evento(ultimoId, RECARREGAR, "{}"));
+                } else {
+                    for (Evento evento : ultimos) {
+                        if (evento.id() > ultimoIdRecebido) {
+                            perdidos.add(evento);
+                        }
+                    }
+                }
+                if (perdidos.size() > pendentesPorAssinante) {
+                    // Mais do que cabe na fila: recarregar a lista sai mais barato
+                    perdidos = List.of(new Evento(ultimoId, RECARREGAR, "{}"));
+                }
+            }
+            // Entra na lista ainda com o lock: nenhum evento novo fica entre
+            // os perdidos e os próximos
+            perdidos.forEach(assinante::entregar);
+            assinantes.add(assinante);
+        }
+        return assinante;
+    }
+
+    /** Remove um assinante (conexão encerrada pela tela) */
+    public void cancelar(Assinante assinante) {
+        assinante.ativo.set(false);
+        assinantes.remove(assinante);
+    }
+
+    /** @return Quantidade de assinantes conectados */
+    public int getAssinantes() {
+        return assinantes.size();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        heartbeat.shutdownNow();
+        entregas.shutdownNow();
+    }
+
+    private void distribuir(String tipo, String dados) {
+        Evento evento;
+        synchronized (this) {
+            evento = new Evento(++ultimoId, tipo, dados);
+            ultimos.addLast(evento);
+            if (ultimos.size() > historico) {
+                ultimos.removeFirst();
+            }
+            // Com o lock, para não passar na frente dos perdidos de quem está se inscrevendo
+            assinantes.forEach(a -> a.entregar(evento));
+        }
+    }
+
+    private String serializar(Recibo recibo) {
+        try {
+            return objectMapper.writeValueAsString(recibo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o recibo", e);
+        }
+    }
+
+    /**
+     * Uma tela conectada: fila própria de eventos, esvaziada por uma
+     * thread virtual só enquanto houver eventos pendentes.
+     */
+    public final class Assinante {
+
+        private final Destino destino;
+
+        private final Runnable aoEncerrar;
+
+        private final Queue<Evento> fila = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendentes = new AtomicInteger();
+
+        private final AtomicBoolean enviando = new AtomicBoolean();
+
+        private final AtomicBoolean ativo = new AtomicBoolean(true);
+
+        private Assinante(Destino destino, Runnable aoEncerrar) {
+            this.destino = destino;
+            this.aoEncerrar = aoEncerrar;
+        }
+
+        /** Enfileira sem bloquear; desliga o assinante se ele ficou para trás */
+        private void entregar(Evento evento) {
+            if (!ativo.get()) {
+                return;
+            }
+            if (pendentes.incrementAndGet() > pendentesPorAssinante) {
+                encerrar();
+                return;
+            }
+            fila.add(evento);
+            if (enviando.compareAndSet(false, true)) {
+                entregas.execute(this::enviarPendentes);
+            }
+        }
+
+        private void enviarPendentes() {
+            do {
+                Evento evento;
+                while (ativo.get() && (evento = fila.poll()) != null) {
+                    pendentes.decrementAndGet();
+                    try {
+                        destino.enviar(evento);
+                    } catch (Exception e) {
+                        encerrar();
+                        return;
+                    }
+                }
+                enviando.set(false);
+                // Um evento pode ter chegado entre o último poll e o set(false)
+            } while (ativo.get() && !fila.isEmpty() && enviando.compareAndSet(false, true));
+        }
+
+        private void encerrar() {
+            if (ativo.compareAndSet(true, false)) {
+                assinantes.remove(this);
+                fila.clear();
+                aoEncerrar.run();
+            }
+        }
+    }
+}
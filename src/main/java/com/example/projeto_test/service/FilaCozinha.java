@@ -0,0 +1,353 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fila de pedidos da cozinha, em memória.
+ *
+ * Todo recibo criado entra na fila como {@link Estado#RECEBIDO}. Os tablets
+ * da cozinha pegam o próximo pedido ({@link #pegarProximo(String)}), que
+ * passa a {@link Estado#EM_PREPARO}, depois o marcam como
+ * {@link Estado#PRONTO} e, ao entregar ao cliente, {@link Estado#ENTREGUE}
+ * (quando o pedido sai da fila).
+ *
+ * Ordem: pedidos preferenciais primeiro; entre pedidos do mesmo tipo, o
+ * mais antigo primeiro (data de criação, depois ID). Os pedidos aguardando
+ * ficam em uma {@link ConcurrentSkipListSet} nessa ordem: entrar na fila e
+ * pegar o próximo custam O(log n) e vários tablets podem pegar pedidos ao
+ * mesmo tempo sem lock, cada pedido indo para um único tablet. As demais
+ * transições são uma troca atômica de estado ({@code compareAndSet}): de
+ * dois tablets marcando o mesmo pedido, só um consegue.
+ *
+ * O estado da cozinha não é gravado no banco: após um reinício os recibos
+ * do dia são lidos de novo (uma consulta) e voltam à fila como
+ * {@link Estado#RECEBIDO}. Quando o dia vira, os pedidos de dias anteriores
+ * que não foram entregues saem da fila.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class FilaCozinha {
+
+    /** Estados de um pedido na cozinha */
+    public enum Estado {
+        RECEBIDO, EM_PREPARO, PRONTO, ENTREGUE
+    }
+
+    /**
+     * Pedido como visto pela cozinha.
+     *
+     * @param reciboId        ID do recibo
+     * @param numeroChamada   Número de chamada do dia
+     * @param dataChamada     Dia de operação do número de chamada
+     * @param preferencial    {@code true} para atendimento preferencial
+     * @param dataCriacao     Data e hora do pedido
+     * @param estado          Estado atual
+     * @param estacao         Tablet que pegou o pedido (null enquanto aguarda)
+     * @param observacoes     Observações do cliente
+     * @param itens           Itens do pedido
+     */
+    public record Pedido(Long reciboId, String numeroChamada, LocalDate dataChamada, boolean preferencial,
+            LocalDateTime dataCriacao, Estado estado, String estacao, String observacoes, List<Recibo.ItemCompra> itens) {
+    }
+
+    /** O que pode mudar em um pedido depois de criado (observações e itens) */
+    private record Conteudo(String observacoes, List<Recibo.ItemCompra> itens) {
+
+        static Conteudo de(Recibo recibo) {
+            return new Conteudo(recibo.getObservacoes(),
+                    recibo.getItens() != null ? List.copyOf(recibo.getItens()) : List.of());
+        }
+    }
+
+    /** Pedido na fila; os campos da ordem não mudam enquanto ele está no conjunto ordenado */
+    private static final class Entrada {
+        private final long reciboId;
+        private final String numeroChamada;
+        private final LocalDate dataChamada;
+        private final boolean preferencial;
+        private final LocalDateTime dataCriacao;
+        private final AtomicReference<Estado> estado = new AtomicReference<>(Estado.RECEBIDO);
+        private volatile String estacao;
+        private volatile Conteudo conteudo;
+
+        Entrada(Recibo recibo) {
+            this.reciboId = recibo.getId();
+            this.numeroChamada = recibo.getNumeroChamada();
+            this.dataChamada = recibo.getDataChamada();
+            this.preferencial = "PREFERENCIAL".equals(recibo.getTipoAtendimento());
+            this.dataCriacao = recibo.getDataCriacao();
+            this.conteudo = Conteudo.de(recibo);
+        }
+
+        /** Dia de operação do pedido (o da criação, se não tem número de chamada) */
+        LocalDate doDia() {
+            return dataChamada != null ? dataChamada : dataCriacao != null ? dataCriacao.toLocalDate() : null;
+        }
+
+        Pedido pedido() {
+            Conteudo atual = conteudo;
+            return new Pedido(reciboId, numeroChamada, dataChamada, preferencial, dataCriacao, estado.get(), estacao,
+                    atual.observacoes(), atual.itens());
+        }
+    }
+
+    private static final Comparator<Entrada> ORDEM = Comparator
+            .comparing((Entrada e) -> !e.preferencial)
+            .thenComparing(e -> e.dataCriacao, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(e -> e.reciboId);
+
+    /** Pedidos aguardando um tablet, na ordem de atendimento */
+    private final ConcurrentSkipListSet<Entrada> aguardando = new ConcurrentSkipListSet<>(ORDEM);
+
+    /** Todos os pedidos ainda não entregues, por ID do recibo */
+    private final ConcurrentMap<Long, Entrada> ativos = new ConcurrentHashMap<>();
+
+    /** Avisados a cada mudança na fila (ver {@link #aoMudar(Runnable)}) */
+    private final List<Runnable> observadores = new CopyOnWriteArrayList<>();
+
+    private final ReciboRepository reciboRepository;
+
+    private final Clock relogio;
+
+    /** Dia de operação da fila (trocado por {@link #virarDia()}) */
+    private volatile LocalDate dia;
+
+    @Autowired
+    public FilaCozinha(ReciboRepository reciboRepository) {
+        this(reciboRepository, Clock.systemDefaultZone());
+    }
+
+    FilaCozinha(ReciboRepository reciboRepository, Clock relogio) {
+        this.reciboRepository = reciboRepository;
+        this.relogio = relogio;
+        this.dia = LocalDate.now(relogio);
+    }
+
+    /**
+     * Recoloca na fila os recibos do dia (os removidos já não estão nas
+     * tabelas), todos como {@link Estado#RECEBIDO}.
+     */
+    @PostConstruct
+    public void reconstruir() {
+        virarDia();
+        for (Recibo recibo : reciboRepository.findRecibosDoDiaComItens(dia)) {
+            Entrada entrada = new Entrada(recibo);
+            if (ativos.putIfAbsent(entrada.reciboId, entrada) == null) {
+                aguardando.add(entrada);
+            }
+        }
+        avisar();
+    }
+
+    /**
+     * Registra uma ação chamada depois de cada mudança na fila (pedido
+     * recebido, pego, pronto, entregue, alterado ou removido). A ação roda
+     * na thread que fez a mudança e deve ser rápida.
+     *
+     * @param observador Ação a chamar
+     */
+    public void aoMudar(Runnable observador) {
+        observadores.add(observador);
+    }
+
+    /**
+     * Coloca um recibo recém-gravado na fila.
+     *
+     * @param recibo Recibo salvo (com ID)
+     */
+    public void receber(Recibo recibo) {
+        virarDia();
+        Entrada entrada = new Entrada(recibo);
+        if (entrada.doDia() != null && entrada.doDia().isBefore(dia)) {
+            return;
+        }
+        if (ativos.putIfAbsent(entrada.reciboId, entrada) == null) {
+            aguardando.add(entrada);
+            avisar();
+        }
+    }
+
+    /**
+     * Pega o próximo pedido da fila para preparo.
+     *
+     * @param estacao Identificação do tablet (opcional)
+     * @return Pedido pego, já {@link Estado#EM_PREPARO}, ou vazio se não há pedidos aguardando
+     */
+    public Optional<Pedido> pegarProximo(String estacao) {
+        virarDia();
+        while (true) {
+            Entrada entrada = aguardando.pollFirst();
+            if (entrada == null) {
+                return Optional.empty();
+            }
+            // Um pedido removido ao mesmo tempo pode ter saído do mapa antes de sair do conjunto
+            if (ativos.get(entrada.reciboId) == entrada
+                    && entrada.estado.compareAndSet(Estado.RECEBIDO, Estado.EM_PREPARO)) {
+                entrada.estacao = estacao;
+                avisar();
+                return Optional.of(entrada.pedido());
+            }
+        }
+    }
+
+    /**
+     * Marca um pedido em preparo como pronto.
+     *
+     * @param reciboId ID do recibo
+     * @return Pedido atualizado
+     * @throws RuntimeException      se o pedido não estiver na fila
+     * @throws IllegalStateException se o pedido não estiver em preparo
+     */
+    public Pedido marcarPronto(long reciboId) {
+        Entrada entrada = mudar(reciboId, Estado.EM_PREPARO, Estado.PRONTO);
+        avisar();
+        return entrada.pedido();
+    }
+
+    /**
+     * Marca um pedido pronto como entregue e o tira da fila.
+     *
+     * @param reciboId ID do recibo
+     * @return Pedido entregue
+     * @throws RuntimeException      se o pedido não estiver na fila
+     * @throws IllegalStateException se o pedido não estiver pronto
+     */
+    public Pedido entregar(long reciboId) {
+        Entrada entrada = mudar(reciboId, Estado.PRONTO, Estado.ENTREGUE);
+        ativos.remove(reciboId, entrada);
+        avisar();
+        return entrada.pedido();
+    }
+
+    /**
+     * @return Pedidos não entregues: primeiro os aguardando (na ordem de
+     *         atendimento), depois os em preparo e os prontos
+     */
+    public List<Pedido> listar() {
+        virarDia();
+        return ativos.values().stream()
+                .sorted(Comparator.comparing((Entrada e) -> e.estado.get()).thenComparing(ORDEM))
+                .map(Entrada::pedido)
+                .toList();
+    }
+
+    /**
+     * @param reciboId ID do recibo
+     * @return Pedido, se ainda não foi entregue
+     */
+    public Optional<Pedido> buscar(long reciboId) {
+        virarDia();
+        return Optional.ofNullable(ativos.get(reciboId)).map(Entrada::pedido);
+    }
+
+    /** @return Quantidade de pedidos aguardando um tablet */
+    public int getAguardando() {
+        virarDia();
+        return aguardando.size();
+    }
+
+    /**
+     * Atualiza observações e itens de um pedido alterado (a posição na fila
+     * não muda). Dentro de uma transação, só depois do commit.
+     *
+     * @param recibo Recibo alterado
+     */
+    public void atualizar(Recibo recibo) {
+        Conteudo conteudo = Conteudo.de(recibo);
+        long reciboId = recibo.getId();
+        AposCommit.executar(() -> {
+            Entrada entrada = ativos.get(reciboId);
+            if (entrada != null) {
+                entrada.conteudo = conteudo;
+                avisar();
+            }
+        });
+    }
+
+    /**
+     * Tira da fila pedidos cujos recibos foram removidos. Dentro de uma
+     * transação, só depois do commit.
+     *
+     * @param reciboIds IDs dos recibos removidos
+     */
+    public void remover(Collection<Long> reciboIds) {
+        List<Long> ids = List.copyOf(reciboIds);
+        AposCommit.executar(() -> {
+            boolean removido = false;
+            for (Long id : ids) {
+                Entrada entrada = ativos.remove(id);
+                if (entrada != null) {
+                    aguardando.remove(entrada);
+                    removido = true;
+                }
+            }
+            if (removido) {
+                avisar();
+            }
+        });
+    }
+
+    /**
+     * Na primeira chamada de um dia novo, tira da fila os pedidos de dias
+     * anteriores que não foram entregues.
+     */
+    private void virarDia() {
+        LocalDate hoje = LocalDate.now(relogio);
+        if (hoje.equals(dia)) {
+            return;
+        }
+        boolean removido = false;
+        synchronized (this) {
+            if (!hoje.equals(dia)) {
+                dia = hoje;
+                for (Entrada entrada : ativos.values()) {
+                    if (entrada.doDia() != null && entrada.doDia().isBefore(hoje)
+                            && ativos.remove(entrada.reciboId, entrada)) {
+                        aguardando.remove(entrada);
+                        removido = true;
+                    }
+                }
+            }
+        }
+        if (removido) {
+            avisar();
+        }
+    }
+
+    private void avisar() {
+        observadores.forEach(Runnable::run);
+    }
+
+    private Entrada mudar(long reciboId, Estado de, Estado para) {
+        virarDia();
+        Entrada entrada = ativos.get(reciboId);
+        if (entrada == null) {
+            throw new RuntimeException("Pedido não encontrado na fila da cozinha");
+        }
+        if (!entrada.estado.compareAndSet(de, para)) {
+            throw new IllegalStateException("Pedido " + entrada.numeroChamada + " está " + entrada.estado.get()
+                    + ", não " + de);
+        }
+        return entrada;
+    }
+}
@@ -6,14 +6,20 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 public class FilterService {
 
     private final FilterRepository filterRepository;
+    private final ProductService productService;
 
-    public FilterService(FilterRepository filterRepository) {
+    // Bumped on every change; starts at boot time so values never repeat across restarts
+    private final AtomicLong versao = new AtomicLong(System.currentTimeMillis());
+
+    public FilterService(FilterRepository filterRepository, ProductService productService) {
         this.filterRepository = filterRepository;
+        this.productService = productService;
     }
 
     public List<Filter> getAllFilters() {
@@ -26,11 +32,23 @@ public class FilterService {
         if (existing.isPresent()) {
             throw new IllegalArgumentException("Filter with this name already exists");
         }
-        return filterRepository.save(filter);
+        Filter saved = filterRepository.save(filter);
+        versao.incrementAndGet();
+        return saved;
     }
 
     public void deleteFilter(Long id) {
         filterRepository.deleteById(id);
+        versao.incrementAndGet();
+        // Products embed their filters, so the cached menu must be reloaded
+        productService.filtroRemovido(id);
+    }
+
+    /**
+     * Current version of the filter list, used as the ETag of GET /api/filters.
+     */
+    public long getVersao() {
+        return versao.get();
     }
 
     public Filter getFilterById(Long id) {
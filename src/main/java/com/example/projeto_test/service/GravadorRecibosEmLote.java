@@ -0,0 +1,251 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Gravação de recibos em grupo ("group commit") para horários de pico.
+ *
+ * Quando habilitado, os recibos criados ao mesmo tempo por vários totens
+ * são acumulados por alguns milissegundos (ou até completar um lote) e
+ * gravados por uma thread de fundo em uma única transação, com os INSERTs
+ * de {@code recibos} e {@code recibo_itens} enviados em lote JDBC. Cada
+ * chamador continua recebendo o seu próprio recibo salvo: se a transação
+ * do lote falhar, os recibos são regravados um a um para que cada
+ * chamador receba o seu próprio erro.
+ *
+ * Nenhum chamador fica esperando para sempre: a entrada na fila e o
+ * encerramento são mutuamente exclusivos, os recibos que sobrarem na fila
+ * quando a thread de fundo terminar (encerramento, interrupção ou erro)
+ * falham na hora, e a espera de cada chamador é limitada. Um recibo que
+ * ainda está na fila quando a espera acaba é retirado dela e não é gravado.
+ *
+ * Configuração ({@code application.properties}):
+ * <ul>
+ *   <li>{@code app.recibos.group-commit.habilitado} (padrão false)</li>
+ *   <li>{@code app.recibos.group-commit.tamanho-lote} (padrão 32)</li>
+ *   <li>{@code app.recibos.group-commit.espera-maxima-ms} (padrão 5)</li>
+ * </ul>
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Component
+public class GravadorRecibosEmLote {
+
+    /** Tempo máximo da transação de um lote (a regravação um a um usa o mesmo limite por recibo) */
+    private static final int TIMEOUT_TRANSACAO_SEGUNDOS = 10;
+
+    /** Espera máxima do chamador; depois disso o recibo é retirado da fila se ainda não foi pego */
+    private static final long ESPERA_RESULTADO_SEGUNDOS = 15;
+
+    private record Pendente(Recibo recibo, CompletableFuture<Recibo> resultado, AtomicBoolean tomado) {
+
+        Pendente(Recibo recibo) {
+            this(recibo, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        /** Quem tomar primeiro decide o destino do recibo: a thread de fundo (grava) ou o chamador (desiste) */
+        boolean tomar() {
+            return tomado.compareAndSet(false, true);
+        }
+    }
+
+    private final ReciboRepository reciboRepository;
+
+    private final TransactionTemplate transacao;
+
+    private final boolean habilitado;
+
+    private final int tamanhoLote;
+
+    private final long esperaMaximaNanos;
+
+    private final BlockingQueue<Pendente> fila = new LinkedBlockingQueue<>();
+
+    /** Torna "ver ativo + entrar na fila" e "desativar" mutuamente exclusivos */
+    private final Object entrada = new Object();
+
+    private volatile boolean ativo;
+
+    private Thread gravador;
+
+    public GravadorRecibosEmLote(ReciboRepository reciboRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.recibos.group-commit.habilitado:false}") boolean habilitado,
+            @Value("${app.recibos.group-commit.tamanho-lote:32}") int tamanhoLote,
+            @Value("${app.recibos.group-commit.espera-maxima-ms:5}") long esperaMaximaMs) {
+        if (tamanhoLote <= 0 || esperaMaximaMs < 0) {
+            throw new IllegalArgumentException("Configuração de group commit inválida");
+        }
+        this.reciboRepository = reciboRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.transacao.setTimeout(TIMEOUT_TRANSACAO_SEGUNDOS);
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+        this.esperaMaximaNanos = TimeUnit.MILLISECONDS.toNanos(esperaMaximaMs);
+    }
+
+    /**
+     * @return {@code true} se os recibos devem ser gravados em grupo
+     */
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * Coloca o recibo no próximo lote e espera a gravação dele.
+     *
+     * @param recibo Recibo pronto para ser salvo
+     * @return Recibo salvo (com ID gerado)
+     * @throws RuntimeException O mesmo erro que {@code ReciboRepository.save} lançaria
+     */
+    public Recibo salvar(Recibo recibo) {
+        Pendente pendente = new Pendente(recibo);
+        synchronized (entrada) {
+            if (!ativo) {
+                throw new IllegalStateException("Gravação em grupo não está ativa");
+            }
+            fila.add(pendente);
+        }
+        try {
+            try {
+                return pendente.resultado().get(ESPERA_RESULTADO_SEGUNDOS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                if (pendente.tomar()) {
+                    fila.remove(pendente);
+                    throw new IllegalStateException("Gravação em grupo não respondeu a tempo", e);
+                }
+                // Já está sendo gravado: a transação do lote tem timeout próprio
+                return pendente.resultado().get(ESPERA_RESULTADO_SEGUNDOS, TimeUnit.SECONDS);
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Gravação em grupo não respondeu a tempo", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido esperando a gravação em grupo", e);
+        }
+    }
+
+    @PostConstruct
+    public synchronized void iniciar() {
+        if (!habilitado || gravador != null) {
+            return;
+        }
+        ativo = true;
+        gravador = new Thread(this::gravarLotes, "recibos-group-commit");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() throws InterruptedException {
+        if (gravador == null) {
+            return;
+        }
+        synchronized (entrada) {
+            ativo = false;
+        }
+        gravador.join(TimeUnit.SECONDS.toMillis(5));
+        gravador = null;
+        // A thread de fundo não terminou a tempo: quem ainda está na fila não espera mais
+        falharPendentes(new IllegalStateException("Gravação em grupo encerrada"));
+    }
+
+    private void gravarLotes() {
+        List<Pendente> lote = new ArrayList<>(tamanhoLote);
+        try {
+            while (ativo || !fila.isEmpty()) {
+                try {
+                    Pendente primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                    if (primeiro == null) {
+                        continue;
+                    }
+                    adicionar(lote, primeiro);
+                    // Acumula até completar o lote ou vencer a espera máxima
+                    long limite = System.nanoTime() + esperaMaximaNanos;
+                    while (lote.size() < tamanhoLote) {
+                        long restante = limite - System.nanoTime();
+                        Pendente proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : fila.poll();
+                        if (proximo == null) {
+                            break;
+                        }
+                        adicionar(lote, proximo);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (!lote.isEmpty()) {
+                    gravar(lote);
+                    lote.clear();
+                }
+            }
+        } finally {
+            // Saída por encerramento, interrupção ou Error: nenhum chamador pode ficar esperando
+            synchronized (entrada) {
+                ativo = false;
+            }
+            IllegalStateException erro = new IllegalStateException("Gravação em grupo encerrada");
+            lote.forEach(p -> p.resultado().completeExceptionally(erro));
+            falharPendentes(erro);
+        }
+    }
+
+    /** Só entra no lote o recibo cujo chamador ainda não desistiu */
+    private static void adicionar(List<Pendente> lote, Pendente pendente) {
+        if (pendente.tomar()) {
+            lote.add(pendente);
+        }
+    }
+
+    private void falharPendentes(RuntimeException erro) {
+        Pendente pendente;
+        while ((pendente = fila.poll()) != null) {
+            pendente.resultado().completeExceptionally(erro);
+        }
+    }
+
+    private void gravar(List<Pendente> lote) {
+        try {
+            List<Recibo> salvos = transacao.execute(status ->
+                    reciboRepository.saveAll(lote.stream().map(Pendente::recibo).toList()));
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).resultado().complete(salvos.get(i));
+            }
+        } catch (RuntimeException erroDoLote) {
+            // Um recibo com problema não pode derrubar os outros: regrava um a um
+            for (Pendente pendente : lote) {
+                pendente.recibo().setId(null);
+                try {
+                    pendente.resultado().complete(transacao.execute(status ->
+                            reciboRepository.save(pendente.recibo())));
+                } catch (RuntimeException e) {
+                    pendente.resultado().completeExceptionally(e);
+                }
+            }
+        }
+    }
+}
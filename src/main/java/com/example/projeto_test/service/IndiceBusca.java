@@ -0,0 +1,376 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Índice imutável de busca textual sobre os nomes dos produtos.
+ *
+ * Os nomes são normalizados (sem acentos, minúsculos, só letras e dígitos)
+ * e quebrados em termos, de modo que "Sanduíche" e "sanduiche" são o mesmo
+ * termo. Cada termo da consulta é resolvido em três níveis, do mais barato
+ * ao mais caro:
+ * <ol>
+ *   <li>prefixo, por um intervalo do vocabulário ordenado ({@link TreeMap});</li>
+ *   <li>trecho no meio do termo, pelos trigramas do vocabulário;</li>
+ *   <li>somente se nada for encontrado, distância de edição limitada
+ *       (1 erro até 5 letras, 2 acima disso) contra o vocabulário.</li>
+ * </ol>
+ * Com vários termos na consulta o produto precisa casar com todos.
+ *
+ * Assim como o {@link IndiceFiltros}, as alterações são copy-on-write e
+ * incrementais: só os termos e trigramas do produto alterado são copiados.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class IndiceBusca {
+
+    /** Quantidade de resultados quando o cliente não informa o limite */
+    static final int LIMITE_PADRAO = 20;
+
+    /** Maior quantidade de resultados aceita em uma busca */
+    static final int LIMITE_MAXIMO = 100;
+
+    private static final int TAMANHO_NGRAMA = 3;
+
+    private static final int PONTOS_EXATO = 4;
+    private static final int PONTOS_PREFIXO = 3;
+    private static final int PONTOS_TRECHO = 2;
+    private static final int PONTOS_APROXIMADO = 1;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^a-z0-9]+");
+
+    /** Produto indexado, sua posição no cardápio e seus termos normalizados */
+    private record Entrada(Product produto, int ordem, Set<String> termos) {
+    }
+
+    private final Map<Long, Entrada> entradas;
+
+    /** Termo normalizado → IDs dos produtos que o contêm */
+    private final NavigableMap<String, Set<Long>> produtosPorTermo;
+
+    /** Trigrama → termos do vocabulário que o contêm */
+    private final Map<String, Set<String>> termosPorNgrama;
+
+    private final int proximaOrdem;
+
+    private IndiceBusca(Map<Long, Entrada> entradas, NavigableMap<String, Set<Long>> produtosPorTermo,
+            Map<String, Set<String>> termosPorNgrama, int proximaOrdem) {
+        this.entradas = entradas;
+        this.produtosPorTermo = produtosPorTermo;
+        this.termosPorNgrama = termosPorNgrama;
+        this.proximaOrdem = proximaOrdem;
+    }
+
+    /**
+     * Constrói o índice completo a partir de uma lista de produtos.
+     *
+     * @param lista Produtos do cardápio, na ordem usada para desempate
+     * @return Novo índice
+     */
+    static IndiceBusca construir(List<Product> lista) {
+        Map<Long, Entrada> entradas = new LinkedHashMap<>();
+        NavigableMap<String, Set<Long>> porTermo = new TreeMap<>();
+        Map<String, Set<String>> porNgrama = new HashMap<>();
+        for (Product produto : lista) {
+            Set<String> termos = termosDe(produto.getName());
+            entradas.put(produto.getId(), new Entrada(produto, entradas.size(), termos));
+            for (String termo : termos) {
+                porTermo.computeIfAbsent(termo, t -> new HashSet<>()).add(produto.getId());
+                for (String ngrama : ngramasDe(termo)) {
+                    porNgrama.computeIfAbsent(ngrama, n -> new HashSet<>()).add(termo);
+                }
+            }
+        }
+        return new IndiceBusca(entradas, porTermo, porNgrama, entradas.size());
+    }
+
+    /**
+     * Retorna um novo índice com o produto incluído, ou substituído caso
+     * já exista um produto com o mesmo ID (mantendo a posição original).
+     *
+     * @param produto Produto salvo
+     * @return Novo índice
+     */
+    IndiceBusca comProduto(Product produto) {
+        Entrada anterior = entradas.get(produto.getId());
+        Set<String> termos = termosDe(produto.getName());
+
+        Map<Long, Entrada> novasEntradas = new LinkedHashMap<>(entradas);
+        NavigableMap<String, Set<Long>> porTermo = new TreeMap<>(produtosPorTermo);
+        Map<String, Set<String>> porNgrama = new HashMap<>(termosPorNgrama);
+
+        int ordem = proximaOrdem;
+        int novaProximaOrdem = proximaOrdem + 1;
+        if (anterior != null) {
+            ordem = anterior.ordem();
+            novaProximaOrdem = proximaOrdem;
+            for (String termo : anterior.termos()) {
+                if (!termos.contains(termo)) {
+                    removerDoTermo(porTermo, porNgrama, termo, produto.getId());
+                }
+            }
+        }
+        for (String termo : termos) {
+            if (anterior == null || !anterior.termos().contains(termo)) {
+                adicionarAoTermo(porTermo, porNgrama, termo, produto.getId());
+            }
+        }
+        novasEntradas.put(produto.getId(), new Entrada(produto, ordem, termos));
+        return new IndiceBusca(novasEntradas, porTermo, porNgrama, novaProximaOrdem);
+    }
+
+    /**
+     * Retorna um novo índice sem o produto informado.
+     *
+     * @param id ID do produto removido
+     * @return Novo índice (ou este, se o produto não estava indexado)
+     */
+    IndiceBusca semProduto(Long id) {
+        Entrada anterior = entradas.get(id);
+        if (anterior == null) {
+            return this;
+        }
+        Map<Long, Entrada> novasEntradas = new LinkedHashMap<>(entradas);
+        novasEntradas.remove(id);
+        NavigableMap<String, Set<Long>> porTermo = new TreeMap<>(produtosPorTermo);
+        Map<String, Set<String>> porNgrama = new HashMap<>(termosPorNgrama);
+        for (String termo : anterior.termos()) {
+            removerDoTermo(porTermo, porNgrama, termo, id);
+        }
+        return new IndiceBusca(novasEntradas, porTermo, porNgrama, proximaOrdem);
+    }
+
+    /**
+     * Busca produtos cujo nome casa com todos os termos da consulta.
+     *
+     * @param consulta Texto digitado pelo cliente (acentos e maiúsculas são ignorados)
+     * @param limite   Quantidade máxima de resultados
+     * @return Produtos encontrados, dos mais relevantes para os menos
+     *         relevantes (empates seguem a ordem do cardápio)
+     */
+    List<Product> buscar(String consulta, int limite) {
+        Set<String> termos = termosDe(consulta);
+        if (termos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> pontos = null;
+        for (String termo : termos) {
+            Map<Long, Integer> doTermo = pontuar(termo);
+            if (pontos == null) {
+                pontos = doTermo;
+            } else {
+                pontos.keySet().retainAll(doTermo.keySet());
+                pontos.replaceAll((id, total) -> total + doTermo.get(id));
+            }
+            if (pontos.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        Map<Long, Integer> resultado = pontos;
+        return resultado.keySet().stream()
+                .map(entradas::get)
+                .sorted(Comparator.comparingInt((Entrada e) -> -resultado.get(e.produto().getId()))
+                        .thenComparingInt(Entrada::ordem))
+                .limit(limite)
+                .map(Entrada::produto)
+                .toList();
+    }
+
+    /**
+     * Normaliza um texto: remove acentos, passa para minúsculas e troca
+     * tudo que não for letra ou dígito por espaço.
+     *
+     * @param texto Texto original
+     * @return Texto normalizado (vazio se {@code null})
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(semAcentos.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Pontua os produtos que casam com um único termo da consulta.
+     */
+    private Map<Long, Integer> pontuar(String termo) {
+        Map<String, Integer> termosEncontrados = new HashMap<>();
+
+        // 1. Prefixo: intervalo [termo, termo + maior caractere) do vocabulário
+        for (String candidato : produtosPorTermo.subMap(termo, true, termo + Character.MAX_VALUE, false).keySet()) {
+            termosEncontrados.put(candidato, candidato.equals(termo) ? PONTOS_EXATO : PONTOS_PREFIXO);
+        }
+
+        // 2. Trecho no meio do termo: candidatos que têm todos os trigramas da consulta
+        if (termo.length() >= TAMANHO_NGRAMA) {
+            for (String candidato : termosComTodosOsNgramas(termo)) {
+                if (candidato.contains(termo)) {
+                    termosEncontrados.putIfAbsent(candidato, PONTOS_TRECHO);
+                }
+            }
+        }
+
+        // 3. Erro de digitação: só quando nada casou de forma exata
+        if (termosEncontrados.isEmpty() && termo.length() >= TAMANHO_NGRAMA) {
+            int maximo = termo.length() <= 5 ? 1 : 2;
+            for (String candidato : produtosPorTermo.keySet()) {
+                if (distanciaAoTermoOuPrefixo(termo, candidato, maximo) <= maximo) {
+                    termosEncontrados.put(candidato, PONTOS_APROXIMADO);
+                }
+            }
+        }
+
+        Map<Long, Integer> pontos = new HashMap<>();
+        termosEncontrados.forEach((candidato, valor) -> {
+            for (Long id : produtosPorTermo.get(candidato)) {
+                pontos.merge(id, valor, Math::max);
+            }
+        });
+        return pontos;
+    }
+
+    private Set<String> termosComTodosOsNgramas(String termo) {
+        Set<String> resultado = null;
+        for (String ngrama : ngramasDe(termo)) {
+            Set<String> termos = termosPorNgrama.get(ngrama);
+            if (termos == null) {
+                return Set.of();
+            }
+            if (resultado == null) {
+                resultado = new HashSet<>(termos);
+            } else {
+                resultado.retainAll(termos);
+            }
+        }
+        return resultado == null ? Set.of() : resultado;
+    }
+
+    /**
+     * Menor distância entre a consulta e o termo inteiro ou um prefixo dele
+     * (o cliente pode ainda estar digitando). Devolve {@code maximo + 1}
+     * assim que o limite é ultrapassado.
+     */
+    private static int distanciaAoTermoOuPrefixo(String consulta, String termo, int maximo) {
+        if (termo.length() + maximo < consulta.length()) {
+            return maximo + 1;
+        }
+        int melhor = distanciaLimitada(consulta, termo, maximo);
+        int menor = Math.max(1, consulta.length() - maximo);
+        int maior = Math.min(termo.length() - 1, consulta.length() + maximo);
+        for (int tamanho = menor; tamanho <= maior && melhor > 0; tamanho++) {
+            melhor = Math.min(melhor, distanciaLimitada(consulta, termo.substring(0, tamanho), maximo));
+        }
+        return melhor;
+    }
+
+    /**
+     * Distância de Levenshtein com parada antecipada: se todas as células
+     * de uma linha passam do máximo, o resultado também passa.
+     */
+    private static int distanciaLimitada(String a, String b, int maximo) {
+        if (Math.abs(a.length() - b.length()) > maximo) {
+            return maximo + 1;
+        }
+        int[] anterior = new int[b.length() + 1];
+        int[] atual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            atual[0] = i;
+            int menorDaLinha = atual[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int custo = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                atual[j] = Math.min(Math.min(atual[j - 1] + 1, anterior[j] + 1), anterior[j - 1] + custo);
+                menorDaLinha = Math.min(menorDaLinha, atual[j]);
+            }
+            if (menorDaLinha > maximo) {
+                return maximo + 1;
+            }
+            int[] troca = anterior;
+            anterior = atual;
+            atual = troca;
+        }
+        return anterior[b.length()];
+    }
+
+    private static Set<String> termosDe(String texto) {
+        String normalizado = normalizar(texto);
+        if (normalizado.isEmpty()) {
+            return Set.of();
+        }
+        return new LinkedHashSet<>(List.of(normalizado.split(" ")));
+    }
+
+    private static List<String> ngramasDe(String termo) {
+        List<String> ngramas = new ArrayList<>();
+        for (int i = 0; i + TAMANHO_NGRAMA <= termo.length(); i++) {
+            ngramas.add(termo.substring(i, i + TAMANHO_NGRAMA));
+        }
+        return ngramas;
+    }
+
+    /** Inclui o produto no termo, copiando apenas os conjuntos afetados */
+    private static void adicionarAoTermo(NavigableMap<String, Set<Long>> porTermo,
+            Map<String, Set<String>> porNgrama, String termo, Long id) {
+        Set<Long> ids = porTermo.get(termo);
+        if (ids == null) {
+            for (String ngrama : ngramasDe(termo)) {
+                Set<String> termos = new HashSet<>(porNgrama.getOrDefault(ngrama, Set.of()));
+                termos.add(termo);
+                porNgrama.put(ngrama, termos);
+            }
+            ids = new HashSet<>();
+        } else {
+            ids = new HashSet<>(ids);
+        }
+        ids.add(id);
+        porTermo.put(termo, ids);
+    }
+
+    /** Retira o produto do termo; termos sem produtos saem do vocabulário */
+    private static void removerDoTermo(NavigableMap<String, Set<Long>> porTermo,
+            Map<String, Set<String>> porNgrama, String termo, Long id) {
+        Set<Long> ids = porTermo.get(termo);
+        if (ids == null) {
+            return;
+        }
+        ids = new HashSet<>(ids);
+        ids.remove(id);
+        if (!ids.isEmpty()) {
+            porTermo.put(termo, ids);
+            return;
+        }
+        porTermo.remove(termo);
+        for (String ngrama : ngramasDe(termo)) {
+            Set<String> termos = new HashSet<>(porNgrama.getOrDefault(ngrama, Set.of()));
+            termos.remove(termo);
+            if (termos.isEmpty()) {
+                porNgrama.remove(ngrama);
+            } else {
+                porNgrama.put(ngrama, termos);
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Filter;
+import com.example.projeto_test.model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Índice invertido imutável dos filtros (tags) do cardápio.
+ *
+ * Cada produto ocupa uma posição fixa e, para cada filtro, o índice guarda
+ * um bitset ({@code long[]}) com as posições dos produtos que o possuem.
+ * Consultas "todos os filtros" / "qualquer filtro" viram AND / OR de
+ * palavras de 64 bits, independentemente do tamanho do cardápio.
+ *
+ * A construção completa preenche cada bitset no lugar, em O(produtos).
+ * As alterações são copy-on-write e incrementais: só os bitsets dos
+ * filtros envolvidos são copiados. Produtos removidos deixam a posição
+ * vazia até que uma compactação reconstrua o índice.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class IndiceFiltros {
+
+    /** Posições vazias toleradas antes de compactar (além de metade do total) */
+    private static final int MIN_VAZIOS_PARA_COMPACTAR = 64;
+
+    /** Produto em cada posição ({@code null} = produto removido) */
+    private final Product[] produtos;
+
+    /** Quantidade de posições vazias em {@link #produtos} */
+    private final int vazios;
+
+    private final Map<Long, Integer> posicaoPorProduto;
+
+    private final Map<Long, long[]> bitsPorFiltro;
+
+    private IndiceFiltros(Product[] produtos, int vazios, Map<Long, Integer> posicaoPorProduto,
+            Map<Long, long[]> bitsPorFiltro) {
+        this.produtos = produtos;
+        this.vazios = vazios;
+        this.posicaoPorProduto = posicaoPorProduto;
+        this.bitsPorFiltro = bitsPorFiltro;
+    }
+
+    /**
+     * Constrói o índice completo a partir de uma lista de produtos.
+     *
+     * @param lista Produtos do cardápio, na ordem em que devem ser retornados
+     * @return Novo índice
+     */
+    static IndiceFiltros construir(List<Product> lista) {
+        Product[] produtos = lista.toArray(new Product[0]);
+        Map<Long, Integer> posicoes = new HashMap<>();
+        Map<Long, long[]> bits = new HashMap<>();
+        // Índice ainda não publicado: os bitsets são alterados no lugar, sem cópias
+        int palavras = (produtos.length + 63) >>> 6;
+        for (int pos = 0; pos < produtos.length; pos++) {
+            posicoes.put(produtos[pos].getId(), pos);
+            for (Long filtro : idsDosFiltros(produtos[pos])) {
+                bits.computeIfAbsent(filtro, f -> new long[palavras])[pos >>> 6] |= 1L << pos;
+            }
+        }
+        return new IndiceFiltros(produtos, 0, posicoes, bits);
+    }
+
+    /**
+     * Retorna um novo índice com o produto incluído, ou substituído caso
+     * já exista um produto com o mesmo ID.
+     *
+     * @param produto Produto salvo
+     * @return Novo índice
+     */
+    IndiceFiltros comProduto(Product produto) {
+        Integer existente = posicaoPorProduto.get(produto.getId());
+        Map<Long, long[]> bits = new HashMap<>(bitsPorFiltro);
+        Product[] novos;
+        Map<Long, Integer> posicoes = posicaoPorProduto;
+        int pos;
+        if (existente != null) {
+            pos = existente;
+            novos = produtos.clone();
+            for (Long filtro : idsDosFiltros(produtos[pos])) {
+                bits.computeIfPresent(filtro, (id, atual) -> semBit(atual, pos));
+            }
+        } else {
+            pos = produtos.length;
+            novos = Arrays.copyOf(produtos, pos + 1);
+            posicoes = new HashMap<>(posicaoPorProduto);
+            posicoes.put(produto.getId(), pos);
+        }
+        novos[pos] = produto;
+        for (Long filtro : idsDosFiltros(produto)) {
+            bits.put(filtro, comBit(bits.getOrDefault(filtro, new long[0]), pos));
+        }
+        return new IndiceFiltros(novos, vazios, posicoes, bits);
+    }
+
+    /**
+     * Retorna um novo índice sem o produto informado.
+     *
+     * @param id ID do produto removido
+     * @return Novo índice (ou este, se o produto não estava indexado)
+     */
+    IndiceFiltros semProduto(Long id) {
+        Integer existente = posicaoPorProduto.get(id);
+        if (existente == null) {
+            return this;
+        }
+        int pos = existente;
+        Map<Long, long[]> bits = new HashMap<>(bitsPorFiltro);
+        for (Long filtro : idsDosFiltros(produtos[pos])) {
+            bits.computeIfPresent(filtro, (f, atual) -> semBit(atual, pos));
+        }
+        Product[] novos = produtos.clone();
+        novos[pos] = null;
+        Map<Long, Integer> posicoes = new HashMap<>(posicaoPorProduto);
+        posicoes.remove(id);
+
+        int novosVazios = vazios + 1;
+        if (novosVazios >= MIN_VAZIOS_PARA_COMPACTAR && novosVazios * 2 > novos.length) {
+            return construir(Arrays.stream(novos).filter(p -> p != null).toList());
+        }
+        return new IndiceFiltros(novos, novosVazios, posicoes, bits);
+    }
+
+    /**
+     * Busca os produtos que possuem os filtros informados.
+     *
+     * @param filtros IDs dos filtros pedidos
+     * @param todos   {@code true} para exigir todos os filtros (AND),
+     *                {@code false} para aceitar qualquer um deles (OR)
+     * @return Produtos encontrados, na ordem do cardápio
+     */
+    List<Product> consultar(Collection<Long> filtros, boolean todos) {
+        long[] resultado = null;
+        for (Long filtro : filtros) {
+            long[] bits = bitsPorFiltro.getOrDefault(filtro, new long[0]);
+            if (resultado == null) {
+                resultado = bits.clone();
+            } else if (todos) {
+                int n = Math.min(resultado.length, bits.length);
+                resultado = Arrays.copyOf(resultado, n);
+                for (int i = 0; i < n; i++) {
+                    resultado[i] &= bits[i];
+                }
+            } else {
+                if (bits.length > resultado.length) {
+                    resultado = Arrays.copyOf(resultado, bits.length);
+                }
+                for (int i = 0; i < bits.length; i++) {
+                    resultado[i] |= bits[i];
+                }
+            }
+        }
+        if (resultado == null) {
+            return List.of();
+        }
+
+        List<Product> encontrados = new ArrayList<>();
+        for (int palavra = 0; palavra < resultado.length; palavra++) {
+            long restante = resultado[palavra];
+            while (restante != 0) {
+                int pos = (palavra << 6) + Long.numberOfTrailingZeros(restante);
+                encontrados.add(produtos[pos]);
+                restante &= restante - 1;
+            }
+        }
+        return encontrados;
+    }
+
+    private static List<Long> idsDosFiltros(Product produto) {
+        if (produto.getFilters() == null) {
+            return List.of();
+        }
+        return produto.getFilters().stream()
+                .map(Filter::getId)
+                .filter(id -> id != null)
+                .toList();
+    }
+
+    /** Cópia do bitset com a posição ligada (aumentando o array se preciso) */
+    private static long[] comBit(long[] bits, int pos) {
+        long[] copia = Arrays.copyOf(bits, Math.max(bits.length, (pos >>> 6) + 1));
+        copia[pos >>> 6] |= 1L << pos;
+        return copia;
+    }
+
+    /** Cópia do bitset com a posição desligada */
+    private static long[] semBit(long[] bits, int pos) {
+        long[] copia = bits.clone();
+        if ((pos >>> 6) < copia.length) {
+            copia[pos >>> 6] &= ~(1L << pos);
+        }
+        return copia;
+    }
+}
@@ -0,0 +1,313 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.repository.ReciboRemovidoRepository;
+import com.example.projeto_test.repository.ReciboRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Limpeza de recibos em lote, sem carregar entidades.
+ *
+ * Os recibos são apagados por faixas de IDs, cada faixa em uma transação
+ * curta com poucos comandos: a seleção dos IDs que atendem ao filtro, os
+ * totais agrupados para as estatísticas, as marcas de remoção (INSERT ...
+ * SELECT), o DELETE de {@code recibo_itens} e o de {@code recibos}. Nada é
+ * carregado no contexto de persistência, então o heap não cresce com o
+ * volume apagado e a tabela não fica travada por uma transação longa.
+ *
+ * A limpeza pode ser pedida de forma assíncrona ({@link #iniciar(Filtro)}):
+ * ela roda em uma thread de fundo, uma de cada vez, e o andamento pode ser
+ * acompanhado pelo ID da tarefa. Ao terminar, as telas conectadas ao stream
+ * recebem um evento {@code recarregar}.
+ *
+ * Os números de chamada dos recibos apagados voltam ao
+ * {@link AlocadorNumeroChamada} depois do commit de cada faixa.
+ *
+ * O {@link ArquivoRecibos arquivo histórico} só é apagado na limpeza sem
+ * filtros ({@link Filtro#TODOS}), inteiro. Uma limpeza com filtros não
+ * mexe nos recibos já arquivados: os segmentos não são regravados.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class LimpezaRecibos {
+
+    private static final Logger log = LoggerFactory.getLogger(LimpezaRecibos.class);
+
+    /** Tamanho de cada faixa de IDs apagada em uma transação */
+    private static final int IDS_POR_FAIXA = 1000;
+
+    /** Tarefas concluídas mantidas para consulta */
+    private static final int TAREFAS_GUARDADAS = 20;
+
+    public static final String EXECUTANDO = "EXECUTANDO";
+    public static final String CONCLUIDA = "CONCLUIDA";
+    public static final String FALHOU = "FALHOU";
+
+    /**
+     * Quais recibos apagar. Critérios nulos são ignorados; sem nenhum
+     * critério, todos os recibos são apagados.
+     *
+     * @param de              Dia de criação inicial (inclusivo)
+     * @param ate             Dia de criação final (inclusivo)
+     * @param formaPagamento  Forma de pagamento
+     * @param tipoAtendimento Tipo de atendimento
+     */
+    public record Filtro(LocalDate de, LocalDate ate, String formaPagamento, String tipoAtendimento) {
+
+        public static final Filtro TODOS = new Filtro(null, null, null, null);
+
+        public Filtro {
+            if (de != null && ate != null && ate.isBefore(de)) {
+                throw new IllegalArgumentException("Data final antes da data inicial");
+            }
+            formaPagamento = formaPagamento == null || formaPagamento.isBlank() ? null : formaPagamento.trim();
+            tipoAtendimento = tipoAtendimento == null || tipoAtendimento.isBlank() ? null : tipoAtendimento.trim();
+        }
+
+        LocalDateTime inicio() {
+            return de != null ? de.atStartOfDay() : null;
+        }
+
+        LocalDateTime fim() {
+            return ate != null ? ate.plusDays(1).atStartOfDay() : null;
+        }
+    }
+
+    /**
+     * Situação de uma tarefa de limpeza.
+     *
+     * @param id               ID da tarefa
+     * @param filtro           Recibos a apagar
+     * @param estado           {@link #EXECUTANDO}, {@link #CONCLUIDA} ou {@link #FALHOU}
+     * @param removidos        Recibos apagados até agora
+     * @param faixasConcluidas Faixas de IDs já processadas
+     * @param faixasTotal      Total de faixas de IDs (0 enquanto não calculado)
+     * @param erro             Mensagem de erro, se falhou
+     * @param iniciadaEm       Início da tarefa
+     * @param concluidaEm      Fim da tarefa (null enquanto executa)
+     */
+    public record Tarefa(String id, Filtro filtro, String estado, long removidos, long faixasConcluidas,
+            long faixasTotal, String erro, LocalDateTime iniciadaEm, LocalDateTime concluidaEm) {
+    }
+
+    /** Estado mutável de uma tarefa (protegido pelo próprio objeto) */
+    private static final class Execucao {
+        private final String id = UUID.randomUUID().toString();
+        private final Filtro filtro;
+        private final LocalDateTime iniciadaEm = LocalDateTime.now();
+        private String estado = EXECUTANDO;
+        private long removidos;
+        private long faixasConcluidas;
+        private long faixasTotal;
+        private String erro;
+        private LocalDateTime concluidaEm;
+
+        Execucao(Filtro filtro) {
+            this.filtro = filtro;
+        }
+
+        synchronized Tarefa situacao() {
+            return new Tarefa(id, filtro, estado, removidos, faixasConcluidas, faixasTotal, erro,
+                    iniciadaEm, concluidaEm);
+        }
+    }
+
+    private final ReciboRepository reciboRepository;
+
+    private final ReciboRemovidoRepository reciboRemovidoRepository;
+
+    private final VersoesRecibo versoesRecibo;
+
+    private final EstatisticasVendas estatisticasVendas;
+
+    private final EventosRecibo eventosRecibo;
+
+    private final FilaCozinha filaCozinha;
+
+    private final AlocadorNumeroChamada alocadorNumeroChamada;
+
+    private final ArquivoRecibos arquivoRecibos;
+
+    private final TransactionTemplate transacao;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "recibos-limpeza");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Execucao> tarefas = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Execucao> maisAntiga) {
+            return size() > TAREFAS_GUARDADAS && !EXECUTANDO.equals(maisAntiga.getValue().situacao().estado());
+        }
+    };
+
+    public LimpezaRecibos(ReciboRepository reciboRepository, ReciboRemovidoRepository reciboRemovidoRepository,
+            VersoesRecibo versoesRecibo, EstatisticasVendas estatisticasVendas, EventosRecibo eventosRecibo,
+            FilaCozinha filaCozinha, AlocadorNumeroChamada alocadorNumeroChamada, ArquivoRecibos arquivoRecibos,
+            PlatformTransactionManager transactionManager) {
+        this.reciboRepository = reciboRepository;
+        this.reciboRemovidoRepository = reciboRemovidoRepository;
+        this.versoesRecibo = versoesRecibo;
+        this.estatisticasVendas = estatisticasVendas;
+        this.eventosRecibo = eventosRecibo;
+        this.filaCozinha = filaCozinha;
+        this.alocadorNumeroChamada = alocadorNumeroChamada;
+        this.arquivoRecibos = arquivoRecibos;
+        this.transacao = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Inicia uma limpeza em segundo plano e retorna na hora.
+     *
+     * @param filtro Recibos a apagar
+     * @return Situação inicial da tarefa
+     */
+    public Tarefa iniciar(Filtro filtro) {
+        Execucao execucao = new Execucao(filtro);
+        synchronized (tarefas) {
+            tarefas.put(execucao.id, execucao);
+        }
+        executor.execute(() -> executar(execucao));
+        return execucao.situacao();
+    }
+
+    /**
+     * @param id ID da tarefa
+     * @return Situação da tarefa, se ainda estiver guardada
+     */
+    public Optional<Tarefa> buscar(String id) {
+        synchronized (tarefas) {
+            return Optional.ofNullable(tarefas.get(id)).map(Execucao::situacao);
+        }
+    }
+
+    /**
+     * Apaga os recibos na thread atual.
+     *
+     * @param filtro Recibos a apagar
+     * @return Quantidade de recibos apagados
+     */
+    public long limpar(Filtro filtro) {
+        Execucao execucao = new Execucao(filtro);
+        executar(execucao);
+        Tarefa tarefa = execucao.situacao();
+        if (FALHOU.equals(tarefa.estado())) {
+            throw new IllegalStateException("Falha ao limpar recibos: " + tarefa.erro());
+        }
+        return tarefa.removidos();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        executor.shutdownNow();
+    }
+
+    private void executar(Execucao execucao) {
+        Filtro filtro = execucao.filtro;
+        try {
+            Object[] faixa = primeiraLinha(reciboRepository.findFaixaIdsParaLimpeza(filtro.inicio(), filtro.fim(),
+                    filtro.formaPagamento(), filtro.tipoAtendimento()));
+            if (faixa[0] != null) {
+                long menorId = ((Number) faixa[0]).longValue();
+                long maiorId = ((Number) faixa[1]).longValue();
+                synchronized (execucao) {
+                    execucao.faixasTotal = (maiorId - menorId) / IDS_POR_FAIXA + 1;
+                }
+                for (long primeiro = menorId; primeiro <= maiorId; primeiro += IDS_POR_FAIXA) {
+                    long removidos = apagarFaixa(filtro, primeiro, Math.min(maiorId, primeiro + IDS_POR_FAIXA - 1));
+                    synchronized (execucao) {
+                        execucao.removidos += removidos;
+                        execucao.faixasConcluidas++;
+                    }
+                }
+            }
+            if (Filtro.TODOS.equals(filtro)) {
+                long arquivados = arquivoRecibos.apagarTudo(
+                        recibo -> estatisticasVendas.remover(EstatisticasVendas.Contribuicao.de(recibo)));
+                synchronized (execucao) {
+                    execucao.removidos += arquivados;
+                }
+            }
+            synchronized (execucao) {
+                execucao.estado = CONCLUIDA;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Falha ao limpar recibos ({})", filtro, e);
+            synchronized (execucao) {
+                execucao.estado = FALHOU;
+                execucao.erro = e.getMessage();
+            }
+        } finally {
+            synchronized (execucao) {
+                execucao.concluidaEm = LocalDateTime.now();
+            }
+            if (execucao.situacao().removidos() > 0) {
+                eventosRecibo.publicarRecarregar();
+            }
+        }
+    }
+
+    /** Apaga os recibos da faixa [primeiroId, ultimoId] que atendem ao filtro */
+    private long apagarFaixa(Filtro filtro, long primeiroId, long ultimoId) {
+        Apagados apagados = transacao.execute(status -> {
+            List<Long> ids = reciboRepository.findIdsParaLimpeza(primeiroId, ultimoId, filtro.inicio(),
+                    filtro.fim(), filtro.formaPagamento(), filtro.tipoAtendimento());
+            if (ids.isEmpty()) {
+                return new Apagados(List.of(), List.of(), List.of(), List.of());
+            }
+            List<EstatisticasVendas.GrupoRemovido> grupos = reciboRepository.somarPorGrupo(ids).stream()
+                    .map(l -> new EstatisticasVendas.GrupoRemovido((LocalDate) l[0], ((Number) l[1]).intValue(),
+                            (String) l[2], (String) l[3], numero(l[4]), numero(l[5])))
+                    .toList();
+            List<EstatisticasVendas.ItemRemovido> itens = reciboRepository.somarItens(ids).stream()
+                    .map(l -> new EstatisticasVendas.ItemRemovido((LocalDate) l[0], (String) l[1],
+                            numero(l[2]), numero(l[3])))
+                    .toList();
+            List<Object[]> numeros = reciboRepository.findNumerosChamada(ids);
+
+            long base = versoesRecibo.reservar(ultimoId - primeiroId + 1);
+            versoesRecibo.concluirAoTerminar(base);
+            reciboRemovidoRepository.registrarRemocoes(base, primeiroId, ids, LocalDateTime.now());
+            // ↑ Uma marca de remoção por recibo, com versão única dentro da faixa reservada
+            reciboRepository.deleteItensDosRecibos(ids);
+            reciboRepository.deleteAllByIdInBatch(ids);
+            return new Apagados(ids, grupos, itens, numeros);
+        });
+        // Só depois do commit: um rollback não pode ter tirado nada dos totais
+        estatisticasVendas.removerEmLote(apagados.grupos(), apagados.itens());
+        filaCozinha.remover(apagados.ids());
+        apagados.numeros().forEach(n -> alocadorNumeroChamada.liberar((LocalDate) n[0], (String) n[1]));
+        return apagados.ids().size();
+    }
+
+    private record Apagados(List<Long> ids, List<EstatisticasVendas.GrupoRemovido> grupos,
+            List<EstatisticasVendas.ItemRemovido> itens, List<Object[]> numeros) {
+    }
+
+    private static long numero(Object valor) {
+        return valor != null ? ((Number) valor).longValue() : 0;
+    }
+
+    private static Object[] primeiraLinha(List<Object[]> resultado) {
+        return resultado.isEmpty() ? new Object[2] : resultado.get(0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.projeto_test.service;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página de resultados de uma paginação por cursor (keyset).
+ *
+ * Em vez de OFFSET, cada página é buscada a partir do último ID já
+ * entregue, então o custo da consulta depende só do tamanho da página,
+ * e não de quantos registros existem antes dela.
+ *
+ * @param itens         Itens da página, do mais recente para o mais antigo
+ * @param proximoCursor Valor a enviar em {@code after} para buscar a
+ *                      próxima página, ou {@code null} se esta é a última
+ * @param <T>           Tipo dos itens
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+public record Pagina<T>(List<T> itens, Long proximoCursor) {
+
+    /** Cabeçalho HTTP com o cursor da próxima página (ausente na última página) */
+    public static final String HEADER_PROXIMO_CURSOR = "X-Next-Cursor";
+
+    /** Quantidade de itens por página quando o cliente não informa {@code limit} */
+    public static final int LIMITE_PADRAO = 50;
+
+    /** Maior página aceita, para que um cliente não peça o histórico inteiro */
+    public static final int LIMITE_MAXIMO = 200;
+
+    /**
+     * Ajusta o limite pedido pelo cliente ao intervalo aceito.
+     *
+     * @param limite Limite informado (pode ser null)
+     * @return Limite entre 1 e {@link #LIMITE_MAXIMO}
+     */
+    public static int normalizarLimite(Integer limite) {
+        if (limite == null) {
+            return LIMITE_PADRAO;
+        }
+        return Math.max(1, Math.min(limite, LIMITE_MAXIMO));
+    }
+
+    /**
+     * Monta a página a partir de uma consulta que buscou {@code limite + 1}
+     * registros: o registro extra só indica que existe próxima página.
+     *
+     * @param resultado Registros buscados (até limite + 1)
+     * @param limite    Tamanho da página
+     * @param id        Função que extrai o ID (cursor) de um item
+     * @return Página com no máximo {@code limite} itens
+     */
+    public static <T> Pagina<T> deConsulta(List<T> resultado, int limite, Function<T, Long> id) {
+        if (resultado.size() <= limite) {
+            return new Pagina<>(List.copyOf(resultado), null);
+        }
+        List<T> itens = List.copyOf(resultado.subList(0, limite));
+        return new Pagina<>(itens, id.apply(itens.get(limite - 1)));
+    }
+}
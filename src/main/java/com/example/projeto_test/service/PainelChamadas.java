@@ -0,0 +1,159 @@
+package com.example.projeto_test.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Painel de números de chamada (TV do balcão e celulares dos clientes).
+ *
+ * Mantém em memória os números de chamada do dia de operação atual que
+ * ainda não foram entregues, com o estado de cada pedido na cozinha
+ * ({@link FilaCozinha}). O painel é uma foto imutável refeita só quando a
+ * fila muda de um jeito que aparece no painel; cada foto nova ganha uma
+ * versão maior. Ler o painel ou consultar um número é uma leitura em
+ * memória: nenhuma tela gera consulta ao banco.
+ *
+ * Quem já tem o painel pode esperar a próxima versão
+ * ({@link #aguardar(long, Consumer)}) em vez de consultar de novo a cada
+ * poucos segundos (long-poll): a espera não ocupa thread e é liberada na
+ * hora em que o painel muda.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class PainelChamadas {
+
+    /**
+     * Painel do dia.
+     *
+     * @param versao    Versão do painel (muda a cada alteração)
+     * @param dia       Dia de operação
+     * @param emPreparo Números aguardando ou em preparo, na ordem de atendimento
+     * @param prontos   Números prontos para retirada
+     */
+    public record Painel(long versao, LocalDate dia, List<String> emPreparo, List<String> prontos) {
+    }
+
+    /** Painel e índice número → estado da mesma versão */
+    private record Foto(Painel painel, Map<String, FilaCozinha.Estado> estados) {
+    }
+
+    private final FilaCozinha filaCozinha;
+
+    private final Clock relogio;
+
+    private final Queue<Consumer<Painel>> aguardando = new ConcurrentLinkedQueue<>();
+
+    private volatile Foto atual;
+
+    @Autowired
+    public PainelChamadas(FilaCozinha filaCozinha) {
+        this(filaCozinha, Clock.systemDefaultZone());
+    }
+
+    PainelChamadas(FilaCozinha filaCozinha, Clock relogio) {
+        this.filaCozinha = filaCozinha;
+        this.relogio = relogio;
+        this.atual = new Foto(new Painel(0, LocalDate.now(relogio), List.of(), List.of()), Map.of());
+        filaCozinha.aoMudar(this::refazer);
+        refazer();
+    }
+
+    /** @return Painel atual */
+    public Painel getPainel() {
+        return fotoDoDia().painel();
+    }
+
+    /**
+     * Estado de um número de chamada do dia.
+     *
+     * @param numero Número de chamada de 4 dígitos
+     * @return Estado do pedido, ou vazio se o número não está no painel
+     *         (não existe, já foi entregue ou é de outro dia)
+     */
+    public Optional<FilaCozinha.Estado> estado(String numero) {
+        return Optional.ofNullable(fotoDoDia().estados().get(numero));
+    }
+
+    /**
+     * Espera o painel mudar.
+     *
+     * Se a versão atual já é diferente da conhecida, o destino é chamado na
+     * hora; senão, é chamado (uma vez) na thread que mudar o painel.
+     *
+     * @param versaoConhecida Versão do painel que a tela já tem
+     * @param destino         Recebe o painel novo
+     * @return Ação para desistir da espera (por exemplo, no timeout)
+     */
+    public Runnable aguardar(long versaoConhecida, Consumer<Painel> destino) {
+        Painel painel = getPainel();
+        if (painel.versao() != versaoConhecida) {
+            destino.accept(painel);
+            return () -> { };
+        }
+        aguardando.add(destino);
+        // O painel pode ter mudado entre a leitura e a inscrição
+        painel = getPainel();
+        if (painel.versao() != versaoConhecida && aguardando.remove(destino)) {
+            destino.accept(painel);
+        }
+        return () -> aguardando.remove(destino);
+    }
+
+    /** @return Quantidade de telas esperando a próxima versão */
+    public int getAguardando() {
+        return aguardando.size();
+    }
+
+    private Foto fotoDoDia() {
+        Foto foto = atual;
+        if (!foto.painel().dia().equals(LocalDate.now(relogio))) {
+            refazer();
+            foto = atual;
+        }
+        return foto;
+    }
+
+    /** Refaz o painel a partir da fila; só publica uma versão nova se algo visível mudou */
+    private void refazer() {
+        Painel novo;
+        synchronized (this) {
+            LocalDate hoje = LocalDate.now(relogio);
+            List<String> emPreparo = new ArrayList<>();
+            List<String> prontos = new ArrayList<>();
+            Map<String, FilaCozinha.Estado> estados = new HashMap<>();
+            for (FilaCozinha.Pedido pedido : filaCozinha.listar()) {
+                if (!hoje.equals(pedido.dataChamada()) || pedido.numeroChamada() == null
+                        || pedido.estado() == FilaCozinha.Estado.ENTREGUE) {
+                    continue;
+                }
+                (pedido.estado() == FilaCozinha.Estado.PRONTO ? prontos : emPreparo).add(pedido.numeroChamada());
+                estados.put(pedido.numeroChamada(), pedido.estado());
+            }
+            Painel anterior = atual.painel();
+            if (hoje.equals(anterior.dia()) && emPreparo.equals(anterior.emPreparo())
+                    && prontos.equals(anterior.prontos()) && estados.equals(atual.estados())) {
+                return;
+            }
+            novo = new Painel(anterior.versao() + 1, hoje, List.copyOf(emPreparo), List.copyOf(prontos));
+            atual = new Foto(novo, Map.copyOf(estados));
+        }
+        Consumer<Painel> destino;
+        while ((destino = aguardando.poll()) != null) {
+            destino.accept(novo);
+        }
+    }
+}
@@ -5,12 +5,23 @@ import com.example.projeto_test.model.Product;
 import com.example.projeto_test.repository.FilterRepository;
 import com.example.projeto_test.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * Serviço de negócio para operações com produtos.
@@ -19,6 +30,15 @@ import java.util.Set;
  * do cardápio, incluindo validações e regras específicas do domínio.
  * Atua como intermediário entre o controller e o repository.
  *
+ * O cardápio completo é mantido em memória como um snapshot imutável
+ * (copy-on-write): a listagem é apenas a leitura de uma referência e o
+ * snapshot é substituído atomicamente sempre que uma criação, atualização
+ * ou remoção é confirmada no banco. Junto com a lista é mantido um índice
+ * de filtros em bitsets, usado para filtrar o cardápio sem consultar o
+ * banco, e um índice de busca textual pelos nomes dos produtos. Cada
+ * alteração confirmada também
+ * incrementa a versão do cardápio, usada pelos controllers como ETag.
+ *
  * @author Sistema de Gestão de Restaurante
  * @version 1.0
  * @since 2025-01-01
@@ -32,6 +52,27 @@ public class ProductService {
     @Autowired
     private FilterRepository filterRepository;
 
+    /**
+     * Snapshot imutável do cardápio. {@code null} enquanto ainda não foi
+     * carregado (ou após uma invalidação); nesse caso a próxima leitura
+     * recarrega do banco.
+     */
+    private final AtomicReference<Catalogo> catalogo = new AtomicReference<>();
+
+    /**
+     * Versão do cardápio, incrementada a cada alteração confirmada.
+     * Começa no instante de inicialização para nunca repetir um valor já
+     * entregue antes de um reinício da aplicação.
+     */
+    private final AtomicLong versaoCatalogo = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Cache dos filtros já resolvidos, por ID. Filtros não são editados,
+     * apenas criados e removidos, então basta esquecer os removidos
+     * (ver {@link #filtroRemovido(Long)}).
+     */
+    private final Map<Long, Filter> filtrosPorId = new ConcurrentHashMap<>();
+
     /**
      * Cria um novo produto no cardápio.
      *
@@ -39,29 +80,130 @@ public class ProductService {
      * @return Produto criado com ID gerado
      */
     public Product createProduct(@NonNull Product product) {
-        // Processar filtros: buscar objetos Filter completos do banco
+        // Processar filtros: buscar objetos Filter completos (cache + uma consulta)
         if (product.getFilters() != null && !product.getFilters().isEmpty()) {
-            Set<Filter> processedFilters = new HashSet<>();
-            for (Filter filter : product.getFilters()) {
-                Long filterId = filter.getId();
-                if (filterId != null) {
-                    Filter fullFilter = filterRepository.findById(filterId)
-                            .orElseThrow(() -> new RuntimeException("Filter not found with id: " + filterId));
-                    processedFilters.add(fullFilter);
-                }
-            }
-            product.setFilters(processedFilters);
+            product.setFilters(resolverFiltros(product.getFilters()));
         }
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        aplicarAoCatalogo(c -> c.comProduto(saved));
+        return saved;
     }
 
     /**
      * Retorna todos os produtos do cardápio.
      *
-     * @return Lista completa de produtos disponíveis
+     * Fora de transação a resposta vem do snapshot em memória, carregado do
+     * banco apenas na primeira chamada. Dentro de uma transação a consulta vai
+     * direto ao banco, para enxergar as alterações ainda não confirmadas.
+     *
+     * @return Lista completa (imutável) de produtos disponíveis
      */
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return productRepository.findAllWithFilters();
+        }
+        return catalogoAtual().produtos();
+    }
+
+    /**
+     * Retorna os produtos que possuem os filtros (tags) informados.
+     *
+     * A consulta é respondida pelo índice de filtros do snapshot em memória;
+     * dentro de uma transação o índice é montado a partir do banco.
+     *
+     * @param filterIds IDs dos filtros
+     * @param todos     {@code true} exige todos os filtros, {@code false} aceita qualquer um
+     * @return Produtos encontrados, na mesma ordem de {@link #getAllProducts()}
+     */
+    public List<Product> getProductsByFilters(@NonNull Collection<Long> filterIds, boolean todos) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return IndiceFiltros.construir(productRepository.findAllWithFilters()).consultar(filterIds, todos);
+        }
+        return catalogoAtual().indice().consultar(filterIds, todos);
+    }
+
+    /**
+     * Busca produtos pelo nome, ignorando acentos e maiúsculas e tolerando
+     * pequenos erros de digitação (ver {@link IndiceBusca}).
+     *
+     * Fora de transação a busca usa o índice do snapshot em memória; dentro
+     * de uma transação o índice é montado a partir do banco.
+     *
+     * @param consulta Texto digitado pelo cliente
+     * @param limite   Quantidade máxima de resultados (null usa o padrão)
+     * @return Produtos encontrados, dos mais relevantes para os menos relevantes
+     */
+    public List<Product> searchProducts(String consulta, Integer limite) {
+        int tamanho = limite == null
+                ? IndiceBusca.LIMITE_PADRAO
+                : Math.max(1, Math.min(limite, IndiceBusca.LIMITE_MAXIMO));
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return IndiceBusca.construir(productRepository.findAllWithFilters()).buscar(consulta, tamanho);
+        }
+        return catalogoAtual().busca().buscar(consulta, tamanho);
+    }
+
+    /**
+     * Retorna uma página do cardápio (produtos mais recentes primeiro),
+     * usando paginação por cursor.
+     *
+     * @param after  ID do último produto já recebido (null para a primeira página)
+     * @param limite Tamanho da página (null usa o padrão)
+     * @return Página de produtos e o cursor da próxima página
+     */
+    public Pagina<Product> getProductsPagina(Long after, Integer limite) {
+        int tamanho = Pagina.normalizarLimite(limite);
+        // Busca um registro a mais só para saber se existe próxima página
+        Limit consulta = Limit.of(tamanho + 1);
+        List<Long> ids = after == null
+                ? productRepository.findIdsOrderByIdDesc(consulta)
+                : productRepository.findIdsByIdLessThanOrderByIdDesc(after, consulta);
+        Pagina<Long> paginaIds = Pagina.deConsulta(ids, tamanho, id -> id);
+        // Segunda consulta traz os produtos da página já com os filtros
+        List<Product> produtos = paginaIds.itens().isEmpty()
+                ? List.of()
+                : productRepository.findWithFiltersByIdInOrderByIdDesc(paginaIds.itens());
+        return new Pagina<>(List.copyOf(produtos), paginaIds.proximoCursor());
+    }
+
+    /**
+     * Retorna a versão atual do cardápio.
+     *
+     * Não consulta o banco; permite responder requisições condicionais
+     * (If-None-Match) sem montar a lista de produtos.
+     *
+     * @return Versão que muda a cada alteração confirmada no cardápio
+     */
+    public long getVersaoCatalogo() {
+        return versaoCatalogo.get();
+    }
+
+    /**
+     * Avisa que um filtro foi removido: ele sai do cache de filtros e o
+     * snapshot do cardápio é descartado.
+     *
+     * @param filterId ID do filtro removido
+     */
+    public void filtroRemovido(Long filterId) {
+        filtrosPorId.remove(filterId);
+        invalidarCatalogo();
+    }
+
+    /**
+     * Descarta o snapshot do cardápio, forçando a recarga na próxima leitura.
+     *
+     * Usado quando dados relacionados aos produtos (ex: filtros) mudam por
+     * fora deste serviço. Sincronizado com {@link #carregarCatalogo()}: uma
+     * carga que leu o banco antes do commit publica o snapshot antigo antes
+     * do descarte, nunca depois.
+     */
+    public void invalidarCatalogo() {
+        AposCommit.executar(() -> {
+            synchronized (this) {
+                catalogo.set(null);
+                versaoCatalogo.incrementAndGet();
+            }
+        });
     }
 
     /**
@@ -72,7 +214,7 @@ public class ProductService {
      * @throws RuntimeException Se o produto não for encontrado
      */
     public Product getProductById(@NonNull Long id) {
-        return productRepository.findById(id)
+        return productRepository.findWithFiltersById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
     }
 
@@ -94,21 +236,14 @@ public class ProductService {
             product.setImageUrl(productDetails.getImageUrl());
         }
         
-        // Processar filtros: buscar objetos Filter completos do banco
+        // Processar filtros: buscar objetos Filter completos (cache + uma consulta)
         if (productDetails.getFilters() != null) {
-            Set<Filter> processedFilters = new HashSet<>();
-            for (Filter filter : productDetails.getFilters()) {
-                Long filterId = filter.getId();
-                if (filterId != null) {
-                    Filter fullFilter = filterRepository.findById(filterId)
-                            .orElseThrow(() -> new RuntimeException("Filter not found with id: " + filterId));
-                    processedFilters.add(fullFilter);
-                }
-            }
-            product.setFilters(processedFilters);
+            product.setFilters(resolverFiltros(productDetails.getFilters()));
         }
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        aplicarAoCatalogo(c -> c.comProduto(saved));
+        return saved;
     }
 
     /**
@@ -122,6 +257,105 @@ public class ProductService {
             throw new RuntimeException("Product not found");
         }
         productRepository.deleteById(id);
+        aplicarAoCatalogo(c -> c.semProduto(id));
     }
-}
 
+    /**
+     * Troca os filtros recebidos do cliente (que trazem apenas o ID) pelos
+     * objetos Filter completos.
+     *
+     * Os filtros que não estão em cache são buscados em uma única consulta
+     * ({@code findAllById}), e todos os IDs inexistentes são informados
+     * juntos na mensagem de erro.
+     *
+     * @param filters Filtros enviados pelo cliente
+     * @return Filtros completos
+     * @throws RuntimeException Se algum filtro não existir
+     */
+    private Set<Filter> resolverFiltros(Set<Filter> filters) {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Filter filter : filters) {
+            if (filter.getId() != null) {
+                ids.add(filter.getId());
+            }
+        }
+
+        Set<Long> faltando = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (!filtrosPorId.containsKey(id)) {
+                faltando.add(id);
+            }
+        }
+        Map<Long, Filter> encontrados = new HashMap<>();
+        if (!faltando.isEmpty()) {
+            // Dentro de uma transação o filtro pode ainda não estar confirmado,
+            // então só entra no cache o que foi lido fora de transação
+            boolean podeCachear = !TransactionSynchronizationManager.isActualTransactionActive();
+            for (Filter encontrado : filterRepository.findAllById(faltando)) {
+                encontrados.put(encontrado.getId(), encontrado);
+                if (podeCachear) {
+                    filtrosPorId.put(encontrado.getId(), encontrado);
+                }
+                faltando.remove(encontrado.getId());
+            }
+            if (!faltando.isEmpty()) {
+                throw new RuntimeException("Filter not found with id: " + faltando.stream()
+                        .map(String::valueOf)
+                        .collect(Collectors.joining(", ")));
+            }
+        }
+
+        Set<Filter> processedFilters = new HashSet<>();
+        for (Long id : ids) {
+            Filter filter = encontrados.get(id);
+            processedFilters.add(filter != null ? filter : filtrosPorId.get(id));
+        }
+        return processedFilters;
+    }
+
+    // ===== SNAPSHOT DO CARDÁPIO =====
+
+    /**
+     * Retorna o snapshot atual, carregando-o do banco se necessário.
+     */
+    private Catalogo catalogoAtual() {
+        Catalogo snapshot = catalogo.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        return carregarCatalogo();
+    }
+
+    /**
+     * Carrega o cardápio do banco e publica o novo snapshot.
+     *
+     * Sincronizado com as alterações do snapshot para que uma carga iniciada
+     * antes de um commit não sobrescreva o resultado desse commit.
+     */
+    private synchronized Catalogo carregarCatalogo() {
+        Catalogo snapshot = catalogo.get();
+        if (snapshot == null) {
+            snapshot = Catalogo.de(productRepository.findAllWithFilters());
+            catalogo.set(snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Gera uma cópia alterada do snapshot atual e a publica atomicamente,
+     * somente depois do commit da transação corrente (se houver).
+     *
+     * @param alteracao Função que recebe o snapshot atual e devolve o novo
+     */
+    private void aplicarAoCatalogo(UnaryOperator<Catalogo> alteracao) {
+        AposCommit.executar(() -> {
+            synchronized (this) {
+                Catalogo atual = catalogo.get();
+                if (atual != null) {
+                    catalogo.set(alteracao.apply(atual));
+                }
+                versaoCatalogo.incrementAndGet();
+            }
+        });
+    }
+}
@@ -7,15 +7,29 @@ import com.example.projeto_test.model.Recibo;
 // ↑ Importa a entidade Recibo (representa um pedido/notinha)
 import com.example.projeto_test.model.Recibo.ItemCompra;
 // ↑ Importa a classe interna ItemCompra (itens dentro de um recibo)
+import com.example.projeto_test.model.ReciboRemovido;
+// ↑ Importa a marca de remoção de recibos (sincronização incremental)
+import com.example.projeto_test.repository.ReciboRemovidoRepository;
+// ↑ Importa o repository das marcas de remoção
 import com.example.projeto_test.repository.ReciboRepository;
 // ↑ Importa o repository para acesso aos dados de recibos
 import org.springframework.beans.factory.annotation.Autowired;
 // ↑ Anotação para injeção automática de dependências
+import org.springframework.data.domain.Limit;
+// ↑ Limite de registros para as consultas paginadas
 import org.springframework.lang.NonNull;
 // ↑ Anotação que indica parâmetros obrigatórios (não null)
 import org.springframework.stereotype.Service;
 // ↑ Marca esta classe como um serviço do Spring
+import org.springframework.transaction.annotation.Transactional;
+// ↑ Executa o método em uma única transação
 
+import java.time.LocalDate;
+// ↑ Importa classe para trabalhar com datas (dia das estatísticas)
+import java.time.LocalDateTime;
+// ↑ Importa classe para trabalhar com datas e horas (momento da remoção)
+import java.util.ArrayList;
+// ↑ Importa ArrayList para montar as páginas de alterações
 import java.util.List;
 // ↑ Importa interface List para trabalhar com coleções
 
@@ -23,14 +37,14 @@ import java.util.List;
  * Serviço de negócio para operações com recibos.
  *
  * Esta classe contém toda a lógica de negócio relacionada aos recibos,
- * incluindo geração de números aleatórios, cálculos de total e validações.
+ * incluindo números de chamada, cálculos de total e validações.
  * Atua como intermediário entre o controller e o repository.
  *
  * Funcionalidades principais:
  * - Criação de recibos com números únicos
  * - Validação de carrinhos vazios
  * - Cálculo automático de totais
- * - Geração de números de chamada aleatórios
+ * - Números de chamada sequenciais por dia (reaproveitados após a entrega)
  *
  * @author Sistema de Gestão de Restaurante
  * @version 1.0
@@ -46,11 +60,38 @@ public class ReciboService {
     private ReciboRepository reciboRepository;
     // ↑ Campo que armazena referência ao repository de recibos
 
+    @Autowired // ← Distribui os números de chamada (sequenciais por dia, sem colisão)
+    private AlocadorNumeroChamada alocadorNumeroChamada;
+
+    @Autowired // ← Gravação em grupo (group commit), se habilitada na configuração
+    private GravadorRecibosEmLote gravadorEmLote;
+
+    @Autowired // ← Totais de vendas em memória, atualizados a cada gravação
+    private EstatisticasVendas estatisticasVendas;
+
+    @Autowired // ← Avisa as telas conectadas ao stream de recibos
+    private EventosRecibo eventosRecibo;
+
+    @Autowired // ← Versões de alteração para a sincronização incremental
+    private VersoesRecibo versoesRecibo;
+
+    @Autowired // ← Marcas de remoção ("tombstones") dos recibos removidos
+    private ReciboRemovidoRepository reciboRemovidoRepository;
+
+    @Autowired // ← Arquivo histórico em disco dos recibos antigos
+    private ArquivoRecibos arquivoRecibos;
+
+    @Autowired // ← Limpeza em lote (sem carregar os recibos)
+    private LimpezaRecibos limpezaRecibos;
+
+    @Autowired // ← Fila de pedidos da cozinha (preferenciais primeiro)
+    private FilaCozinha filaCozinha;
+
     /**
      * Cria um novo recibo com itens de compra.
      *
      * Valida se há itens no carrinho, gera automaticamente o número
-     * de chamada aleatório e calcula o total da venda.
+     * de chamada do dia e calcula o total da venda.
      *
      * @param itens          Lista de itens comprados
      * @param observacoes    Observações especiais do cliente
@@ -66,7 +107,7 @@ public class ReciboService {
      * Cria um novo recibo com itens de compra e tipo de atendimento.
      *
      * Valida se há itens no carrinho, gera automaticamente o número
-     * de chamada aleatório e calcula o total da venda.
+     * de chamada do dia e calcula o total da venda.
      *
      * @param itens           Lista de itens comprados
      * @param observacoes     Observações especiais do cliente
@@ -95,11 +136,43 @@ public class ReciboService {
 
         recibo.gerarRecibo(itens, observacoes, formaPagamento, tipoAtendimento);
         // ↑ Chama o método da entidade para preencher todos os dados
-        // Este método gera o número aleatório e calcula o total
+        // Este método registra a data/hora e calcula o total
+
+        AlocadorNumeroChamada.NumeroChamada numero = alocadorNumeroChamada.alocar();
+        recibo.setDataChamada(numero.dia());
+        recibo.setNumeroChamada(numero.numero());
+        // ↑ Número único no dia: um incremento atômico, sem sorteio e sem colisão
 
-        return reciboRepository.save(recibo);
-        // ↑ Salva o recibo no banco de dados e retorna
-        // O save() retorna a entidade salva (com ID gerado)
+        long versao = versoesRecibo.reservar(1);
+        recibo.setVersaoAlteracao(versao);
+        // ↑ Versão da alteração: a sincronização incremental enxerga o novo recibo
+
+        Recibo salvo;
+        try {
+            if (gravadorEmLote.isHabilitado()) {
+                salvo = gravadorEmLote.salvar(recibo);
+                // ↑ Horário de pico: o recibo entra no próximo lote e é gravado
+                // junto com os de outros totens em uma única transação
+            } else {
+                salvo = reciboRepository.save(recibo);
+                // ↑ Salva o recibo no banco de dados
+                // O save() retorna a entidade salva (com ID gerado)
+            }
+        } catch (RuntimeException e) {
+            alocadorNumeroChamada.liberar(numero.dia(), numero.numero());
+            // ↑ Recibo não foi salvo: o número pode ser reaproveitado
+            throw e;
+        } finally {
+            versoesRecibo.concluirAoTerminar(versao);
+        }
+
+        estatisticasVendas.registrar(salvo);
+        // ↑ Soma a venda nos totais do dia (só depois de gravada)
+        eventosRecibo.publicar(EventosRecibo.CRIADO, salvo);
+        // ↑ Novo pedido aparece na tela do funcionário sem recarregar a lista
+        filaCozinha.receber(salvo);
+        // ↑ Entra na fila da cozinha (preferenciais na frente)
+        return salvo;
     }
 
     /**
@@ -111,6 +184,24 @@ public class ReciboService {
         return reciboRepository.findAll();
     }
 
+    /**
+     * Retorna uma página do histórico de recibos, do mais recente para o
+     * mais antigo, usando paginação por cursor.
+     *
+     * @param after  ID do último recibo já recebido (null para a primeira página)
+     * @param limite Tamanho da página (null usa o padrão)
+     * @return Página de recibos e o cursor da próxima página
+     */
+    public Pagina<Recibo> getRecibosPagina(Long after, Integer limite) {
+        int tamanho = Pagina.normalizarLimite(limite);
+        // Busca um registro a mais só para saber se existe próxima página
+        Limit consulta = Limit.of(tamanho + 1);
+        List<Recibo> resultado = after == null
+                ? reciboRepository.findAllByOrderByIdDesc(consulta)
+                : reciboRepository.findByIdLessThanOrderByIdDesc(after, consulta);
+        return Pagina.deConsulta(resultado, tamanho, Recibo::getId);
+    }
+
     /**
      * Busca um recibo específico pelo ID.
      *
@@ -120,6 +211,8 @@ public class ReciboService {
      */
     public Recibo getReciboById(@NonNull Long id) {
         return reciboRepository.findById(id)
+                .or(() -> arquivoRecibos.buscar(id))
+                // ↑ Recibos antigos já saíram das tabelas: procura no arquivo histórico
                 .orElseThrow(() -> new RuntimeException("Recibo not found"));
     }
 
@@ -130,8 +223,12 @@ public class ReciboService {
      * @param novosDados Dados novos
      * @return Recibo atualizado
      */
+    @Transactional
     public Recibo updateRecibo(@NonNull Long id, Recibo novosDados) {
-        Recibo recibo = getReciboById(id);
+        Recibo recibo = reciboRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Recibo not found"));
+        // ↑ Só recibos das tabelas podem ser editados; os arquivados são somente leitura
+        EstatisticasVendas.Contribuicao antes = EstatisticasVendas.Contribuicao.de(recibo);
 
         if (novosDados.getObservacoes() != null) {
             recibo.setObservacoes(novosDados.getObservacoes());
@@ -140,47 +237,162 @@ public class ReciboService {
             recibo.setFormaPagamento(novosDados.getFormaPagamento());
         }
 
-        // Atualizar itens se fornecidos
+        // Atualizar itens se fornecidos: só as linhas alteradas são gravadas
+        // e o total é ajustado pela diferença (sem recalcular o pedido todo)
         if (novosDados.getItens() != null && !novosDados.getItens().isEmpty()) {
-            recibo.setItens(novosDados.getItens());
+            recibo.atualizarItens(novosDados.getItens());
+        }
+
+        long versao = versoesRecibo.reservar(1);
+        recibo.setVersaoAlteracao(versao);
+        Recibo salvo;
+        try {
+            salvo = reciboRepository.save(recibo);
+        } finally {
+            versoesRecibo.concluirAoTerminar(versao);
+        }
+        estatisticasVendas.substituir(antes, salvo);
+        eventosRecibo.publicar(EventosRecibo.ATUALIZADO, salvo);
+        filaCozinha.atualizar(salvo);
+        return salvo;
+    }
+
+    /**
+     * Retorna o resumo de vendas de um dia (receita e pedidos por hora,
+     * forma de pagamento, tipo de atendimento e item).
+     *
+     * Lê apenas os totais mantidos em memória: não consulta o banco.
+     *
+     * @param dia Dia desejado
+     * @return Resumo de vendas do dia
+     */
+    public EstatisticasVendas.Resumo getEstatisticas(@NonNull LocalDate dia) {
+        return estatisticasVendas.resumo(dia);
+    }
 
-            // Recalcular total
-            int novoTotal = recibo.getItens().stream()
-                    .mapToInt(ItemCompra::getSubtotal)
-                    .sum();
-            recibo.setTotal(novoTotal);
+    /**
+     * Sincronização incremental: recibos alterados e removidos após uma versão.
+     *
+     * Usa os índices da versão de alteração, então o custo é proporcional
+     * ao número de alterações, e não ao tamanho da tabela. A resposta só vai
+     * até o marco seguro (ver {@link VersoesRecibo}): gravações ainda em
+     * andamento ficam para a próxima chamada, sem risco de serem puladas.
+     * Uma versão abaixo do horizonte das remoções (ver
+     * {@link ArquivoRecibos#getHorizonteRemocoes()}) recebe o aviso de
+     * ressincronizar, porque as remoções daquela época já foram apagadas.
+     *
+     * @param desde  Última versão já recebida (0 na primeira sincronização)
+     * @param limite Quantidade máxima de alterações (null usa o padrão)
+     * @return Alterações, remoções e a versão para a próxima chamada
+     */
+    public Alteracoes getAlteracoes(long desde, Integer limite) {
+        int tamanho = Pagina.normalizarLimite(limite);
+        if (desde > 0 && desde < arquivoRecibos.getHorizonteRemocoes()) {
+            return Alteracoes.ressincronizacao();
+        }
+        long ate = versoesRecibo.marcoSeguro();
+        if (desde >= ate) {
+            return new Alteracoes(List.of(), List.of(), ate, false, false);
         }
 
-        return reciboRepository.save(recibo);
+        // Um registro a mais de cada tabela só para saber se existe mais
+        Limit consulta = Limit.of(tamanho + 1);
+        List<Recibo> alterados = reciboRepository
+                .findByVersaoAlteracaoBetweenOrderByVersaoAlteracao(desde + 1, ate, consulta);
+        List<ReciboRemovido> removidos = reciboRemovidoRepository
+                .findByVersaoAlteracaoBetweenOrderByVersaoAlteracao(desde + 1, ate, consulta);
+
+        // Intercala as duas listas pela versão até completar o limite
+        List<Recibo> paginaAlterados = new ArrayList<>();
+        List<Long> paginaRemovidos = new ArrayList<>();
+        int a = 0;
+        int r = 0;
+        long versao = ate;
+        while (a < alterados.size() || r < removidos.size()) {
+            if (paginaAlterados.size() + paginaRemovidos.size() == tamanho) {
+                return new Alteracoes(paginaAlterados, paginaRemovidos, versao, true, false);
+            }
+            boolean proximoAlterado = r == removidos.size() || (a < alterados.size()
+                    && alterados.get(a).getVersaoAlteracao() < removidos.get(r).getVersaoAlteracao());
+            if (proximoAlterado) {
+                Recibo recibo = alterados.get(a++);
+                paginaAlterados.add(recibo);
+                versao = recibo.getVersaoAlteracao();
+            } else {
+                ReciboRemovido removido = removidos.get(r++);
+                paginaRemovidos.add(removido.getReciboId());
+                versao = removido.getVersaoAlteracao();
+            }
+        }
+        return new Alteracoes(paginaAlterados, paginaRemovidos, ate, false, false);
     }
 
     /**
      * Busca um recibo pelo número de chamada (notinha).
      *
-     * @param numeroChamada Número de 4 dígitos gerado aleatoriamente
+     * @param numeroChamada Número de chamada de 4 dígitos (vale o recibo mais recente)
      * @return Recibo encontrado
      * @throws RuntimeException Se o recibo não for encontrado
      */
     public Recibo getReciboByNumeroChamada(String numeroChamada) {
-        return reciboRepository.findByNumeroChamada(numeroChamada)
+        return reciboRepository.findFirstByNumeroChamadaOrderByIdDesc(numeroChamada)
                 .orElseThrow(() -> new RuntimeException("Recibo not found"));
     }
 
     /**
-     * Remove um recibo específico do sistema.
+     * Remove um recibo específico do sistema (pedido concluído).
+     *
+     * O número de chamada do recibo volta para o alocador, para ser
+     * reaproveitado quando a sequência do dia se esgotar.
      *
      * @param id Identificador único do recibo
      */
+    @Transactional
     public void deleteRecibo(@NonNull Long id) {
-        reciboRepository.deleteById(id);
+        reciboRepository.findById(id).ifPresent(recibo -> {
+            EstatisticasVendas.Contribuicao removido = EstatisticasVendas.Contribuicao.de(recibo);
+            long versao = versoesRecibo.reservar(1);
+            versoesRecibo.concluirAoTerminar(versao);
+            reciboRemovidoRepository.save(new ReciboRemovido(recibo.getId(), versao, LocalDateTime.now()));
+            // ↑ Marca de remoção na mesma transação: quem sincroniza fica sabendo
+            reciboRepository.delete(recibo);
+            alocadorNumeroChamada.liberar(recibo.getDataChamada(), recibo.getNumeroChamada());
+            estatisticasVendas.remover(removido);
+            eventosRecibo.publicar(EventosRecibo.REMOVIDO, recibo);
+            filaCozinha.remover(List.of(recibo.getId()));
+        });
     }
 
     /**
      * Remove todos os recibos do sistema.
      *
      * Método utilitário para limpar o histórico em ambiente de desenvolvimento.
+     * Apaga em lote, sem carregar os recibos (ver {@link LimpezaRecibos}).
      */
     public void deleteAllRecibos() {
-        reciboRepository.deleteAll();
+        limpezaRecibos.limpar(LimpezaRecibos.Filtro.TODOS);
+    }
+
+    /**
+     * Inicia uma limpeza de recibos em segundo plano.
+     *
+     * @param filtro Recibos a apagar (todos, ou por período de criação,
+     *               forma de pagamento e tipo de atendimento)
+     * @return Situação inicial da tarefa, com o ID para acompanhar o andamento
+     */
+    public LimpezaRecibos.Tarefa iniciarLimpeza(LimpezaRecibos.Filtro filtro) {
+        return limpezaRecibos.iniciar(filtro);
+    }
+
+    /**
+     * Situação de uma limpeza iniciada por {@link #iniciarLimpeza}.
+     *
+     * @param id ID da tarefa
+     * @return Situação da tarefa
+     * @throws RuntimeException se a tarefa não existir
+     */
+    public LimpezaRecibos.Tarefa getLimpeza(String id) {
+        return limpezaRecibos.buscar(id)
+                .orElseThrow(() -> new RuntimeException("Limpeza não encontrada"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,153 @@
+package com.example.projeto_test.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Roda de temporização hierárquica (hierarchical timing wheel).
+ *
+ * Agenda prazos em "ticks" (unidades de tempo inteiras) com custo O(1) para
+ * agendar e cancelar, e custo por tick proporcional só aos prazos que vencem
+ * nele, independente de quantos estão agendados. São {@value #NIVEIS} rodas
+ * de {@value #POSICOES} posições: a primeira cobre os próximos 64 ticks, a
+ * segunda os próximos 64², e assim por diante. Quando a roda de baixo dá uma
+ * volta, a posição atual da roda de cima é redistribuída para baixo.
+ *
+ * Cancelar só marca o agendamento; ele é descartado quando a posição dele
+ * for processada. Não é thread-safe: quem usa sincroniza.
+ *
+ * @param <T> Tipo do item agendado
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+final class RodaTemporizacao<T> {
+
+    static final int NIVEIS = 4;
+
+    static final int POSICOES = 64;
+
+    private static final int BITS = 6;
+
+    /** Maior distância que cabe nas rodas; prazos mais longos são reagendados ao chegar lá */
+    private static final long ALCANCE = 1L << (BITS * NIVEIS);
+
+    /** Um prazo agendado */
+    static final class Agendamento<T> {
+
+        private final T item;
+
+        private final long tick;
+
+        private boolean cancelado;
+
+        private Agendamento(T item, long tick) {
+            this.item = item;
+            this.tick = tick;
+        }
+
+        T getItem() {
+            return item;
+        }
+
+        long getTick() {
+            return tick;
+        }
+
+        void cancelar() {
+            cancelado = true;
+        }
+    }
+
+    private final List<List<List<Agendamento<T>>>> rodas = new ArrayList<>(NIVEIS);
+
+    /** Próximo tick a processar */
+    private long base;
+
+    private int agendados;
+
+    RodaTemporizacao(long tickInicial) {
+        this.base = tickInicial;
+        for (int nivel = 0; nivel < NIVEIS; nivel++) {
+            List<List<Agendamento<T>>> roda = new ArrayList<>(POSICOES);
+            for (int i = 0; i < POSICOES; i++) {
+                roda.add(new ArrayList<>());
+            }
+            rodas.add(roda);
+        }
+    }
+
+    /**
+     * Agenda um item.
+     *
+     * @param item Item a devolver quando o prazo vencer
+     * @param tick Tick em que o prazo vence (no passado vence no próximo tick processado)
+     * @return Agendamento, que pode ser cancelado
+     */
+    Agendamento<T> agendar(T item, long tick) {
+        Agendamento<T> agendamento = new Agendamento<>(item, Math.max(tick, base));
+        colocar(agendamento);
+        agendados++;
+        return agendamento;
+    }
+
+    /**
+     * Processa todos os ticks até o informado (inclusive).
+     *
+     * @param ate     Tick atual
+     * @param vencido Recebe cada item vencido e não cancelado
+     */
+    void avancar(long ate, Consumer<T> vencido) {
+        while (base <= ate) {
+            int posicao = posicao(base, 0);
+            // Roda de baixo completou a volta: desce a posição atual das rodas de cima
+            for (int nivel = 1, acima = posicao; acima == 0 && nivel < NIVEIS; nivel++) {
+                acima = posicao(base, nivel);
+                for (Agendamento<T> agendamento : retirar(nivel, acima)) {
+                    colocar(agendamento);
+                }
+            }
+            for (Agendamento<T> agendamento : retirar(0, posicao)) {
+                if (agendamento.cancelado) {
+                    agendados--;
+                } else if (agendamento.tick <= base) {
+                    agendados--;
+                    vencido.accept(agendamento.item);
+                } else {
+                    colocar(agendamento);
+                }
+            }
+            base++;
+        }
+    }
+
+    /** @return Agendamentos guardados nas rodas (incluindo cancelados ainda não descartados) */
+    int getAgendados() {
+        return agendados;
+    }
+
+    private void colocar(Agendamento<T> agendamento) {
+        long distancia = Math.min(agendamento.tick - base, ALCANCE - 1);
+        long alvo = base + distancia;
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && distancia >= 1L << (BITS * (nivel + 1))) {
+            nivel++;
+        }
+        rodas.get(nivel).get(posicao(alvo, nivel)).add(agendamento);
+    }
+
+    private static int posicao(long tick, int nivel) {
+        return (int) ((tick >>> (BITS * nivel)) & (POSICOES - 1));
+    }
+
+    private List<Agendamento<T>> retirar(int nivel, int posicao) {
+        List<List<Agendamento<T>>> roda = rodas.get(nivel);
+        List<Agendamento<T>> itens = roda.get(posicao);
+        if (itens.isEmpty()) {
+            return itens;
+        }
+        roda.set(posicao, new ArrayList<>());
+        return itens;
+    }
+}
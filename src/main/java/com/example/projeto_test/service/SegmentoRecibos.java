@@ -0,0 +1,380 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Arquivo de segmento do arquivo histórico de recibos.
+ *
+ * Um segmento guarda um lote de recibos antigos em colunas: todos os IDs,
+ * depois todas as datas, todas as formas de pagamento, e assim por diante.
+ * Valores parecidos ficam lado a lado e cada coluna é comprimida (deflate)
+ * separadamente. Os IDs ficam sem compressão e em ordem, para que a busca
+ * por ID seja uma busca binária direto no arquivo mapeado em memória.
+ *
+ * <pre>
+ * cabeçalho   magic, formato, quantidade, menor/maior ID,
+ *             menor/maior data de criação, maior versão de alteração
+ * diretório   tamanho comprimido e original de cada coluna
+ * ids         quantidade × long, em ordem crescente
+ * colunas     cada coluna comprimida, na ordem do diretório
+ * </pre>
+ *
+ * O segmento é imutável: é escrito uma vez em um arquivo temporário,
+ * sincronizado com o disco e renomeado para o nome final.
+ */
+final class SegmentoRecibos {
+
+    private static final int MAGIC = 0x52454331; // "REC1"
+
+    private static final int FORMATO = 1;
+
+    private static final int TAMANHO_CABECALHO = 4 + 4 + 4 + 8 * 5 + 4;
+
+    private static final long NULO = Long.MIN_VALUE;
+
+    /** Colunas na ordem em que são gravadas */
+    private static final int DATA_CRIACAO = 0;
+    private static final int DATA_CHAMADA = 1;
+    private static final int NUMERO_CHAMADA = 2;
+    private static final int OBSERVACOES = 3;
+    private static final int FORMA_PAGAMENTO = 4;
+    private static final int TIPO_ATENDIMENTO = 5;
+    private static final int TOTAL = 6;
+    private static final int VERSAO = 7;
+    private static final int ITENS_POR_RECIBO = 8;
+    private static final int ITEM_NOME = 9;
+    private static final int ITEM_QUANTIDADE = 10;
+    private static final int ITEM_PRECO = 11;
+    private static final int COLUNAS = 12;
+
+    private final Path arquivo;
+
+    private final MappedByteBuffer mapa;
+
+    private final int quantidade;
+
+    private final long menorId;
+
+    private final long maiorId;
+
+    private final LocalDateTime menorDataCriacao;
+
+    private final LocalDateTime maiorDataCriacao;
+
+    private final long maiorVersao;
+
+    private SegmentoRecibos(Path arquivo, MappedByteBuffer mapa) {
+        this.arquivo = arquivo;
+        this.mapa = mapa;
+        if (mapa.getInt(0) != MAGIC || mapa.getInt(4) != FORMATO) {
+            throw new IllegalStateException("Segmento inválido: " + arquivo);
+        }
+        this.quantidade = mapa.getInt(8);
+        this.menorId = mapa.getLong(12);
+        this.maiorId = mapa.getLong(20);
+        this.menorDataCriacao = data(mapa.getLong(28));
+        this.maiorDataCriacao = data(mapa.getLong(36));
+        this.maiorVersao = mapa.getLong(44);
+    }
+
+    /**
+     * Mapeia um segmento já gravado em memória (somente leitura).
+     *
+     * @param arquivo Arquivo do segmento
+     * @return Segmento aberto
+     */
+    static SegmentoRecibos abrir(Path arquivo) {
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            // O mapeamento continua válido depois de fechar o canal
+            return new SegmentoRecibos(arquivo, canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o segmento " + arquivo, e);
+        }
+    }
+
+    /**
+     * Grava um segmento com os recibos informados.
+     *
+     * @param arquivo Nome final do segmento
+     * @param recibos Recibos (com os itens carregados)
+     * @return Segmento gravado e aberto
+     */
+    static SegmentoRecibos gravar(Path arquivo, List<Recibo> recibos) {
+        List<Recibo> ordenados = new ArrayList<>(recibos);
+        ordenados.sort(Comparator.comparing(Recibo::getId));
+
+        Colunas colunas = new Colunas();
+        long menorData = Long.MAX_VALUE;
+        long maiorData = Long.MIN_VALUE;
+        long maiorVersao = 0;
+        for (Recibo recibo : ordenados) {
+            long dataCriacao = recibo.getDataCriacao() != null
+                    ? recibo.getDataCriacao().toEpochSecond(ZoneOffset.UTC) : NULO;
+            if (dataCriacao != NULO) {
+                menorData = Math.min(menorData, dataCriacao);
+                maiorData = Math.max(maiorData, dataCriacao);
+            }
+            if (recibo.getVersaoAlteracao() != null) {
+                maiorVersao = Math.max(maiorVersao, recibo.getVersaoAlteracao());
+            }
+            colunas.longo(DATA_CRIACAO, dataCriacao);
+            colunas.longo(DATA_CHAMADA, recibo.getDataChamada() != null ? recibo.getDataChamada().toEpochDay() : NULO);
+            colunas.texto(NUMERO_CHAMADA, recibo.getNumeroChamada());
+            colunas.texto(OBSERVACOES, recibo.getObservacoes());
+            colunas.texto(FORMA_PAGAMENTO, recibo.getFormaPagamento());
+            colunas.texto(TIPO_ATENDIMENTO, recibo.getTipoAtendimento());
+            colunas.longo(TOTAL, recibo.getTotal() != null ? recibo.getTotal() : NULO);
+            colunas.longo(VERSAO, recibo.getVersaoAlteracao() != null ? recibo.getVersaoAlteracao() : NULO);
+            colunas.longo(ITENS_POR_RECIBO, recibo.getItens().size());
+            for (Recibo.ItemCompra item : recibo.getItens()) {
+                colunas.texto(ITEM_NOME, item.getNome());
+                colunas.longo(ITEM_QUANTIDADE, item.getQuantidade() != null ? item.getQuantidade() : NULO);
+                colunas.longo(ITEM_PRECO, item.getPreco() != null ? item.getPreco() : NULO);
+            }
+        }
+
+        byte[][] comprimidas = new byte[COLUNAS][];
+        int[] originais = new int[COLUNAS];
+        int tamanho = TAMANHO_CABECALHO + COLUNAS * 8 + ordenados.size() * 8;
+        for (int c = 0; c < COLUNAS; c++) {
+            byte[] original = colunas.bytes(c);
+            originais[c] = original.length;
+            comprimidas[c] = comprimir(original);
+            tamanho += comprimidas[c].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho);
+        buffer.putInt(MAGIC).putInt(FORMATO).putInt(ordenados.size())
+                .putLong(ordenados.get(0).getId())
+                .putLong(ordenados.get(ordenados.size() - 1).getId())
+                .putLong(menorData == Long.MAX_VALUE ? NULO : menorData)
+                .putLong(maiorData == Long.MIN_VALUE ? NULO : maiorData)
+                .putLong(maiorVersao)
+                .putInt(COLUNAS);
+        for (int c = 0; c < COLUNAS; c++) {
+            buffer.putInt(comprimidas[c].length).putInt(originais[c]);
+        }
+        for (Recibo recibo : ordenados) {
+            buffer.putLong(recibo.getId());
+        }
+        for (byte[] coluna : comprimidas) {
+            buffer.put(coluna);
+        }
+        buffer.flip();
+
+        Path temporario = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            canal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar o segmento " + arquivo, e);
+        }
+        try {
+            Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível gravar o segmento " + arquivo, e);
+        }
+        return abrir(arquivo);
+    }
+
+    Path getArquivo() { return arquivo; }
+
+    int getQuantidade() { return quantidade; }
+
+    long getMaiorVersao() { return maiorVersao; }
+
+    long getMaiorId() { return maiorId; }
+
+    /** @return true se o ID pode estar neste segmento */
+    boolean podeConter(long id) {
+        return id >= menorId && id <= maiorId;
+    }
+
+    /** @return true se o segmento tem recibos criados no intervalo [de, ate) */
+    boolean sobrepoe(LocalDateTime de, LocalDateTime ate) {
+        if (menorDataCriacao == null) {
+            return false;
+        }
+        return (de == null || !maiorDataCriacao.isBefore(de)) && (ate == null || menorDataCriacao.isBefore(ate));
+    }
+
+    /**
+     * Posição do recibo no segmento (busca binária nos IDs mapeados).
+     *
+     * @return Posição, ou -1 se o ID não está no segmento
+     */
+    int posicao(long id) {
+        int inicioIds = TAMANHO_CABECALHO + COLUNAS * 8;
+        int baixo = 0;
+        int alto = quantidade - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            long valor = mapa.getLong(inicioIds + meio * 8);
+            if (valor < id) {
+                baixo = meio + 1;
+            } else if (valor > id) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Descomprime o segmento inteiro em recibos (fora do contexto JPA).
+     *
+     * @return Recibos do segmento, em ordem de ID
+     */
+    List<Recibo> ler() {
+        ByteBuffer leitura = mapa.duplicate();
+        int inicioIds = TAMANHO_CABECALHO + COLUNAS * 8;
+        int posicao = inicioIds + quantidade * 8;
+        DataInputStream[] colunas = new DataInputStream[COLUNAS];
+        for (int c = 0; c < COLUNAS; c++) {
+            int comprimido = leitura.getInt(TAMANHO_CABECALHO + c * 8);
+            int original = leitura.getInt(TAMANHO_CABECALHO + c * 8 + 4);
+            byte[] dados = new byte[comprimido];
+            leitura.get(posicao, dados);
+            colunas[c] = new DataInputStream(new ByteArrayInputStream(descomprimir(dados, original)));
+            posicao += comprimido;
+        }
+
+        List<Recibo> recibos = new ArrayList<>(quantidade);
+        try {
+            for (int i = 0; i < quantidade; i++) {
+                Recibo recibo = new Recibo();
+                recibo.setId(leitura.getLong(inicioIds + i * 8));
+                long dataCriacao = colunas[DATA_CRIACAO].readLong();
+                recibo.setDataCriacao(data(dataCriacao));
+                long dataChamada = colunas[DATA_CHAMADA].readLong();
+                recibo.setDataChamada(dataChamada == NULO ? null : LocalDate.ofEpochDay(dataChamada));
+                recibo.setNumeroChamada(lerTexto(colunas[NUMERO_CHAMADA]));
+                recibo.setObservacoes(lerTexto(colunas[OBSERVACOES]));
+                recibo.setFormaPagamento(lerTexto(colunas[FORMA_PAGAMENTO]));
+                recibo.setTipoAtendimento(lerTexto(colunas[TIPO_ATENDIMENTO]));
+                recibo.setTotal(inteiro(colunas[TOTAL].readLong()));
+                long versao = colunas[VERSAO].readLong();
+                recibo.setVersaoAlteracao(versao == NULO ? null : versao);
+                int itens = (int) colunas[ITENS_POR_RECIBO].readLong();
+                List<Recibo.ItemCompra> lista = new ArrayList<>(itens);
+                for (int j = 0; j < itens; j++) {
+                    lista.add(new Recibo.ItemCompra(lerTexto(colunas[ITEM_NOME]),
+                            inteiro(colunas[ITEM_QUANTIDADE].readLong()),
+                            inteiro(colunas[ITEM_PRECO].readLong())));
+                }
+                recibo.setItens(lista);
+                recibos.add(recibo);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Segmento corrompido: " + arquivo, e);
+        }
+        return recibos;
+    }
+
+    private static LocalDateTime data(long segundos) {
+        return segundos == NULO ? null : LocalDateTime.ofEpochSecond(segundos, 0, ZoneOffset.UTC);
+    }
+
+    private static Integer inteiro(long valor) {
+        return valor == NULO ? null : (int) valor;
+    }
+
+    private static String lerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static byte[] comprimir(byte[] original) {
+        ByteArrayOutputStream saida = new ByteArrayOutputStream(Math.max(64, original.length / 4));
+        // close() do stream não libera um Deflater recebido de fora: end() devolve a memória nativa do zlib
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (DeflaterOutputStream deflate = new DeflaterOutputStream(saida, deflater)) {
+            deflate.write(original);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deflater.end();
+        }
+        return saida.toByteArray();
+    }
+
+    private static byte[] descomprimir(byte[] comprimido, int tamanhoOriginal) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(comprimido);
+            byte[] original = new byte[tamanhoOriginal];
+            int lidos = 0;
+            while (lidos < tamanhoOriginal && !inflater.finished()) {
+                lidos += inflater.inflate(original, lidos, tamanhoOriginal - lidos);
+            }
+            return original;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Coluna corrompida no segmento", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** Uma saída por coluna, preenchidas recibo a recibo */
+    private static final class Colunas {
+        private final ByteArrayOutputStream[] bytes = new ByteArrayOutputStream[COLUNAS];
+        private final DataOutputStream[] saidas = new DataOutputStream[COLUNAS];
+
+        Colunas() {
+            for (int c = 0; c < COLUNAS; c++) {
+                bytes[c] = new ByteArrayOutputStream();
+                saidas[c] = new DataOutputStream(bytes[c]);
+            }
+        }
+
+        void longo(int coluna, long valor) {
+            try {
+                saidas[coluna].writeLong(valor);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void texto(int coluna, String valor) {
+            try {
+                saidas[coluna].writeBoolean(valor != null);
+                if (valor != null) {
+                    saidas[coluna].writeUTF(valor);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        byte[] bytes(int coluna) {
+            return bytes[coluna].toByteArray();
+        }
+    }
+}
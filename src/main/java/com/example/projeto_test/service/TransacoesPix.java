@@ -0,0 +1,507 @@
+package com.example.projeto_test.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Transações Pix em memória.
+ *
+ * Cada transação nasce pendente e tem prazo: se não for paga dentro do prazo
+ * de pagamento ela expira; depois de paga ou expirada ainda fica guardada
+ * por um prazo curto (para o totem ler o resultado) e então é removida. Os
+ * prazos ficam numa {@link RodaTemporizacao} avançada uma vez por segundo,
+ * então expirar custa o mesmo com dez ou com cem mil transações guardadas.
+ *
+ * A quantidade guardada tem limite: com o limite atingido, uma transação
+ * nova despeja a liquidada mais antiga ou, se não houver nenhuma, a
+ * pendente mais antiga. Despejos e expirações são contados
+ * ({@link #getMetricas()}). Assim a memória fica estável por mais tempo que
+ * o servidor fique no ar.
+ *
+ * Quem acompanha o pagamento pode esperar a transação ser liquidada
+ * ({@link #aguardar(String, Consumer)}) em vez de consultar o status a cada
+ * segundo: a espera não ocupa thread e todos que esperam a mesma transação
+ * são avisados na hora em que ela é paga, expira ou é despejada.
+ *
+ * Com o diário habilitado ({@link DiarioPix}), cada mudança é gravada em
+ * disco antes de valer na memória e, ao iniciar, as transações são
+ * recuperadas do diário: um reinício não perde os Pix pendentes nem os
+ * já pagos. O diário vem desligado e é ligado pelo perfil "producao".
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class TransacoesPix {
+
+    /** Aguardando o pagamento */
+    public static final String PENDENTE = "pending";
+
+    /** Paga */
+    public static final String APROVADA = "approved";
+
+    /** Prazo de pagamento vencido sem pagamento */
+    public static final String EXPIRADA = "expired";
+
+    private static final Logger log = LoggerFactory.getLogger(TransacoesPix.class);
+
+    /** Resolução dos prazos */
+    private static final long TICK_MS = 1000;
+
+    /**
+     * Uma transação Pix.
+     *
+     * @param id          ID da transação
+     * @param valor       Valor cobrado
+     * @param status      {@value #PENDENTE}, {@value #APROVADA} ou {@value #EXPIRADA}
+     * @param criadaEm    Momento da criação
+     * @param liquidadaEm Momento em que foi paga ou expirou (null enquanto pendente)
+     */
+    public record Transacao(String id, BigDecimal valor, String status, Instant criadaEm, Instant liquidadaEm) {
+
+        /** @return {@code true} se ainda aguarda o pagamento */
+        public boolean isPendente() {
+            return PENDENTE.equals(status);
+        }
+    }
+
+    /**
+     * Contadores do armazenamento desde o início.
+     *
+     * @param guardadas           Transações guardadas agora
+     * @param capacidade          Limite de transações guardadas
+     * @param criadas             Transações criadas
+     * @param aprovadas           Transações pagas
+     * @param expiradas           Transações que expiraram sem pagamento
+     * @param removidas           Transações liquidadas removidas ao fim do prazo
+     * @param despejadas          Transações removidas antes do prazo por falta de espaço
+     * @param despejadasPendentes Das despejadas, quantas ainda estavam pendentes
+     */
+    public record Metricas(int guardadas, int capacidade, long criadas, long aprovadas, long expiradas,
+            long removidas, long despejadas, long despejadasPendentes) {
+    }
+
+    /** Transação, o prazo agendado para ela e quem espera a liquidação (protegidos pelo lock) */
+    private static final class Entrada {
+
+        private Transacao transacao;
+
+        private RodaTemporizacao.Agendamento<Entrada> prazo;
+
+        private List<Consumer<Optional<Transacao>>> aguardando;
+
+        private Entrada(Transacao transacao) {
+            this.transacao = transacao;
+        }
+    }
+
+    private final Clock relogio;
+
+    private final long prazoPendenteMs;
+
+    private final long prazoLiquidadaMs;
+
+    private final int capacidade;
+
+    /** Todas as transações, na ordem de criação (protegido por this) */
+    private final Map<String, Entrada> transacoes = new LinkedHashMap<>();
+
+    /** IDs das transações liquidadas, na ordem de liquidação (protegido por this) */
+    private final Set<String> liquidadas = new LinkedHashSet<>();
+
+    private final RodaTemporizacao<Entrada> prazos;
+
+    /** Diário em disco (null se desabilitado) */
+    private final DiarioPix diario;
+
+    /** Uma compactação do diário por vez */
+    private final Object compactacao = new Object();
+
+    private long criadas;
+
+    private long aprovadas;
+
+    private long expiradas;
+
+    private long removidas;
+
+    private long despejadas;
+
+    private long despejadasPendentes;
+
+    private int aguardandoTotal;
+
+    private ScheduledExecutorService agendador;
+
+    @Autowired
+    public TransacoesPix(@Value("${app.pagamento.pix.prazo-pagamento-minutos:15}") long prazoPagamentoMinutos,
+            @Value("${app.pagamento.pix.prazo-liquidada-minutos:2}") long prazoLiquidadaMinutos,
+            @Value("${app.pagamento.pix.capacidade:50000}") int capacidade,
+            @Value("${app.pagamento.pix.diario.habilitado:false}") boolean diarioHabilitado,
+            @Value("${app.pagamento.pix.diario.diretorio:pix-diario}") String diarioDiretorio,
+            @Value("${app.pagamento.pix.diario.janela-fsync-ms:5}") long janelaFsyncMs,
+            @Value("${app.pagamento.pix.diario.compactar-apos-registros:10000}") int compactarAposRegistros) {
+        this(Duration.ofMinutes(prazoPagamentoMinutos), Duration.ofMinutes(prazoLiquidadaMinutos), capacidade,
+                Clock.systemUTC(), diarioHabilitado
+                        ? DiarioPix.abrir(Path.of(diarioDiretorio), Duration.ofMillis(janelaFsyncMs), compactarAposRegistros)
+                        : null);
+    }
+
+    TransacoesPix(Duration prazoPagamento, Duration prazoLiquidada, int capacidade, Clock relogio) {
+        this(prazoPagamento, prazoLiquidada, capacidade, relogio, null);
+    }
+
+    TransacoesPix(Duration prazoPagamento, Duration prazoLiquidada, int capacidade, Clock relogio, DiarioPix diario) {
+        if (prazoPagamento.isNegative() || prazoPagamento.isZero() || prazoLiquidada.isNegative() || capacidade <= 0) {
+            throw new IllegalArgumentException("Configuração das transações Pix inválida");
+        }
+        this.prazoPendenteMs = prazoPagamento.toMillis();
+        this.prazoLiquidadaMs = prazoLiquidada.toMillis();
+        this.capacidade = capacidade;
+        this.relogio = relogio;
+        this.prazos = new RodaTemporizacao<>(tick(relogio.millis()));
+        this.diario = diario;
+        if (diario != null) {
+            recuperar(diario.getRecuperadas());
+        }
+    }
+
+    /** Agenda o avanço dos prazos a cada segundo */
+    @PostConstruct
+    public synchronized void iniciar() {
+        if (agendador != null) {
+            return;
+        }
+        agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "pix-expiracao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleAtFixedRate(() -> {
+            try {
+                expirarVencidas();
+                compactarDiario();
+            } catch (RuntimeException e) {
+                log.warn("Falha ao processar os prazos das transações Pix", e);
+            }
+        }, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public synchronized void encerrar() {
+        if (agendador != null) {
+            agendador.shutdownNow();
+            agendador = null;
+        }
+        if (diario != null) {
+            diario.close();
+        }
+    }
+
+    /**
+     * Cria uma transação pendente com um ID gerado aqui.
+     *
+     * @param valor Valor cobrado
+     * @return Transação criada
+     */
+    public Transacao criar(BigDecimal valor) {
+        return criar(UUID.randomUUID().toString(), valor);
+    }
+
+    /**
+     * Cria uma transação pendente com o ID dado pelo gateway de pagamento.
+     *
+     * @param id    ID da cobrança no gateway
+     * @param valor Valor cobrado
+     * @return Transação criada
+     * @throws IllegalArgumentException se já existe uma transação com o ID
+     */
+    public Transacao criar(String id, BigDecimal valor) {
+        List<Runnable> avisos = new ArrayList<>();
+        Transacao transacao;
+        synchronized (this) {
+            if (transacoes.containsKey(id)) {
+                throw new IllegalArgumentException("Transação já existe: " + id);
+            }
+            long agora = relogio.millis();
+            transacao = new Transacao(id, valor, PENDENTE, Instant.ofEpochMilli(agora), null);
+            while (transacoes.size() >= capacidade) {
+                despejarMaisAntiga(avisos);
+            }
+            if (diario != null) {
+                diario.registrar(DiarioPix.Tipo.CRIADA, transacao, transacao.criadaEm());
+            }
+            Entrada entrada = new Entrada(transacao);
+            entrada.prazo = prazos.agendar(entrada, tick(agora + prazoPendenteMs));
+            transacoes.put(transacao.id(), entrada);
+            criadas++;
+        }
+        executar(avisos);
+        return transacao;
+    }
+
+    /**
+     * Busca uma transação.
+     *
+     * @param id ID da transação
+     * @return Transação, ou vazio se não existe ou já foi removida
+     */
+    public synchronized Optional<Transacao> buscar(String id) {
+        Entrada entrada = transacoes.get(id);
+        return entrada == null ? Optional.empty() : Optional.of(entrada.transacao);
+    }
+
+    /**
+     * Marca uma transação pendente como paga.
+     *
+     * Confirmar de novo uma transação paga não muda nada; uma transação
+     * expirada continua expirada.
+     *
+     * @param id ID da transação
+     * @return Transação depois da confirmação, ou vazio se não existe ou já foi removida
+     */
+    public Optional<Transacao> confirmar(String id) {
+        List<Runnable> avisos = new ArrayList<>();
+        Transacao transacao;
+        synchronized (this) {
+            Entrada entrada = transacoes.get(id);
+            if (entrada == null) {
+                return Optional.empty();
+            }
+            if (entrada.transacao.isPendente()) {
+                liquidar(entrada, APROVADA, relogio.millis(), avisos);
+                aprovadas++;
+            }
+            transacao = entrada.transacao;
+        }
+        executar(avisos);
+        return Optional.of(transacao);
+    }
+
+    /**
+     * Espera a transação ser liquidada.
+     *
+     * Se a transação já está paga, expirada ou não existe, o destino é
+     * chamado na hora; senão, é chamado (uma vez) na thread que liquidar ou
+     * despejar a transação.
+     *
+     * @param id      ID da transação
+     * @param destino Recebe a transação liquidada, ou vazio se ela não existe
+     *                ou foi despejada
+     * @return Ação para desistir da espera (por exemplo, no timeout)
+     */
+    public Runnable aguardar(String id, Consumer<Optional<Transacao>> destino) {
+        Optional<Transacao> agora;
+        synchronized (this) {
+            Entrada entrada = transacoes.get(id);
+            if (entrada != null && entrada.transacao.isPendente()) {
+                if (entrada.aguardando == null) {
+                    entrada.aguardando = new ArrayList<>(1);
+                }
+                entrada.aguardando.add(destino);
+                aguardandoTotal++;
+                return () -> desistir(entrada, destino);
+            }
+            agora = entrada == null ? Optional.empty() : Optional.of(entrada.transacao);
+        }
+        destino.accept(agora);
+        return () -> { };
+    }
+
+    /** @return Quantidade de esperas por liquidação em andamento */
+    public synchronized int getAguardando() {
+        return aguardandoTotal;
+    }
+
+    /**
+     * Processa os prazos vencidos até agora: pendentes expiram e liquidadas
+     * são removidas. Chamado a cada segundo pela thread "pix-expiracao".
+     */
+    public void expirarVencidas() {
+        List<Runnable> avisos = new ArrayList<>();
+        synchronized (this) {
+            long agora = relogio.millis();
+            prazos.avancar(tick(agora), entrada -> {
+                entrada.prazo = null;
+                if (entrada.transacao.isPendente()) {
+                    liquidar(entrada, EXPIRADA, agora, avisos);
+                    expiradas++;
+                } else {
+                    transacoes.remove(entrada.transacao.id());
+                    liquidadas.remove(entrada.transacao.id());
+                    registrarRemocao(entrada.transacao, agora);
+                    removidas++;
+                }
+            });
+        }
+        executar(avisos);
+    }
+
+    /**
+     * Compacta o diário quando a geração atual fica grande: troca de geração
+     * e grava a foto das transações vivas. Só a troca e a cópia das
+     * transações seguram o lock; a foto é gravada fora dele. Chamado pela
+     * thread "pix-expiracao".
+     */
+    public void compactarDiario() {
+        synchronized (compactacao) {
+            List<Transacao> foto;
+            long geracao;
+            synchronized (this) {
+                if (diario == null || !diario.precisaCompactar()) {
+                    return;
+                }
+                foto = new ArrayList<>(transacoes.size());
+                transacoes.values().forEach(entrada -> foto.add(entrada.transacao));
+                geracao = diario.rotacionar();
+            }
+            diario.gravarSnapshot(geracao, foto);
+        }
+    }
+
+    /** @return Contadores do armazenamento */
+    public synchronized Metricas getMetricas() {
+        return new Metricas(transacoes.size(), capacidade, criadas, aprovadas, expiradas,
+                removidas, despejadas, despejadasPendentes);
+    }
+
+    private synchronized void desistir(Entrada entrada, Consumer<Optional<Transacao>> destino) {
+        if (entrada.aguardando != null && entrada.aguardando.remove(destino)) {
+            aguardandoTotal--;
+        }
+    }
+
+    /** Executa os avisos fora do lock; um destino com erro não impede os outros */
+    private static void executar(List<Runnable> avisos) {
+        for (Runnable aviso : avisos) {
+            try {
+                aviso.run();
+            } catch (RuntimeException e) {
+                log.warn("Falha ao avisar a liquidação de uma transação Pix", e);
+            }
+        }
+    }
+
+    /** Tira quem espera a transação e prepara os avisos para depois do lock (chamado com o lock) */
+    private void avisar(Entrada entrada, Optional<Transacao> resultado, List<Runnable> avisos) {
+        if (entrada.aguardando == null) {
+            return;
+        }
+        for (Consumer<Optional<Transacao>> destino : entrada.aguardando) {
+            avisos.add(() -> destino.accept(resultado));
+        }
+        aguardandoTotal -= entrada.aguardando.size();
+        entrada.aguardando = null;
+    }
+
+    /** Carrega as transações lidas do diário, com os prazos contados a partir dos horários gravados */
+    private void recuperar(Collection<Transacao> recuperadas) {
+        List<Runnable> avisos = new ArrayList<>();
+        for (Transacao transacao : recuperadas) {
+            while (transacoes.size() >= capacidade) {
+                despejarMaisAntiga(avisos);
+            }
+            Entrada entrada = new Entrada(transacao);
+            if (transacao.isPendente()) {
+                entrada.prazo = prazos.agendar(entrada, tick(transacao.criadaEm().toEpochMilli() + prazoPendenteMs));
+            } else {
+                entrada.prazo = prazos.agendar(entrada, tick(transacao.liquidadaEm().toEpochMilli() + prazoLiquidadaMs));
+                liquidadas.add(transacao.id());
+            }
+            transacoes.put(transacao.id(), entrada);
+        }
+        if (!recuperadas.isEmpty()) {
+            log.info("{} transações Pix recuperadas do diário", transacoes.size());
+        }
+    }
+
+    /**
+     * Grava a remoção no diário (chamado com o lock). Uma falha aqui não
+     * impede a remoção: ao recuperar, a transação vence de novo pelos horários.
+     */
+    private void registrarRemocao(Transacao transacao, long agora) {
+        if (diario == null) {
+            return;
+        }
+        try {
+            diario.registrar(DiarioPix.Tipo.REMOVIDA, transacao, Instant.ofEpochMilli(agora));
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar a remoção da transação Pix {} no diário", transacao.id(), e);
+        }
+    }
+
+    /** Liquida a transação, agenda a remoção e avisa quem espera (chamado com o lock) */
+    private void liquidar(Entrada entrada, String status, long agora, List<Runnable> avisos) {
+        Transacao transacao = entrada.transacao;
+        Transacao liquidada = new Transacao(transacao.id(), transacao.valor(), status, transacao.criadaEm(),
+                Instant.ofEpochMilli(agora));
+        if (diario != null && APROVADA.equals(status)) {
+            diario.registrar(DiarioPix.Tipo.APROVADA, liquidada, liquidada.liquidadaEm());
+        } else if (diario != null) {
+            try {
+                diario.registrar(DiarioPix.Tipo.EXPIRADA, liquidada, liquidada.liquidadaEm());
+            } catch (RuntimeException e) {
+                // Como na remoção: ao recuperar, a transação pendente expira de novo pelo horário
+                log.warn("Falha ao gravar a expiração da transação Pix {} no diário", transacao.id(), e);
+            }
+        }
+        entrada.transacao = liquidada;
+        if (entrada.prazo != null) {
+            entrada.prazo.cancelar();
+        }
+        entrada.prazo = prazos.agendar(entrada, tick(agora + prazoLiquidadaMs));
+        liquidadas.add(transacao.id());
+        avisar(entrada, Optional.of(entrada.transacao), avisos);
+    }
+
+    /** Remove a liquidada mais antiga ou, sem nenhuma, a pendente mais antiga (chamado com o lock) */
+    private void despejarMaisAntiga(List<Runnable> avisos) {
+        String id;
+        Iterator<String> maisAntigaLiquidada = liquidadas.iterator();
+        if (maisAntigaLiquidada.hasNext()) {
+            id = maisAntigaLiquidada.next();
+            maisAntigaLiquidada.remove();
+        } else {
+            id = transacoes.keySet().iterator().next();
+            despejadasPendentes++;
+        }
+        Entrada entrada = transacoes.remove(id);
+        if (entrada.prazo != null) {
+            entrada.prazo.cancelar();
+        }
+        registrarRemocao(entrada.transacao, relogio.millis());
+        avisar(entrada, Optional.empty(), avisos);
+        despejadas++;
+    }
+
+    /** Tick da roda que contém o instante (arredondado para cima: nunca vence antes do prazo) */
+    private static long tick(long millis) {
+        return Math.floorDiv(millis + TICK_MS - 1, TICK_MS);
+    }
+}
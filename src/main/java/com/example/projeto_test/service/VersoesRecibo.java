@@ -0,0 +1,123 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.repository.ReciboRemovidoRepository;
+import com.example.projeto_test.repository.ReciboRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Versões de alteração dos recibos, para a sincronização incremental.
+ *
+ * Toda criação, edição ou remoção de recibo recebe uma versão nova de um
+ * único contador crescente (continuado do maior valor gravado após um
+ * reinício). Quem sincroniza guarda a última versão recebida e pede só o
+ * que veio depois dela.
+ *
+ * Duas gravações simultâneas podem terminar fora de ordem: a versão 11
+ * pode ficar visível antes da 10. Por isso as versões reservadas ficam
+ * "em andamento" até a transação terminar, e a consulta só vai até o
+ * {@link #marcoSeguro() marco seguro} (a versão anterior à menor em
+ * andamento). Nada com versão até o marco pode aparecer depois.
+ *
+ * @author Sistema de Gestão de Restaurante
+ * @version 1.0
+ * @since 2025-01-01
+ */
+@Service
+public class VersoesRecibo {
+
+    private final ReciboRepository reciboRepository;
+
+    private final ReciboRemovidoRepository reciboRemovidoRepository;
+
+    private final TransactionTemplate transacao;
+
+    private final ArquivoRecibos arquivoRecibos;
+
+    /** Última versão reservada (protegido por this) */
+    private long ultima;
+
+    /** Primeira versão de cada faixa reservada ainda não concluída (protegido por this) */
+    private final TreeSet<Long> emAndamento = new TreeSet<>();
+
+    public VersoesRecibo(ReciboRepository reciboRepository, ReciboRemovidoRepository reciboRemovidoRepository,
+            PlatformTransactionManager transactionManager, ArquivoRecibos arquivoRecibos) {
+        this.reciboRepository = reciboRepository;
+        this.reciboRemovidoRepository = reciboRemovidoRepository;
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.arquivoRecibos = arquivoRecibos;
+    }
+
+    /**
+     * Continua o contador do maior valor gravado e dá versão aos recibos
+     * gravados antes de a versão existir.
+     */
+    @PostConstruct
+    public void iniciar() {
+        transacao.executeWithoutResult(status -> {
+            long maior = Math.max(arquivoRecibos.getMaiorVersao(),
+                    Math.max(valor(reciboRepository.findMaiorVersaoAlteracao()),
+                            valor(reciboRemovidoRepository.findMaiorVersaoAlteracao())));
+            synchronized (this) {
+                ultima = Math.max(ultima, maior);
+            }
+            Object[] faixa = primeiraLinha(reciboRepository.findFaixaIdsSemVersao());
+            if (faixa[0] != null) {
+                long menorId = ((Number) faixa[0]).longValue();
+                long maiorId = ((Number) faixa[1]).longValue();
+                long base = reservar(maiorId - menorId + 1);
+                concluirAoTerminar(base);
+                reciboRepository.atribuirVersoesPendentes(base, menorId);
+            }
+        });
+    }
+
+    /**
+     * Reserva uma faixa de versões novas.
+     *
+     * A faixa fica em andamento até {@link #concluirAoTerminar(long)}.
+     *
+     * @param quantidade Quantidade de versões
+     * @return Primeira versão da faixa
+     */
+    public synchronized long reservar(long quantidade) {
+        long primeira = ultima + 1;
+        ultima += quantidade;
+        emAndamento.add(primeira);
+        return primeira;
+    }
+
+    /**
+     * Conclui uma faixa reservada quando a transação atual terminar (commit
+     * ou rollback), ou na hora se não houver transação.
+     *
+     * @param primeira Primeira versão da faixa, como devolvida por {@link #reservar(long)}
+     */
+    public void concluirAoTerminar(long primeira) {
+        AposCommit.aoTerminar(() -> concluir(primeira));
+    }
+
+    /**
+     * @return Maior versão até a qual todas as gravações já terminaram
+     */
+    public synchronized long marcoSeguro() {
+        return emAndamento.isEmpty() ? ultima : emAndamento.first() - 1;
+    }
+
+    private synchronized void concluir(long primeira) {
+        emAndamento.remove(primeira);
+    }
+
+    private static long valor(Long versao) {
+        return versao != null ? versao : 0;
+    }
+
+    private static Object[] primeiraLinha(List<Object[]> resultado) {
+        return resultado.isEmpty() ? new Object[2] : resultado.get(0);
+    }
+}
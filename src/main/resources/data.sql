@@ -5,84 +5,96 @@
 -- Todos os produtos do cardápio são inseridos no banco H2 em memória
 -- ============================================================================
 
+-- Os IDs vêm da sequence products_seq (a mesma usada pelo Hibernate),
+-- pois a coluna id não tem mais AUTO_INCREMENT.
+--
+-- A sequence anda de 50 em 50 (INCREMENT BY 50 = allocationSize de Product):
+-- o otimizador pooled do Hibernate trata cada valor lido como o fim de um
+-- bloco de 50 IDs (valor-49 até valor). Por isso os produtos abaixo ficam
+-- com IDs 1, 51, 101, ... e os blocos do Hibernate nunca colidem com eles.
+-- O Hibernate (ddl-auto=update) já cria a sequence assim; as linhas abaixo
+-- deixam o incremento explícito e o garantem em um banco já existente.
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE products_seq INCREMENT BY 50;
+
 -- Limpar tabela existente (caso haja dados)
 -- DELETE FROM products; -- Removido para evitar erro na primeira execução
 
 -- ===========================================
 -- 🥪 LANCHES
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('X-Burger', 2500);
-INSERT INTO products (name, price_in_cents) VALUES ('X-Salada', 2200);
-INSERT INTO products (name, price_in_cents) VALUES ('X-Bacon', 2800);
-INSERT INTO products (name, price_in_cents) VALUES ('Frango Grelhado', 2400);
-INSERT INTO products (name, price_in_cents) VALUES ('Sanduíche Natural', 1800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'X-Burger', 2500);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'X-Salada', 2200);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'X-Bacon', 2800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Frango Grelhado', 2400);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Sanduíche Natural', 1800);
 
 -- ===========================================
 -- 🌭 ESPECIAIS RÁPIDOS
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('Cachorro-Quente Tradicional', 1500);
-INSERT INTO products (name, price_in_cents) VALUES ('Cachorro-Quente Duplo', 2000);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Cachorro-Quente Tradicional', 1500);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Cachorro-Quente Duplo', 2000);
 
 -- ===========================================
 -- 🍟 PORÇÕES
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('Batata Frita (Pequena)', 1200);
-INSERT INTO products (name, price_in_cents) VALUES ('Batata Frita (Média)', 1800);
-INSERT INTO products (name, price_in_cents) VALUES ('Batata Frita (Grande)', 2400);
-INSERT INTO products (name, price_in_cents) VALUES ('Batata com Cheddar e Bacon', 2800);
-INSERT INTO products (name, price_in_cents) VALUES ('Onion Rings', 1600);
-INSERT INTO products (name, price_in_cents) VALUES ('Frango Empanado Crocante', 2200);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Batata Frita (Pequena)', 1200);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Batata Frita (Média)', 1800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Batata Frita (Grande)', 2400);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Batata com Cheddar e Bacon', 2800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Onion Rings', 1600);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Frango Empanado Crocante', 2200);
 
 -- ===========================================
 -- 🍛 PRATOS FEITOS (PF)
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('PF de Frango', 3200);
-INSERT INTO products (name, price_in_cents) VALUES ('PF de Bife Acebolado', 3500);
-INSERT INTO products (name, price_in_cents) VALUES ('PF de Carne Moída', 3000);
-INSERT INTO products (name, price_in_cents) VALUES ('PF de Omelete', 2800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'PF de Frango', 3200);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'PF de Bife Acebolado', 3500);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'PF de Carne Moída', 3000);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'PF de Omelete', 2800);
 
 -- ===========================================
 -- 🍝 PRATOS ESPECIAIS
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('Parmegiana de Frango', 3800);
-INSERT INTO products (name, price_in_cents) VALUES ('Parmegiana de Carne', 4200);
-INSERT INTO products (name, price_in_cents) VALUES ('Macarronada ao Sugo', 2800);
-INSERT INTO products (name, price_in_cents) VALUES ('Macarronada Bolonhesa', 3200);
-INSERT INTO products (name, price_in_cents) VALUES ('Estrogonofe de Frango', 3600);
-INSERT INTO products (name, price_in_cents) VALUES ('Estrogonofe de Carne', 4000);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Parmegiana de Frango', 3800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Parmegiana de Carne', 4200);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Macarronada ao Sugo', 2800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Macarronada Bolonhesa', 3200);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Estrogonofe de Frango', 3600);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Estrogonofe de Carne', 4000);
 
 -- ===========================================
 -- 🥗 LIGHT
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('Salada Completa', 2600);
-INSERT INTO products (name, price_in_cents) VALUES ('Salada Caesar', 2900);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Salada Completa', 2600);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Salada Caesar', 2900);
 
 -- ===========================================
 -- 🥟 SALGADOS
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('Coxinha (Frango)', 800);
-INSERT INTO products (name, price_in_cents) VALUES ('Coxinha (Frango com Catupiry)', 900);
-INSERT INTO products (name, price_in_cents) VALUES ('Risoles (Presunto e Queijo)', 700);
-INSERT INTO products (name, price_in_cents) VALUES ('Risoles (Carne)', 800);
-INSERT INTO products (name, price_in_cents) VALUES ('Enroladinho de Salsicha', 600);
-INSERT INTO products (name, price_in_cents) VALUES ('Empada (Frango)', 1000);
-INSERT INTO products (name, price_in_cents) VALUES ('Empada (Palmito)', 1100);
-INSERT INTO products (name, price_in_cents) VALUES ('Empada (Camarão)', 1200);
-INSERT INTO products (name, price_in_cents) VALUES ('Quibe Frito', 900);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Assado (Carne)', 800);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Assado (Queijo)', 700);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Assado (Pizza)', 900);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Assado (Frango)', 800);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Frito (Carne)', 700);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Frito (Queijo)', 600);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Frito (Pizza)', 800);
-INSERT INTO products (name, price_in_cents) VALUES ('Pastel Frito (Frango)', 700);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Coxinha (Frango)', 800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Coxinha (Frango com Catupiry)', 900);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Risoles (Presunto e Queijo)', 700);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Risoles (Carne)', 800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Enroladinho de Salsicha', 600);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Empada (Frango)', 1000);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Empada (Palmito)', 1100);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Empada (Camarão)', 1200);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Quibe Frito', 900);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Assado (Carne)', 800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Assado (Queijo)', 700);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Assado (Pizza)', 900);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Assado (Frango)', 800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Frito (Carne)', 700);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Frito (Queijo)', 600);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Frito (Pizza)', 800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Pastel Frito (Frango)', 700);
 
 -- ===========================================
 -- 🥤 BEBIDAS
 -- ===========================================
-INSERT INTO products (name, price_in_cents) VALUES ('Refrigerante (Lata)', 600);
-INSERT INTO products (name, price_in_cents) VALUES ('Refrigerante (600ml)', 800);
-INSERT INTO products (name, price_in_cents) VALUES ('Suco Natural', 1000);
-INSERT INTO products (name, price_in_cents) VALUES ('Água', 400);
-INSERT INTO products (name, price_in_cents) VALUES ('Chá Gelado', 700);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Refrigerante (Lata)', 600);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Refrigerante (600ml)', 800);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Suco Natural', 1000);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Água', 400);
+INSERT INTO products (id, name, price_in_cents) VALUES (NEXT VALUE FOR products_seq, 'Chá Gelado', 700);
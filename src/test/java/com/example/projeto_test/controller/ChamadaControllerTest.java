@@ -0,0 +1,83 @@
+package com.example.projeto_test.controller;
+
+import com.example.projeto_test.service.FilaCozinha;
+import com.example.projeto_test.service.PainelChamadas;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChamadaController.class)
+class ChamadaControllerTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PainelChamadas painelChamadas;
+
+    @Test
+    void testPainelSemVersaoRespondeNaHora() throws Exception {
+        when(painelChamadas.getPainel()).thenReturn(new PainelChamadas.Painel(3, DIA, List.of("0002"), List.of("0001")));
+
+        MvcResult resultado = mockMvc.perform(get("/api/chamadas/painel"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versao").value(3))
+                .andExpect(jsonPath("$.emPreparo[0]").value("0002"))
+                .andExpect(jsonPath("$.prontos[0]").value("0001"))
+                .andExpect(header().exists("Access-Control-Allow-Origin"));
+        verify(painelChamadas, never()).aguardar(anyLong(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testLongPollRespondeQuandoOPainelMuda() throws Exception {
+        ArgumentCaptor<Consumer<PainelChamadas.Painel>> destino = ArgumentCaptor.forClass(Consumer.class);
+        when(painelChamadas.aguardar(eq(3L), destino.capture())).thenReturn(() -> { });
+
+        MvcResult resultado = mockMvc.perform(get("/api/chamadas/painel").param("versao", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        destino.getValue().accept(new PainelChamadas.Painel(4, DIA, List.of(), List.of("0001")));
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versao").value(4))
+                .andExpect(jsonPath("$.prontos[0]").value("0001"));
+    }
+
+    @Test
+    void testEstadoDoNumero() throws Exception {
+        when(painelChamadas.estado("0001")).thenReturn(Optional.of(FilaCozinha.Estado.PRONTO));
+        when(painelChamadas.estado("0002")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/chamadas/0001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.numero").value("0001"))
+                .andExpect(jsonPath("$.estado").value("PRONTO"));
+
+        mockMvc.perform(get("/api/chamadas/0002"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.projeto_test.controller;
+
+import com.example.projeto_test.log.LogWeb;
+import com.example.projeto_test.log.LogWebProperties;
+import com.example.projeto_test.model.Product;
+import com.example.projeto_test.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Benchmark de vazão do GET /api/products com o log dos controllers
+ * desligado, ligado (todas as requisições) e amostrado (1%).
+ *
+ * Não roda no {@code mvn test} (o nome não termina em Test). Para rodar:
+ * <pre>
+ * mvn test -Dtest=ListagemProdutosLogBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class ListagemProdutosLogBenchmark {
+
+    private static final int PRODUTOS = 200;
+    private static final int THREADS = Runtime.getRuntime().availableProcessors() * 2;
+    private static final long AQUECIMENTO_MS = 2_000;
+    private static final long MEDICAO_MS = 5_000;
+
+    @Test
+    void compararVazaoComLogLigadoEDesligado() throws Exception {
+        Map<String, LogWebProperties> cenarios = Map.of(
+                "desligado", new LogWebProperties(false, 8192, Level.INFO, null, null),
+                "ligado", new LogWebProperties(true, 8192, Level.DEBUG, null, null),
+                "amostrado 1%", new LogWebProperties(true, 8192, Level.DEBUG, null,
+                        Map.of("produtos-listar", 0.01)));
+
+        for (String cenario : List.of("desligado", "ligado", "amostrado 1%")) {
+            LogWeb log = new LogWeb(cenarios.get(cenario));
+            log.iniciar();
+            try {
+                MockMvc mockMvc = MockMvcBuilders
+                        .standaloneSetup(new ProductController(new CardapioFixo(), new ObjectMapper(), log))
+                        .build();
+                medir(mockMvc, AQUECIMENTO_MS);
+                double porSegundo = medir(mockMvc, MEDICAO_MS) * 1000.0 / MEDICAO_MS;
+                System.out.printf("log %-13s %,12.0f req/s  (%d threads, %d descartados)%n",
+                        cenario, porSegundo, THREADS, log.getDescartados());
+                assertTrue(porSegundo > 0);
+            } finally {
+                log.encerrar();
+            }
+        }
+    }
+
+    /** Dispara requisições em {@link #THREADS} threads durante o tempo dado */
+    private static long medir(MockMvc mockMvc, long duracaoMs) throws InterruptedException {
+        LongAdder requisicoes = new LongAdder();
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        CountDownLatch fim = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (rodando.get()) {
+                        mockMvc.perform(get("/api/products")).andReturn();
+                        requisicoes.increment();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    fim.countDown();
+                }
+            });
+            thread.start();
+        }
+        Thread.sleep(duracaoMs);
+        rodando.set(false);
+        fim.await(10, TimeUnit.SECONDS);
+        return requisicoes.sum();
+    }
+
+    /** Serviço com cardápio fixo em memória (sem banco e sem Mockito no caminho) */
+    private static class CardapioFixo extends ProductService {
+
+        private final List<Product> produtos = new ArrayList<>();
+
+        CardapioFixo() {
+            for (long id = 1; id <= PRODUTOS; id++) {
+                Product product = new Product("Produto " + id, 1000 + (int) id);
+                product.setId(id);
+                produtos.add(product);
+            }
+        }
+
+        @Override
+        public List<Product> getAllProducts() {
+            return produtos;
+        }
+
+        @Override
+        public long getVersaoCatalogo() {
+            return 1L;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.projeto_test.controller;
+
+import com.example.projeto_test.log.LogWeb;
+import com.example.projeto_test.pagamento.GatewayIndisponivelException;
+import com.example.projeto_test.pagamento.PaymentGateway;
+import com.example.projeto_test.service.TransacoesPix;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PagamentoController.class)
+class PagamentoControllerTest {
+
+    private static final Instant CRIADA_EM = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private TransacoesPix transacoes;
+
+    @MockBean
+    private PaymentGateway gateway;
+
+    @MockBean
+    private LogWeb logWeb;
+
+    @Test
+    void testCriarPixRespondeQuandoOGatewayGeraACobranca() throws Exception {
+        CompletableFuture<PaymentGateway.CobrancaPix> cobranca = new CompletableFuture<>();
+        when(gateway.criarPix(eq("pedido-1"), eq(new BigDecimal("19.9")), any())).thenReturn(cobranca);
+        when(transacoes.criar("mp-1", new BigDecimal("19.9"))).thenReturn(transacao("mp-1", TransacoesPix.PENDENTE));
+
+        MvcResult resultado = mockMvc.perform(post("/api/pagamento/pix").header("Idempotency-Key", "pedido-1")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"valor\": 19.90}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // A requisição fica em modo assíncrono até o gateway responder
+        cobranca.complete(new PaymentGateway.CobrancaPix("mp-1", "00020126pix", "iVBOR"));
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("mp-1"))
+                .andExpect(jsonPath("$.status").value("pending"))
+                .andExpect(jsonPath("$.qr_code").value("00020126pix"))
+                .andExpect(jsonPath("$.qr_code_base64").value("iVBOR"));
+    }
+
+    @Test
+    void testCriarPixComChaveDeUmPixExpiradoRecebe409() throws Exception {
+        when(gateway.criarPix(eq("pedido-2"), any(), any())).thenReturn(
+                CompletableFuture.completedFuture(new PaymentGateway.CobrancaPix("mp-2", "00020126pix", "iVBOR")));
+        when(transacoes.buscar("mp-2")).thenReturn(Optional.of(transacao("mp-2", TransacoesPix.EXPIRADA)));
+
+        MvcResult resultado = mockMvc.perform(post("/api/pagamento/pix").header("Idempotency-Key", "pedido-2")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"valor\": 10}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.id").value("mp-2"))
+                .andExpect(jsonPath("$.status").value(TransacoesPix.EXPIRADA));
+        verify(transacoes, never()).criar(any(), any());
+    }
+
+    @Test
+    void testCriarPixComGatewayIndisponivel() throws Exception {
+        when(gateway.criarPix(any(), any(), any())).thenReturn(CompletableFuture.failedFuture(
+                new GatewayIndisponivelException("Provedor de pagamento indisponível, tente novamente em instantes")));
+
+        MvcResult resultado = mockMvc.perform(post("/api/pagamento/pix")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"valor\": 10}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Provedor de pagamento indisponível, tente novamente em instantes"));
+        verify(transacoes, never()).criar(any(), any());
+    }
+
+    @Test
+    void testCriarPixValorInvalidoNaoChamaOGateway() throws Exception {
+        MvcResult resultado = mockMvc.perform(post("/api/pagamento/pix")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"valor\": \"abc\"}"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(gateway);
+    }
+
+    @Test
+    void testStatusSemEsperaRespondeNaHora() throws Exception {
+        when(transacoes.buscar("t1")).thenReturn(Optional.of(transacao("t1", TransacoesPix.PENDENTE)));
+
+        MvcResult resultado = mockMvc.perform(get("/api/pagamento/t1/status"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("pending"));
+
+        mockMvc.perform(asyncDispatch(mockMvc.perform(get("/api/pagamento/nao-existe/status").param("wait", "30s"))
+                        .andReturn()))
+                .andExpect(jsonPath("$.status").value("unknown"));
+        verify(transacoes, never()).aguardar(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testLongPollRespondeQuandoOPagamentoEAprovado() throws Exception {
+        when(transacoes.buscar("t1")).thenReturn(Optional.of(transacao("t1", TransacoesPix.PENDENTE)));
+        ArgumentCaptor<Consumer<Optional<TransacoesPix.Transacao>>> destino = ArgumentCaptor.forClass(Consumer.class);
+        when(transacoes.aguardar(eq("t1"), destino.capture())).thenReturn(() -> { });
+
+        MvcResult resultado = mockMvc.perform(get("/api/pagamento/t1/status").param("wait", "30s"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        destino.getValue().accept(Optional.of(transacao("t1", TransacoesPix.APROVADA)));
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("approved"));
+    }
+
+    @Test
+    void testWaitInvalido() throws Exception {
+        MvcResult resultado = mockMvc.perform(get("/api/pagamento/t1/status").param("wait", "logo"))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testStreamEnviaStatusAtualEOFinal() throws Exception {
+        when(transacoes.buscar("t1")).thenReturn(Optional.of(transacao("t1", TransacoesPix.PENDENTE)));
+        ArgumentCaptor<Consumer<Optional<TransacoesPix.Transacao>>> destino = ArgumentCaptor.forClass(Consumer.class);
+        when(transacoes.aguardar(eq("t1"), destino.capture())).thenReturn(() -> { });
+
+        MvcResult resultado = mockMvc.perform(get("/api/pagamento/t1/status/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        destino.getValue().accept(Optional.of(transacao("t1", TransacoesPix.EXPIRADA)));
+
+        mockMvc.perform(asyncDispatch(resultado))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("event:status\ndata:{\"status\":\"pending\"}")))
+                .andExpect(content().string(containsString("event:status\ndata:{\"status\":\"expired\"}")));
+    }
+
+    @Test
+    void testConfirmarTransacaoExpirada() throws Exception {
+        when(transacoes.confirmar("t1")).thenReturn(Optional.of(transacao("t1", TransacoesPix.EXPIRADA)));
+        when(transacoes.confirmar("t2")).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/pagamento/t1/confirmar"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value("expired"));
+        mockMvc.perform(post("/api/pagamento/t2/confirmar"))
+                .andExpect(status().isNotFound());
+    }
+
+    private static TransacoesPix.Transacao transacao(String id, String status) {
+        return new TransacoesPix.Transacao(id, BigDecimal.TEN, status, CRIADA_EM,
+                TransacoesPix.PENDENTE.equals(status) ? null : CRIADA_EM.plusSeconds(60));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.projeto_test.controller;
 
+import com.example.projeto_test.log.LogWeb;
 import com.example.projeto_test.model.Product;
 import com.example.projeto_test.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,9 +12,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.util.Arrays;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -29,6 +34,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private LogWeb logWeb;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -83,6 +91,115 @@ class ProductControllerTest {
         verify(productService, times(1)).getAllProducts();
     }
 
+    @Test
+    void testGetAllProductsReturnsEtag() throws Exception {
+        when(productService.getVersaoCatalogo()).thenReturn(42L);
+        when(productService.getAllProducts()).thenReturn(Arrays.asList(product1, product2));
+
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"42\""));
+    }
+
+    @Test
+    void testGetAllProductsNotModified() throws Exception {
+        when(productService.getVersaoCatalogo()).thenReturn(42L);
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", "\"42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"42\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/products/cors-test").header("If-None-Match", "\"42\""))
+                .andExpect(status().isNotModified());
+
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void testGetAllProductsGzipEncoded() throws Exception {
+        when(productService.getVersaoCatalogo()).thenReturn(42L);
+        when(productService.getAllProducts()).thenReturn(Arrays.asList(product1, product2));
+
+        byte[] gzip = mockMvc.perform(get("/api/products").header("Accept-Encoding", "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                .andExpect(header().string("ETag", "\"42-gzip\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            List<Product> decoded = Arrays.asList(objectMapper.readValue(in.readAllBytes(), Product[].class));
+            assertEquals(2, decoded.size());
+            assertEquals("Hambúrguer", decoded.get(0).getName());
+        }
+
+        mockMvc.perform(get("/api/products").header("Accept-Encoding", "deflate, gzip;q=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "deflate"));
+
+        mockMvc.perform(get("/api/products")
+                        .header("Accept-Encoding", "gzip")
+                        .header("If-None-Match", "\"42-gzip\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testGetAllProductsSerializedOncePerVersion() throws Exception {
+        when(productService.getVersaoCatalogo()).thenReturn(1000L);
+        when(productService.getAllProducts()).thenReturn(Arrays.asList(product1, product2));
+
+        mockMvc.perform(get("/api/products")).andExpect(jsonPath("$.length()").value(2));
+
+        // Mesma versão: o corpo vem do cache, mesmo que a lista mude
+        when(productService.getAllProducts()).thenReturn(List.of(product1));
+        mockMvc.perform(get("/api/products")).andExpect(jsonPath("$.length()").value(2));
+
+        // Nova versão: serializa de novo
+        when(productService.getVersaoCatalogo()).thenReturn(1001L);
+        mockMvc.perform(get("/api/products")).andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void testGetAllProductsStaleEtag() throws Exception {
+        when(productService.getVersaoCatalogo()).thenReturn(43L);
+        when(productService.getAllProducts()).thenReturn(Arrays.asList(product1, product2));
+
+        mockMvc.perform(get("/api/products").header("If-None-Match", "\"42\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"43\""))
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void testGetProductsByFilters() throws Exception {
+        when(productService.getProductsByFilters(List.of(1L, 3L), false)).thenReturn(List.of(product2));
+
+        mockMvc.perform(get("/api/products").param("filters", "1,3").param("match", "any"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].id").value(2L));
+
+        mockMvc.perform(get("/api/products").param("filters", "1").param("match", "some"))
+                .andExpect(status().isBadRequest());
+
+        verify(productService, never()).getAllProducts();
+    }
+
+    @Test
+    void testSearchProducts() throws Exception {
+        when(productService.searchProducts("sanduiche", null)).thenReturn(Arrays.asList(product1));
+
+        mockMvc.perform(get("/api/products/search").param("q", "sanduiche"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Hambúrguer"))
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Access-Control-Allow-Origin"));
+
+        verify(productService, times(1)).searchProducts("sanduiche", null);
+    }
+
     @Test
     void testGetProductById() throws Exception {
         when(productService.getProductById(1L)).thenReturn(product1);
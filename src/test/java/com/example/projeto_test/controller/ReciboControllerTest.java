@@ -1,6 +1,11 @@
 package com.example.projeto_test.controller;
 
 import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.service.Alteracoes;
+import com.example.projeto_test.service.EstatisticasVendas;
+import com.example.projeto_test.service.EventosRecibo;
+import com.example.projeto_test.service.LimpezaRecibos;
+import com.example.projeto_test.service.Pagina;
 import com.example.projeto_test.service.ReciboService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,9 +16,11 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -30,6 +37,9 @@ class ReciboControllerTest {
     @MockBean
     private ReciboService reciboService;
 
+    @MockBean
+    private EventosRecibo eventosRecibo;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -84,6 +94,34 @@ class ReciboControllerTest {
         verify(reciboService, times(1)).createRecibo(any(), any(), any());
     }
 
+    @Test
+    void testPagarComIdempotencyKeyNaoCriaReciboDuplicado() throws Exception {
+        ReciboController.PagamentoRequest request = new ReciboController.PagamentoRequest(
+                Arrays.asList(new Recibo.ItemCompra("Hambúrguer", 1, 1500)), "", "PIX");
+        String corpo = objectMapper.writeValueAsString(request);
+
+        when(reciboService.createRecibo(any(), any(), any())).thenReturn(recibo1, recibo2);
+
+        mockMvc.perform(post("/api/recibos/pagar")
+                        .header("Idempotency-Key", "pedido-duplicado-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.numeroChamada").value("1234"))
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+
+        mockMvc.perform(post("/api/recibos/pagar")
+                        .header("Idempotency-Key", "pedido-duplicado-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(corpo))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.numeroChamada").value("1234"))
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(header().exists("Access-Control-Allow-Origin"));
+
+        verify(reciboService, times(1)).createRecibo(any(), any(), any());
+    }
+
     @Test
     void testAtendimentoPreferencial() throws Exception {
         ReciboController.AtendimentoPreferencialRequest request = 
@@ -125,6 +163,44 @@ class ReciboControllerTest {
         verify(reciboService, times(1)).getAllRecibos();
     }
 
+    @Test
+    void testListarPaginado() throws Exception {
+        when(reciboService.getRecibosPagina(null, 2)).thenReturn(new Pagina<>(List.of(recibo2, recibo1), 1L));
+
+        mockMvc.perform(get("/api/recibos").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(2L))
+                .andExpect(header().string("X-Next-Cursor", "1"));
+
+        when(reciboService.getRecibosPagina(1L, 2)).thenReturn(new Pagina<>(List.of(), null));
+
+        mockMvc.perform(get("/api/recibos").param("after", "1").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        verify(reciboService, never()).getAllRecibos();
+    }
+
+    @Test
+    void testAlteracoesPelaListagemComSince() throws Exception {
+        when(reciboService.getAlteracoes(7L, null))
+                .thenReturn(new Alteracoes(List.of(recibo2), List.of(1L), 9L, false, false));
+
+        mockMvc.perform(get("/api/recibos").param("since", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.alterados[0].id").value(2))
+                .andExpect(jsonPath("$.removidos[0]").value(1))
+                .andExpect(jsonPath("$.versao").value(9));
+        mockMvc.perform(get("/api/recibos/alteracoes").param("since", "7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versao").value(9));
+        mockMvc.perform(get("/api/recibos").param("since", "-1"))
+                .andExpect(status().isBadRequest());
+        verify(reciboService, never()).getAllRecibos();
+    }
+
     @Test
     void testBuscarPorId() throws Exception {
         when(reciboService.getReciboById(1L)).thenReturn(recibo1);
@@ -165,14 +241,76 @@ class ReciboControllerTest {
     }
 
     @Test
-    void testLimpar() throws Exception {
-        doNothing().when(reciboService).deleteAllRecibos();
-
-        mockMvc.perform(delete("/api/recibos/limpar"))
+    void testEstatisticas() throws Exception {
+        LocalDate dia = LocalDate.of(2025, 1, 1);
+        when(reciboService.getEstatisticas(dia)).thenReturn(new EstatisticasVendas.Resumo(dia, 2, 5000,
+                Map.of(12, new EstatisticasVendas.Totais(2, 5000)),
+                Map.of("DINHEIRO", new EstatisticasVendas.Totais(1, 2000),
+                        "CARTAO", new EstatisticasVendas.Totais(1, 3000)),
+                Map.of("NORMAL", new EstatisticasVendas.Totais(2, 5000)),
+                Map.of("Hambúrguer", new EstatisticasVendas.TotaisItem(1, 1500))));
+
+        mockMvc.perform(get("/api/recibos/stats").param("dia", "2025-01-01"))
                 .andExpect(status().isOk())
-                .andExpect(content().string("Recibos deletados com sucesso."))
+                .andExpect(jsonPath("$.pedidos").value(2))
+                .andExpect(jsonPath("$.receita").value(5000))
+                .andExpect(jsonPath("$.porHora.12.pedidos").value(2))
+                .andExpect(jsonPath("$.porFormaPagamento.CARTAO.receita").value(3000))
+                .andExpect(jsonPath("$.porItem['Hambúrguer'].unidades").value(1))
                 .andExpect(header().exists("Access-Control-Allow-Origin"));
 
-        verify(reciboService, times(1)).deleteAllRecibos();
+        mockMvc.perform(get("/api/recibos/stats").param("dia", "ontem"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamRetomaDoLastEventId() throws Exception {
+        mockMvc.perform(get("/api/recibos/stream").header("Last-Event-ID", "42"))
+                .andExpect(request().asyncStarted());
+
+        verify(eventosRecibo, times(1)).inscrever(eq(42L), any(), any());
+
+        mockMvc.perform(get("/api/recibos/stream").header("Last-Event-ID", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testLimparIniciaTarefaEmSegundoPlano() throws Exception {
+        LimpezaRecibos.Filtro filtro = new LimpezaRecibos.Filtro(
+                LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), "PIX", null);
+        when(reciboService.iniciarLimpeza(filtro)).thenReturn(new LimpezaRecibos.Tarefa("abc", filtro,
+                LimpezaRecibos.EXECUTANDO, 0, 0, 0, null, LocalDateTime.now(), null));
+
+        mockMvc.perform(delete("/api/recibos/limpar")
+                        .param("de", "2025-01-01").param("ate", "2025-01-31").param("formaPagamento", "PIX"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/recibos/limpezas/abc"))
+                .andExpect(jsonPath("$.id").value("abc"))
+                .andExpect(jsonPath("$.estado").value("EXECUTANDO"))
+                .andExpect(header().exists("Access-Control-Allow-Origin"));
+
+        verify(reciboService, times(1)).iniciarLimpeza(filtro);
+
+        mockMvc.perform(delete("/api/recibos/limpar").param("de", "2025-02-01").param("ate", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(delete("/api/recibos/limpar").param("de", "ontem"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testAndamentoDaLimpeza() throws Exception {
+        when(reciboService.getLimpeza("abc")).thenReturn(new LimpezaRecibos.Tarefa("abc",
+                LimpezaRecibos.Filtro.TODOS, LimpezaRecibos.CONCLUIDA, 1500, 2, 2, null,
+                LocalDateTime.now(), LocalDateTime.now()));
+        when(reciboService.getLimpeza("xyz")).thenThrow(new RuntimeException("Limpeza não encontrada"));
+
+        mockMvc.perform(get("/api/recibos/limpezas/abc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.estado").value("CONCLUIDA"))
+                .andExpect(jsonPath("$.removidos").value(1500))
+                .andExpect(jsonPath("$.faixasConcluidas").value(2));
+
+        mockMvc.perform(get("/api/recibos/limpezas/xyz"))
+                .andExpect(status().isNotFound());
     }
 }
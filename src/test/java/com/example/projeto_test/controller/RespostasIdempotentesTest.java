@@ -0,0 +1,169 @@
+package com.example.projeto_test.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RespostasIdempotentesTest {
+
+    private static final Map<String, Object> PEDIDO = Map.of("valor", 19.9, "itens", List.of("Suco"));
+
+    private final AtomicLong agora = new AtomicLong(0);
+
+    private final RespostasIdempotentes respostas =
+            new RespostasIdempotentes(2, Duration.ofMinutes(10), agora::get);
+
+    @Test
+    void testDuplicatasConcorrentesExecutamUmaVez() throws Exception {
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch executando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ResponseEntity<String>>> resultados = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                resultados.add(executor.submit(() -> respostas.executar("chave", PEDIDO, () -> {
+                    execucoes.incrementAndGet();
+                    executando.countDown();
+                    aguardar(liberar);
+                    return ResponseEntity.ok("recibo-1");
+                })));
+            }
+            executando.await(5, TimeUnit.SECONDS);
+            liberar.countDown();
+
+            for (Future<ResponseEntity<String>> resultado : resultados) {
+                assertEquals("recibo-1", resultado.get(5, TimeUnit.SECONDS).getBody());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void testErroNaoFicaGuardado() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        ResponseEntity<String> falha = respostas.executar("chave", PEDIDO, () -> {
+            execucoes.incrementAndGet();
+            return ResponseEntity.internalServerError().body("falhou");
+        });
+        ResponseEntity<String> sucesso = respostas.executar("chave", PEDIDO, () -> {
+            execucoes.incrementAndGet();
+            return ResponseEntity.ok("recibo-1");
+        });
+
+        assertEquals(500, falha.getStatusCode().value());
+        assertEquals("recibo-1", sucesso.getBody());
+        assertEquals(2, execucoes.get());
+    }
+
+    @Test
+    void testExpiraPorTtlELimitaQuantidade() {
+        respostas.executar("a", PEDIDO, () -> ResponseEntity.ok("1"));
+        respostas.executar("b", PEDIDO, () -> ResponseEntity.ok("2"));
+        respostas.executar("c", PEDIDO, () -> ResponseEntity.ok("3"));
+        assertEquals(2, respostas.tamanho());
+        assertEquals("4", respostas.executar("a", PEDIDO, () -> ResponseEntity.ok("4")).getBody());
+
+        agora.addAndGet(Duration.ofMinutes(10).toMillis());
+        assertEquals("5", respostas.executar("c", PEDIDO, () -> ResponseEntity.ok("5")).getBody());
+        assertEquals(1, respostas.tamanho());
+    }
+
+    @Test
+    void testAssincronoRepeticaoRecebeAMesmaRespostaSemExecutarDeNovo() {
+        AtomicInteger execucoes = new AtomicInteger();
+        CompletableFuture<ResponseEntity<String>> gateway = new CompletableFuture<>();
+
+        CompletableFuture<ResponseEntity<String>> primeira = respostas.executarAssincrono("chave", PEDIDO, () -> {
+            execucoes.incrementAndGet();
+            return gateway;
+        });
+        CompletableFuture<ResponseEntity<String>> repetida = respostas.executarAssincrono("chave", PEDIDO, () -> {
+            execucoes.incrementAndGet();
+            return CompletableFuture.completedFuture(ResponseEntity.ok("outra"));
+        });
+        assertFalse(repetida.isDone());
+
+        gateway.complete(ResponseEntity.ok("pix-1"));
+        assertEquals("pix-1", primeira.join().getBody());
+        assertEquals("pix-1", repetida.join().getBody());
+        assertEquals("true", repetida.join().getHeaders().getFirst(RespostasIdempotentes.HEADER_REPETIDA));
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void testAssincronoFalhaNaoFicaGuardada() {
+        CompletableFuture<ResponseEntity<String>> falha = respostas.executarAssincrono("chave", PEDIDO,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("gateway fora")));
+        assertThrows(CompletionException.class, falha::join);
+
+        CompletableFuture<ResponseEntity<String>> indisponivel = respostas.executarAssincrono("chave", PEDIDO,
+                () -> CompletableFuture.completedFuture(ResponseEntity.status(503).body("tente de novo")));
+        assertEquals(503, indisponivel.join().getStatusCode().value());
+
+        CompletableFuture<ResponseEntity<String>> sucesso = respostas.executarAssincrono("chave", PEDIDO,
+                () -> CompletableFuture.completedFuture(ResponseEntity.ok("pix-1")));
+        assertEquals("pix-1", sucesso.join().getBody());
+        assertEquals(1, respostas.tamanho());
+    }
+
+    @Test
+    void testMesmaChaveComOutroCorpoRecebe422() {
+        AtomicInteger execucoes = new AtomicInteger();
+        respostas.executar("chave", PEDIDO, () -> ResponseEntity.ok(execucoes.incrementAndGet()));
+
+        // A ordem das chaves do JSON não conta; o conteúdo, sim
+        Map<String, Object> reordenado = new LinkedHashMap<>();
+        reordenado.put("itens", List.of("Suco"));
+        reordenado.put("valor", 19.9);
+        assertEquals(1, respostas.executar("chave", reordenado,
+                () -> ResponseEntity.ok(execucoes.incrementAndGet())).getBody());
+
+        ResponseEntity<Integer> outroPedido = respostas.executar("chave", Map.of("valor", 5),
+                () -> ResponseEntity.ok(execucoes.incrementAndGet()));
+        assertEquals(422, outroPedido.getStatusCode().value());
+
+        CompletableFuture<ResponseEntity<String>> assincrono = respostas.executarAssincrono("chave", Map.of("valor", 5),
+                () -> CompletableFuture.completedFuture(ResponseEntity.ok("outro")));
+        assertEquals(422, assincrono.join().getStatusCode().value());
+        assertEquals(1, execucoes.get());
+    }
+
+    @Test
+    void testSemChaveExecutaSempre() {
+        AtomicInteger execucoes = new AtomicInteger();
+
+        respostas.executar(null, PEDIDO, () -> ResponseEntity.ok(execucoes.incrementAndGet()));
+        respostas.executar("", PEDIDO, () -> ResponseEntity.ok(execucoes.incrementAndGet()));
+
+        assertEquals(2, execucoes.get());
+        assertEquals(0, respostas.tamanho());
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
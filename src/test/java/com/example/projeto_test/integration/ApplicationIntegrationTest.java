@@ -4,6 +4,7 @@ import com.example.projeto_test.model.Product;
 import com.example.projeto_test.model.Recibo;
 import com.example.projeto_test.repository.ProductRepository;
 import com.example.projeto_test.repository.ReciboRepository;
+import com.example.projeto_test.service.Pagina;
 import com.example.projeto_test.service.ProductService;
 import com.example.projeto_test.service.ReciboService;
 import org.junit.jupiter.api.BeforeEach;
@@ -162,4 +163,26 @@ class ApplicationIntegrationTest {
         assertEquals(6300, recibo.getTotal()); // 4500 + 1000 + 800
         assertEquals(3, recibo.getItens().size());
     }
+
+    @Test
+    void testRecibosKeysetPagination_NewestFirst() {
+        List<Recibo.ItemCompra> itens = Arrays.asList(
+                new Recibo.ItemCompra("Hambúrguer", 1, 1500)
+        );
+        Recibo recibo1 = reciboService.createRecibo(itens, "", "DINHEIRO");
+        Recibo recibo2 = reciboService.createRecibo(itens, "", "CARTAO");
+        Recibo recibo3 = reciboService.createRecibo(itens, "", "PIX");
+
+        Pagina<Recibo> primeira = reciboService.getRecibosPagina(null, 2);
+        assertEquals(2, primeira.itens().size());
+        assertEquals(recibo3.getId(), primeira.itens().get(0).getId());
+        assertEquals(recibo2.getId(), primeira.itens().get(1).getId());
+        assertEquals(recibo2.getId(), primeira.proximoCursor());
+
+        Pagina<Recibo> segunda = reciboService.getRecibosPagina(primeira.proximoCursor(), 2);
+        assertEquals(1, segunda.itens().size());
+        assertEquals(recibo1.getId(), segunda.itens().get(0).getId());
+        assertEquals(1, segunda.itens().get(0).getItens().size());
+        assertNull(segunda.proximoCursor());
+    }
 }
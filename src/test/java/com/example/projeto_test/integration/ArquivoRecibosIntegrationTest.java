@@ -0,0 +1,252 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRemovidoRepository;
+import com.example.projeto_test.repository.ReciboRepository;
+import com.example.projeto_test.service.Alteracoes;
+import com.example.projeto_test.service.ArquivoRecibos;
+import com.example.projeto_test.service.ReciboService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ArquivoRecibosIntegrationTest {
+
+    private static Path diretorio;
+
+    @Autowired
+    private ArquivoRecibos arquivoRecibos;
+
+    @Autowired
+    private ReciboService reciboService;
+
+    @Autowired
+    private ReciboRepository reciboRepository;
+
+    @Autowired
+    private ReciboRemovidoRepository reciboRemovidoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void propriedades(DynamicPropertyRegistry registry) throws IOException {
+        diretorio = Files.createTempDirectory("arquivo-recibos");
+        registry.add("app.recibos.arquivo.habilitado", () -> "true");
+        registry.add("app.recibos.arquivo.diretorio", diretorio::toString);
+        registry.add("app.recibos.arquivo.idade-maxima-dias", () -> "30");
+        registry.add("app.recibos.arquivo.recibos-por-segmento", () -> "2");
+    }
+
+    @AfterAll
+    static void apagarDiretorio() throws IOException {
+        try (Stream<Path> arquivos = Files.walk(diretorio)) {
+            for (Path arquivo : arquivos.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(arquivo);
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        reciboService.deleteAllRecibos();
+    }
+
+    @Test
+    void testMoveRecibosAntigosParaOArquivo() {
+        Recibo antigo = criar(LocalDateTime.now().minusDays(45), "sem cebola",
+                new Recibo.ItemCompra("Hambúrguer", 2, 1500), new Recibo.ItemCompra("Suco", 1, 700));
+        List<Long> outrosAntigos = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            outrosAntigos.add(criar(LocalDateTime.now().minusDays(40), "", new Recibo.ItemCompra("Água", 1, 300)).getId());
+        }
+        Recibo recente = criar(LocalDateTime.now().minusDays(1), "", new Recibo.ItemCompra("Suco", 1, 700));
+        long quantidadeAntes = arquivoRecibos.getQuantidade();
+
+        assertEquals(5, arquivoRecibos.arquivar());
+
+        assertEquals(quantidadeAntes + 5, arquivoRecibos.getQuantidade());
+        assertFalse(reciboRepository.existsById(antigo.getId()));
+        outrosAntigos.forEach(id -> assertFalse(reciboRepository.existsById(id)));
+        assertTrue(reciboRepository.existsById(recente.getId()));
+
+        Recibo arquivado = reciboService.getReciboById(antigo.getId());
+        assertEquals(antigo.getNumeroChamada(), arquivado.getNumeroChamada());
+        assertEquals(antigo.getTotal(), arquivado.getTotal());
+        assertEquals("sem cebola", arquivado.getObservacoes());
+        assertEquals("PIX", arquivado.getFormaPagamento());
+        assertEquals(antigo.getDataCriacao().withNano(0), arquivado.getDataCriacao().withNano(0));
+        assertEquals(antigo.getItens(), arquivado.getItens());
+        assertEquals(recente.getId(), reciboService.getReciboById(recente.getId()).getId());
+    }
+
+    @Test
+    void testSegmentosSaoReabertosNaInicializacao() {
+        Recibo antigo = criar(LocalDateTime.now().minusDays(60), "", new Recibo.ItemCompra("Suco", 3, 700));
+        arquivoRecibos.arquivar();
+
+        ArquivoRecibos reaberto = new ArquivoRecibos(reciboRepository, reciboRemovidoRepository, transactionManager,
+                true, diretorio.toString(), 30, 60, 2);
+        try {
+            reaberto.iniciar();
+            assertEquals(arquivoRecibos.getQuantidade(), reaberto.getQuantidade());
+            assertEquals(arquivoRecibos.getMaiorVersao(), reaberto.getMaiorVersao());
+            Recibo lido = reaberto.buscar(antigo.getId()).orElseThrow();
+            assertEquals(2100, lido.getTotal());
+
+            List<Long> doDia = new ArrayList<>();
+            reaberto.paraCada(antigo.getDataCriacao().minusMinutes(1), antigo.getDataCriacao().plusMinutes(1),
+                    r -> doDia.add(r.getId()));
+            assertEquals(List.of(antigo.getId()), doDia);
+        } finally {
+            reaberto.encerrar();
+        }
+    }
+
+    @Test
+    void testSequenceRecomecaDepoisDoMaiorIdArquivado() {
+        Recibo antigo = criar(LocalDateTime.now().minusDays(60), "", new Recibo.ItemCompra("Suco", 1, 700));
+        arquivoRecibos.arquivar();
+
+        // Banco em memória recriado: a sequence volta ao início, os segmentos continuam no disco
+        jdbcTemplate.execute("alter sequence recibos_seq restart with 1");
+        ArquivoRecibos reaberto = new ArquivoRecibos(reciboRepository, reciboRemovidoRepository, transactionManager,
+                true, diretorio.toString(), 30, 60, 2);
+        try {
+            reaberto.iniciar();
+            assertTrue(reaberto.getMaiorId() >= antigo.getId());
+            // O Hibernate usa o valor lido como o fim de um bloco de 50 IDs
+            Long proximo = jdbcTemplate.queryForObject("select next value for recibos_seq", Long.class);
+            assertTrue(proximo - 49 > reaberto.getMaiorId(), "bloco " + proximo + " alcança IDs arquivados");
+        } finally {
+            reaberto.encerrar();
+        }
+    }
+
+    @Test
+    void testReciboArquivadoNaoPodeSerEditado() {
+        Recibo antigo = criar(LocalDateTime.now().minusDays(60), "", new Recibo.ItemCompra("Suco", 1, 700));
+        arquivoRecibos.arquivar();
+
+        Recibo novosDados = new Recibo();
+        novosDados.setObservacoes("editado");
+        assertThrows(RuntimeException.class, () -> reciboService.updateRecibo(antigo.getId(), novosDados));
+        assertEquals("", reciboService.getReciboById(antigo.getId()).getObservacoes());
+    }
+
+    @Test
+    void testLimparTudoApagaTambemOArquivo() throws IOException {
+        Recibo antigo = criar(LocalDateTime.now().minusDays(60), "", new Recibo.ItemCompra("Suco", 1, 700));
+        Recibo recente = criar(LocalDateTime.now().minusDays(1), "", new Recibo.ItemCompra("Suco", 1, 700));
+        arquivoRecibos.arquivar();
+        assertTrue(arquivoRecibos.getQuantidade() > 0);
+
+        reciboService.deleteAllRecibos();
+
+        assertEquals(0, arquivoRecibos.getQuantidade());
+        assertThrows(RuntimeException.class, () -> reciboService.getReciboById(antigo.getId()));
+        assertFalse(reciboRepository.existsById(recente.getId()));
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            assertTrue(arquivos.noneMatch(a -> a.getFileName().toString().endsWith(".rec")));
+        }
+    }
+
+    @Test
+    void testEdicaoDuranteOArquivamentoNaoSePerde() throws Exception {
+        Recibo antigo = criar(LocalDateTime.now().minusDays(60), "", new Recibo.ItemCompra("Suco", 1, 700));
+        TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+        CountDownLatch editado = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // A edição trava a linha e só faz commit depois de o arquivamento começar
+            Future<?> edicao = executor.submit(() -> transacao.executeWithoutResult(status -> {
+                Recibo recibo = reciboRepository.findById(antigo.getId()).orElseThrow();
+                recibo.setObservacoes("editado");
+                reciboRepository.saveAndFlush(recibo);
+                editado.countDown();
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(editado.await(5, TimeUnit.SECONDS));
+            arquivoRecibos.arquivar();
+            edicao.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertFalse(reciboRepository.existsById(antigo.getId()));
+        assertEquals("editado", reciboService.getReciboById(antigo.getId()).getObservacoes());
+    }
+
+    @Test
+    void testRemocoesAntigasSaoApagadasEPedemRessincronizacao() {
+        reciboService.createRecibo(List.of(new Recibo.ItemCompra("Água", 1, 300)), "", "PIX");
+        Recibo removido = criar(LocalDateTime.now().minusDays(1), "", new Recibo.ItemCompra("Suco", 1, 700));
+        long desde = reciboService.getAlteracoes(0, null).versao();
+        assertTrue(desde > 0);
+        reciboService.deleteRecibo(removido.getId());
+        Alteracoes comRemocao = reciboService.getAlteracoes(desde, null);
+        assertEquals(List.of(removido.getId()), comRemocao.removidos());
+
+        jdbcTemplate.update("update recibos_removidos set removido_em = ? where recibo_id = ?",
+                LocalDateTime.now().minusDays(40), removido.getId());
+        arquivoRecibos.arquivar();
+
+        assertFalse(reciboRemovidoRepository.existsById(removido.getId()));
+        assertTrue(arquivoRecibos.getHorizonteRemocoes() > desde);
+        Alteracoes antiga = reciboService.getAlteracoes(desde, null);
+        assertTrue(antiga.ressincronizar());
+        assertEquals(0, antiga.versao());
+        assertFalse(reciboService.getAlteracoes(comRemocao.versao(), null).ressincronizar());
+        assertFalse(reciboService.getAlteracoes(0, null).ressincronizar());
+
+        // O horizonte sobrevive ao reinício
+        ArquivoRecibos reaberto = new ArquivoRecibos(reciboRepository, reciboRemovidoRepository, transactionManager,
+                true, diretorio.toString(), 30, 60, 2);
+        try {
+            reaberto.iniciar();
+            assertEquals(arquivoRecibos.getHorizonteRemocoes(), reaberto.getHorizonteRemocoes());
+        } finally {
+            reaberto.encerrar();
+        }
+    }
+
+    private Recibo criar(LocalDateTime dataCriacao, String observacoes, Recibo.ItemCompra... itens) {
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(List.of(itens), observacoes, "PIX", "NORMAL");
+        recibo.setDataCriacao(dataCriacao);
+        return reciboRepository.save(recibo);
+    }
+}
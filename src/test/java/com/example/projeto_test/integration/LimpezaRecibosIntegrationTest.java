@@ -0,0 +1,159 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import com.example.projeto_test.service.AlocadorNumeroChamada;
+import com.example.projeto_test.service.Alteracoes;
+import com.example.projeto_test.service.EstatisticasVendas;
+import com.example.projeto_test.service.LimpezaRecibos;
+import com.example.projeto_test.service.ReciboService;
+import com.example.projeto_test.service.VersoesRecibo;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class LimpezaRecibosIntegrationTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private ReciboService reciboService;
+
+    @Autowired
+    private ReciboRepository reciboRepository;
+
+    @Autowired
+    private VersoesRecibo versoesRecibo;
+
+    @Autowired
+    private EstatisticasVendas estatisticasVendas;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private AlocadorNumeroChamada alocadorNumeroChamada;
+
+    @BeforeEach
+    void setUp() {
+        reciboService.deleteAllRecibos();
+    }
+
+    @Test
+    void testLimparTudoNaoCarregaRecibos() {
+        for (int i = 0; i < 50; i++) {
+            criar(DIA.atTime(12, 0), "PIX", new Recibo.ItemCompra("Suco", 1, 700), new Recibo.ItemCompra("Água", 2, 300));
+        }
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        reciboService.deleteAllRecibos();
+
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, reciboRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from recibo_itens", Long.class));
+        assertEquals(0, reciboService.getEstatisticas(DIA).pedidos());
+        assertTrue(reciboService.getEstatisticas(DIA).porItem().isEmpty());
+    }
+
+    @Test
+    void testLimparPorPeriodoEFormaDePagamento() {
+        long inicio = versoesRecibo.marcoSeguro();
+        Recibo dentro = criar(DIA.atTime(9, 30), "PIX", new Recibo.ItemCompra("Hambúrguer", 2, 1500));
+        Recibo outraForma = criar(DIA.atTime(10, 0), "DINHEIRO", new Recibo.ItemCompra("Suco", 1, 700));
+        Recibo outroDia = criar(DIA.plusDays(1).atTime(9, 0), "PIX", new Recibo.ItemCompra("Suco", 1, 700));
+
+        LimpezaRecibos.Tarefa tarefa = aguardar(reciboService.iniciarLimpeza(
+                new LimpezaRecibos.Filtro(DIA, DIA, "PIX", null)));
+
+        assertEquals(LimpezaRecibos.CONCLUIDA, tarefa.estado());
+        assertEquals(1, tarefa.removidos());
+        assertEquals(tarefa.faixasTotal(), tarefa.faixasConcluidas());
+        assertFalse(reciboRepository.existsById(dentro.getId()));
+        assertTrue(reciboRepository.existsById(outraForma.getId()));
+        assertTrue(reciboRepository.existsById(outroDia.getId()));
+        assertEquals(List.of(outraForma.getId(), outroDia.getId()), jdbcTemplate.queryForList(
+                "select recibo_id from recibo_itens order by recibo_id", Long.class));
+
+        EstatisticasVendas.Resumo resumo = reciboService.getEstatisticas(DIA);
+        assertEquals(1, resumo.pedidos());
+        assertEquals(700, resumo.receita());
+        assertFalse(resumo.porFormaPagamento().containsKey("PIX"));
+        assertFalse(resumo.porHora().containsKey(9));
+        assertFalse(resumo.porItem().containsKey("Hambúrguer"));
+        assertEquals(1, reciboService.getEstatisticas(DIA.plusDays(1)).pedidos());
+
+        Alteracoes alteracoes = reciboService.getAlteracoes(inicio, null);
+        assertEquals(List.of(dentro.getId()), alteracoes.removidos());
+    }
+
+    @Test
+    void testLimpezaEmVariasFaixasInformaOAndamento() {
+        for (int i = 0; i < 1200; i++) {
+            criar(DIA.atTime(8, 0), "PIX", new Recibo.ItemCompra("Água", 1, 300));
+        }
+
+        LimpezaRecibos.Tarefa tarefa = aguardar(reciboService.iniciarLimpeza(LimpezaRecibos.Filtro.TODOS));
+
+        assertEquals(LimpezaRecibos.CONCLUIDA, tarefa.estado());
+        assertEquals(1200, tarefa.removidos());
+        assertEquals(2, tarefa.faixasTotal());
+        assertNotNull(tarefa.concluidaEm());
+        assertEquals(0, reciboRepository.count());
+        assertEquals(0, reciboService.getEstatisticas(DIA).pedidos());
+        assertEquals(tarefa, reciboService.getLimpeza(tarefa.id()));
+    }
+
+    @Test
+    void testNumerosDeChamadaDosRecibosApagadosVoltamAoAlocador() {
+        Recibo pix = reciboService.createRecibo(List.of(new Recibo.ItemCompra("Suco", 1, 700)), "", "PIX");
+        Recibo dinheiro = reciboService.createRecibo(List.of(new Recibo.ItemCompra("Suco", 1, 700)), "", "DINHEIRO");
+        clearInvocations(alocadorNumeroChamada);
+
+        LimpezaRecibos.Tarefa tarefa = aguardar(reciboService.iniciarLimpeza(
+                new LimpezaRecibos.Filtro(null, null, "PIX", null)));
+
+        assertEquals(1, tarefa.removidos());
+        verify(alocadorNumeroChamada).liberar(pix.getDataChamada(), pix.getNumeroChamada());
+        assertTrue(reciboRepository.existsById(dinheiro.getId()));
+    }
+
+    private LimpezaRecibos.Tarefa aguardar(LimpezaRecibos.Tarefa tarefa) {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (LimpezaRecibos.EXECUTANDO.equals(tarefa.estado()) && System.currentTimeMillis() < limite) {
+            Thread.onSpinWait();
+            tarefa = reciboService.getLimpeza(tarefa.id());
+        }
+        return tarefa;
+    }
+
+    private Recibo criar(LocalDateTime dataCriacao, String formaPagamento, Recibo.ItemCompra... itens) {
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(List.of(itens), "", formaPagamento, "NORMAL");
+        recibo.setDataCriacao(dataCriacao);
+        Recibo salvo = reciboRepository.save(recibo);
+        estatisticasVendas.registrar(salvo);
+        return salvo;
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.service.TransacoesPix;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark das requisições de status geradas por checkout Pix aberto:
+ * consulta a cada segundo (como o totem fazia) contra long-poll
+ * ({@code ?wait=30s}).
+ *
+ * Abre {@link #CHECKOUTS} checkouts ao mesmo tempo; cada um é pago num
+ * momento aleatório dentro de {@link #JANELA_MS}. Mede requisições por
+ * segundo por checkout aberto e o atraso entre o pagamento e o totem saber.
+ *
+ * Não roda no {@code mvn test} (o nome não termina em Test). Para rodar:
+ * <pre>
+ * mvn test -Dtest=PagamentoStatusBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "app.log-web.habilitado=false"
+})
+@ActiveProfiles("test")
+class PagamentoStatusBenchmark {
+
+    private static final int CHECKOUTS = 500;
+    private static final long JANELA_MS = 20_000;
+    private static final long INTERVALO_POLLING_MS = 1_000;
+
+    @LocalServerPort
+    private int porta;
+
+    @Autowired
+    private TransacoesPix transacoes;
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    @Test
+    void compararPollingComLongPoll() throws Exception {
+        Resultado polling = medir(false);
+        Resultado longPoll = medir(true);
+
+        System.out.printf("polling 1s    %6.3f req/s por checkout  atraso médio %5.0f ms  (%d checkouts, %d req)%n",
+                polling.porCheckoutPorSegundo(), polling.atrasoMedioMs(), CHECKOUTS, polling.requisicoes());
+        System.out.printf("long-poll 30s %6.3f req/s por checkout  atraso médio %5.0f ms  (%d checkouts, %d req)%n",
+                longPoll.porCheckoutPorSegundo(), longPoll.atrasoMedioMs(), CHECKOUTS, longPoll.requisicoes());
+        assertTrue(longPoll.requisicoes() < polling.requisicoes());
+    }
+
+    private record Resultado(long requisicoes, double segundos, double atrasoMedioMs) {
+
+        double porCheckoutPorSegundo() {
+            return requisicoes / (double) CHECKOUTS / segundos;
+        }
+    }
+
+    /** Abre os checkouts, paga cada um no seu momento e espera todos os totens verem o pagamento */
+    private Resultado medir(boolean longPoll) throws InterruptedException {
+        Random random = new Random(42);
+        LongAdder requisicoes = new LongAdder();
+        LongAdder atrasoTotalMs = new LongAdder();
+        CountDownLatch vistos = new CountDownLatch(CHECKOUTS);
+        ScheduledExecutorService agendador = Executors.newScheduledThreadPool(4);
+        long inicio = System.currentTimeMillis();
+
+        for (int i = 0; i < CHECKOUTS; i++) {
+            String id = transacoes.criar(BigDecimal.TEN).id();
+            AtomicReference<Long> pagoEm = new AtomicReference<>();
+            Runnable visto = () -> {
+                atrasoTotalMs.add(System.currentTimeMillis() - pagoEm.get());
+                vistos.countDown();
+            };
+            agendador.schedule(() -> {
+                pagoEm.set(System.currentTimeMillis());
+                transacoes.confirmar(id);
+            }, random.nextLong(JANELA_MS), TimeUnit.MILLISECONDS);
+
+            if (longPoll) {
+                aguardar(id, requisicoes, visto);
+            } else {
+                consultarPeriodicamente(id, agendador, requisicoes, visto);
+            }
+        }
+
+        assertTrue(vistos.await(JANELA_MS + 60_000, TimeUnit.MILLISECONDS));
+        double segundos = (System.currentTimeMillis() - inicio) / 1000.0;
+        agendador.shutdownNow();
+        return new Resultado(requisicoes.sum(), segundos, atrasoTotalMs.sum() / (double) CHECKOUTS);
+    }
+
+    /** Como o totem fazia: GET /status a cada segundo até ver "approved" */
+    private void consultarPeriodicamente(String id, ScheduledExecutorService agendador, LongAdder requisicoes,
+            Runnable visto) {
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<ScheduledFuture<?>> tarefa = new ArrayList<>(1);
+        tarefa.add(agendador.scheduleAtFixedRate(() -> {
+            if (terminado.get()) {
+                return;
+            }
+            requisicoes.increment();
+            http.sendAsync(requisicao(id, ""), HttpResponse.BodyHandlers.ofString()).thenAccept(resposta -> {
+                if (resposta.body().contains("approved") && terminado.compareAndSet(false, true)) {
+                    tarefa.get(0).cancel(false);
+                    visto.run();
+                }
+            });
+        }, 0, INTERVALO_POLLING_MS, TimeUnit.MILLISECONDS));
+    }
+
+    /** Long-poll: cada resposta "pending" (tempo esgotado) dispara a próxima espera */
+    private void aguardar(String id, LongAdder requisicoes, Runnable visto) {
+        requisicoes.increment();
+        http.sendAsync(requisicao(id, "?wait=30s"), HttpResponse.BodyHandlers.ofString()).thenAccept(resposta -> {
+            if (resposta.body().contains("approved")) {
+                visto.run();
+            } else {
+                aguardar(id, requisicoes, visto);
+            }
+        });
+    }
+
+    private HttpRequest requisicao(String id, String parametros) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/pagamento/" + id + "/status"
+                + parametros)).GET().build();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Product;
+import com.example.projeto_test.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class ProductBatchInsertIntegrationTest {
+
+    private static final int NOVOS = 120;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void testInsertsEmLoteSemColidirComOCardapioInicial() {
+        // Cardápio do data.sql gravado de novo, nesta transação (desfeita no fim do teste)
+        productRepository.deleteAllInBatch();
+        ScriptUtils.executeSqlScript(DataSourceUtils.getConnection(dataSource), new ClassPathResource("data.sql"));
+        Set<Long> cardapio = new HashSet<>(productRepository.findAll().stream().map(Product::getId).toList());
+        assertFalse(cardapio.isEmpty());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Product> novos = new ArrayList<>();
+        for (int i = 0; i < NOVOS; i++) {
+            novos.add(new Product("Produto " + i, 1000 + i));
+        }
+        productRepository.saveAll(novos);
+        entityManager.flush();
+
+        // Sem lote seriam 120 comandos de INSERT; em lote, um comando reaproveitado
+        // mais no máximo uma leitura da sequence a cada 50 IDs
+        assertEquals(NOVOS, statistics.getEntityInsertCount());
+        assertTrue(statistics.getPrepareStatementCount() <= 1 + 4,
+                "INSERTs não foram agrupados: " + statistics.getPrepareStatementCount() + " comandos");
+
+        Set<Long> ids = new HashSet<>();
+        for (Product novo : novos) {
+            assertTrue(ids.add(novo.getId()), "ID repetido: " + novo.getId());
+            assertFalse(cardapio.contains(novo.getId()), "ID do cardápio reutilizado: " + novo.getId());
+        }
+        entityManager.clear();
+        assertEquals(cardapio.size() + NOVOS, productRepository.count());
+    }
+}
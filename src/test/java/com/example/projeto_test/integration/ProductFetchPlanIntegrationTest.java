@@ -0,0 +1,118 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Filter;
+import com.example.projeto_test.model.Product;
+import com.example.projeto_test.repository.FilterRepository;
+import com.example.projeto_test.repository.ProductRepository;
+import com.example.projeto_test.service.Pagina;
+import com.example.projeto_test.service.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class ProductFetchPlanIntegrationTest {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private FilterRepository filterRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Filter vegano;
+    private Filter bebida;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.deleteAll();
+        vegano = filterRepository.save(new Filter("Teste Vegano"));
+        bebida = filterRepository.save(new Filter("Teste Bebida"));
+    }
+
+    @Test
+    void testListingProductsUsesConstantStatementCount() {
+        long comDez = statementsToList(10);
+        long comCem = statementsToList(100);
+
+        assertEquals(1, comDez);
+        assertEquals(comDez, comCem);
+    }
+
+    @Test
+    void testGetProductByIdFetchesFiltersInOneStatement() {
+        Product suco = new Product("Suco", 700);
+        suco.setFilters(Set.of(vegano, bebida));
+        Long id = productRepository.save(suco).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        Product found = productService.getProductById(id);
+
+        assertEquals(2, found.getFilters().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testProductPageFetchesFiltersWithoutPerProductQueries() {
+        statementsToList(30);
+
+        Statistics statistics = statistics();
+        Pagina<Product> pagina = productService.getProductsPagina(null, 20);
+
+        assertEquals(20, pagina.itens().size());
+        assertNotNull(pagina.proximoCursor());
+        pagina.itens().forEach(p -> assertEquals(2, p.getFilters().size()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Garante que existam {@code total} produtos com filtros e conta quantos
+     * SELECTs são emitidos para listar o cardápio e ler os filtros de todos.
+     */
+    private long statementsToList(int total) {
+        for (long i = productRepository.count(); i < total; i++) {
+            Product product = new Product("Produto " + i, 1000);
+            product.setFilters(Set.of(vegano, bebida));
+            productRepository.save(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        Statistics statistics = statistics();
+        List<Product> products = productService.getAllProducts();
+        products.forEach(p -> assertEquals(2, p.getFilters().size()));
+
+        assertEquals(total, products.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
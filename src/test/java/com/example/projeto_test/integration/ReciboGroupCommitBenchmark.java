@@ -0,0 +1,98 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import com.example.projeto_test.service.GravadorRecibosEmLote;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark de vazão da criação de recibos: uma transação por recibo
+ * ({@code ReciboRepository.save}) contra a gravação em grupo
+ * ({@link GravadorRecibosEmLote}).
+ *
+ * Não roda no {@code mvn test} (o nome não termina em Test). Para rodar:
+ * <pre>
+ * mvn test -Dtest=ReciboGroupCommitBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ * Com o H2 em memória o custo do commit é pequeno; em um banco com disco
+ * (PostgreSQL) a diferença entre os modos é bem maior.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "app.recibos.group-commit.habilitado=true",
+        "app.recibos.group-commit.tamanho-lote=32",
+        "app.recibos.group-commit.espera-maxima-ms=2"
+})
+@ActiveProfiles("test")
+class ReciboGroupCommitBenchmark {
+
+    private static final int THREADS = 32;
+    private static final long AQUECIMENTO_MS = 2_000;
+    private static final long MEDICAO_MS = 5_000;
+
+    @Autowired
+    private ReciboRepository reciboRepository;
+
+    @Autowired
+    private GravadorRecibosEmLote gravadorEmLote;
+
+    @Test
+    void compararVazaoDosModos() throws Exception {
+        medir(reciboRepository::save, AQUECIMENTO_MS);
+        long individual = medir(reciboRepository::save, MEDICAO_MS);
+        medir(gravadorEmLote::salvar, AQUECIMENTO_MS);
+        long emGrupo = medir(gravadorEmLote::salvar, MEDICAO_MS);
+
+        System.out.printf("transação por recibo %,10.0f recibos/s (%d threads)%n",
+                individual * 1000.0 / MEDICAO_MS, THREADS);
+        System.out.printf("group commit         %,10.0f recibos/s (%d threads)%n",
+                emGrupo * 1000.0 / MEDICAO_MS, THREADS);
+        assertTrue(individual > 0 && emGrupo > 0);
+    }
+
+    /** Cria recibos em {@link #THREADS} threads durante o tempo dado */
+    private static long medir(Consumer<Recibo> gravar, long duracaoMs) throws InterruptedException {
+        LongAdder gravados = new LongAdder();
+        AtomicBoolean rodando = new AtomicBoolean(true);
+        CountDownLatch fim = new CountDownLatch(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    while (rodando.get()) {
+                        gravar.accept(novoRecibo());
+                        gravados.increment();
+                    }
+                } finally {
+                    fim.countDown();
+                }
+            });
+            thread.start();
+        }
+        Thread.sleep(duracaoMs);
+        rodando.set(false);
+        fim.await(30, TimeUnit.SECONDS);
+        return gravados.sum();
+    }
+
+    /** Recibo de 3 itens, sem número de chamada (o benchmark passa de 9999 por dia) */
+    private static Recibo novoRecibo() {
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(List.of(
+                new Recibo.ItemCompra("Hambúrguer", 1, 1500),
+                new Recibo.ItemCompra("Batata Frita", 1, 800),
+                new Recibo.ItemCompra("Refrigerante", 2, 500)), "", "PIX", "NORMAL");
+        return recibo;
+    }
+}
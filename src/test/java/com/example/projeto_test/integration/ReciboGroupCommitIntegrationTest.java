@@ -0,0 +1,116 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import com.example.projeto_test.service.ReciboService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.recibos.group-commit.habilitado=true",
+        "app.recibos.group-commit.tamanho-lote=32",
+        "app.recibos.group-commit.espera-maxima-ms=100"
+})
+@ActiveProfiles("test")
+class ReciboGroupCommitIntegrationTest {
+
+    private static final int PEDIDOS = 20;
+
+    @Autowired
+    private ReciboService reciboService;
+
+    @Autowired
+    private ReciboRepository reciboRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        reciboRepository.deleteAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testPedidosSimultaneosGravadosEmPoucasTransacoes() throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(PEDIDOS);
+        List<Future<Recibo>> resultados = new ArrayList<>();
+        try {
+            for (int i = 0; i < PEDIDOS; i++) {
+                int preco = 100 * (i + 1);
+                resultados.add(executor.submit(() -> {
+                    largada.await();
+                    return reciboService.createRecibo(
+                            List.of(new Recibo.ItemCompra("Item", 1, preco)), "", "PIX");
+                }));
+            }
+            largada.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (int i = 0; i < PEDIDOS; i++) {
+                Recibo recibo = resultados.get(i).get(10, TimeUnit.SECONDS);
+                assertNotNull(recibo.getId());
+                assertEquals(100 * (i + 1), recibo.getTotal());
+                ids.add(recibo.getId());
+            }
+            assertEquals(PEDIDOS, ids.size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(PEDIDOS, reciboRepository.count());
+        assertTrue(statistics.getTransactionCount() < PEDIDOS,
+                "transações: " + statistics.getTransactionCount());
+    }
+
+    @Test
+    void testErroDeUmPedidoNaoAfetaOsOutrosDoLote() throws Exception {
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Recibo> valido = executor.submit(() -> {
+                largada.await();
+                return reciboService.createRecibo(List.of(new Recibo.ItemCompra("Item", 1, 100)), "", "PIX");
+            });
+            Future<Recibo> invalido = executor.submit(() -> {
+                largada.await();
+                // Observação maior que a coluna (255): o banco recusa este recibo
+                return reciboService.createRecibo(List.of(new Recibo.ItemCompra("Item", 1, 100)),
+                        "x".repeat(300), "PIX");
+            });
+            largada.countDown();
+
+            assertNotNull(valido.get(10, TimeUnit.SECONDS).getId());
+            ExecutionException erro = assertThrows(ExecutionException.class,
+                    () -> invalido.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(RuntimeException.class, erro.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, reciboRepository.count());
+    }
+}
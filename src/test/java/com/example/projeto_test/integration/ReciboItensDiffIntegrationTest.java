@@ -0,0 +1,153 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import com.example.projeto_test.service.ReciboService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class ReciboItensDiffIntegrationTest {
+
+    private static final int ITENS = 20;
+
+    @Autowired
+    private ReciboService reciboService;
+
+    @Autowired
+    private ReciboRepository reciboRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        reciboRepository.deleteAll();
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(itens(), "", "PIX", "NORMAL");
+        id = reciboRepository.save(recibo).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testEditarUmaLinhaGravaSoAquelaLinha() {
+        List<Recibo.ItemCompra> editados = itens();
+        editados.set(7, new Recibo.ItemCompra("Item 7", 3, 100));
+
+        Statistics statistics = statistics();
+        reciboService.updateRecibo(id, comItens(editados));
+        entityManager.flush();
+
+        // SELECT do recibo, SELECT dos itens, UPDATE da linha e UPDATE do total
+        assertEquals(1, statistics.getCollectionUpdateCount());
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        assertEquals(4, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        Recibo salvo = reciboRepository.findById(id).orElseThrow();
+        assertEquals(editados, salvo.getItens());
+        assertEquals(totalDe(editados), salvo.getTotal());
+    }
+
+    @Test
+    void testIncluirERemoverLinhasNoFim() {
+        List<Recibo.ItemCompra> maisUm = itens();
+        maisUm.add(new Recibo.ItemCompra("Sobremesa", 2, 450));
+        reciboService.updateRecibo(id, comItens(maisUm));
+        entityManager.flush();
+        entityManager.clear();
+        assertEquals(totalDe(maisUm), reciboRepository.findById(id).orElseThrow().getTotal());
+
+        List<Recibo.ItemCompra> menos = itens().subList(0, 5);
+        reciboService.updateRecibo(id, comItens(menos));
+        entityManager.flush();
+        entityManager.clear();
+
+        Recibo salvo = reciboRepository.findById(id).orElseThrow();
+        assertEquals(menos, salvo.getItens());
+        assertEquals(totalDe(menos), salvo.getTotal());
+    }
+
+    @Test
+    void testRemoverEIncluirNoMeioGravaSoAsLinhasAlteradas() {
+        List<Recibo.ItemCompra> editados = reciboRepository.findById(id).orElseThrow().getItens();
+        entityManager.clear();
+        Recibo.ItemCompra removido = editados.remove(7);
+        editados.add(3, new Recibo.ItemCompra("Sobremesa", 2, 450));
+
+        Statistics statistics = statistics();
+        reciboService.updateRecibo(id, comItens(editados));
+        entityManager.flush();
+
+        // SELECT do recibo, SELECT dos itens, DELETE da linha removida, INSERT da nova e UPDATE do total
+        assertEquals(1, statistics.getCollectionUpdateCount());
+        assertEquals(0, statistics.getCollectionRecreateCount());
+        assertEquals(5, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        Recibo salvo = reciboRepository.findById(id).orElseThrow();
+        List<Recibo.ItemCompra> esperados = itens();
+        esperados.remove(7);
+        esperados.add(new Recibo.ItemCompra("Sobremesa", 2, 450)); // item sem linha entra no fim
+        assertEquals(esperados, salvo.getItens());
+        assertEquals(totalDe(esperados), salvo.getTotal());
+        assertFalse(salvo.getItens().stream().anyMatch(i -> removido.getLinha().equals(i.getLinha())));
+        assertEquals(ITENS + 1, salvo.getItens().get(ITENS - 1).getLinha());
+    }
+
+    @Test
+    void testSemMudancaNosItensNaoGravaItens() {
+        Statistics statistics = statistics();
+        reciboService.updateRecibo(id, comItens(itens()));
+        entityManager.flush();
+
+        // Só a versão de alteração do recibo muda; nenhuma linha de item é gravada
+        assertEquals(0, statistics.getCollectionUpdateCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    private static List<Recibo.ItemCompra> itens() {
+        List<Recibo.ItemCompra> itens = new ArrayList<>();
+        for (int i = 0; i < ITENS; i++) {
+            itens.add(new Recibo.ItemCompra("Item " + i, 1, 100 * (i + 1)));
+        }
+        return itens;
+    }
+
+    private static Recibo comItens(List<Recibo.ItemCompra> itens) {
+        Recibo novosDados = new Recibo();
+        novosDados.setItens(itens);
+        return novosDados;
+    }
+
+    private static int totalDe(List<Recibo.ItemCompra> itens) {
+        return itens.stream().mapToInt(Recibo.ItemCompra::getSubtotal).sum();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
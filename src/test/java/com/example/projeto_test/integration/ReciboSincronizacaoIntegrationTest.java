@@ -0,0 +1,111 @@
+package com.example.projeto_test.integration;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.service.Alteracoes;
+import com.example.projeto_test.service.ReciboService;
+import com.example.projeto_test.service.VersoesRecibo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ReciboSincronizacaoIntegrationTest {
+
+    @Autowired
+    private ReciboService reciboService;
+
+    @Autowired
+    private VersoesRecibo versoesRecibo;
+
+    private long inicio;
+
+    @BeforeEach
+    void setUp() {
+        reciboService.deleteAllRecibos();
+        inicio = versoesRecibo.marcoSeguro();
+    }
+
+    @Test
+    void testRetornaSoOQueMudouDesdeAVersao() {
+        Recibo a = criar(100);
+        Recibo b = criar(200);
+        Recibo c = criar(300);
+
+        Alteracoes primeira = reciboService.getAlteracoes(inicio, null);
+        assertEquals(List.of(a.getId(), b.getId(), c.getId()), ids(primeira));
+        assertTrue(primeira.removidos().isEmpty());
+        assertFalse(primeira.maisAlteracoes());
+
+        Recibo novosDados = new Recibo();
+        novosDados.setObservacoes("sem gelo");
+        reciboService.updateRecibo(a.getId(), novosDados);
+        reciboService.deleteRecibo(b.getId());
+
+        Alteracoes segunda = reciboService.getAlteracoes(primeira.versao(), null);
+        assertEquals(List.of(a.getId()), ids(segunda));
+        assertEquals("sem gelo", segunda.alterados().get(0).getObservacoes());
+        assertEquals(List.of(b.getId()), segunda.removidos());
+
+        Alteracoes terceira = reciboService.getAlteracoes(segunda.versao(), null);
+        assertTrue(terceira.alterados().isEmpty());
+        assertTrue(terceira.removidos().isEmpty());
+        assertEquals(segunda.versao(), terceira.versao());
+    }
+
+    @Test
+    void testPaginaPeloLimite() {
+        for (int i = 1; i <= 5; i++) {
+            criar(100 * i);
+        }
+
+        Alteracoes pagina = reciboService.getAlteracoes(inicio, 2);
+        int recebidos = pagina.alterados().size();
+        while (pagina.maisAlteracoes()) {
+            assertEquals(2, pagina.alterados().size());
+            pagina = reciboService.getAlteracoes(pagina.versao(), 2);
+            recebidos += pagina.alterados().size();
+        }
+        assertEquals(5, recebidos);
+    }
+
+    @Test
+    void testNaoPassaDeGravacaoEmAndamento() {
+        long emAndamento = versoesRecibo.reservar(1);
+        Recibo depois = criar(100);
+
+        Alteracoes parcial = reciboService.getAlteracoes(inicio, null);
+        assertTrue(parcial.alterados().isEmpty());
+        assertEquals(emAndamento - 1, parcial.versao());
+
+        versoesRecibo.concluirAoTerminar(emAndamento);
+        assertEquals(List.of(depois.getId()), ids(reciboService.getAlteracoes(parcial.versao(), null)));
+    }
+
+    @Test
+    void testLimparRegistraRemocaoDeTodos() {
+        Recibo a = criar(100);
+        Recibo b = criar(200);
+        long versao = reciboService.getAlteracoes(inicio, null).versao();
+
+        reciboService.deleteAllRecibos();
+
+        Alteracoes alteracoes = reciboService.getAlteracoes(versao, null);
+        assertTrue(alteracoes.alterados().isEmpty());
+        assertEquals(List.of(a.getId(), b.getId()), alteracoes.removidos().stream().sorted().toList());
+    }
+
+    private Recibo criar(int preco) {
+        return reciboService.createRecibo(List.of(new Recibo.ItemCompra("Item", 1, preco)), "", "PIX");
+    }
+
+    private static List<Long> ids(Alteracoes alteracoes) {
+        return alteracoes.alterados().stream().map(Recibo::getId).toList();
+    }
+}
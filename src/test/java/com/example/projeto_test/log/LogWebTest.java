@@ -0,0 +1,71 @@
+package com.example.projeto_test.log;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.event.Level;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogWebTest {
+
+    @Test
+    void testDescartaEContaQuandoFilaCheia() {
+        LogWeb log = new LogWeb(new LogWebProperties(true, 2, Level.INFO, null, null));
+
+        log.info("produtos-criar", "evento {}", 1);
+        log.info("produtos-criar", "evento {}", 2);
+        log.info("produtos-criar", "evento {}", 3);
+
+        assertEquals(2, log.getPendentes());
+        assertEquals(1, log.getDescartados());
+    }
+
+    @Test
+    void testNivelPorEndpoint() {
+        LogWeb log = new LogWeb(new LogWebProperties(true, 16, Level.INFO,
+                Map.of("produtos-listar", Level.DEBUG), null));
+
+        log.debug("produtos-criar", "ignorado");
+        log.debug("produtos-listar", "registrado");
+
+        assertEquals(1, log.getPendentes());
+        assertTrue(log.habilitado("produtos-listar", Level.DEBUG));
+        assertFalse(log.habilitado("produtos-criar", Level.DEBUG));
+    }
+
+    @Test
+    void testAmostragemNaoAfetaWarnEError() {
+        LogWeb log = new LogWeb(new LogWebProperties(true, 16, Level.INFO, null,
+                Map.of("produtos-listar", 0.0)));
+
+        log.info("produtos-listar", "amostrado fora");
+        log.warn("produtos-listar", "sempre registrado");
+        log.error("produtos-listar", "sempre registrado", new RuntimeException("falha"));
+
+        assertEquals(2, log.getPendentes());
+    }
+
+    @Test
+    void testDesabilitadoNaoEnfileira() {
+        LogWeb log = new LogWeb(new LogWebProperties(false, 16, Level.TRACE, null, null));
+
+        log.error("pix-criar", "ignorado");
+
+        assertEquals(0, log.getPendentes());
+    }
+
+    @Test
+    void testThreadDeFundoEsvaziaFilaAoEncerrar() throws InterruptedException {
+        LogWeb log = new LogWeb(new LogWebProperties(true, 1024, Level.INFO, null, null));
+        log.iniciar();
+        for (int i = 0; i < 100; i++) {
+            log.info("produtos-criar", "evento {}", i);
+        }
+
+        log.encerrar();
+
+        assertEquals(0, log.getPendentes());
+        assertEquals(0, log.getDescartados());
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.projeto_test.pagamento;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GatewayResilienteTest {
+
+    private static final PaymentGateway.CobrancaPix COBRANCA = new PaymentGateway.CobrancaPix("c1", "pix", "png");
+
+    private final AtomicLong agora = new AtomicLong(0);
+
+    /** Chamadas recebidas pelo provedor; o teste decide quando e como cada uma termina */
+    private final List<CompletableFuture<PaymentGateway.CobrancaPix>> chamadas = new ArrayList<>();
+
+    private final PaymentGateway provedor = (referencia, valor, descricao) -> {
+        CompletableFuture<PaymentGateway.CobrancaPix> chamada = new CompletableFuture<>();
+        chamadas.add(chamada);
+        return chamada;
+    };
+
+    @Test
+    void testDisjuntorAbreFalhaRapidoEFechaDepoisDoTeste() {
+        GatewayResiliente gateway = gateway(4, 5_000);
+        for (int i = 0; i < 4; i++) {
+            CompletableFuture<PaymentGateway.CobrancaPix> cobranca = criar(gateway);
+            chamadas.get(i).completeExceptionally(new IllegalStateException("502"));
+            assertThrows(CompletionException.class, cobranca::join);
+        }
+        assertEquals(Disjuntor.Estado.ABERTO, gateway.getEstado());
+
+        // Aberto: recusa sem chamar o provedor
+        assertIndisponivel(criar(gateway));
+        assertEquals(4, chamadas.size());
+
+        // Meio aberto: só uma chamada de teste passa
+        agora.addAndGet(30_000);
+        CompletableFuture<PaymentGateway.CobrancaPix> teste = criar(gateway);
+        assertIndisponivel(criar(gateway));
+        assertEquals(5, chamadas.size());
+
+        chamadas.get(4).complete(COBRANCA);
+        assertEquals(COBRANCA, teste.join());
+        assertEquals(Disjuntor.Estado.FECHADO, gateway.getEstado());
+    }
+
+    @Test
+    void testTesteComFalhaReabreODisjuntor() {
+        GatewayResiliente gateway = gateway(4, 5_000);
+        for (int i = 0; i < 4; i++) {
+            criar(gateway);
+            chamadas.get(i).completeExceptionally(new IllegalStateException("502"));
+        }
+        agora.addAndGet(30_000);
+        criar(gateway);
+        chamadas.get(4).completeExceptionally(new IllegalStateException("502"));
+
+        assertEquals(Disjuntor.Estado.ABERTO, gateway.getEstado());
+        assertIndisponivel(criar(gateway));
+    }
+
+    @Test
+    void testPedidoRecusadoNaoContaComoFalha() {
+        GatewayResiliente gateway = gateway(4, 5_000);
+        for (int i = 0; i < 10; i++) {
+            CompletableFuture<PaymentGateway.CobrancaPix> cobranca = criar(gateway);
+            chamadas.get(i).completeExceptionally(new IllegalArgumentException("Valor inválido"));
+            CompletionException erro = assertThrows(CompletionException.class, cobranca::join);
+            assertInstanceOf(IllegalArgumentException.class, erro.getCause());
+        }
+        assertEquals(Disjuntor.Estado.FECHADO, gateway.getEstado());
+    }
+
+    @Test
+    void testLimiteDeChamadasSimultaneas() {
+        GatewayResiliente gateway = gateway(2, 5_000);
+        CompletableFuture<PaymentGateway.CobrancaPix> primeira = criar(gateway);
+        criar(gateway);
+        assertIndisponivel(criar(gateway));
+        assertEquals(2, chamadas.size());
+        assertEquals(2, gateway.getEmAndamento());
+
+        // A vaga volta quando o provedor responde
+        chamadas.get(0).complete(COBRANCA);
+        assertEquals(COBRANCA, primeira.join());
+        assertEquals(1, gateway.getEmAndamento());
+        criar(gateway);
+        assertEquals(3, chamadas.size());
+    }
+
+    @Test
+    void testTimeoutRespondeSemEsperarOProvedor() throws Exception {
+        GatewayResiliente gateway = gateway(1, 50);
+        CompletableFuture<PaymentGateway.CobrancaPix> cobranca = criar(gateway);
+
+        ExecutionException erro = assertThrows(ExecutionException.class, () -> cobranca.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(GatewayIndisponivelException.class, erro.getCause());
+
+        // O provedor travado continua ocupando a vaga até responder
+        assertIndisponivel(criar(gateway));
+        chamadas.get(0).complete(COBRANCA);
+        assertEquals(0, gateway.getEmAndamento());
+    }
+
+    @Test
+    void testGatewayLocalComErroInjetado() {
+        GatewayLocal falhando = new GatewayLocal(0, 0, 1);
+        try {
+            CompletionException erro = assertThrows(CompletionException.class,
+                    () -> falhando.criarPix("pedido", BigDecimal.TEN, "Pedido").join());
+            assertInstanceOf(IllegalStateException.class, erro.getCause());
+        } finally {
+            falhando.encerrar();
+        }
+
+        GatewayLocal lento = new GatewayLocal(20, 10, 0);
+        try {
+            PaymentGateway.CobrancaPix cobranca = lento.criarPix("pedido", BigDecimal.TEN, "Pedido").join();
+            assertTrue(cobranca.qrCode().contains(cobranca.id()));
+        } finally {
+            lento.encerrar();
+        }
+    }
+
+    @Test
+    void testGatewayLocalDevolveAMesmaCobrancaParaAMesmaReferencia() {
+        GatewayLocal local = new GatewayLocal(20, 0, 0);
+        try {
+            CompletableFuture<PaymentGateway.CobrancaPix> primeira = local.criarPix("pedido", BigDecimal.TEN, "Pedido");
+            // Reenvio enquanto a primeira ainda está sendo gerada
+            CompletableFuture<PaymentGateway.CobrancaPix> reenvio = local.criarPix("pedido", BigDecimal.TEN, "Pedido");
+            assertEquals(primeira.join(), reenvio.join());
+            assertEquals(primeira.join(), local.criarPix("pedido", BigDecimal.TEN, "Pedido").join());
+            assertNotEquals(primeira.join().id(), local.criarPix("outro", BigDecimal.TEN, "Pedido").join().id());
+        } finally {
+            local.encerrar();
+        }
+    }
+
+    private GatewayResiliente gateway(int maximoSimultaneas, long timeoutMs) {
+        return new GatewayResiliente(provedor, maximoSimultaneas, timeoutMs,
+                new Disjuntor(10, 4, 0.5, 30_000, agora::get));
+    }
+
+    private static CompletableFuture<PaymentGateway.CobrancaPix> criar(PaymentGateway gateway) {
+        return gateway.criarPix("pedido", BigDecimal.TEN, "Pedido");
+    }
+
+    private static void assertIndisponivel(CompletableFuture<PaymentGateway.CobrancaPix> cobranca) {
+        assertTrue(cobranca.isDone(), "deveria recusar na hora");
+        CompletionException erro = assertThrows(CompletionException.class, cobranca::join);
+        assertInstanceOf(GatewayIndisponivelException.class, erro.getCause());
+    }
+}
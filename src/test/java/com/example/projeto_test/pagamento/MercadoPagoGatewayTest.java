@@ -0,0 +1,98 @@
+package com.example.projeto_test.pagamento;
+
+import com.mercadopago.client.payment.PaymentClient;
+import com.mercadopago.client.payment.PaymentCreateRequest;
+import com.mercadopago.core.MPRequestOptions;
+import com.mercadopago.exceptions.MPApiException;
+import com.mercadopago.exceptions.MPException;
+import com.mercadopago.net.MPResponse;
+import com.mercadopago.resources.payment.Payment;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MercadoPagoGatewayTest {
+
+    private final PaymentClient cliente = mock(PaymentClient.class);
+
+    private final MercadoPagoGateway gateway = new MercadoPagoGateway(cliente, "token", "totem@leao.com", 1_000);
+
+    @AfterEach
+    void encerrar() {
+        gateway.encerrar();
+    }
+
+    @Test
+    void testCobrancaUsaAReferenciaComoChaveDeIdempotencia() throws Exception {
+        Payment pagamento = mock(Payment.class, RETURNS_DEEP_STUBS);
+        when(pagamento.getId()).thenReturn(42L);
+        when(pagamento.getPointOfInteraction().getTransactionData().getQrCode()).thenReturn("pix-copia-e-cola");
+        when(pagamento.getPointOfInteraction().getTransactionData().getQrCodeBase64()).thenReturn("png");
+        when(cliente.create(any(), any())).thenReturn(pagamento);
+
+        assertEquals(new PaymentGateway.CobrancaPix("42", "pix-copia-e-cola", "png"), criar().join());
+
+        ArgumentCaptor<PaymentCreateRequest> pedido = ArgumentCaptor.forClass(PaymentCreateRequest.class);
+        ArgumentCaptor<MPRequestOptions> opcoes = ArgumentCaptor.forClass(MPRequestOptions.class);
+        verify(cliente).create(pedido.capture(), opcoes.capture());
+        assertEquals("pedido-1", pedido.getValue().getExternalReference());
+        assertEquals("pedido-1", opcoes.getValue().getCustomHeaders().get("X-Idempotency-Key"));
+    }
+
+    @Test
+    void testRecusaDoProvedorViraPedidoInvalido() throws Exception {
+        when(cliente.create(any(), any())).thenThrow(erroDaApi(400));
+
+        IllegalArgumentException erro = assertInstanceOf(IllegalArgumentException.class, causa());
+        assertTrue(erro.getMessage().contains("400"));
+    }
+
+    @Test
+    void testLimiteDeRequisicoesEErroDoServidorSaoIndisponibilidade() throws Exception {
+        when(cliente.create(any(), any())).thenThrow(erroDaApi(429), erroDaApi(502));
+
+        assertInstanceOf(IllegalStateException.class, causa());
+        assertInstanceOf(IllegalStateException.class, causa());
+    }
+
+    @Test
+    void testFalhaDeRedeDoSdk() throws Exception {
+        MPException falha = new MPException("Connection reset");
+        when(cliente.create(any(), any())).thenThrow(falha);
+
+        assertSame(falha, causa());
+    }
+
+    @Test
+    void testPagamentoSemQrCode() throws Exception {
+        when(cliente.create(any(), any())).thenReturn(mock(Payment.class));
+
+        assertInstanceOf(IllegalStateException.class, causa());
+    }
+
+    @Test
+    void testAccessTokenObrigatorio() {
+        assertThrows(IllegalArgumentException.class, () -> new MercadoPagoGateway(cliente, " ", "totem@leao.com", 1_000));
+    }
+
+    private CompletableFuture<PaymentGateway.CobrancaPix> criar() {
+        return gateway.criarPix("pedido-1", BigDecimal.TEN, "Pedido");
+    }
+
+    private Throwable causa() {
+        return assertThrows(CompletionException.class, () -> criar().join()).getCause();
+    }
+
+    private static MPApiException erroDaApi(int status) {
+        return new MPApiException("Api error", new MPResponse(status, Map.of(), "{\"status\":" + status + "}"));
+    }
+}
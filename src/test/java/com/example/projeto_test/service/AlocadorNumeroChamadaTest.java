@@ -0,0 +1,189 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.repository.ReciboRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlocadorNumeroChamadaTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private ReciboRepository reciboRepository;
+
+    private RelogioAjustavel relogio;
+
+    private AlocadorNumeroChamada alocador;
+
+    @BeforeEach
+    void setUp() {
+        relogio = new RelogioAjustavel(DIA);
+        alocador = new AlocadorNumeroChamada(reciboRepository, relogio);
+    }
+
+    @Test
+    void testNumerosSequenciaisDoDia() {
+        assertEquals(new AlocadorNumeroChamada.NumeroChamada(DIA, "0001"), alocador.alocar());
+        assertEquals("0002", alocador.alocar().numero());
+        assertEquals("0003", alocador.alocar().numero());
+        verify(reciboRepository, times(1)).findMaiorNumeroChamadaDoDia(DIA);
+    }
+
+    @Test
+    void testContinuaDoMaiorNumeroGravadoAposReinicio() {
+        when(reciboRepository.findMaiorNumeroChamadaDoDia(DIA)).thenReturn("0041");
+
+        assertEquals("0042", alocador.alocar().numero());
+    }
+
+    @Test
+    void testRecomecaNaViradaDoDia() {
+        alocador.alocar();
+        alocador.alocar();
+
+        relogio.dia = DIA.plusDays(1);
+        AlocadorNumeroChamada.NumeroChamada numero = alocador.alocar();
+
+        assertEquals(DIA.plusDays(1), numero.dia());
+        assertEquals("0001", numero.numero());
+    }
+
+    @Test
+    void testReaproveitaNumerosLiberadosSoDepoisDeEsgotarASequencia() {
+        when(reciboRepository.findMaiorNumeroChamadaDoDia(DIA)).thenReturn("9998");
+        when(reciboRepository.findNumerosChamadaDoDia(DIA)).thenReturn(numeros(1, 9998));
+        AlocadorNumeroChamada.NumeroChamada penultimo = alocador.alocar();
+        alocador.liberar(DIA, "0005");
+        alocador.liberar(DIA.minusDays(1), "0006");
+
+        assertEquals("9999", penultimo.numero());
+        assertEquals("0005", alocador.alocar().numero());
+        assertThrows(IllegalStateException.class, alocador::alocar);
+    }
+
+    @Test
+    void testReinicioReconstroiOsNumerosLivresDasLacunas() {
+        List<String> emUso = new ArrayList<>(numeros(1, 9999));
+        emUso.remove("0003");
+        emUso.remove("0007");
+        when(reciboRepository.findMaiorNumeroChamadaDoDia(DIA)).thenReturn("9999");
+        when(reciboRepository.findNumerosChamadaDoDia(DIA)).thenReturn(emUso);
+
+        assertEquals("0003", alocador.alocar().numero());
+        assertEquals("0007", alocador.alocar().numero());
+        assertThrows(IllegalStateException.class, alocador::alocar);
+    }
+
+    @Test
+    void testNumeroSoVoltaDepoisDoCommit() {
+        when(reciboRepository.findMaiorNumeroChamadaDoDia(DIA)).thenReturn("9999");
+        when(reciboRepository.findNumerosChamadaDoDia(DIA)).thenReturn(numeros(1, 9999));
+        assertThrows(IllegalStateException.class, alocador::alocar);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            alocador.liberar(DIA, "0042");
+            // Transação desfeita: o número continua com o recibo
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertThrows(IllegalStateException.class, alocador::alocar);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            alocador.liberar(DIA, "0042");
+            assertThrows(IllegalStateException.class, alocador::alocar);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals("0042", alocador.alocar().numero());
+    }
+
+    @Test
+    void testNumerosUnicosEntreThreads() throws Exception {
+        int threads = 8;
+        int porThread = 1000;
+        Set<String> alocados = ConcurrentHashMap.newKeySet();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tarefas.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < porThread; i++) {
+                        alocados.add(alocador.alocar().numero());
+                    }
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(threads * porThread, alocados.size());
+        verify(reciboRepository, times(1)).findMaiorNumeroChamadaDoDia(any());
+    }
+
+    private static List<String> numeros(int de, int ate) {
+        return IntStream.rangeClosed(de, ate).mapToObj(n -> String.format("%04d", n)).toList();
+    }
+
+        /** Relógio cujo dia pode ser trocado durante o teste */
+    private static final class RelogioAjustavel extends Clock {
+
+        private volatile LocalDate dia;
+
+        private RelogioAjustavel(LocalDate dia) {
+            this.dia = dia;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return dia.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.projeto_test.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmark da latência de criar e confirmar transações Pix sem diário,
+ * com o diário em fsync por janela (5 ms) e com fsync a cada registro.
+ *
+ * Não roda no {@code mvn test} (o nome não termina em Test). Para rodar:
+ * <pre>
+ * mvn test -Dtest=DiarioPixBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * </pre>
+ */
+class DiarioPixBenchmark {
+
+    private static final int THREADS = 4;
+    private static final int OPERACOES_POR_THREAD = 50_000;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void compararLatenciaComEsemDiario() throws Exception {
+        medir("sem diário", null);
+        medir("sem diário", null);
+        medir("diário janela 5ms", Duration.ofMillis(5));
+        medir("diário fsync por registro", Duration.ZERO);
+    }
+
+    private void medir(String cenario, Duration janela) throws InterruptedException {
+        Path pasta = diretorio.resolve("diario-" + System.nanoTime());
+        DiarioPix diario = janela == null ? null : DiarioPix.abrir(pasta, janela, 10_000);
+        TransacoesPix transacoes = new TransacoesPix(Duration.ofMinutes(15), Duration.ofMinutes(2), 50_000,
+                Clock.systemUTC(), diario);
+        transacoes.iniciar(); // prazos e compactação do diário na thread de fundo, como no servidor
+        int operacoes = janela == Duration.ZERO ? OPERACOES_POR_THREAD / 50 : OPERACOES_POR_THREAD;
+        long[][] latencias = new long[THREADS][operacoes * 2];
+        CountDownLatch fim = new CountDownLatch(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            long[] minhas = latencias[t];
+            new Thread(() -> {
+                for (int i = 0; i < operacoes; i++) {
+                    long inicio = System.nanoTime();
+                    TransacoesPix.Transacao transacao = transacoes.criar(BigDecimal.TEN);
+                    long criada = System.nanoTime();
+                    transacoes.confirmar(transacao.id());
+                    minhas[2 * i] = criada - inicio;
+                    minhas[2 * i + 1] = System.nanoTime() - criada;
+                }
+                fim.countDown();
+            }).start();
+        }
+        fim.await();
+        transacoes.encerrar();
+
+        long[] todas = Arrays.stream(latencias).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%-26s p50 %7.1f µs  p99 %7.1f µs  p99.9 %8.1f µs  (%d operações, %d threads)%n",
+                cenario, percentil(todas, 0.50), percentil(todas, 0.99), percentil(todas, 0.999),
+                todas.length, THREADS);
+        assertTrue(todas.length > 0);
+    }
+
+    private static double percentil(long[] ordenadas, double p) {
+        return ordenadas[(int) Math.min(ordenadas.length - 1, Math.round(p * ordenadas.length))] / 1000.0;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.projeto_test.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DiarioPixTest {
+
+    private static final Instant AGORA = Instant.parse("2025-01-01T12:00:00Z");
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void testReinicioRecuperaAsTransacoes() {
+        TransacoesPix transacoes = abrir(AGORA, 1000);
+        TransacoesPix.Transacao pendente = transacoes.criar(new BigDecimal("19.90"));
+        TransacoesPix.Transacao paga = transacoes.criar(new BigDecimal("7.50"));
+        transacoes.confirmar(paga.id());
+        transacoes.encerrar();
+
+        transacoes = abrir(AGORA.plusSeconds(30), 1000);
+        assertEquals(pendente, transacoes.buscar(pendente.id()).orElseThrow());
+        TransacoesPix.Transacao recuperada = transacoes.buscar(paga.id()).orElseThrow();
+        assertEquals(TransacoesPix.APROVADA, recuperada.status());
+        assertEquals(new BigDecimal("7.50"), recuperada.valor());
+        assertEquals(AGORA, recuperada.liquidadaEm());
+
+        // A transação recuperada continua podendo ser paga
+        assertEquals(TransacoesPix.APROVADA, transacoes.confirmar(pendente.id()).orElseThrow().status());
+        transacoes.encerrar();
+    }
+
+    @Test
+    void testPrazosVencidosDuranteAParada() {
+        TransacoesPix transacoes = abrir(AGORA, 1000);
+        TransacoesPix.Transacao pendente = transacoes.criar(BigDecimal.TEN);
+        TransacoesPix.Transacao paga = transacoes.criar(BigDecimal.ONE);
+        transacoes.confirmar(paga.id());
+        transacoes.encerrar();
+
+        // Reinicia 20 minutos depois: a pendente expira e a paga já passou do prazo de consulta
+        transacoes = abrir(AGORA.plus(Duration.ofMinutes(20)), 1000);
+        transacoes.expirarVencidas();
+        assertEquals(TransacoesPix.EXPIRADA, transacoes.buscar(pendente.id()).orElseThrow().status());
+        assertTrue(transacoes.buscar(paga.id()).isEmpty());
+        transacoes.encerrar();
+
+        transacoes = abrir(AGORA.plus(Duration.ofMinutes(20)), 1000);
+        assertEquals(TransacoesPix.EXPIRADA, transacoes.buscar(pendente.id()).orElseThrow().status());
+        assertTrue(transacoes.buscar(paga.id()).isEmpty());
+        transacoes.encerrar();
+    }
+
+    @Test
+    void testRegistroIncompletoNoFimECortado() throws IOException {
+        TransacoesPix transacoes = abrir(AGORA, 1000);
+        TransacoesPix.Transacao primeira = transacoes.criar(BigDecimal.ONE);
+        TransacoesPix.Transacao segunda = transacoes.criar(BigDecimal.ONE);
+        transacoes.encerrar();
+
+        // Queda no meio da gravação: o último registro fica pela metade
+        Path ultimo = diarios().get(diarios().size() - 1);
+        long tamanho = Files.size(ultimo);
+        try (FileChannel canal = FileChannel.open(ultimo, StandardOpenOption.WRITE)) {
+            canal.truncate(tamanho - 5);
+        }
+        Files.write(ultimo, new byte[] { 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        transacoes = abrir(AGORA, 1000);
+        assertTrue(transacoes.buscar(primeira.id()).isPresent());
+        assertTrue(transacoes.buscar(segunda.id()).isEmpty());
+        assertTrue(Files.size(ultimo) < tamanho - 5);
+        transacoes.encerrar();
+    }
+
+    @Test
+    void testCompactacaoGravaFotoEApagaDiariosAntigos() throws IOException {
+        TransacoesPix transacoes = abrir(AGORA, 5);
+        List<TransacoesPix.Transacao> criadas = Stream.generate(() -> transacoes.criar(BigDecimal.ONE))
+                .limit(8).toList();
+        transacoes.confirmar(criadas.get(0).id());
+
+        transacoes.compactarDiario();
+        assertTrue(Files.exists(diretorio.resolve(DiarioPix.SNAPSHOT)));
+        assertEquals(1, diarios().size());
+
+        TransacoesPix.Transacao depois = transacoes.criar(BigDecimal.TEN);
+        transacoes.encerrar();
+
+        TransacoesPix reaberta = abrir(AGORA, 5);
+        for (TransacoesPix.Transacao criada : criadas) {
+            assertTrue(reaberta.buscar(criada.id()).isPresent());
+        }
+        assertEquals(TransacoesPix.APROVADA, reaberta.buscar(criadas.get(0).id()).orElseThrow().status());
+        assertEquals(depois, reaberta.buscar(depois.id()).orElseThrow());
+        reaberta.encerrar();
+    }
+
+    @Test
+    void testDiretorioEmUsoNaoAbreDuasVezes() {
+        TransacoesPix transacoes = abrir(AGORA, 1000);
+        assertThrows(IllegalStateException.class, () -> DiarioPix.abrir(diretorio, Duration.ofMillis(5), 1000));
+        transacoes.encerrar();
+    }
+
+    private TransacoesPix abrir(Instant agora, int compactarApos) {
+        return new TransacoesPix(Duration.ofMinutes(15), Duration.ofMinutes(2), 100, Clock.fixed(agora, ZoneOffset.UTC),
+                DiarioPix.abrir(diretorio, Duration.ofMillis(5), compactarApos));
+    }
+
+    private List<Path> diarios() throws IOException {
+        try (Stream<Path> arquivos = Files.list(diretorio)) {
+            return arquivos.filter(a -> a.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EstatisticasVendasTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private ReciboRepository reciboRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ArquivoRecibos arquivoRecibos;
+
+    private EstatisticasVendas estatisticas;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        estatisticas = new EstatisticasVendas(reciboRepository, transactionManager, arquivoRecibos);
+    }
+
+    @Test
+    void testRegistrarSomaPorDiaHoraFormaTipoEItem() {
+        estatisticas.registrar(recibo(1L, 12, "PIX", "NORMAL", new Recibo.ItemCompra("Hambúrguer", 2, 1500)));
+        estatisticas.registrar(recibo(2L, 12, "DINHEIRO", "NORMAL", new Recibo.ItemCompra("Suco", 1, 700)));
+        estatisticas.registrar(recibo(3L, 18, "PIX", "PREFERENCIAL", new Recibo.ItemCompra("Hambúrguer", 1, 1500)));
+
+        EstatisticasVendas.Resumo resumo = estatisticas.resumo(DIA);
+
+        assertEquals(3, resumo.pedidos());
+        assertEquals(5200, resumo.receita());
+        assertEquals(new EstatisticasVendas.Totais(2, 3700), resumo.porHora().get(12));
+        assertEquals(new EstatisticasVendas.Totais(1, 1500), resumo.porHora().get(18));
+        assertEquals(new EstatisticasVendas.Totais(2, 4500), resumo.porFormaPagamento().get("PIX"));
+        assertEquals(new EstatisticasVendas.Totais(1, 1500), resumo.porTipoAtendimento().get("PREFERENCIAL"));
+        assertEquals(new EstatisticasVendas.TotaisItem(3, 4500), resumo.porItem().get("Hambúrguer"));
+        assertEquals(0, estatisticas.resumo(DIA.plusDays(1)).pedidos());
+    }
+
+    @Test
+    void testSubstituirERemover() {
+        Recibo recibo = recibo(1L, 12, "PIX", "NORMAL", new Recibo.ItemCompra("Hambúrguer", 1, 1500));
+        estatisticas.registrar(recibo);
+
+        EstatisticasVendas.Contribuicao antes = EstatisticasVendas.Contribuicao.de(recibo);
+        recibo.setFormaPagamento("CARTAO");
+        recibo.atualizarItens(List.of(new Recibo.ItemCompra("Suco", 2, 700)));
+        estatisticas.substituir(antes, recibo);
+
+        EstatisticasVendas.Resumo resumo = estatisticas.resumo(DIA);
+        assertEquals(1, resumo.pedidos());
+        assertEquals(1400, resumo.receita());
+        assertFalse(resumo.porFormaPagamento().containsKey("PIX"));
+        assertFalse(resumo.porItem().containsKey("Hambúrguer"));
+        assertEquals(new EstatisticasVendas.TotaisItem(2, 1400), resumo.porItem().get("Suco"));
+
+        estatisticas.remover(EstatisticasVendas.Contribuicao.de(recibo));
+        resumo = estatisticas.resumo(DIA);
+        assertEquals(0, resumo.pedidos());
+        assertEquals(0, resumo.receita());
+        assertTrue(resumo.porHora().isEmpty());
+    }
+
+    @Test
+    void testAlteracaoERemocaoSoContamDepoisDoCommit() {
+        Recibo recibo = recibo(1L, 12, "PIX", "NORMAL", new Recibo.ItemCompra("Hambúrguer", 1, 1500));
+        estatisticas.registrar(recibo);
+        EstatisticasVendas.Contribuicao antes = EstatisticasVendas.Contribuicao.de(recibo);
+
+        // Transação desfeita: os totais continuam iguais ao banco
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            recibo.atualizarItens(List.of(new Recibo.ItemCompra("Suco", 2, 700)));
+            estatisticas.substituir(antes, recibo);
+            estatisticas.remover(antes);
+            assertEquals(1500, estatisticas.resumo(DIA).receita());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1500, estatisticas.resumo(DIA).receita());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            estatisticas.substituir(antes, recibo);
+            assertEquals(1500, estatisticas.resumo(DIA).receita());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(1400, estatisticas.resumo(DIA).receita());
+    }
+
+    @Test
+    void testReconstruirLeATabelaEmPaginas() {
+        List<Recibo> primeiraPagina = new ArrayList<>();
+        for (long id = 600; id > 99; id--) {
+            primeiraPagina.add(recibo(id, 10, "PIX", "NORMAL", new Recibo.ItemCompra("Suco", 1, 100)));
+        }
+        List<Recibo> segundaPagina = new ArrayList<>();
+        for (long id = 100; id > 0; id--) {
+            segundaPagina.add(recibo(id, 10, "PIX", "NORMAL", new Recibo.ItemCompra("Suco", 1, 100)));
+        }
+        when(reciboRepository.findAllByOrderByIdDesc(any(Limit.class))).thenReturn(primeiraPagina);
+        when(reciboRepository.findByIdLessThanOrderByIdDesc(eq(101L), any(Limit.class))).thenReturn(segundaPagina);
+
+        estatisticas.reconstruir();
+
+        EstatisticasVendas.Resumo resumo = estatisticas.resumo(DIA);
+        assertEquals(600, resumo.pedidos());
+        assertEquals(60_000, resumo.receita());
+        assertEquals(new EstatisticasVendas.TotaisItem(600, 60_000), resumo.porItem().get("Suco"));
+    }
+
+    @Test
+    void testRegistrosConcorrentes() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                tarefas.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        estatisticas.registrar(recibo(null, i % 24, "PIX", "NORMAL",
+                                new Recibo.ItemCompra("Suco", 1, 100)));
+                    }
+                }));
+            }
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        EstatisticasVendas.Resumo resumo = estatisticas.resumo(DIA);
+        assertEquals(8000, resumo.pedidos());
+        assertEquals(800_000, resumo.receita());
+        assertEquals(24, resumo.porHora().size());
+    }
+
+    private static Recibo recibo(Long id, int hora, String formaPagamento, String tipoAtendimento,
+            Recibo.ItemCompra item) {
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(List.of(item), "", formaPagamento, tipoAtendimento);
+        recibo.setId(id);
+        recibo.setDataCriacao(LocalDateTime.of(DIA.getYear(), DIA.getMonth(), DIA.getDayOfMonth(), hora, 30));
+        return recibo;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventosReciboTest {
+
+    private final EventosRecibo eventos =
+            new EventosRecibo(new ObjectMapper().registerModule(new JavaTimeModule()), 3, 5, 60);
+
+    @AfterEach
+    void tearDown() {
+        eventos.encerrar();
+    }
+
+    @Test
+    void testEntregaEventosNaOrdem() throws Exception {
+        BlockingQueue<EventosRecibo.Evento> recebidos = new LinkedBlockingQueue<>();
+        eventos.inscrever(null, recebidos::add, () -> { });
+
+        eventos.publicar(EventosRecibo.CRIADO, recibo(1L));
+        eventos.publicar(EventosRecibo.REMOVIDO, recibo(1L));
+
+        EventosRecibo.Evento criado = recebidos.poll(5, TimeUnit.SECONDS);
+        EventosRecibo.Evento removido = recebidos.poll(5, TimeUnit.SECONDS);
+        assertEquals(EventosRecibo.CRIADO, criado.tipo());
+        assertTrue(criado.dados().contains("\"id\":1"));
+        assertEquals(EventosRecibo.REMOVIDO, removido.tipo());
+        assertEquals(criado.id() + 1, removido.id());
+    }
+
+    @Test
+    void testReconexaoRecebeSoOQuePerdeu() throws Exception {
+        BlockingQueue<EventosRecibo.Evento> primeira = new LinkedBlockingQueue<>();
+        EventosRecibo.Assinante assinante = eventos.inscrever(null, primeira::add, () -> { });
+        eventos.publicar(EventosRecibo.CRIADO, recibo(1L));
+        long ultimoRecebido = primeira.poll(5, TimeUnit.SECONDS).id();
+        eventos.cancelar(assinante);
+
+        eventos.publicar(EventosRecibo.CRIADO, recibo(2L));
+        eventos.publicar(EventosRecibo.CRIADO, recibo(3L));
+
+        BlockingQueue<EventosRecibo.Evento> segunda = new LinkedBlockingQueue<>();
+        eventos.inscrever(ultimoRecebido, segunda::add, () -> { });
+        eventos.publicar(EventosRecibo.CRIADO, recibo(4L));
+
+        for (long id = 2; id <= 4; id++) {
+            EventosRecibo.Evento evento = segunda.poll(5, TimeUnit.SECONDS);
+            assertEquals(ultimoRecebido + id - 1, evento.id());
+            assertTrue(evento.dados().contains("\"id\":" + id));
+        }
+        assertNull(segunda.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void testReconexaoForaDoHistoricoPedeRecarregar() throws Exception {
+        BlockingQueue<EventosRecibo.Evento> primeira = new LinkedBlockingQueue<>();
+        EventosRecibo.Assinante assinante = eventos.inscrever(null, primeira::add, () -> { });
+        eventos.publicar(EventosRecibo.CRIADO, recibo(1L));
+        long ultimoRecebido = primeira.poll(5, TimeUnit.SECONDS).id();
+        eventos.cancelar(assinante);
+
+        // O histórico guarda só 3 eventos
+        for (long id = 2; id <= 5; id++) {
+            eventos.publicar(EventosRecibo.CRIADO, recibo(id));
+        }
+
+        BlockingQueue<EventosRecibo.Evento> segunda = new LinkedBlockingQueue<>();
+        eventos.inscrever(ultimoRecebido, segunda::add, () -> { });
+        EventosRecibo.Evento evento = segunda.poll(5, TimeUnit.SECONDS);
+        assertEquals(EventosRecibo.RECARREGAR, evento.tipo());
+        assertEquals(ultimoRecebido + 4, evento.id());
+    }
+
+    @Test
+    void testAssinanteLentoNaoAtrasaPublicacaoENemOsOutros() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch desligado = new CountDownLatch(1);
+        eventos.inscrever(null, evento -> liberar.await(), desligado::countDown);
+        BlockingQueue<EventosRecibo.Evento> rapido = new LinkedBlockingQueue<>();
+        eventos.inscrever(null, rapido::add, () -> { });
+
+        long inicio = System.nanoTime();
+        for (long id = 1; id <= 10; id++) {
+            eventos.publicar(EventosRecibo.CRIADO, recibo(id));
+            assertNotNull(rapido.poll(5, TimeUnit.SECONDS));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 5_000);
+
+        // Passou do limite de 5 eventos pendentes: a conexão lenta é encerrada
+        assertTrue(desligado.await(5, TimeUnit.SECONDS));
+        assertEquals(1, eventos.getAssinantes());
+        liberar.countDown();
+    }
+
+    private static Recibo recibo(Long id) {
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(List.of(new Recibo.ItemCompra("Suco", 1, 700)), "", "PIX", "NORMAL");
+        recibo.setId(id);
+        return recibo;
+    }
+}
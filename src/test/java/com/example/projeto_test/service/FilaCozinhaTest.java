@@ -0,0 +1,199 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FilaCozinhaTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2025, 1, 1, 12, 0);
+
+    private final ReciboRepository reciboRepository = mock(ReciboRepository.class);
+
+    private RelogioAjustavel relogio;
+
+    private FilaCozinha fila;
+
+    @BeforeEach
+    void setUp() {
+        relogio = new RelogioAjustavel(INICIO.toLocalDate());
+        fila = new FilaCozinha(reciboRepository, relogio);
+    }
+
+    @Test
+    void testPreferenciaisPrimeiroDepoisOMaisAntigo() {
+        fila.receber(recibo(1L, "NORMAL", 0));
+        fila.receber(recibo(2L, "NORMAL", 1));
+        fila.receber(recibo(3L, "PREFERENCIAL", 3));
+        fila.receber(recibo(4L, "PREFERENCIAL", 2));
+
+        assertEquals(List.of(4L, 3L, 1L, 2L), fila.listar().stream().map(FilaCozinha.Pedido::reciboId).toList());
+        assertEquals(4L, fila.pegarProximo("t1").orElseThrow().reciboId());
+        assertEquals(3L, fila.pegarProximo("t1").orElseThrow().reciboId());
+        assertEquals(1L, fila.pegarProximo("t2").orElseThrow().reciboId());
+        assertEquals(2L, fila.pegarProximo("t2").orElseThrow().reciboId());
+        assertEquals(Optional.empty(), fila.pegarProximo("t1"));
+    }
+
+    @Test
+    void testTransicoesDeEstado() {
+        fila.receber(recibo(1L, "NORMAL", 0));
+
+        FilaCozinha.Pedido emPreparo = fila.pegarProximo("t1").orElseThrow();
+        assertEquals(FilaCozinha.Estado.EM_PREPARO, emPreparo.estado());
+        assertEquals("t1", emPreparo.estacao());
+        assertThrows(IllegalStateException.class, () -> fila.entregar(1L));
+
+        assertEquals(FilaCozinha.Estado.PRONTO, fila.marcarPronto(1L).estado());
+        assertThrows(IllegalStateException.class, () -> fila.marcarPronto(1L));
+
+        assertEquals(FilaCozinha.Estado.ENTREGUE, fila.entregar(1L).estado());
+        assertTrue(fila.listar().isEmpty());
+        assertThrows(RuntimeException.class, () -> fila.marcarPronto(1L));
+    }
+
+    @Test
+    void testRemoverEAtualizar() {
+        fila.receber(recibo(1L, "NORMAL", 0));
+        fila.receber(recibo(2L, "NORMAL", 1));
+
+        Recibo alterado = recibo(2L, "NORMAL", 1);
+        alterado.setObservacoes("sem gelo");
+        fila.atualizar(alterado);
+        fila.remover(List.of(1L));
+
+        assertEquals(1, fila.getAguardando());
+        FilaCozinha.Pedido pedido = fila.pegarProximo(null).orElseThrow();
+        assertEquals(2L, pedido.reciboId());
+        assertEquals("sem gelo", pedido.observacoes());
+        assertEquals(Optional.empty(), fila.buscar(1L));
+    }
+
+    @Test
+    void testReinicioRecolocaOsPedidosDoDia() {
+        when(reciboRepository.findRecibosDoDiaComItens(INICIO.toLocalDate()))
+                .thenReturn(List.of(recibo(1L, "NORMAL", 0), recibo(2L, "PREFERENCIAL", 1)));
+
+        fila.reconstruir();
+
+        assertEquals(List.of(2L, 1L), fila.listar().stream().map(FilaCozinha.Pedido::reciboId).toList());
+        assertTrue(fila.listar().stream().allMatch(p -> p.estado() == FilaCozinha.Estado.RECEBIDO));
+        assertEquals(2L, fila.pegarProximo("t1").orElseThrow().reciboId());
+    }
+
+    @Test
+    void testViradaDoDiaTiraOsPedidosNaoEntregues() {
+        fila.receber(recibo(1L, "NORMAL", 0));
+        fila.receber(recibo(2L, "NORMAL", 1));
+        fila.pegarProximo("t1");
+
+        relogio.dia = INICIO.toLocalDate().plusDays(1);
+        fila.receber(recibo(3L, "NORMAL", 24 * 60));
+
+        assertEquals(List.of(3L), fila.listar().stream().map(FilaCozinha.Pedido::reciboId).toList());
+        assertEquals(1, fila.getAguardando());
+        assertEquals(Optional.empty(), fila.buscar(1L));
+        assertThrows(RuntimeException.class, () -> fila.marcarPronto(1L));
+
+        // Um recibo de ontem que chegue atrasado não entra mais
+        fila.receber(recibo(4L, "NORMAL", 2));
+        assertEquals(Optional.empty(), fila.buscar(4L));
+    }
+
+    @Test
+    void testTabletsSimultaneosPegamCadaPedidoUmaVez() throws Exception {
+        int pedidos = 2000;
+        for (long id = 1; id <= pedidos; id++) {
+            fila.receber(recibo(id, id % 10 == 0 ? "PREFERENCIAL" : "NORMAL", (int) id));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Long> pegos = ConcurrentHashMap.newKeySet();
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> tablets = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                String estacao = "t" + t;
+                tablets.add(executor.submit(() -> {
+                    largada.await();
+                    int meus = 0;
+                    Optional<FilaCozinha.Pedido> pedido;
+                    while ((pedido = fila.pegarProximo(estacao)).isPresent()) {
+                        assertTrue(pegos.add(pedido.get().reciboId()));
+                        fila.marcarPronto(pedido.get().reciboId());
+                        meus++;
+                    }
+                    return meus;
+                }));
+            }
+            largada.countDown();
+            int total = 0;
+            for (Future<Integer> tablet : tablets) {
+                total += tablet.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(pedidos, total);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(pedidos, pegos.size());
+        assertEquals(0, fila.getAguardando());
+        assertTrue(fila.listar().stream().allMatch(p -> p.estado() == FilaCozinha.Estado.PRONTO));
+    }
+
+    private static Recibo recibo(Long id, String tipoAtendimento, int minutos) {
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(List.of(new Recibo.ItemCompra("Suco", 1, 700)), "", "PIX", tipoAtendimento);
+        recibo.setId(id);
+        recibo.setNumeroChamada(String.format("%04d", id));
+        recibo.setDataCriacao(INICIO.plusMinutes(minutos));
+        return recibo;
+    }
+
+    /** Relógio cujo dia pode ser trocado durante o teste */
+    private static final class RelogioAjustavel extends Clock {
+
+        private volatile LocalDate dia;
+
+        private RelogioAjustavel(LocalDate dia) {
+            this.dia = dia;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return dia.atTime(12, 0).toInstant(ZoneOffset.UTC);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GravadorRecibosEmLoteTest {
+
+    private final ReciboRepository reciboRepository = mock(ReciboRepository.class);
+
+    private final GravadorRecibosEmLote gravador = new GravadorRecibosEmLote(reciboRepository,
+            mock(PlatformTransactionManager.class), true, 8, 1);
+
+    @Test
+    void testEncerrarComChamadoresNaFilaNaoDeixaNinguemEsperando() throws Exception {
+        when(reciboRepository.saveAll(anyList())).thenAnswer(chamada -> chamada.getArgument(0));
+        gravador.iniciar();
+
+        AtomicInteger salvos = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> totens = new ArrayList<>();
+        try {
+            for (int i = 0; i < 8; i++) {
+                totens.add(executor.submit(() -> {
+                    // Salva até o gravador recusar: alguns recibos entram na fila durante o encerramento
+                    while (true) {
+                        try {
+                            gravador.salvar(new Recibo());
+                            salvos.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            return;
+                        }
+                    }
+                }));
+            }
+            Thread.sleep(50);
+            gravador.encerrar();
+
+            for (Future<?> totem : totens) {
+                totem.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(salvos.get() > 0);
+    }
+
+    @Test
+    void testErroFatalNaThreadDeFundoFalhaOsChamadores() throws Exception {
+        when(reciboRepository.saveAll(anyList())).thenThrow(new AssertionError("thread de fundo morreu"));
+        gravador.iniciar();
+        try {
+            IllegalStateException erro = assertThrows(IllegalStateException.class,
+                    () -> gravador.salvar(new Recibo()));
+            assertEquals("Gravação em grupo encerrada", erro.getMessage());
+            assertThrows(IllegalStateException.class, () -> gravador.salvar(new Recibo()));
+        } finally {
+            gravador.encerrar();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceBuscaTest {
+
+    private Product sanduiche;
+    private Product sucoLaranja;
+    private Product pastel;
+    private Product coca;
+
+    private IndiceBusca indice;
+
+    @BeforeEach
+    void setUp() {
+        sanduiche = product(1L, "Sanduíche Natural");
+        sucoLaranja = product(2L, "Suco de Laranja");
+        pastel = product(3L, "Pastel de Queijo");
+        coca = product(4L, "Coca-Cola 350ml");
+        indice = IndiceBusca.construir(List.of(sanduiche, sucoLaranja, pastel, coca));
+    }
+
+    @Test
+    void testIgnoraAcentosEMaiusculas() {
+        assertEquals(List.of(sanduiche), indice.buscar("SANDUICHE", 10));
+        assertEquals(List.of(sanduiche), indice.buscar("sanduíche", 10));
+        assertEquals("coca cola 350ml", IndiceBusca.normalizar("Coca-Cola 350ml"));
+    }
+
+    @Test
+    void testPrefixoETrecho() {
+        assertEquals(List.of(sanduiche), indice.buscar("san", 10));
+        assertEquals(List.of(sucoLaranja), indice.buscar("ranja", 10));
+        assertEquals(List.of(sucoLaranja, pastel), indice.buscar("de", 10));
+    }
+
+    @Test
+    void testToleraErrosDeDigitacao() {
+        assertEquals(List.of(sanduiche), indice.buscar("sanduixe", 10));
+        assertEquals(List.of(pastel), indice.buscar("qeijo", 10));
+        assertEquals(List.of(coca), indice.buscar("coka", 10));
+        assertTrue(indice.buscar("xyzwq", 10).isEmpty());
+    }
+
+    @Test
+    void testTodosOsTermosPrecisamCasar() {
+        assertEquals(List.of(pastel), indice.buscar("pastel queijo", 10));
+        assertTrue(indice.buscar("pastel laranja", 10).isEmpty());
+        assertTrue(indice.buscar("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testCorrespondenciaExataVemPrimeiro() {
+        Product suco = product(5L, "Sucos Naturais");
+        IndiceBusca comSucos = indice.comProduto(suco);
+
+        assertEquals(List.of(sucoLaranja, suco), comSucos.buscar("suco", 10));
+        assertEquals(List.of(sucoLaranja), comSucos.buscar("suco", 1));
+    }
+
+    @Test
+    void testAlteracoesIncrementaisNaoAfetamIndiceAnterior() {
+        Product pastelCarne = product(3L, "Pastel de Carne");
+        IndiceBusca alterado = indice.comProduto(pastelCarne).semProduto(1L);
+
+        assertEquals(List.of(pastelCarne), alterado.buscar("carne", 10));
+        assertTrue(alterado.buscar("queijo", 10).isEmpty());
+        assertTrue(alterado.buscar("sanduiche", 10).isEmpty());
+        assertEquals(List.of(pastel), indice.buscar("queijo", 10));
+        assertEquals(List.of(sanduiche), indice.buscar("sanduiche", 10));
+    }
+
+    private static Product product(Long id, String name) {
+        Product product = new Product(name, 1000);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Filter;
+import com.example.projeto_test.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceFiltrosTest {
+
+    private Filter vegano;
+    private Filter semGluten;
+    private Filter bebida;
+
+    private Product salada;
+    private Product suco;
+    private Product hamburguer;
+
+    @BeforeEach
+    void setUp() {
+        vegano = filter(1L, "Vegano");
+        semGluten = filter(2L, "Sem Glúten");
+        bebida = filter(3L, "Bebida");
+
+        salada = product(1L, "Salada", vegano, semGluten);
+        suco = product(2L, "Suco", vegano, semGluten, bebida);
+        hamburguer = product(3L, "Hambúrguer");
+    }
+
+    @Test
+    void testConsultarTodosOsFiltros() {
+        IndiceFiltros indice = IndiceFiltros.construir(List.of(salada, suco, hamburguer));
+
+        assertEquals(List.of(salada, suco), indice.consultar(List.of(1L, 2L), true));
+        assertEquals(List.of(suco), indice.consultar(List.of(1L, 3L), true));
+        assertTrue(indice.consultar(List.of(1L, 99L), true).isEmpty());
+    }
+
+    @Test
+    void testConsultarQualquerFiltro() {
+        IndiceFiltros indice = IndiceFiltros.construir(List.of(salada, suco, hamburguer));
+
+        assertEquals(List.of(suco), indice.consultar(List.of(3L, 99L), false));
+        assertEquals(List.of(salada, suco), indice.consultar(List.of(2L, 3L), false));
+    }
+
+    @Test
+    void testAlteracoesIncrementaisNaoAfetamIndiceAnterior() {
+        IndiceFiltros original = IndiceFiltros.construir(List.of(salada, suco));
+
+        Product saladaSemVegano = product(1L, "Salada", semGluten);
+        IndiceFiltros alterado = original
+                .comProduto(saladaSemVegano)
+                .comProduto(product(3L, "Hambúrguer Vegano", vegano))
+                .semProduto(2L);
+
+        assertEquals(List.of("Hambúrguer Vegano"),
+                alterado.consultar(List.of(1L), true).stream().map(Product::getName).toList());
+        assertEquals(List.of(saladaSemVegano), alterado.consultar(List.of(2L), true));
+        assertEquals(List.of(salada, suco), original.consultar(List.of(1L), true));
+    }
+
+    @Test
+    void testCompactaAposMuitasRemocoes() {
+        List<Product> produtos = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            produtos.add(product(id, "Produto " + id, id % 2 == 0 ? vegano : bebida));
+        }
+        IndiceFiltros indice = IndiceFiltros.construir(produtos);
+        for (long id = 1; id <= 150; id++) {
+            indice = indice.semProduto(id);
+        }
+
+        List<Product> veganos = indice.consultar(List.of(1L), true);
+        assertEquals(25, veganos.size());
+        assertEquals(152L, veganos.get(0).getId());
+        assertEquals(200L, veganos.get(24).getId());
+    }
+
+    private static Filter filter(Long id, String name) {
+        Filter filter = new Filter(name);
+        filter.setId(id);
+        return filter;
+    }
+
+    private static Product product(Long id, String name, Filter... filters) {
+        Product product = new Product(name, 1000);
+        product.setId(id);
+        product.setFilters(Set.of(filters));
+        return product;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.projeto_test.service;
+
+import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.repository.ReciboRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PainelChamadasTest {
+
+    private static final LocalDate DIA = LocalDate.of(2025, 1, 1);
+
+    private FilaCozinha fila;
+
+    private PainelChamadas painel;
+
+    @BeforeEach
+    void setUp() {
+        Clock relogio = Clock.fixed(DIA.atTime(12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        fila = new FilaCozinha(mock(ReciboRepository.class), relogio);
+        painel = new PainelChamadas(fila, relogio);
+    }
+
+    @Test
+    void testPainelMostraEmPreparoEProntosDoDia() {
+        fila.receber(recibo(1L, "0001", DIA));
+        fila.receber(recibo(2L, "0002", DIA));
+        fila.receber(recibo(3L, "0099", DIA.minusDays(1)));
+
+        fila.pegarProximo("t1");
+        fila.marcarPronto(1L);
+
+        PainelChamadas.Painel atual = painel.getPainel();
+        assertEquals(List.of("0002"), atual.emPreparo());
+        assertEquals(List.of("0001"), atual.prontos());
+        assertEquals(Optional.of(FilaCozinha.Estado.PRONTO), painel.estado("0001"));
+        assertEquals(Optional.of(FilaCozinha.Estado.RECEBIDO), painel.estado("0002"));
+        assertEquals(Optional.empty(), painel.estado("0099"));
+
+        fila.entregar(1L);
+        assertTrue(painel.getPainel().prontos().isEmpty());
+        assertEquals(Optional.empty(), painel.estado("0001"));
+    }
+
+    @Test
+    void testVersaoSoMudaQuandoOPainelMuda() {
+        fila.receber(recibo(1L, "0001", DIA));
+        long versao = painel.getPainel().versao();
+
+        Recibo alterado = recibo(1L, "0001", DIA);
+        alterado.setObservacoes("sem gelo");
+        fila.atualizar(alterado);
+        assertEquals(versao, painel.getPainel().versao());
+
+        fila.pegarProximo("t1");
+        assertTrue(painel.getPainel().versao() > versao);
+    }
+
+    @Test
+    void testEsperaAcordaNaMudanca() {
+        fila.receber(recibo(1L, "0001", DIA));
+        PainelChamadas.Painel inicial = painel.getPainel();
+
+        List<PainelChamadas.Painel> recebidos = new ArrayList<>();
+        painel.aguardar(inicial.versao(), recebidos::add);
+        assertTrue(recebidos.isEmpty());
+        assertEquals(1, painel.getAguardando());
+
+        fila.pegarProximo("t1");
+        fila.marcarPronto(1L);
+
+        assertEquals(1, recebidos.size());
+        assertNotEquals(inicial.versao(), recebidos.get(0).versao());
+        assertEquals(0, painel.getAguardando());
+
+        // Versão desatualizada: responde na hora
+        painel.aguardar(inicial.versao(), recebidos::add);
+        assertEquals(List.of("0001"), recebidos.get(1).prontos());
+    }
+
+    @Test
+    void testDesistirDaEspera() {
+        Runnable desistir = painel.aguardar(painel.getPainel().versao(), p -> fail("Não deveria ser avisado"));
+        desistir.run();
+
+        fila.receber(recibo(1L, "0001", DIA));
+        assertEquals(0, painel.getAguardando());
+    }
+
+    private static Recibo recibo(Long id, String numero, LocalDate dia) {
+        Recibo recibo = new Recibo();
+        recibo.gerarRecibo(List.of(new Recibo.ItemCompra("Suco", 1, 700)), "", "PIX", "NORMAL");
+        recibo.setId(id);
+        recibo.setNumeroChamada(numero);
+        recibo.setDataChamada(dia);
+        return recibo;
+    }
+}
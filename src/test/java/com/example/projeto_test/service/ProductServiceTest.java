@@ -1,6 +1,8 @@
 package com.example.projeto_test.service;
 
+import com.example.projeto_test.model.Filter;
 import com.example.projeto_test.model.Product;
+import com.example.projeto_test.repository.FilterRepository;
 import com.example.projeto_test.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,6 +14,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -23,6 +26,9 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private FilterRepository filterRepository;
+
     @InjectMocks
     private ProductService productService;
 
@@ -55,11 +61,53 @@ class ProductServiceTest {
         verify(productRepository, times(1)).save(newProduct);
     }
 
+    @Test
+    void testCreateProductResolvesFiltersInOneQueryAndCachesThem() {
+        Filter vegano = new Filter("Vegano");
+        vegano.setId(1L);
+        Filter bebida = new Filter("Bebida");
+        bebida.setId(2L);
+        when(filterRepository.findAllById(any())).thenReturn(List.of(vegano, bebida));
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Product suco = new Product("Suco", 700);
+        suco.setFilters(Set.of(filterRef(1L), filterRef(2L)));
+        Product result = productService.createProduct(suco);
+
+        assertEquals(2, result.getFilters().size());
+        assertTrue(result.getFilters().contains(vegano));
+        assertTrue(result.getFilters().contains(bebida));
+
+        Product cha = new Product("Chá", 500);
+        cha.setFilters(Set.of(filterRef(2L)));
+        productService.createProduct(cha);
+
+        assertTrue(cha.getFilters().contains(bebida));
+        verify(filterRepository, times(1)).findAllById(any());
+        verify(filterRepository, never()).findById(any());
+    }
+
+    @Test
+    void testCreateProductReportsAllMissingFilters() {
+        Filter vegano = new Filter("Vegano");
+        vegano.setId(1L);
+        when(filterRepository.findAllById(any())).thenReturn(List.of(vegano));
+
+        Product product = new Product("Suco", 700);
+        product.setFilters(Set.of(filterRef(1L), filterRef(7L), filterRef(9L)));
+
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> productService.createProduct(product));
+
+        assertTrue(ex.getMessage().contains("7"));
+        assertTrue(ex.getMessage().contains("9"));
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
     @Test
     void testGetAllProducts() {
         List<Product> products = Arrays.asList(product1, product2);
 
-        when(productRepository.findAll()).thenReturn(products);
+        when(productRepository.findAllWithFilters()).thenReturn(products);
 
         List<Product> result = productService.getAllProducts();
 
@@ -67,12 +115,50 @@ class ProductServiceTest {
         assertEquals(2, result.size());
         assertEquals("Hambúrguer", result.get(0).getName());
         assertEquals("Refrigerante", result.get(1).getName());
-        verify(productRepository, times(1)).findAll();
+        verify(productRepository, times(1)).findAllWithFilters();
+    }
+
+    @Test
+    void testGetAllProductsServedFromSnapshot() {
+        when(productRepository.findAllWithFilters()).thenReturn(Arrays.asList(product1, product2));
+
+        List<Product> first = productService.getAllProducts();
+        List<Product> second = productService.getAllProducts();
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> second.add(product1));
+        verify(productRepository, times(1)).findAllWithFilters();
+    }
+
+    @Test
+    void testSnapshotRebuiltOnCreateUpdateAndDelete() {
+        when(productRepository.findAllWithFilters()).thenReturn(Arrays.asList(product1, product2));
+        productService.getAllProducts();
+
+        Product created = new Product("Batata Frita", 800);
+        created.setId(3L);
+        when(productRepository.save(any(Product.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        productService.createProduct(created);
+        assertEquals(3, productService.getAllProducts().size());
+
+        Product existing = new Product("Hambúrguer", 1500);
+        existing.setId(1L);
+        when(productRepository.findWithFiltersById(1L)).thenReturn(Optional.of(existing));
+        productService.updateProduct(1L, new Product("Hambúrguer Grande", 2000));
+        assertEquals("Hambúrguer Grande", productService.getAllProducts().get(0).getName());
+
+        when(productRepository.existsById(2L)).thenReturn(true);
+        productService.deleteProduct(2L);
+        List<Product> result = productService.getAllProducts();
+        assertEquals(2, result.size());
+        assertTrue(result.stream().noneMatch(p -> p.getId().equals(2L)));
+
+        verify(productRepository, times(1)).findAllWithFilters();
     }
 
     @Test
     void testGetProductById() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product1));
+        when(productRepository.findWithFiltersById(1L)).thenReturn(Optional.of(product1));
 
         Product result = productService.getProductById(1L);
 
@@ -80,18 +166,18 @@ class ProductServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("Hambúrguer", result.getName());
         assertEquals(1500, result.getPriceInCents());
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findWithFiltersById(1L);
     }
 
     @Test
     void testGetProductByIdNotFound() {
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.findWithFiltersById(999L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> {
             productService.getProductById(999L);
         });
 
-        verify(productRepository, times(1)).findById(999L);
+        verify(productRepository, times(1)).findWithFiltersById(999L);
     }
 
     @Test
@@ -100,7 +186,7 @@ class ProductServiceTest {
         Product existingProduct = new Product("Hambúrguer", 1500);
         existingProduct.setId(1L);
 
-        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.findWithFiltersById(1L)).thenReturn(Optional.of(existingProduct));
         when(productRepository.save(any(Product.class))).thenAnswer(invocation -> {
             Product p = invocation.getArgument(0);
             return p;
@@ -112,7 +198,7 @@ class ProductServiceTest {
         assertEquals(1L, result.getId());
         assertEquals("Hambúrguer Grande", result.getName());
         assertEquals(2000, result.getPriceInCents());
-        verify(productRepository, times(1)).findById(1L);
+        verify(productRepository, times(1)).findWithFiltersById(1L);
         verify(productRepository, times(1)).save(any(Product.class));
     }
 
@@ -120,13 +206,13 @@ class ProductServiceTest {
     void testUpdateProductNotFound() {
         Product updatedDetails = new Product("Hambúrguer Grande", 2000);
 
-        when(productRepository.findById(999L)).thenReturn(Optional.empty());
+        when(productRepository.findWithFiltersById(999L)).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> {
             productService.updateProduct(999L, updatedDetails);
         });
 
-        verify(productRepository, times(1)).findById(999L);
+        verify(productRepository, times(1)).findWithFiltersById(999L);
         verify(productRepository, never()).save(any(Product.class));
     }
 
@@ -152,4 +238,10 @@ class ProductServiceTest {
         verify(productRepository, times(1)).existsById(999L);
         verify(productRepository, never()).deleteById(any());
     }
+
+    private static Filter filterRef(Long id) {
+        Filter filter = new Filter();
+        filter.setId(id);
+        return filter;
+    }
 }
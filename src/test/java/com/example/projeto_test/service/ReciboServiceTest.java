@@ -1,6 +1,8 @@
 package com.example.projeto_test.service;
 
 import com.example.projeto_test.model.Recibo;
+import com.example.projeto_test.model.ReciboRemovido;
+import com.example.projeto_test.repository.ReciboRemovidoRepository;
 import com.example.projeto_test.repository.ReciboRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,6 +12,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -24,9 +27,38 @@ class ReciboServiceTest {
     @Mock
     private ReciboRepository reciboRepository;
 
+    @Mock
+    private AlocadorNumeroChamada alocadorNumeroChamada;
+
+    @Mock
+    private GravadorRecibosEmLote gravadorEmLote;
+
+    @Mock
+    private EstatisticasVendas estatisticasVendas;
+
+    @Mock
+    private EventosRecibo eventosRecibo;
+
+    @Mock
+    private VersoesRecibo versoesRecibo;
+
+    @Mock
+    private ReciboRemovidoRepository reciboRemovidoRepository;
+
+    @Mock
+    private ArquivoRecibos arquivoRecibos;
+
+    @Mock
+    private LimpezaRecibos limpezaRecibos;
+
+    @Mock
+    private FilaCozinha filaCozinha;
+
     @InjectMocks
     private ReciboService reciboService;
 
+    private static final LocalDate HOJE = LocalDate.of(2025, 1, 1);
+
     private List<Recibo.ItemCompra> itens;
 
     @BeforeEach
@@ -35,6 +67,8 @@ class ReciboServiceTest {
                 new Recibo.ItemCompra("Hambúrguer", 1, 1500),
                 new Recibo.ItemCompra("Refrigerante", 1, 500)
         );
+        lenient().when(alocadorNumeroChamada.alocar())
+                .thenReturn(new AlocadorNumeroChamada.NumeroChamada(HOJE, "0042"));
     }
 
     @Test
@@ -61,6 +95,9 @@ class ReciboServiceTest {
         assertEquals("NORMAL", result.getTipoAtendimento());
         assertEquals(2, result.getItens().size());
         verify(reciboRepository, times(1)).save(any(Recibo.class));
+        verify(estatisticasVendas, times(1)).registrar(result);
+        verify(eventosRecibo, times(1)).publicar(EventosRecibo.CRIADO, result);
+        verify(filaCozinha, times(1)).receber(result);
     }
 
     @Test
@@ -178,34 +215,106 @@ class ReciboServiceTest {
         recibo.setNumeroChamada("1234");
         recibo.setTotal(2000);
 
-        when(reciboRepository.findByNumeroChamada("1234")).thenReturn(Optional.of(recibo));
+        when(reciboRepository.findFirstByNumeroChamadaOrderByIdDesc("1234")).thenReturn(Optional.of(recibo));
 
         Recibo result = reciboService.getReciboByNumeroChamada("1234");
 
         assertNotNull(result);
         assertEquals(1L, result.getId());
         assertEquals("1234", result.getNumeroChamada());
-        verify(reciboRepository, times(1)).findByNumeroChamada("1234");
+        verify(reciboRepository, times(1)).findFirstByNumeroChamadaOrderByIdDesc("1234");
     }
 
     @Test
     void testGetReciboByNumeroChamadaNotFound() {
-        when(reciboRepository.findByNumeroChamada("9999")).thenReturn(Optional.empty());
+        when(reciboRepository.findFirstByNumeroChamadaOrderByIdDesc("9999")).thenReturn(Optional.empty());
 
         assertThrows(RuntimeException.class, () -> {
             reciboService.getReciboByNumeroChamada("9999");
         });
 
-        verify(reciboRepository, times(1)).findByNumeroChamada("9999");
+        verify(reciboRepository, times(1)).findFirstByNumeroChamadaOrderByIdDesc("9999");
     }
 
     @Test
-    void testDeleteAllRecibos() {
-        doNothing().when(reciboRepository).deleteAll();
+    void testCreateReciboUsesAllocatedNumber() {
+        when(reciboRepository.save(any(Recibo.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        Recibo result = reciboService.createRecibo(itens, "", "PIX");
+
+        assertEquals("0042", result.getNumeroChamada());
+        assertEquals(HOJE, result.getDataChamada());
+        verify(alocadorNumeroChamada, never()).liberar(any(), any());
+    }
+
+    @Test
+    void testCreateReciboGroupCommit() {
+        when(gravadorEmLote.isHabilitado()).thenReturn(true);
+        when(gravadorEmLote.salvar(any(Recibo.class))).thenAnswer(invocation -> {
+            Recibo r = invocation.getArgument(0);
+            r.setId(7L);
+            return r;
+        });
+
+        Recibo result = reciboService.createRecibo(itens, "", "PIX");
+
+        assertEquals(7L, result.getId());
+        verify(reciboRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateReciboReleasesNumberWhenSaveFails() {
+        when(reciboRepository.save(any(Recibo.class))).thenThrow(new IllegalStateException("falha no banco"));
+
+        assertThrows(IllegalStateException.class, () -> reciboService.createRecibo(itens, "", "PIX"));
+
+        verify(alocadorNumeroChamada, times(1)).liberar(HOJE, "0042");
+        verify(estatisticasVendas, never()).registrar(any(Recibo.class));
+    }
+
+    @Test
+    void testUpdateReciboAtualizaEstatisticas() {
+        Recibo recibo = new Recibo();
+        recibo.setId(1L);
+        recibo.gerarRecibo(itens, "", "PIX", "NORMAL");
+        when(reciboRepository.findById(1L)).thenReturn(Optional.of(recibo));
+        when(reciboRepository.save(recibo)).thenReturn(recibo);
+        Recibo novosDados = new Recibo();
+        novosDados.setItens(List.of(new Recibo.ItemCompra("Hambúrguer", 2, 1500)));
 
+        reciboService.updateRecibo(1L, novosDados);
+
+        ArgumentCaptor<EstatisticasVendas.Contribuicao> antes =
+                ArgumentCaptor.forClass(EstatisticasVendas.Contribuicao.class);
+        verify(estatisticasVendas, times(1)).substituir(antes.capture(), eq(recibo));
+        assertEquals(2000, antes.getValue().total());
+        assertEquals(3000, recibo.getTotal());
+    }
+
+    @Test
+    void testDeleteReciboReleasesNumber() {
+        Recibo recibo = new Recibo();
+        recibo.setId(1L);
+        recibo.setNumeroChamada("0007");
+        recibo.setDataChamada(HOJE);
+        when(reciboRepository.findById(1L)).thenReturn(Optional.of(recibo));
+
+        reciboService.deleteRecibo(1L);
+
+        verify(reciboRepository, times(1)).delete(recibo);
+        verify(alocadorNumeroChamada, times(1)).liberar(HOJE, "0007");
+        verify(estatisticasVendas, times(1)).remover(any(EstatisticasVendas.Contribuicao.class));
+        verify(eventosRecibo, times(1)).publicar(EventosRecibo.REMOVIDO, recibo);
+        verify(filaCozinha, times(1)).remover(List.of(recibo.getId()));
+        verify(reciboRemovidoRepository, times(1)).save(any(ReciboRemovido.class));
+    }
+
+    @Test
+    void testDeleteAllRecibos() {
         reciboService.deleteAllRecibos();
 
-        verify(reciboRepository, times(1)).deleteAll();
+        verify(limpezaRecibos, times(1)).limpar(LimpezaRecibos.Filtro.TODOS);
+        verify(reciboRepository, never()).deleteAll();
     }
 
     @Test
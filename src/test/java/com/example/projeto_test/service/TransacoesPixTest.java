@@ -0,0 +1,217 @@
+package com.example.projeto_test.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransacoesPixTest {
+
+    private RelogioAjustavel relogio;
+
+    private TransacoesPix transacoes;
+
+    @BeforeEach
+    void setUp() {
+        relogio = new RelogioAjustavel(Instant.parse("2025-01-01T12:00:00Z"));
+        transacoes = new TransacoesPix(Duration.ofMinutes(15), Duration.ofMinutes(2), 3, relogio);
+    }
+
+    @Test
+    void testCriarEConfirmar() {
+        TransacoesPix.Transacao criada = transacoes.criar(new BigDecimal("25.50"));
+        assertEquals(TransacoesPix.PENDENTE, criada.status());
+        assertEquals(new BigDecimal("25.50"), criada.valor());
+        assertNull(criada.liquidadaEm());
+
+        avancar(Duration.ofMinutes(1));
+        TransacoesPix.Transacao paga = transacoes.confirmar(criada.id()).orElseThrow();
+        assertEquals(TransacoesPix.APROVADA, paga.status());
+        assertEquals(criada.criadaEm(), paga.criadaEm());
+        assertEquals(criada.criadaEm().plus(Duration.ofMinutes(1)), paga.liquidadaEm());
+        assertEquals(paga, transacoes.buscar(criada.id()).orElseThrow());
+        assertTrue(transacoes.confirmar("nao-existe").isEmpty());
+    }
+
+    @Test
+    void testPendenteExpiraELiquidadaERemovida() {
+        TransacoesPix.Transacao pendente = transacoes.criar(BigDecimal.TEN);
+        TransacoesPix.Transacao paga = transacoes.criar(BigDecimal.ONE);
+        transacoes.confirmar(paga.id());
+
+        // Paga: some depois do prazo curto
+        avancar(Duration.ofMinutes(2));
+        assertTrue(transacoes.buscar(paga.id()).isEmpty());
+        assertTrue(transacoes.buscar(pendente.id()).orElseThrow().isPendente());
+
+        // Pendente: expira no prazo de pagamento, continua consultável e não pode mais ser paga
+        avancar(Duration.ofMinutes(13));
+        assertEquals(TransacoesPix.EXPIRADA, transacoes.buscar(pendente.id()).orElseThrow().status());
+        assertEquals(TransacoesPix.EXPIRADA, transacoes.confirmar(pendente.id()).orElseThrow().status());
+
+        avancar(Duration.ofMinutes(2));
+        assertTrue(transacoes.buscar(pendente.id()).isEmpty());
+
+        TransacoesPix.Metricas metricas = transacoes.getMetricas();
+        assertEquals(0, metricas.guardadas());
+        assertEquals(2, metricas.criadas());
+        assertEquals(1, metricas.aprovadas());
+        assertEquals(1, metricas.expiradas());
+        assertEquals(2, metricas.removidas());
+        assertEquals(0, metricas.despejadas());
+    }
+
+    @Test
+    void testCapacidadeDespejaLiquidadasAntesDasPendentes() {
+        TransacoesPix.Transacao primeira = transacoes.criar(BigDecimal.ONE);
+        TransacoesPix.Transacao segunda = transacoes.criar(BigDecimal.ONE);
+        TransacoesPix.Transacao terceira = transacoes.criar(BigDecimal.ONE);
+        transacoes.confirmar(segunda.id());
+
+        transacoes.criar(BigDecimal.ONE);
+        assertTrue(transacoes.buscar(segunda.id()).isEmpty());
+        assertTrue(transacoes.buscar(primeira.id()).isPresent());
+
+        transacoes.criar(BigDecimal.ONE);
+        assertTrue(transacoes.buscar(primeira.id()).isEmpty());
+        assertTrue(transacoes.buscar(terceira.id()).isPresent());
+
+        TransacoesPix.Metricas metricas = transacoes.getMetricas();
+        assertEquals(3, metricas.guardadas());
+        assertEquals(2, metricas.despejadas());
+        assertEquals(1, metricas.despejadasPendentes());
+    }
+
+    @Test
+    void testEsperaLiberadaNaAprovacaoExpiracaoEDespejo() {
+        TransacoesPix.Transacao paga = transacoes.criar(BigDecimal.ONE);
+        TransacoesPix.Transacao expira = transacoes.criar(BigDecimal.ONE);
+        List<Optional<TransacoesPix.Transacao>> recebidos = new ArrayList<>();
+        transacoes.aguardar(paga.id(), recebidos::add);
+        transacoes.aguardar(paga.id(), recebidos::add);
+        transacoes.aguardar(expira.id(), recebidos::add);
+        assertEquals(3, transacoes.getAguardando());
+
+        transacoes.confirmar(paga.id());
+        assertEquals(2, recebidos.size());
+        assertEquals(TransacoesPix.APROVADA, recebidos.get(1).orElseThrow().status());
+
+        avancar(Duration.ofMinutes(15));
+        assertEquals(TransacoesPix.EXPIRADA, recebidos.get(2).orElseThrow().status());
+        assertEquals(0, transacoes.getAguardando());
+
+        // Já liquidada ou inexistente: responde na hora
+        transacoes.aguardar(expira.id(), recebidos::add);
+        transacoes.aguardar("nao-existe", recebidos::add);
+        assertEquals(TransacoesPix.EXPIRADA, recebidos.get(3).orElseThrow().status());
+        assertTrue(recebidos.get(4).isEmpty());
+
+        // Despejada por falta de espaço: avisada com vazio
+        avancar(Duration.ofMinutes(2));
+        TransacoesPix.Transacao despejada = transacoes.criar(BigDecimal.ONE);
+        transacoes.aguardar(despejada.id(), recebidos::add);
+        transacoes.criar(BigDecimal.ONE);
+        transacoes.criar(BigDecimal.ONE);
+        transacoes.criar(BigDecimal.ONE);
+        assertTrue(recebidos.get(5).isEmpty());
+        assertEquals(0, transacoes.getAguardando());
+    }
+
+    @Test
+    void testDesistirDaEspera() {
+        TransacoesPix.Transacao transacao = transacoes.criar(BigDecimal.ONE);
+        Runnable desistir = transacoes.aguardar(transacao.id(), t -> fail("Não deveria ser avisado"));
+        desistir.run();
+        assertEquals(0, transacoes.getAguardando());
+
+        transacoes.confirmar(transacao.id());
+    }
+
+    @Test
+    void testMemoriaEstavelComMuitasTransacoes() {
+        transacoes = new TransacoesPix(Duration.ofMinutes(15), Duration.ofMinutes(2), 100_000, relogio);
+        // Uma semana com uma transação a cada 5 segundos, metade paga
+        for (int i = 0; i < 7 * 24 * 720; i++) {
+            TransacoesPix.Transacao transacao = transacoes.criar(BigDecimal.ONE);
+            if (i % 2 == 0) {
+                transacoes.confirmar(transacao.id());
+            }
+            avancar(Duration.ofSeconds(5));
+        }
+        TransacoesPix.Metricas metricas = transacoes.getMetricas();
+        // Só ficam as transações ainda dentro do prazo (~15 minutos de pendentes)
+        assertTrue(metricas.guardadas() <= 15 * 12 + 2 * 12 + 2, "guardadas: " + metricas.guardadas());
+        assertEquals(0, metricas.despejadas());
+        assertEquals(metricas.criadas() - metricas.guardadas(), metricas.removidas());
+    }
+
+    @Test
+    void testRodaVenceCadaPrazoNoTickCerto() {
+        Random random = new Random(42);
+        RodaTemporizacao<Integer> roda = new RodaTemporizacao<>(1_000);
+        List<RodaTemporizacao.Agendamento<Integer>> agendamentos = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // Prazos de todos os níveis, inclusive além do alcance das rodas
+            agendamentos.add(roda.agendar(i, 1_000 + (long) Math.pow(2, random.nextDouble() * 26)));
+        }
+        agendamentos.get(0).cancelar();
+
+        Set<Integer> vencidos = new HashSet<>();
+        long anterior = 999;
+        while (vencidos.size() < agendamentos.size() - 1) {
+            long ate = anterior + 1 + random.nextInt(5_000);
+            long desde = anterior;
+            roda.avancar(ate, item -> {
+                long tick = agendamentos.get(item).getTick();
+                assertTrue(tick > desde && tick <= ate, "venceu fora do tick: " + tick);
+                assertTrue(vencidos.add(item), "venceu duas vezes: " + item);
+            });
+            anterior = ate;
+        }
+        assertFalse(vencidos.contains(0));
+        assertEquals(0, roda.getAgendados());
+    }
+
+    private void avancar(Duration tempo) {
+        relogio.agora = relogio.agora.plus(tempo);
+        transacoes.expirarVencidas();
+    }
+
+    /** Relógio que só anda quando o teste manda */
+    private static final class RelogioAjustavel extends Clock {
+
+        private volatile Instant agora;
+
+        private RelogioAjustavel(Instant agora) {
+            this.agora = agora;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return agora;
+        }
+    }
+}